@@ -90,6 +90,11 @@ public class KeycloakLoggedInUser implements LoggedInUser {
         return tokenString;
     }
 
+    @Override
+    public String getSubject() {
+        return auth.getSubject();
+    }
+
     @Override
     public String toString() {
         return "KeycloakLoggedInUser [auth=" + auth + ", getEmail()=" + getEmail() + ", getUserName()=" + getUserName()
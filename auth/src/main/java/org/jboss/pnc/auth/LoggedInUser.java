@@ -36,4 +36,11 @@ public interface LoggedInUser {
     boolean isUserInRole(String role);
 
     String getTokenString();
+
+    /**
+     * @return identifier of the user in the authentication provider, the username by default.
+     */
+    default String getSubject() {
+        return getUserName();
+    }
 }
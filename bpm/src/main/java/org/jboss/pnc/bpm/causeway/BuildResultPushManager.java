@@ -17,6 +17,8 @@
  */
 package org.jboss.pnc.bpm.causeway;
 
+import com.codahale.metrics.MetricRegistry;
+import lombok.AllArgsConstructor;
 import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
 import org.jboss.pnc.bpm.InvalidReferenceException;
 import org.jboss.pnc.bpm.MissingInternalReferenceException;
@@ -39,21 +41,29 @@ import org.jboss.pnc.dto.BuildPushResult;
 import org.jboss.pnc.enums.BuildPushStatus;
 import org.jboss.pnc.enums.BuildType;
 import org.jboss.pnc.mapper.api.BuildPushResultMapper;
-import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildConfigurationAudited;
 import org.jboss.pnc.model.BuildEnvironment;
 import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.model.BuildRecordPushResult;
-import org.jboss.pnc.spi.datastore.predicates.ArtifactPredicates;
+import org.jboss.pnc.model.IdRev;
+import org.jboss.pnc.pncmetrics.MetricsConfiguration;
+import org.jboss.pnc.spi.datastore.projections.ArtifactInfo;
 import org.jboss.pnc.spi.datastore.repositories.ArtifactRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationAuditedRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildRecordPushResultRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
+import javax.annotation.PostConstruct;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
 import javax.enterprise.event.Event;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -61,6 +71,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -78,6 +89,20 @@ public class BuildResultPushManager {
     private static final String PNC_BUILD_LOG_PATH = "/pnc-rest/v2/builds/%d/logs/build";
     private static final String PNC_REPOUR_LOG_PATH = "/pnc-rest/v2/builds/%d/logs/align";
 
+    /**
+     * Maximum number of builds whose data are loaded together and whose import requests are sent by one task.
+     */
+    public static final int PUSH_CHUNK_SIZE = 5;
+
+    private static final String METRICS_KEY = "causeway-push";
+    private static final String METRICS_LOAD_KEY = METRICS_KEY + ".load";
+    private static final String METRICS_PREPARE_KEY = METRICS_KEY + ".prepare";
+    private static final String METRICS_IMPORT_KEY = METRICS_KEY + ".import";
+    private static final String METRICS_COMPLETE_KEY = METRICS_KEY + ".complete";
+    private static final String METRICS_ACCEPTED_KEY = METRICS_KEY + ".accepted";
+    private static final String METRICS_REJECTED_KEY = METRICS_KEY + ".rejected";
+    private static final String METRICS_FAILED_KEY = METRICS_KEY + ".failed";
+
     private BuildConfigurationAuditedRepository buildConfigurationAuditedRepository;
     private BuildRecordPushResultRepository buildRecordPushResultRepository;
     private ArtifactRepository artifactRepository;
@@ -87,8 +112,15 @@ public class BuildResultPushManager {
 
     private CausewayClient causewayClient;
 
+    private CausewayPushExecutor pushExecutor;
+
     private Event<BuildPushResult> buildPushResultEvent;
 
+    @Inject
+    Instance<MetricsConfiguration> metricsConfiguration;
+
+    private Optional<MetricRegistry> metricRegistry = Optional.empty();
+
     private Logger logger = LoggerFactory.getLogger(BuildResultPushManager.class);
 
     @Deprecated // required by EJB
@@ -103,7 +135,8 @@ public class BuildResultPushManager {
             InProgress inProgress,
             Event<BuildPushResult> buildPushResultEvent,
             ArtifactRepository artifactRepository,
-            CausewayClient causewayClient) {
+            CausewayClient causewayClient,
+            CausewayPushExecutor pushExecutor) {
         this.buildConfigurationAuditedRepository = buildConfigurationAuditedRepository;
         this.buildRecordPushResultRepository = buildRecordPushResultRepository;
         this.mapper = mapper;
@@ -111,26 +144,134 @@ public class BuildResultPushManager {
         this.buildPushResultEvent = buildPushResultEvent;
         this.artifactRepository = artifactRepository;
         this.causewayClient = causewayClient;
+        this.pushExecutor = pushExecutor;
+    }
+
+    @PostConstruct
+    public void initMetrics() {
+        if (metricsConfiguration != null && !metricsConfiguration.isUnsatisfied()
+                && !metricsConfiguration.isAmbiguous()) {
+            metricRegistry = Optional.of(metricsConfiguration.get().getMetricRegistry());
+        }
     }
 
+    /**
+     * Pushes the build to Causeway and waits until Causeway accepts the import request.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public Result push(BuildPushOperation buildPushOperation, String authToken) {
-        logger.info("Pushing to causeway {}", buildPushOperation.toString());
-        boolean added = inProgress.add(
-                buildPushOperation.getBuildRecord().getId(),
-                buildPushOperation.getTagPrefix(),
-                buildPushOperation.getPushResultId().toString());
-        if (!added) {
+        Optional<Result> rejected = start(buildPushOperation);
+        if (rejected.isPresent()) {
+            return rejected.get();
+        }
+        return pushChunk(Collections.singletonList(buildPushOperation), authToken).get(0);
+    }
+
+    /**
+     * Pushes the builds to Causeway. The builds are split into chunks of {@link #PUSH_CHUNK_SIZE}, the data of a chunk
+     * are loaded and its import requests are sent by a task of the {@link CausewayPushExecutor}, which limits how many
+     * chunks run in parallel. Returns once the tasks are submitted; a push failing later is stored as a
+     * {@link BuildPushStatus#SYSTEM_ERROR} push result and reported by a {@link BuildPushResult} event.
+     *
+     * @return results of the operations, in the same order as the operations
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public List<Result> push(List<BuildPushOperation> buildPushOperations, String authToken) {
+        Result[] results = new Result[buildPushOperations.size()];
+        List<Integer> started = new ArrayList<>();
+        for (int i = 0; i < buildPushOperations.size(); i++) {
+            Optional<Result> rejected = start(buildPushOperations.get(i));
+            if (rejected.isPresent()) {
+                results[i] = rejected.get();
+            } else {
+                started.add(i);
+            }
+        }
+
+        for (int from = 0; from < started.size(); from += PUSH_CHUNK_SIZE) {
+            List<Integer> chunk = started.subList(from, Math.min(from + PUSH_CHUNK_SIZE, started.size()));
+            List<BuildPushOperation> operations = chunk.stream()
+                    .map(buildPushOperations::get)
+                    .collect(Collectors.toList());
+            try {
+                pushExecutor.submit(() -> pushInBackground(operations, authToken));
+                for (Integer i : chunk) {
+                    results[i] = result(buildPushOperations.get(i), BuildPushStatus.ACCEPTED, "");
+                }
+            } catch (RuntimeException ex) {
+                for (Integer i : chunk) {
+                    results[i] = failed(buildPushOperations.get(i), ex);
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Registers the push as in progress.
+     *
+     * @return rejected result if a push of the same build is already running
+     */
+    private Optional<Result> start(BuildPushOperation buildPushOperation) {
+        Map<String, String> previousContext = addPushContext(buildPushOperation);
+        try {
+            logger.info("Pushing to causeway {}", buildPushOperation.toString());
+            boolean added = inProgress.add(
+                    buildPushOperation.getBuildRecord().getId(),
+                    buildPushOperation.getTagPrefix(),
+                    buildPushOperation.getPushResultId().toString());
+            if (added) {
+                return Optional.empty();
+            }
             logger.warn("Push for build.id {} already running.", buildPushOperation.getBuildRecord().getId());
-            return new Result(
-                    buildPushOperation.getPushResultId().toString(),
-                    buildPushOperation.getBuildRecord().getId().toString(),
-                    BuildPushStatus.REJECTED,
-                    "A push for this buildRecord is already running.");
+            metricRegistry.ifPresent(r -> r.meter(METRICS_REJECTED_KEY).mark());
+            return Optional.of(
+                    result(
+                            buildPushOperation,
+                            BuildPushStatus.REJECTED,
+                            "A push for this buildRecord is already running."));
+        } finally {
+            restoreContext(previousContext);
+        }
+    }
+
+    private Void pushInBackground(List<BuildPushOperation> buildPushOperations, String authToken) {
+        List<Result> results = pushChunk(buildPushOperations, authToken);
+        for (int i = 0; i < results.size(); i++) {
+            if (!BuildPushStatus.ACCEPTED.equals(results.get(i).getStatus())) {
+                storeFailure(buildPushOperations.get(i), results.get(i));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads the data of the builds using a single set of queries and sends their import requests one by one.
+     */
+    private List<Result> pushChunk(List<BuildPushOperation> buildPushOperations, String authToken) {
+        PushData pushData;
+        long start = System.nanoTime();
+        try {
+            pushData = loadPushData(buildPushOperations);
+        } catch (RuntimeException ex) {
+            // loading of the data failed, none of the pushes can continue
+            return buildPushOperations.stream()
+                    .map(buildPushOperation -> failed(buildPushOperation, ex))
+                    .collect(Collectors.toList());
+        } finally {
+            recordStage(METRICS_LOAD_KEY, start);
+        }
+        List<Result> results = new ArrayList<>(buildPushOperations.size());
+        for (BuildPushOperation buildPushOperation : buildPushOperations) {
+            results.add(importBuild(buildPushOperation, pushData, authToken));
         }
+        return results;
+    }
 
-        BuildPushStatus pushStatus;
-        String message;
+    private Result importBuild(BuildPushOperation buildPushOperation, PushData pushData, String authToken) {
+        Map<String, String> previousContext = addPushContext(buildPushOperation);
         try {
+            long start = System.nanoTime();
             BuildImportRequest buildImportRequest = createCausewayPushRequest(
                     buildPushOperation.getBuildRecord(),
                     buildPushOperation.getTagPrefix(),
@@ -139,38 +280,135 @@ public class BuildResultPushManager {
                             buildPushOperation.getBuildRecord().getId()),
                     authToken,
                     buildPushOperation.getPushResultId(),
-                    buildPushOperation.isReImport());
+                    buildPushOperation.isReImport(),
+                    pushData);
+            recordStage(METRICS_PREPARE_KEY, start);
+
+            start = System.nanoTime();
             boolean successfullyStarted = causewayClient.importBuild(buildImportRequest, authToken);
-            if (successfullyStarted) {
-                pushStatus = BuildPushStatus.ACCEPTED;
-                message = "";
-            } else {
-                pushStatus = BuildPushStatus.SYSTEM_ERROR;
-                message = "Failed to push to Causeway.";
+            recordStage(METRICS_IMPORT_KEY, start);
+            if (!successfullyStarted) {
+                inProgress.remove(buildPushOperation.getBuildRecord().getId());
+                metricRegistry.ifPresent(r -> r.meter(METRICS_FAILED_KEY).mark());
+                return result(buildPushOperation, BuildPushStatus.SYSTEM_ERROR, "Failed to push to Causeway.");
+            }
+            InProgress.Context pushContext = inProgress.get(buildPushOperation.getBuildRecord().getId());
+            if (pushContext != null) {
+                pushContext.accepted();
+                logger.debug(
+                        "Import of build.id {} accepted by Causeway after {} ms.",
+                        pushContext.getId(),
+                        pushContext.getElapsedTime());
             }
+            metricRegistry.ifPresent(r -> r.meter(METRICS_ACCEPTED_KEY).mark());
+            return result(buildPushOperation, BuildPushStatus.ACCEPTED, "");
         } catch (RuntimeException ex) {
-            logger.error("Failed to push to Causeway.", ex);
-            pushStatus = BuildPushStatus.SYSTEM_ERROR;
-            message = "Failed to push to Causeway: " + ex.getMessage();
+            return failed(buildPushOperation, ex);
+        } finally {
+            restoreContext(previousContext);
+        }
+    }
+
+    /**
+     * Stores the result of a push which failed after it was reported as accepted and notifies the clients about it.
+     */
+    private void storeFailure(BuildPushOperation buildPushOperation, Result result) {
+        Map<String, String> previousContext = addPushContext(buildPushOperation);
+        try {
+            BuildRecordPushResult buildRecordPushResult = BuildRecordPushResult.newBuilder()
+                    .id(buildPushOperation.getPushResultId())
+                    .buildRecord(buildPushOperation.getBuildRecord())
+                    .status(result.getStatus())
+                    .log(result.getMessage())
+                    .tagPrefix(buildPushOperation.getTagPrefix())
+                    .build();
+            buildRecordPushResultRepository.save(buildRecordPushResult);
+            buildPushResultEvent.fire(
+                    BuildPushResult.builder()
+                            .id(result.getId())
+                            .buildId(result.getBuildId())
+                            .status(result.getStatus())
+                            .logContext(result.getId())
+                            .message(result.getMessage())
+                            .build());
+        } catch (RuntimeException ex) {
+            logger.error("Cannot store the result of the failed push.", ex);
+        } finally {
+            restoreContext(previousContext);
         }
+    }
+
+    private void recordStage(String stage, long startNanos) {
+        metricRegistry
+                .ifPresent(r -> r.timer(stage).update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+    }
 
-        if (!BuildPushStatus.ACCEPTED.equals(pushStatus)) {
+    private Result failed(BuildPushOperation buildPushOperation, Throwable ex) {
+        Map<String, String> previousContext = addPushContext(buildPushOperation);
+        try {
+            logger.error("Failed to push to Causeway.", ex);
             inProgress.remove(buildPushOperation.getBuildRecord().getId());
+            metricRegistry.ifPresent(r -> r.meter(METRICS_FAILED_KEY).mark());
+            return result(
+                    buildPushOperation,
+                    BuildPushStatus.SYSTEM_ERROR,
+                    "Failed to push to Causeway: " + ex.getMessage());
+        } finally {
+            restoreContext(previousContext);
         }
+    }
+
+    private static Result result(BuildPushOperation buildPushOperation, BuildPushStatus status, String message) {
         return new Result(
                 buildPushOperation.getPushResultId().toString(),
                 buildPushOperation.getBuildRecord().getId().toString(),
-                pushStatus,
+                status,
                 message);
     }
 
+    /**
+     * Sets the logging context of the push, the process context is kept if the caller has already set it.
+     *
+     * @return the logging context before the change
+     */
+    private static Map<String, String> addPushContext(BuildPushOperation buildPushOperation) {
+        Map<String, String> previousContext = MDC.getCopyOfContextMap();
+        if (!MDCUtils.getProcessContext().isPresent()) {
+            MDCUtils.addProcessContext(buildPushOperation.getPushResultId().toString());
+        }
+        MDCUtils.addCustomContext(MDCKeys.BUILD_ID_KEY, buildPushOperation.getBuildRecord().getId().toString());
+        return previousContext;
+    }
+
+    private static void restoreContext(Map<String, String> previousContext) {
+        if (previousContext == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(previousContext);
+        }
+    }
+
+    private PushData loadPushData(List<BuildPushOperation> buildPushOperations) {
+        Set<Integer> buildRecordIds = new HashSet<>();
+        Set<IdRev> idRevs = new HashSet<>();
+        for (BuildPushOperation buildPushOperation : buildPushOperations) {
+            buildRecordIds.add(buildPushOperation.getBuildRecord().getId());
+            idRevs.add(buildPushOperation.getBuildRecord().getBuildConfigurationAuditedIdRev());
+        }
+        return new PushData(
+                artifactRepository.findBuiltArtifactInfos(buildRecordIds),
+                artifactRepository.findDependencyInfos(buildRecordIds),
+                buildConfigurationAuditedRepository.queryById(idRevs));
+    }
+
     private BuildImportRequest createCausewayPushRequest(
             BuildRecord buildRecord,
             String tagPrefix,
             String callBackUrl,
             String authToken,
             Long pushResultId,
-            boolean reimport) {
+            boolean reimport,
+            PushData pushData) {
         BuildEnvironment buildEnvironment = buildRecord.getBuildConfigurationAudited().getBuildEnvironment();
         logger.debug("BuildRecord: {}", buildRecord.getId());
         logger.debug("BuildEnvironment: {}", buildEnvironment);
@@ -182,20 +420,20 @@ public class BuildResultPushManager {
                 "x86_64",
                 buildEnvironment.getAttributes());
 
-        List<Artifact> builtArtifactEntities = artifactRepository
-                .queryWithPredicates(ArtifactPredicates.withBuildRecordId(buildRecord.getId()));
-        List<Artifact> dependencyEntities = artifactRepository
-                .queryWithPredicates(ArtifactPredicates.withDependantBuildRecordId(buildRecord.getId()));
+        List<ArtifactInfo> builtArtifactInfos = pushData.builtArtifacts
+                .getOrDefault(buildRecord.getId(), Collections.emptyList());
+        List<ArtifactInfo> dependencyInfos = pushData.dependencies
+                .getOrDefault(buildRecord.getId(), Collections.emptyList());
 
         logger.debug(
                 "Preparing BuildImportRequest containing {} built artifacts and {} dependencies.",
-                builtArtifactEntities.size(),
-                dependencyEntities.size());
+                builtArtifactInfos.size(),
+                dependencyInfos.size());
 
         BuildType buildType = buildRecord.getBuildConfigurationAudited().getBuildType();
 
-        Set<Dependency> dependencies = collectDependencies(dependencyEntities);
-        Set<BuiltArtifact> builtArtifacts = collectBuiltArtifacts(builtArtifactEntities, buildType);
+        Set<Dependency> dependencies = collectDependencies(dependencyInfos);
+        Set<BuiltArtifact> builtArtifacts = collectBuiltArtifacts(builtArtifactInfos, buildType);
 
         Map<String, String> callbackHeaders = Collections.singletonMap(
                 MDCUtils.getMDCToHeaderMappings().get(MDCKeys.PROCESS_CONTEXT_KEY),
@@ -204,8 +442,12 @@ public class BuildResultPushManager {
 
         String executionRootName = null;
         // prefer execution root name from generic parameters
-        BuildConfigurationAudited buildConfigurationAudited = buildConfigurationAuditedRepository
-                .queryById(buildRecord.getBuildConfigurationAuditedIdRev());
+        BuildConfigurationAudited buildConfigurationAudited = pushData.buildConfigurations
+                .get(buildRecord.getBuildConfigurationAuditedIdRev());
+        if (buildConfigurationAudited == null) {
+            buildConfigurationAudited = buildConfigurationAuditedRepository
+                    .queryById(buildRecord.getBuildConfigurationAuditedIdRev());
+        }
         Map<String, String> genericParameters = buildConfigurationAudited.getGenericParameters();
         if (genericParameters.containsKey(BREW_BUILD_NAME)) {
             executionRootName = genericParameters.get(BREW_BUILD_NAME);
@@ -223,6 +465,10 @@ public class BuildResultPushManager {
                 executionRootName,
                 buildType);
 
+        InProgress.Context pushContext = inProgress.get(buildRecord.getId());
+        if (pushContext != null) {
+            pushContext.prepared(builtArtifacts.size(), dependencies.size());
+        }
         return new BuildImportRequest(callbackTarget, build, reimport);
     }
 
@@ -361,7 +607,7 @@ public class BuildResultPushManager {
         return new Gav(splittedName[0], splittedName[1], executionRootVersion);
     }
 
-    private Set<BuiltArtifact> collectBuiltArtifacts(Collection<Artifact> builtArtifacts, BuildType buildType) {
+    private Set<BuiltArtifact> collectBuiltArtifacts(Collection<ArtifactInfo> builtArtifacts, BuildType buildType) {
         switch (buildType) {
             case MVN:
             case GRADLE:
@@ -373,7 +619,7 @@ public class BuildResultPushManager {
         }
     }
 
-    private Set<BuiltArtifact> getNpmArtifacts(Collection<Artifact> builtArtifacts) {
+    private Set<BuiltArtifact> getNpmArtifacts(Collection<ArtifactInfo> builtArtifacts) {
         return builtArtifacts.stream().map(artifact -> {
             NpmPackageRef nv = NpmPackageRef.parse(artifact.getIdentifier());
             return new NpmBuiltArtifact(
@@ -381,15 +627,15 @@ public class BuildResultPushManager {
                     nv.getVersionString(),
                     artifact.getId(),
                     artifact.getFilename(),
-                    artifact.getTargetRepository().getRepositoryType().toString(),
+                    artifact.getRepositoryType().toString(),
                     artifact.getMd5(),
                     artifact.getDeployPath(),
-                    artifact.getTargetRepository().getRepositoryPath(),
+                    artifact.getRepositoryPath(),
                     artifact.getSize().intValue());
         }).collect(Collectors.toSet());
     }
 
-    private Set<BuiltArtifact> getMavenArtifacts(Collection<Artifact> builtArtifacts) {
+    private Set<BuiltArtifact> getMavenArtifacts(Collection<ArtifactInfo> builtArtifacts) {
         return builtArtifacts.stream().map(artifact -> {
             Gav gav = Gav.parse(artifact.getIdentifier());
             return new MavenBuiltArtifact(
@@ -398,15 +644,15 @@ public class BuildResultPushManager {
                     gav.getVersion(),
                     artifact.getId(),
                     artifact.getFilename(),
-                    artifact.getTargetRepository().getRepositoryType().toString(),
+                    artifact.getRepositoryType().toString(),
                     artifact.getMd5(),
                     artifact.getDeployPath(),
-                    artifact.getTargetRepository().getRepositoryPath(),
+                    artifact.getRepositoryPath(),
                     artifact.getSize().intValue());
         }).collect(Collectors.toSet());
     }
 
-    private Set<Dependency> collectDependencies(Collection<Artifact> dependencies) {
+    private Set<Dependency> collectDependencies(Collection<ArtifactInfo> dependencies) {
         return dependencies.stream()
                 .map(artifact -> new Dependency(artifact.getFilename(), artifact.getMd5(), artifact.getSize()))
                 .collect(Collectors.toSet());
@@ -429,6 +675,17 @@ public class BuildResultPushManager {
         if (pushContext == null) {
             throw new MissingInternalReferenceException("Referenced element has gone.");
         }
+        long elapsedTime = pushContext.getElapsedTime();
+        metricRegistry.ifPresent(r -> r.timer(METRICS_COMPLETE_KEY).update(elapsedTime, TimeUnit.MILLISECONDS));
+        logger.info(
+                "Push of build.id {} completed in {} ms (prepare {} ms, import request {} ms, {} built artifacts, "
+                        + "{} dependencies).",
+                buildRecordId,
+                pushContext.getElapsedTime(),
+                pushContext.getPrepareTime(),
+                pushContext.getSendTime(),
+                pushContext.getBuiltArtifacts(),
+                pushContext.getDependencies());
         buildRecordPushResult.setId(expectedPushResultId);
         buildRecordPushResult.setTagPrefix(pushContext.getTagPrefix());
         BuildRecordPushResult saved = buildRecordPushResultRepository.save(buildRecordPushResult);
@@ -447,6 +704,16 @@ public class BuildResultPushManager {
     }
 
     public Optional<InProgress.Context> getContext(int buildId) {
-        return inProgress.getAll().stream().filter(c -> c.getId().equals(buildId)).findAny();
+        return Optional.ofNullable(inProgress.get(buildId));
+    }
+
+    /**
+     * Data of the pushed builds loaded in bulk, keyed by build id and BuildConfigurationAudited idRev.
+     */
+    @AllArgsConstructor
+    private static class PushData {
+        private final Map<Integer, List<ArtifactInfo>> builtArtifacts;
+        private final Map<Integer, List<ArtifactInfo>> dependencies;
+        private final Map<IdRev, BuildConfigurationAudited> buildConfigurations;
     }
 }
@@ -0,0 +1,73 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.bpm.causeway;
+
+import org.jboss.pnc.common.concurrent.MDCExecutors;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread pool sending the import requests to Causeway. It bounds the number of imports a single push of many builds
+ * runs in parallel, the pushes over the limit wait in the queue.
+ */
+@ApplicationScoped
+public class CausewayPushExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CausewayPushExecutor.class);
+
+    /**
+     * Maximum number of import requests sent to Causeway in parallel.
+     */
+    public static final int DEFAULT_CONCURRENT_PUSHES = 8;
+
+    private final ExecutorService executor;
+
+    public CausewayPushExecutor() {
+        this(DEFAULT_CONCURRENT_PUSHES);
+    }
+
+    public CausewayPushExecutor(int concurrentPushes) {
+        executor = MDCExecutors.newFixedThreadPool(concurrentPushes, new NamedThreadFactory("causeway-push"));
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        logger.info("Shutting down Causeway push executor.");
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -17,22 +17,22 @@
  */
 package org.jboss.pnc.bpm.causeway;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import javax.enterprise.context.ApplicationScoped;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
+ * Registry of the pushes to Causeway which were started and have not been completed yet, indexed by build id.
+ *
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
  */
 @ApplicationScoped
 public class InProgress {
-    private Map<Integer, Context> inProgress = new ConcurrentHashMap<>();
+    private final Map<Integer, Context> inProgress = new ConcurrentHashMap<>();
 
     public boolean add(Integer id, String tagPrefix, String pushResultId) {
         return inProgress.putIfAbsent(id, new Context(id, tagPrefix, pushResultId)) == null;
@@ -42,19 +42,82 @@ public class InProgress {
         return inProgress.remove(id);
     }
 
-    public Set<Context> getAll() {
-        return Collections.unmodifiableSet(inProgress.values().stream().collect(Collectors.toSet()));
+    public Collection<Context> getAll() {
+        return Collections.unmodifiableCollection(inProgress.values());
     }
 
     public Context get(Integer id) {
         return inProgress.get(id);
     }
 
+    /**
+     * State of a single push. Besides the identification of the push it records when the push reached each stage,
+     * which is used to report how long the push took.
+     */
     @Getter
-    @AllArgsConstructor
-    public class Context {
-        Integer id;
-        String tagPrefix;
-        String pushResultId;
+    public static class Context {
+        private final Integer id;
+        private final String tagPrefix;
+        private final String pushResultId;
+
+        private final long startedAt = System.currentTimeMillis();
+
+        private volatile Stage stage = Stage.PREPARING;
+
+        private volatile long preparedAt;
+
+        private volatile long acceptedAt;
+
+        private volatile int builtArtifacts;
+
+        private volatile int dependencies;
+
+        Context(Integer id, String tagPrefix, String pushResultId) {
+            this.id = id;
+            this.tagPrefix = tagPrefix;
+            this.pushResultId = pushResultId;
+        }
+
+        void prepared(int builtArtifacts, int dependencies) {
+            this.builtArtifacts = builtArtifacts;
+            this.dependencies = dependencies;
+            this.preparedAt = System.currentTimeMillis();
+            this.stage = Stage.SENDING;
+        }
+
+        void accepted() {
+            this.acceptedAt = System.currentTimeMillis();
+            this.stage = Stage.ACCEPTED;
+        }
+
+        /**
+         * @return milliseconds spent loading the data and creating the import request
+         */
+        public long getPrepareTime() {
+            return preparedAt == 0 ? 0 : preparedAt - startedAt;
+        }
+
+        /**
+         * @return milliseconds spent waiting for Causeway to accept the import request
+         */
+        public long getSendTime() {
+            return acceptedAt == 0 ? 0 : acceptedAt - preparedAt;
+        }
+
+        /**
+         * @return milliseconds since the push was started
+         */
+        public long getElapsedTime() {
+            return System.currentTimeMillis() - startedAt;
+        }
+    }
+
+    public enum Stage {
+        /** Loading the build data and creating the import request. */
+        PREPARING,
+        /** Sending the import request to Causeway. */
+        SENDING,
+        /** Causeway accepted the import and the push waits for the completion callback. */
+        ACCEPTED
     }
 }
@@ -19,6 +19,7 @@ package org.jboss.pnc.bpm.test;
 
 import org.jboss.pnc.bpm.causeway.BuildPushOperation;
 import org.jboss.pnc.bpm.causeway.BuildResultPushManager;
+import org.jboss.pnc.bpm.causeway.CausewayPushExecutor;
 import org.jboss.pnc.bpm.causeway.InProgress;
 import org.jboss.pnc.bpm.causeway.Result;
 import org.jboss.pnc.causewayclient.CausewayClient;
@@ -43,10 +44,18 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import javax.enterprise.event.Event;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -55,6 +64,8 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class BuildResultPushManagerTest {
 
+    private static final int TIMEOUT = 5000;
+
     private static final String BREW_URL_PATTERN = "http://brew.example.com/build/%d/";
 
     @Mock
@@ -100,7 +111,8 @@ public class BuildResultPushManagerTest {
                 new InProgress(),
                 buildRecordPushResultRestEvent,
                 artifactRepository,
-                causewayClient);
+                causewayClient,
+                new CausewayPushExecutor(2));
     }
 
     @Test
@@ -143,14 +155,77 @@ public class BuildResultPushManagerTest {
         assertThat(result).extracting(Result::getStatus).isEqualTo(BuildPushStatus.REJECTED);
     }
 
+    @Test
+    public void shouldPushMultipleBuildsInParallel() {
+        // given
+        BuildRecord running = buildRecord(true);
+        release(running);
+        BuildRecord first = buildRecord(true);
+        BuildRecord second = buildRecord(true);
+        BuildRecord withoutRootName = buildRecord(false);
+
+        // when
+        List<Result> results = releaseManager.push(
+                Arrays.asList(
+                        pushOperation(first),
+                        pushOperation(running),
+                        pushOperation(second),
+                        pushOperation(withoutRootName)),
+                "abc");
+
+        // then
+        assertThat(results).extracting(Result::getBuildId)
+                .containsExactly(
+                        first.getId().toString(),
+                        running.getId().toString(),
+                        second.getId().toString(),
+                        withoutRootName.getId().toString());
+        // the failure of the build without the execution root name is reported once the import is attempted
+        assertThat(results).extracting(Result::getStatus)
+                .containsExactly(
+                        BuildPushStatus.ACCEPTED,
+                        BuildPushStatus.REJECTED,
+                        BuildPushStatus.ACCEPTED,
+                        BuildPushStatus.ACCEPTED);
+        verify(buildRecordPushResultRestEvent, timeout(TIMEOUT)).fire(
+                argThat(
+                        pushResult -> pushResult.getStatus() == BuildPushStatus.SYSTEM_ERROR
+                                && pushResult.getBuildId().equals(withoutRootName.getId().toString())));
+        // artifacts of the single push and of the batch
+        verify(artifactRepository, timeout(TIMEOUT).times(2)).findBuiltArtifactInfos(anyCollection());
+        verify(artifactRepository, timeout(TIMEOUT).times(2)).findDependencyInfos(anyCollection());
+        verify(causewayClient, timeout(TIMEOUT).times(3)).importBuild(any(), any());
+    }
+
+    @Test
+    public void shouldLoadDataOfEachChunkTogether() {
+        // given
+        List<BuildPushOperation> operations = new ArrayList<>();
+        for (int i = 0; i <= BuildResultPushManager.PUSH_CHUNK_SIZE; i++) {
+            operations.add(pushOperation(buildRecord(true)));
+        }
+
+        // when
+        List<Result> results = releaseManager.push(operations, "abc");
+
+        // then
+        assertThat(results).extracting(Result::getStatus).containsOnly(BuildPushStatus.ACCEPTED);
+        verify(causewayClient, timeout(TIMEOUT).times(operations.size())).importBuild(any(), any());
+        verify(artifactRepository, times(2)).findBuiltArtifactInfos(anyCollection());
+        verify(artifactRepository, times(2)).findDependencyInfos(anyCollection());
+    }
+
     private Result release(BuildRecord buildRecord) {
-        BuildPushOperation buildPushOperation = new BuildPushOperation(
+        return releaseManager.push(pushOperation(buildRecord), "abc");
+    }
+
+    private BuildPushOperation pushOperation(BuildRecord buildRecord) {
+        return new BuildPushOperation(
                 buildRecord,
                 Sequence.nextId(),
                 "tag",
                 false,
                 "https://foo.bar/build-record-push/%s/complete/");
-        return releaseManager.push(buildPushOperation, "abc");
     }
 
     private BuildRecord buildRecord(boolean withExecutionRootName) {
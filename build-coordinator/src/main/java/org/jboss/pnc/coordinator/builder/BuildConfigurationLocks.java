@@ -0,0 +1,82 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed on build configuration ids.
+ *
+ * A submission claims all the configurations it is going to build. Submissions with disjoint configurations proceed in
+ * parallel, overlapping ones are serialized. The stripes of a claim are always taken in ascending order, so two claims
+ * cannot deadlock.
+ */
+class BuildConfigurationLocks {
+
+    private final ReentrantLock[] stripes;
+
+    BuildConfigurationLocks(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive, was: " + stripeCount);
+        }
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Blocks until all the stripes of given build configurations are locked.
+     *
+     * @param buildConfigurationIds ids of the claimed build configurations
+     * @return claim that has to be closed to release the locks
+     */
+    Claim claim(Collection<Integer> buildConfigurationIds) {
+        int[] claimed = buildConfigurationIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(id -> Math.floorMod(id, stripes.length))
+                .distinct()
+                .sorted()
+                .toArray();
+        Claim claim = new Claim(claimed);
+        for (int stripe : claimed) {
+            stripes[stripe].lock();
+            claim.locked++;
+        }
+        return claim;
+    }
+
+    class Claim implements AutoCloseable {
+        private final int[] claimed;
+        private int locked;
+
+        private Claim(int[] claimed) {
+            this.claimed = claimed;
+        }
+
+        @Override
+        public void close() {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[claimed[i]].unlock();
+            }
+            locked = 0;
+        }
+    }
+}
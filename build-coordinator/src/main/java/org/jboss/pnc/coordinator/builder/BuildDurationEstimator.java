@@ -0,0 +1,107 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.jboss.pnc.spi.coordinator.BuildTask;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory estimate of build durations per build configuration.
+ *
+ * The estimate is an exponentially weighted moving average of the durations of successful builds, the weight of a
+ * build decays so that roughly the last {@link #HISTORY_SIZE} builds matter. It is warm-loaded from the stored build
+ * records and updated when a build completes. Configurations without history use the average of the known estimates.
+ */
+public class BuildDurationEstimator {
+
+    /**
+     * Number of builds the moving average effectively covers.
+     */
+    static final int HISTORY_SIZE = 10;
+
+    /**
+     * Estimate used before any build completed.
+     */
+    static final long DEFAULT_DURATION_MILLIS = 10 * 60 * 1000L;
+
+    private static final double ALPHA = 2.0 / (HISTORY_SIZE + 1);
+
+    private final Map<Integer, Double> estimates = new ConcurrentHashMap<>();
+
+    private volatile long defaultEstimate = DEFAULT_DURATION_MILLIS;
+
+    /**
+     * Loads the history of the build configurations.
+     *
+     * @param durations build durations in milliseconds, oldest first, mapped by the build configuration id
+     */
+    public void load(Map<Integer, List<Long>> durations) {
+        durations.forEach((buildConfigurationId, configurationDurations) -> {
+            int from = Math.max(0, configurationDurations.size() - 2 * HISTORY_SIZE);
+            for (Long duration : configurationDurations.subList(from, configurationDurations.size())) {
+                update(buildConfigurationId, duration);
+            }
+        });
+        updateDefaultEstimate();
+    }
+
+    /**
+     * Records a duration of a successful build.
+     */
+    public void record(Integer buildConfigurationId, long durationMillis) {
+        update(buildConfigurationId, durationMillis);
+        updateDefaultEstimate();
+    }
+
+    private void update(Integer buildConfigurationId, Long durationMillis) {
+        if (buildConfigurationId == null || durationMillis == null || durationMillis < 0) {
+            return;
+        }
+        estimates.merge(
+                buildConfigurationId,
+                (double) durationMillis,
+                (estimate, duration) -> estimate + ALPHA * (duration - estimate));
+    }
+
+    /**
+     * @return estimated duration of the build configuration in milliseconds
+     */
+    public long estimate(Integer buildConfigurationId) {
+        Double estimate = estimates.get(buildConfigurationId);
+        if (estimate != null) {
+            return Math.max(1L, Math.round(estimate));
+        }
+        return defaultEstimate;
+    }
+
+    public long estimate(BuildTask task) {
+        return estimate(task.getBuildConfigurationAudited().getId());
+    }
+
+    private void updateDefaultEstimate() {
+        double average = estimates.values()
+                .stream()
+                .mapToDouble(Double::doubleValue)
+                .average()
+                .orElse(DEFAULT_DURATION_MILLIS);
+        defaultEstimate = Math.max(1L, Math.round(average));
+    }
+}
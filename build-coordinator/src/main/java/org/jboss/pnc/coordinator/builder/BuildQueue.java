@@ -17,8 +17,11 @@
  */
 package org.jboss.pnc.coordinator.builder;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import org.jboss.pnc.common.json.moduleconfig.SystemConfig;
 import org.jboss.pnc.model.BuildConfigurationAudited;
+import org.jboss.pnc.pncmetrics.MetricsConfiguration;
 import org.jboss.pnc.spi.coordinator.BuildSetTask;
 import org.jboss.pnc.spi.coordinator.BuildTask;
 import org.slf4j.Logger;
@@ -27,36 +30,56 @@ import org.slf4j.MDC;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * <h3>Build task queue.</h3>
  *
- * The queue consists of 5 collections:
+ * Every submitted task is represented by a single {@link QueuedTask} entry indexed by its build configuration revision
+ * in unfinishedTasks. The entry carries the task state (waiting, ready or in progress), which replaces the separate
+ * collections the queue used to keep. Other structures are:
  * <ul>
  * <li>taskSets - set of currently processed task sets</li>
- * <li>tasksInProgress - set of tasks that are being executed at the moment</li>
- * <li>readyTasks - queue of tasks that are ready to be executed but are waiting for a free executor (and throttling
- * mechanism)</li>
- * <li>waitingTasksWithCallbacks - tasks waiting for a dependency. As soon as their dependencies are built, they are
- * moved to readyTasks. The waiting tasks are mapped to callbacks that are executed upon the transfer</li>
- * <li>unfinishedTasks - tasks either waiting, ready or in progress. This collection is introduced to fix the race
- * condition in {@link #take(Consumer)}, where a task is taken from readyTask, and later put into tasksInProgress and
- * the method cannot be synchronized</li>
+ * <li>readyTasks - tasks that are ready to be executed but are waiting for a free executor (and throttling
+ * mechanism), in the order they became ready. {@link #take(Consumer)} picks the task preferred by the configured
+ * {@link ReadyTaskPolicy}, or the oldest one if it waits longer than the aging limit</li>
+ * <li>waitingDependants - reverse dependency index; maps a not yet completed task to the waiting tasks that depend on
+ * it. Every waiting task keeps a counter of its pending dependencies</li>
+ * <li>runningPerShare - number of tasks in progress per fair share (group build or user), used by the policy</li>
+ * <li>removedTasks - tasks removed from the queue whose dependants were not notified yet. They are processed by
+ * {@link #executeNewReadyTasks()} once their final status is set, so a finished task only touches its direct
+ * dependants. Dependants of failed tasks are dropped from the index without being promoted, the coordinator finishes
+ * them itself</li>
  * </ul>
  *
+ * Read operations don't take any lock, they work on the concurrent index or on a cached snapshot of it. Write
+ * operations are serialized by a short internal lock, none of them scans the whole queue. Taking a task scans only
+ * the ready tasks to apply the policy.
+ *
  * The BuildQueue is MDC aware, the MDC values present in the thread context when the tasks is added are restored when
  * an operation is run on element using {@link #take(Consumer)} method.
  *
@@ -70,17 +93,45 @@ public class BuildQueue {
 
     private final Logger log = LoggerFactory.getLogger(BuildQueue.class);
 
+    private static final String METRICS_BASE = "build-coordinator.queue.";
+    private static final String METRICS_WAIT_KEY = METRICS_BASE + "wait.";
+    private static final String METRICS_AGED_KEY = METRICS_BASE + "aged.";
+    private static final String METRICS_READY_KEY = METRICS_BASE + "ready";
+
     private SystemConfig systemConfig;
 
-    private final Set<MDCAwareElement<BuildTask>> unfinishedTasks = new HashSet<>();
+    private final Map<BuildConfigurationAudited, QueuedTask> unfinishedTasks = new ConcurrentHashMap<>();
 
-    private final BlockingQueue<MDCAwareElement<BuildTask>> readyTasks = new LinkedBlockingQueue<>();
-    private final Map<MDCAwareElement<BuildTask>, Runnable> waitingTasksWithCallbacks = new HashMap<>();
-    private final Set<MDCAwareElement<BuildTask>> tasksInProgress = ConcurrentHashMap.newKeySet();
-    private final Set<BuildSetTask> taskSets = new HashSet<>();
+    private final Set<QueuedTask> readyTasks = new LinkedHashSet<>();
+    private final Map<String, Integer> runningPerShare = new HashMap<>();
+    private final Map<BuildTask, Set<QueuedTask>> waitingDependants = new ConcurrentHashMap<>();
+    private final Queue<BuildTask> removedTasks = new ConcurrentLinkedQueue<>();
+    private final Set<BuildSetTask> taskSets = ConcurrentHashMap.newKeySet();
 
     private final Semaphore availableBuildSlots = new Semaphore(0);
 
+    /**
+     * Guards the state transitions of the queue. Readers never take it.
+     */
+    private final Lock writeLock = new ReentrantLock();
+    private final Condition taskReady = writeLock.newCondition();
+
+    private ReadyTaskPolicy policy = StandardReadyTaskPolicy.FIFO;
+    private long agingMillis;
+    private double groupBuildShareWeight = 1.0;
+
+    @Inject
+    Instance<MetricsConfiguration> metricsConfiguration;
+
+    private Optional<MetricRegistry> metricRegistry = Optional.empty();
+
+    /**
+     * Immutable snapshot of unfinished tasks served to readers. It is rebuilt lazily when the modification counter
+     * moves.
+     */
+    private final AtomicLong modifications = new AtomicLong();
+    private volatile Snapshot unfinishedSnapshot = new Snapshot(-1L, Collections.emptyList());
+
     @Inject
     public BuildQueue(SystemConfig systemConfig) {
         this.systemConfig = systemConfig;
@@ -96,14 +147,20 @@ public class BuildQueue {
      *
      * @param task task to be enqueued
      */
-    public synchronized boolean addReadyTask(BuildTask task) {
+    public boolean addReadyTask(BuildTask task) {
         if (!task.readyToBuild()) {
             throw new IllegalArgumentException("a not ready task added to the queue: " + task);
         }
-        MDCAwareElement element = new MDCAwareElement(task);
-        unfinishedTasks.add(element);
-        log.debug("adding task: {}", task);
-        readyTasks.add(element);
+        QueuedTask queuedTask = new QueuedTask(task, null);
+        writeLock.lock();
+        try {
+            log.debug("adding task: {}", task);
+            putUnfinished(queuedTask);
+            queuedTask.state.set(State.READY);
+            addReady(queuedTask);
+        } finally {
+            writeLock.unlock();
+        }
         return true;
     }
 
@@ -113,11 +170,26 @@ public class BuildQueue {
      * @param task task that is not ready to build
      * @param taskReadyCallback a callback to be invoked when the task becomes ready
      */
-    public synchronized void addWaitingTask(BuildTask task, Runnable taskReadyCallback) {
-        MDCAwareElement element = new MDCAwareElement(task);
-        unfinishedTasks.add(element);
-        log.debug("adding waiting task: {}", task);
-        waitingTasksWithCallbacks.put(element, taskReadyCallback);
+    public void addWaitingTask(BuildTask task, Runnable taskReadyCallback) {
+        QueuedTask queuedTask = new QueuedTask(task, taskReadyCallback);
+        writeLock.lock();
+        try {
+            log.debug("adding waiting task: {}", task);
+            putUnfinished(queuedTask);
+            queuedTask.state.set(State.WAITING);
+            for (BuildTask dependency : task.getDependencies()) {
+                if (!dependency.getStatus().isCompleted()) {
+                    queuedTask.pendingDependencies.incrementAndGet();
+                    waitingDependants.computeIfAbsent(dependency, d -> ConcurrentHashMap.newKeySet()).add(queuedTask);
+                }
+            }
+            if (queuedTask.pendingDependencies.get() == 0) {
+                // all the dependencies completed in the meantime
+                markReady(queuedTask);
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -125,7 +197,7 @@ public class BuildQueue {
      *
      * @param taskSet task set to be built
      */
-    public synchronized void enqueueTaskSet(BuildSetTask taskSet) {
+    public void enqueueTaskSet(BuildSetTask taskSet) {
         log.debug("adding task set: {}", taskSet);
         taskSets.add(taskSet);
     }
@@ -134,10 +206,11 @@ public class BuildQueue {
      * remove task set from queue. This method should be invoked after whole task set is processed
      *
      * @param taskSet processed task set
+     * @return true if the task set was in the queue
      */
-    public synchronized void removeSet(BuildSetTask taskSet) {
+    public boolean removeSet(BuildSetTask taskSet) {
         log.debug("removing task set: {}", taskSet);
-        taskSets.remove(taskSet);
+        return taskSets.remove(taskSet);
     }
 
     /**
@@ -146,33 +219,70 @@ public class BuildQueue {
      *
      * @param task task to be removed
      */
-    public synchronized void removeTask(BuildTask task) {
+    public void removeTask(BuildTask task) {
         log.debug("removing task: {}", task);
-        MDCAwareElement element = new MDCAwareElement(task);
-        if (tasksInProgress.remove(element)) {
-            availableBuildSlots.release();
-        }
-        if (readyTasks.remove(element)) {
-            log.debug("The task {} has been removed from readyTasks.", task);
-        }
-
-        if (waitingTasksWithCallbacks.remove(element) != null) {
-            log.debug("The task {} has been removed from waitingTasks.", task);
-        }
-
-        if (unfinishedTasks.remove(element)) {
-            log.debug("The task {} has been removed from unfinishedTasks.", task);
+        writeLock.lock();
+        try {
+            QueuedTask queuedTask = unfinishedTasks.remove(task.getBuildConfigurationAudited());
+            if (queuedTask != null) {
+                modifications.incrementAndGet();
+                State previousState = queuedTask.state.getAndSet(State.REMOVED);
+                switch (previousState) {
+                    case IN_PROGRESS:
+                        runningPerShare
+                                .computeIfPresent(shareOf(task), (share, running) -> running > 1 ? running - 1 : null);
+                        availableBuildSlots.release();
+                        break;
+                    case READY:
+                        readyTasks.remove(queuedTask);
+                        log.debug("The task {} has been removed from readyTasks.", task);
+                        break;
+                    case WAITING:
+                        log.debug("The task {} has been removed from waitingTasks.", task);
+                        break;
+                    default:
+                        break;
+                }
+                log.debug("The task {} has been removed from unfinishedTasks.", task);
+            }
+            removedTasks.add(task);
+        } finally {
+            writeLock.unlock();
         }
     }
 
     /**
-     * Trigger searching for ready tasks in the waiting queue. This method should be invoked if one task has finished
-     * and there's a possibility that other tasks became ready to be built.
+     * Trigger moving of the waiting tasks to the ready ones. This method should be invoked every time a task reaches
+     * its final status, successful or not, so that the removed tasks and their reverse dependency entries are
+     * released. Only the direct dependants of the tasks removed from the queue are visited, the dependants of a failed
+     * task are never moved to the ready ones.
      */
-    public synchronized void executeNewReadyTasks() {
-        List<MDCAwareElement<BuildTask>> newReadyTasks = extractReadyTasks();
-        log.debug("starting new ready tasks. New ready tasks: {}", newReadyTasks);
-        readyTasks.addAll(newReadyTasks);
+    public void executeNewReadyTasks() {
+        writeLock.lock();
+        try {
+            List<QueuedTask> newReadyTasks = new ArrayList<>();
+            Iterator<BuildTask> removed = removedTasks.iterator();
+            while (removed.hasNext()) {
+                BuildTask finished = removed.next();
+                // a task is removed from the queue before its final status is set, keep it for the next round
+                if (!finished.getStatus().isCompleted()) {
+                    continue;
+                }
+                removed.remove();
+                Set<QueuedTask> dependants = waitingDependants.remove(finished);
+                if (dependants == null || finished.getStatus().hasFailed()) {
+                    continue;
+                }
+                for (QueuedTask dependant : dependants) {
+                    if (dependant.pendingDependencies.decrementAndGet() == 0 && markReady(dependant)) {
+                        newReadyTasks.add(dependant);
+                    }
+                }
+            }
+            log.debug("starting new ready tasks. New ready tasks: {}", newReadyTasks);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -182,47 +292,111 @@ public class BuildQueue {
      * @return Optional.of(build task for the systemConfig) if build task is enqueued/in progress, Optional.empty()
      *         otherwise
      */
-    public synchronized Optional<BuildTask> getTask(BuildConfigurationAudited buildConfigAudited) {
-        Optional<BuildTask> ready = readyTasks.stream()
-                .map(MDCAwareElement::get)
-                .filter(bt -> bt.getBuildConfigurationAudited().equals(buildConfigAudited))
-                .findAny();
-        Optional<BuildTask> waiting = waitingTasksWithCallbacks.keySet()
-                .stream()
-                .map(MDCAwareElement::get)
-                .filter(bt -> bt.getBuildConfigurationAudited().equals(buildConfigAudited))
-                .findAny();
-        Optional<BuildTask> inProgress = tasksInProgress.stream()
-                .map(MDCAwareElement::get)
-                .filter(bt -> bt.getBuildConfigurationAudited().equals(buildConfigAudited))
-                .findAny();
-        return ready.isPresent() ? ready : waiting.isPresent() ? waiting : inProgress;
+    public Optional<BuildTask> getTask(BuildConfigurationAudited buildConfigAudited) {
+        return getUnfinishedTask(buildConfigAudited);
     }
 
     /**
      * List all waiting, ready and in progress tasks
      *
-     * @return list of all build tasks in the queue
+     * @return unmodifiable list of all build tasks in the queue
      */
-    public synchronized List<BuildTask> getSubmittedBuildTasks() {
-        return unfinishedTasks.stream().map(MDCAwareElement::get).collect(Collectors.toList());
+    public List<BuildTask> getSubmittedBuildTasks() {
+        long version = modifications.get();
+        Snapshot snapshot = unfinishedSnapshot;
+        if (snapshot.version != version) {
+            snapshot = new Snapshot(
+                    version,
+                    Collections.unmodifiableList(
+                            unfinishedTasks.values().stream().map(QueuedTask::get).collect(Collectors.toList())));
+            unfinishedSnapshot = snapshot;
+        }
+        return snapshot.tasks;
     }
 
-    private MDCAwareElement<BuildTask> take() throws InterruptedException {
+    private QueuedTask take() throws InterruptedException {
         availableBuildSlots.acquire();
         log.info("Consumer is ready to go, waiting for task");
-        // FIXME not thread safe: when a task is taken from readyTasks it is not in the tasksInProgress for a short time
-        // race condition hit while working on
-        // SkippingBuiltConfigsTest.shouldNotTriggerTheSameBuildConfigurationViaDependency
-        // to avoid race condition getUnfinishedTask is used instead of getTask
-        MDCAwareElement<BuildTask> element = readyTasks.take();
-        tasksInProgress.add(element);
-        return element;
+        try {
+            writeLock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            availableBuildSlots.release();
+            throw e;
+        }
+        try {
+            while (readyTasks.isEmpty()) {
+                taskReady.await();
+            }
+            QueuedTask queuedTask = selectReadyTask();
+            readyTasks.remove(queuedTask);
+            queuedTask.state.set(State.IN_PROGRESS);
+            runningPerShare.merge(shareOf(queuedTask.get()), 1, Integer::sum);
+            long waitMillis = System.currentTimeMillis() - queuedTask.readySince;
+            metricRegistry.ifPresent(
+                    r -> r.timer(METRICS_WAIT_KEY + policy.getName()).update(waitMillis, TimeUnit.MILLISECONDS));
+            return queuedTask;
+        } catch (InterruptedException e) {
+            availableBuildSlots.release();
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Must be called with the write lock held and a non empty ready queue.
+     *
+     * Every ready task is compared on each take, so a take costs O(ready tasks) under the write lock. That is fine for
+     * the ready queue sizes seen so far, a priority structure would have to be re-ordered whenever the share loads
+     * change.
+     */
+    private QueuedTask selectReadyTask() {
+        QueuedTask oldest = readyTasks.iterator().next();
+        if (agingMillis > 0 && System.currentTimeMillis() - oldest.readySince >= agingMillis) {
+            log.debug("Task {} waits longer than {}ms, taking it first.", oldest, agingMillis);
+            metricRegistry.ifPresent(r -> r.meter(METRICS_AGED_KEY + policy.getName()).mark());
+            return oldest;
+        }
+        Comparator<ReadyTask> comparator = policy.comparator(this::shareLoad);
+        QueuedTask selected = oldest;
+        for (QueuedTask candidate : readyTasks) {
+            if (comparator.compare(candidate, selected) < 0) {
+                selected = candidate;
+            }
+        }
+        return selected;
+    }
+
+    private double shareLoad(BuildTask task) {
+        double weight = task.getBuildConfigSetRecordId() != null ? groupBuildShareWeight : 1.0;
+        return runningPerShare.getOrDefault(shareOf(task), 0) / weight;
+    }
+
+    /**
+     * Tasks of a group build share the group build's share, single builds share the share of their user.
+     */
+    private static String shareOf(BuildTask task) {
+        if (task.getBuildConfigSetRecordId() != null) {
+            return "group-build:" + task.getBuildConfigSetRecordId();
+        }
+        return "user:" + (task.getUser() == null ? null : task.getUser().getId());
+    }
+
+    /**
+     * Replaces the ready queue policy.
+     */
+    public void setPolicy(ReadyTaskPolicy policy) {
+        writeLock.lock();
+        try {
+            this.policy = policy;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public void take(Consumer<BuildTask> consumer) throws InterruptedException {
         Map<String, String> copyOfContextMap = MDC.getCopyOfContextMap();
-        MDCAwareElement<BuildTask> element = take();
+        QueuedTask element = take();
         log.info("Got task: {}, will start processing", element);
         Map<String, String> elementContextMap = element.getContextMap();
         try {
@@ -247,33 +421,50 @@ public class BuildQueue {
         }
     }
 
-    public synchronized boolean isBuildAlreadySubmitted(BuildTask buildTask) {
-        return unfinishedTasks.contains(buildTask);
+    public boolean isBuildAlreadySubmitted(BuildTask buildTask) {
+        return unfinishedTasks.containsKey(buildTask.getBuildConfigurationAudited());
+    }
+
+    public Optional<BuildTask> getUnfinishedTask(BuildConfigurationAudited buildConfigurationAudited) {
+        return Optional.ofNullable(unfinishedTasks.get(buildConfigurationAudited)).map(QueuedTask::get);
     }
 
-    public synchronized Optional<BuildTask> getUnfinishedTask(BuildConfigurationAudited buildConfigurationAudited) {
-        return unfinishedTasks.stream()
-                .map(MDCAwareElement::get)
-                .filter(buildTask -> buildTask.getBuildConfigurationAudited().equals(buildConfigurationAudited))
-                .findFirst();
+    public Set<BuildTask> getUnfinishedTasks() {
+        return unfinishedTasks.values().stream().map(QueuedTask::get).collect(Collectors.toSet());
     }
 
-    public synchronized Set<BuildTask> getUnfinishedTasks() {
-        return unfinishedTasks.stream().map(MDCAwareElement::get).collect(Collectors.toSet());
+    private void putUnfinished(QueuedTask queuedTask) {
+        unfinishedTasks.put(queuedTask.get().getBuildConfigurationAudited(), queuedTask);
+        modifications.incrementAndGet();
     }
 
-    private List<MDCAwareElement<BuildTask>> extractReadyTasks() {
-        List<MDCAwareElement<BuildTask>> noLongerWaitingTasks = waitingTasksWithCallbacks.keySet()
-                .stream()
-                .filter(e -> e.get().readyToBuild())
-                .collect(Collectors.toList());
+    /**
+     * Moves a waiting task to the ready ones and runs its callback. Must be called with the write lock held.
+     *
+     * @return true if the task was waiting, false if it was removed from the queue in the meantime
+     */
+    private boolean markReady(QueuedTask queuedTask) {
+        if (!queuedTask.state.compareAndSet(State.WAITING, State.READY)) {
+            return false;
+        }
+        if (queuedTask.taskReadyCallback != null) {
+            queuedTask.taskReadyCallback.run();
+        }
+        addReady(queuedTask);
+        return true;
+    }
 
-        noLongerWaitingTasks.forEach(task -> {
-            waitingTasksWithCallbacks.get(task).run();
-            waitingTasksWithCallbacks.remove(task);
-        });
+    /**
+     * Must be called with the write lock held.
+     */
+    private void addReady(QueuedTask queuedTask) {
+        queuedTask.readySince = System.currentTimeMillis();
+        readyTasks.add(queuedTask);
+        taskReady.signal();
+    }
 
-        return noLongerWaitingTasks;
+    private List<QueuedTask> tasksInState(State state) {
+        return unfinishedTasks.values().stream().filter(t -> t.state.get() == state).collect(Collectors.toList());
     }
 
     @PostConstruct
@@ -281,29 +472,102 @@ public class BuildQueue {
         int maxConcurrentBuilds = 10;
         maxConcurrentBuilds = systemConfig.getCoordinatorMaxConcurrentBuilds();
         availableBuildSlots.release(maxConcurrentBuilds);
+
+        String policyName = systemConfig.getCoordinatorQueuePolicy();
+        if (policyName != null) {
+            try {
+                policy = StandardReadyTaskPolicy.valueOf(policyName);
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown coordinatorQueuePolicy {}, using {}.", policyName, policy.getName());
+            }
+        }
+        agingMillis = systemConfig.getCoordinatorQueueAgingMillis();
+        if (systemConfig.getCoordinatorGroupBuildShareWeight() > 0) {
+            groupBuildShareWeight = systemConfig.getCoordinatorGroupBuildShareWeight();
+        }
+
+        if (metricsConfiguration != null && !metricsConfiguration.isUnsatisfied()
+                && !metricsConfiguration.isAmbiguous()) {
+            MetricRegistry registry = metricsConfiguration.get().getMetricRegistry();
+            registry.register(METRICS_READY_KEY, (Gauge<Integer>) this::readyCount);
+            metricRegistry = Optional.of(registry);
+        }
+    }
+
+    private int readyCount() {
+        writeLock.lock();
+        try {
+            return readyTasks.size();
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     @Override
-    public synchronized String toString() {
-        return "BuildQueue{" + "readyTasks=" + readyTasks + ", waitingTasks=" + waitingTasksWithCallbacks
-                + ", tasksInProgress=" + tasksInProgress + ", taskSets=" + taskSets + '}';
+    public String toString() {
+        return "BuildQueue{" + "readyTasks=" + tasksInState(State.READY) + ", waitingTasks="
+                + tasksInState(State.WAITING) + ", tasksInProgress=" + tasksInState(State.IN_PROGRESS) + ", taskSets="
+                + taskSets + '}';
     }
 
-    public synchronized boolean isEmpty() {
-        return tasksInProgress.isEmpty() && waitingTasksWithCallbacks.isEmpty() && readyTasks.isEmpty()
-                && unfinishedTasks.isEmpty() && taskSets.isEmpty();
+    public boolean isEmpty() {
+        return unfinishedTasks.isEmpty() && taskSets.isEmpty();
     }
 
-    public synchronized String getDebugInfo() {
+    public String getDebugInfo() {
         String info = "=====================\nQUEUE STATE:\n=====================\n" + "Available build slots: "
                 + availableBuildSlots.availablePermits() + "\n" + "Queue length:" + availableBuildSlots.getQueueLength()
-                + "\n" + "\n=====================\nTASKS IN PROGRESS:\n=====================\n" + tasksInProgress
-                + "\n=====================\nREADY TASKS:\n=====================\n" + readyTasks
-                + "\n=====================\nWAITING TASKS:\n=====================\n"
-                + waitingTasksWithCallbacks.keySet()
-                + "\n=====================\nALL UNFINISHED TASKS:\n=====================\n" + unfinishedTasks
+                + "\n" + "\n=====================\nTASKS IN PROGRESS:\n=====================\n"
+                + tasksInState(State.IN_PROGRESS) + "\n=====================\nREADY TASKS:\n=====================\n"
+                + tasksInState(State.READY) + "\n=====================\nWAITING TASKS:\n=====================\n"
+                + tasksInState(State.WAITING)
+                + "\n=====================\nALL UNFINISHED TASKS:\n=====================\n" + unfinishedTasks.values()
                 + "\n=====================\nTASK SETS:\n=====================\n" + taskSets;
 
         return info;
     }
+
+    private static class Snapshot {
+        private final long version;
+        private final List<BuildTask> tasks;
+
+        Snapshot(long version, List<BuildTask> tasks) {
+            this.version = version;
+            this.tasks = tasks;
+        }
+    }
+
+    private enum State {
+        NEW, WAITING, READY, IN_PROGRESS, REMOVED
+    }
+
+    /**
+     * Queue entry of a build task. Equality is inherited from {@link MDCAwareElement}, hence from the task itself.
+     */
+    private static class QueuedTask extends MDCAwareElement<BuildTask> implements ReadyTask {
+        private final Runnable taskReadyCallback;
+        private volatile long readySince;
+        private final AtomicReference<State> state = new AtomicReference<>(State.NEW);
+        private final AtomicInteger pendingDependencies = new AtomicInteger();
+
+        QueuedTask(BuildTask task, Runnable taskReadyCallback) {
+            super(task);
+            this.taskReadyCallback = taskReadyCallback;
+        }
+
+        @Override
+        public BuildTask getTask() {
+            return get();
+        }
+
+        @Override
+        public long getReadySince() {
+            return readySince;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(get());
+        }
+    }
 }
@@ -25,6 +25,8 @@ import org.jboss.pnc.model.BuildConfigSetRecord;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildConfigurationAudited;
 import org.jboss.pnc.model.BuildConfigurationSet;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.model.ProductMilestone;
 import org.jboss.pnc.model.User;
 import org.jboss.pnc.model.utils.ContentIdentityManager;
@@ -36,9 +38,14 @@ import org.jboss.pnc.spi.exception.CoreException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -107,68 +114,86 @@ public class BuildTasksInitializer {
 
         toBuild.add(buildConfigurationAudited);
         if (buildOptions.isBuildDependencies()) {
+            Map<Integer, BuildConfigurationAudited> dependencyAuditeds = loadDependencyAuditeds(
+                    buildConfigurationAudited.getBuildConfiguration());
+            Map<IdRev, BuildRecord> noRebuildCauses;
+            if (buildOptions.isForceRebuild()) {
+                noRebuildCauses = Collections.emptyMap();
+            } else {
+                noRebuildCauses = datastoreAdapter.getNoRebuildCauses(
+                        dependencyAuditeds.values(),
+                        buildOptions.isImplicitDependenciesCheck(),
+                        buildOptions.isTemporaryBuild());
+            }
 
-            Set<Integer> processedDependenciesCache = new HashSet<Integer>();
             buildConfigurationAudited.getBuildConfiguration()
                     .getDependencies()
                     .forEach(
                             dependencyConfiguration -> collectDependentConfigurations(
                                     dependencyConfiguration,
-                                    datastoreAdapter.getLatestBuildConfigurationAuditedInitializeBCDependencies(
-                                            dependencyConfiguration.getId()),
+                                    dependencyAuditeds,
                                     toBuild,
                                     visited,
-                                    buildOptions.isImplicitDependenciesCheck(),
-                                    buildOptions.isForceRebuild(),
-                                    buildOptions.isTemporaryBuild(),
-                                    processedDependenciesCache));
+                                    noRebuildCauses,
+                                    buildOptions.isForceRebuild()));
+        }
+    }
+
+    /**
+     * Loads the latest revisions of all the direct and transitive dependencies of the BuildConfiguration, so the
+     * rebuild requirement of the whole graph can be evaluated at once.
+     *
+     * @return latest BuildConfigurationAudited of the dependencies mapped by BuildConfiguration id
+     */
+    private Map<Integer, BuildConfigurationAudited> loadDependencyAuditeds(BuildConfiguration buildConfiguration) {
+        Map<Integer, BuildConfigurationAudited> dependencyAuditeds = new HashMap<>();
+        Deque<BuildConfiguration> toVisit = new ArrayDeque<>(buildConfiguration.getDependencies());
+        while (!toVisit.isEmpty()) {
+            BuildConfiguration dependency = toVisit.poll();
+            if (dependencyAuditeds.containsKey(dependency.getId())) {
+                continue;
+            }
+            dependencyAuditeds.put(
+                    dependency.getId(),
+                    datastoreAdapter.getLatestBuildConfigurationAuditedInitializeBCDependencies(dependency.getId()));
+            toVisit.addAll(dependency.getDependencies());
         }
+        return dependencyAuditeds;
     }
 
     /**
      * Collects all BuildConfigurationAudited entities, that needs to be built.
      *
      * @param buildConfiguration Current BuildConfiguration used to resolve dependencies.
-     * @param buildConfigurationAudited Specific revision of a BuildConfiguration (passed as first parameter) to be
-     *        potentially built
+     * @param dependencyAuditeds Latest revisions of the BuildConfigurations to be potentially built, mapped by id
      * @param toBuild Set of BuildConfigurationAudited entities planned to be built
      * @param visited Set of BuildConfigurations, which were already evaluated, if should be built
-     * @param checkImplicitDependencies if implicit check of dependencies needs to be done
+     * @param noRebuildCauses BuildRecords of the revisions which do not require a rebuild, mapped by IdRev
      * @param forceRebuild if force build is required
-     * @param temporaryBuild if build is temporary
-     * @param processedDependenciesCache list containing any dependency which was already processed in previous
-     *        iterations
      * @return Returns true, if the buildConfiguration should be rebuilt, otherwise returns false.
      */
     private boolean collectDependentConfigurations(
             BuildConfiguration buildConfiguration,
-            BuildConfigurationAudited buildConfigurationAudited,
+            Map<Integer, BuildConfigurationAudited> dependencyAuditeds,
             Set<BuildConfigurationAudited> toBuild,
             Set<BuildConfiguration> visited,
-            boolean checkImplicitDependencies,
-            boolean forceRebuild,
-            boolean temporaryBuild,
-            Set<Integer> processedDependenciesCache) {
+            Map<IdRev, BuildRecord> noRebuildCauses,
+            boolean forceRebuild) {
+        BuildConfigurationAudited buildConfigurationAudited = dependencyAuditeds.get(buildConfiguration.getId());
         if (visited.contains(buildConfiguration)) {
             return toBuild.contains(buildConfigurationAudited);
         }
         visited.add(buildConfiguration);
 
-        boolean requiresRebuild = forceRebuild || datastoreAdapter.requiresRebuild(
-                buildConfigurationAudited,
-                checkImplicitDependencies,
-                temporaryBuild,
-                processedDependenciesCache);
+        boolean requiresRebuild = forceRebuild || !noRebuildCauses.containsKey(buildConfigurationAudited.getIdRev());
         for (BuildConfiguration dependency : buildConfiguration.getDependencies()) {
             boolean dependencyRequiresRebuild = collectDependentConfigurations(
                     dependency,
-                    datastoreAdapter.getLatestBuildConfigurationAuditedInitializeBCDependencies(dependency.getId()),
+                    dependencyAuditeds,
                     toBuild,
                     visited,
-                    checkImplicitDependencies,
-                    forceRebuild,
-                    temporaryBuild,
-                    processedDependenciesCache);
+                    noRebuildCauses,
+                    forceRebuild);
 
             requiresRebuild = requiresRebuild || dependencyRequiresRebuild;
 
@@ -287,7 +312,8 @@ public class BuildTasksInitializer {
     }
 
     /**
-     * Creates build tasks and sets up the appropriate dependency relations
+     * Creates build tasks and sets up the appropriate dependency relations. Tasks are indexed by BuildConfiguration id,
+     * so the dependencies are wired by walking the direct dependencies of each configuration once.
      *
      * @param buildSetTask The build set task which will contain the build tasks. This must already have initialized the
      *        BuildConfigSet, BuildConfigSetRecord, Milestone, etc.
@@ -300,14 +326,14 @@ public class BuildTasksInitializer {
             Set<BuildConfigurationAudited> toBuild,
             Set<BuildTask> alreadySubmittedBuildTasks,
             BuildOptions buildOptions) {
-        for (BuildConfigurationAudited buildConfigAudited : toBuild) {
-            Optional<BuildTask> taskOptional = alreadySubmittedBuildTasks.stream()
-                    .filter(bt -> bt.getBuildConfigurationAudited().equals(buildConfigAudited))
-                    .findAny();
+        Map<BuildConfigurationAudited, BuildTask> submittedTasks = new HashMap<>();
+        for (BuildTask submittedTask : alreadySubmittedBuildTasks) {
+            submittedTasks.put(submittedTask.getBuildConfigurationAudited(), submittedTask);
+        }
 
-            BuildTask buildTask;
-            if (taskOptional.isPresent()) {
-                buildTask = taskOptional.get();
+        for (BuildConfigurationAudited buildConfigAudited : toBuild) {
+            BuildTask buildTask = submittedTasks.get(buildConfigAudited);
+            if (buildTask != null) {
                 log.debug("Linking BuildConfigurationAudited {} to existing task {}.", buildConfigAudited, buildTask);
             } else {
                 int buildId = buildTaskIdProvider.get();
@@ -344,10 +370,25 @@ public class BuildTasksInitializer {
         }
 
         // Loop again to set dependencies
+        Map<Integer, List<BuildTask>> tasksByConfigurationId = new HashMap<>();
         for (BuildTask buildTask : buildSetTask.getBuildTasks()) {
-            for (BuildTask checkDepBuildTask : buildSetTask.getBuildTasks()) {
-                if (buildTask.hasDirectConfigDependencyOn(checkDepBuildTask)) {
-                    buildTask.addDependency(checkDepBuildTask);
+            BuildConfiguration buildConfiguration = buildTask.getBuildConfigurationAudited().getBuildConfiguration();
+            if (buildConfiguration != null) {
+                tasksByConfigurationId.computeIfAbsent(buildConfiguration.getId(), id -> new ArrayList<>(1))
+                        .add(buildTask);
+            }
+        }
+        for (BuildTask buildTask : buildSetTask.getBuildTasks()) {
+            BuildConfiguration buildConfiguration = buildTask.getBuildConfigurationAudited().getBuildConfiguration();
+            if (buildConfiguration == null || buildConfiguration.getDependencies() == null) {
+                continue;
+            }
+            for (BuildConfiguration dependency : buildConfiguration.getDependencies()) {
+                for (BuildTask dependencyTask : tasksByConfigurationId
+                        .getOrDefault(dependency.getId(), Collections.emptyList())) {
+                    if (!buildTask.equals(dependencyTask)) {
+                        buildTask.addDependency(dependencyTask);
+                    }
                 }
             }
         }
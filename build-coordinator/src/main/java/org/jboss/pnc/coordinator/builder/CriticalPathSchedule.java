@@ -0,0 +1,248 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.jboss.pnc.spi.coordinator.BuildTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Submission order of the tasks of a build set.
+ *
+ * Tasks are ordered topologically (Kahn's algorithm), every task comes after all its dependencies from the set. Among
+ * the tasks that are available at the same time the one with the longest remaining chain (critical path) comes first,
+ * so that ready tasks heading long chains start building before short leaves and the makespan of the set shrinks.
+ *
+ * Dependencies outside of the set (tasks submitted earlier by another set) don't affect the order.
+ */
+public class CriticalPathSchedule {
+
+    private final List<BuildTask> order;
+    private final Map<BuildTask, Long> criticalPaths;
+    private final ToLongFunction<BuildTask> duration;
+    private final long totalDuration;
+
+    private CriticalPathSchedule(
+            List<BuildTask> order,
+            Map<BuildTask, Long> criticalPaths,
+            ToLongFunction<BuildTask> duration,
+            long totalDuration) {
+        this.order = order;
+        this.criticalPaths = criticalPaths;
+        this.duration = duration;
+        this.totalDuration = totalDuration;
+    }
+
+    /**
+     * @param tasks tasks of the set
+     * @param duration estimated duration of a task, has to be positive
+     */
+    public static CriticalPathSchedule of(Collection<BuildTask> tasks, ToLongFunction<BuildTask> duration) {
+        Set<BuildTask> taskSet = new LinkedHashSet<>(tasks);
+        Map<BuildTask, Integer> pendingDependencies = new HashMap<>(taskSet.size() * 2);
+        Deque<BuildTask> leaves = new ArrayDeque<>();
+        for (BuildTask task : taskSet) {
+            int pending = 0;
+            for (BuildTask dependency : task.getDependencies()) {
+                if (taskSet.contains(dependency)) {
+                    pending++;
+                }
+            }
+            pendingDependencies.put(task, pending);
+            if (pending == 0) {
+                leaves.add(task);
+            }
+        }
+
+        List<BuildTask> topological = topologicalOrder(taskSet, new HashMap<>(pendingDependencies), leaves);
+
+        // walk from the end so that every dependant is evaluated before its dependencies
+        Map<BuildTask, Long> criticalPaths = new HashMap<>(taskSet.size() * 2);
+        long totalDuration = 0;
+        for (int i = topological.size() - 1; i >= 0; i--) {
+            BuildTask task = topological.get(i);
+            long longestDependant = 0;
+            for (BuildTask dependant : task.getDependants()) {
+                Long dependantPath = criticalPaths.get(dependant);
+                if (dependantPath != null && dependantPath > longestDependant) {
+                    longestDependant = dependantPath;
+                }
+            }
+            long taskDuration = duration.applyAsLong(task);
+            totalDuration += taskDuration;
+            criticalPaths.put(task, taskDuration + longestDependant);
+        }
+
+        PriorityQueue<BuildTask> available = new PriorityQueue<>(
+                Math.max(1, leaves.size()),
+                longestPathFirst(criticalPaths));
+        for (BuildTask task : taskSet) {
+            if (pendingDependencies.get(task) == 0) {
+                available.add(task);
+            }
+        }
+        List<BuildTask> order = new ArrayList<>(taskSet.size());
+        while (!available.isEmpty()) {
+            BuildTask task = available.poll();
+            order.add(task);
+            for (BuildTask dependant : task.getDependants()) {
+                Integer pending = pendingDependencies.get(dependant);
+                if (pending != null && pendingDependencies.put(dependant, pending - 1) == 1) {
+                    available.add(dependant);
+                }
+            }
+        }
+        // tasks in a cycle never become available, keep them in the schedule so that they are rejected as before
+        if (order.size() != taskSet.size()) {
+            Set<BuildTask> scheduled = new LinkedHashSet<>(order);
+            for (BuildTask task : taskSet) {
+                if (!scheduled.contains(task)) {
+                    order.add(task);
+                }
+            }
+        }
+        return new CriticalPathSchedule(
+                Collections.unmodifiableList(order),
+                criticalPaths,
+                duration,
+                totalDuration);
+    }
+
+    private static List<BuildTask> topologicalOrder(
+            Set<BuildTask> taskSet,
+            Map<BuildTask, Integer> pendingDependencies,
+            Deque<BuildTask> leaves) {
+        List<BuildTask> order = new ArrayList<>(taskSet.size());
+        Deque<BuildTask> available = new ArrayDeque<>(leaves);
+        while (!available.isEmpty()) {
+            BuildTask task = available.poll();
+            order.add(task);
+            for (BuildTask dependant : task.getDependants()) {
+                Integer pending = pendingDependencies.get(dependant);
+                if (pending != null && pendingDependencies.put(dependant, pending - 1) == 1) {
+                    available.add(dependant);
+                }
+            }
+        }
+        return order;
+    }
+
+    private static Comparator<BuildTask> longestPathFirst(Map<BuildTask, Long> criticalPaths) {
+        Comparator<BuildTask> byPath = Comparator.comparingLong(task -> criticalPaths.getOrDefault(task, 0L));
+        return byPath.reversed().thenComparingInt(BuildTask::getId);
+    }
+
+    /**
+     * @return tasks in the order they should be submitted, dependencies first
+     */
+    public List<BuildTask> getOrder() {
+        return order;
+    }
+
+    /**
+     * @return duration of the longest chain starting with the task including the task itself, 0 for tasks in a cycle
+     *         or outside of the set
+     */
+    public long getCriticalPath(BuildTask task) {
+        return criticalPaths.getOrDefault(task, 0L);
+    }
+
+    /**
+     * @return duration of the longest chain of the set, that is the makespan with unlimited build slots
+     */
+    public long getCriticalPath() {
+        return criticalPaths.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+    }
+
+    /**
+     * @return sum of durations of all the tasks of the set
+     */
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+
+    /**
+     * Estimates the makespan of the set by simulating the execution of the schedule with the given number of build
+     * slots. Ready tasks are started longest critical path first, as the build queue does.
+     *
+     * @param buildSlots number of builds that can run concurrently
+     * @return estimated time to build the whole set, in the units of the duration estimate
+     */
+    public long estimateMakespan(int buildSlots) {
+        int slots = Math.max(1, buildSlots);
+        Map<BuildTask, Integer> pendingDependencies = new HashMap<>(order.size() * 2);
+        PriorityQueue<BuildTask> ready = new PriorityQueue<>(
+                Math.max(1, order.size()),
+                longestPathFirst(criticalPaths));
+        for (BuildTask task : order) {
+            if (!criticalPaths.containsKey(task)) {
+                continue;
+            }
+            int pending = 0;
+            for (BuildTask dependency : task.getDependencies()) {
+                if (criticalPaths.containsKey(dependency)) {
+                    pending++;
+                }
+            }
+            pendingDependencies.put(task, pending);
+            if (pending == 0) {
+                ready.add(task);
+            }
+        }
+
+        PriorityQueue<Running> running = new PriorityQueue<>(slots, Comparator.comparingLong(r -> r.finishTime));
+        long now = 0;
+        while (!ready.isEmpty() || !running.isEmpty()) {
+            while (running.size() < slots && !ready.isEmpty()) {
+                BuildTask task = ready.poll();
+                running.add(new Running(task, now + duration.applyAsLong(task)));
+            }
+            Running finished = running.poll();
+            now = finished.finishTime;
+            for (BuildTask dependant : finished.task.getDependants()) {
+                Integer pending = pendingDependencies.get(dependant);
+                if (pending != null && pendingDependencies.put(dependant, pending - 1) == 1) {
+                    ready.add(dependant);
+                }
+            }
+        }
+        return now;
+    }
+
+    private static class Running {
+        private final BuildTask task;
+        private final long finishTime;
+
+        Running(BuildTask task, long finishTime) {
+            this.task = task;
+            this.finishTime = finishTime;
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildConfigurationAudited;
 import org.jboss.pnc.model.BuildConfigurationSet;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.model.User;
 import org.jboss.pnc.spi.BuildOptions;
 import org.jboss.pnc.spi.BuildResult;
@@ -63,6 +64,9 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.EnumMap;
 import java.util.HashSet;
@@ -74,6 +78,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.jboss.pnc.common.util.CollectionUtils.hasCycle;
 
@@ -94,6 +99,22 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
     private static final Logger userLog = LoggerFactory
             .getLogger("org.jboss.pnc._userlog_.build-process-status-update");
 
+    /**
+     * Number of build configuration lock stripes. Submissions of configurations in different stripes run in parallel.
+     */
+    private static final int BUILD_CONFIGURATION_LOCK_STRIPES = 1024;
+
+    /**
+     * Single build submissions are created before the configurations are claimed, they are re-created when a
+     * conflicting submission sneaks in.
+     */
+    private static final int MAX_SUBMISSION_ATTEMPTS = 5;
+
+    /**
+     * Successful builds of this age are used to warm up the build duration estimates.
+     */
+    private static final long DURATION_HISTORY_DAYS = 30;
+
     private SystemConfig systemConfig;
     private DatastoreAdapter datastoreAdapter;
     private Event<BuildStatusChangedEvent> buildStatusChangedEventNotifier;
@@ -105,11 +126,17 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
 
     private BuildTasksInitializer buildTasksInitializer;
 
-    // Lock so that only one build method is active at any time
-    private final Object buildMethodLock = new Object();
+    // Locks so that only one build method is active for any build configuration at a time
+    private final BuildConfigurationLocks buildConfigurationLocks = new BuildConfigurationLocks(
+            BUILD_CONFIGURATION_LOCK_STRIPES);
     private GroupBuildMapper groupBuildMapper;
     private BuildMapper buildMapper;
 
+    /**
+     * Duration estimates used to prioritize the tasks of a set and to estimate the remaining time of group builds.
+     */
+    private final BuildDurationEstimator durationEstimator = new BuildDurationEstimator();
+
     @Deprecated
     public DefaultBuildCoordinator() {
     } // workaround for CDI constructor parameter injection
@@ -161,9 +188,11 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
             User user,
             BuildOptions buildOptions,
             BuildConfigurationAudited buildConfigurationAudited) throws BuildConflictException {
-        synchronized (buildMethodLock) {
+        for (int attempt = 1; attempt <= MAX_SUBMISSION_ATTEMPTS; attempt++) {
             checkNotRunning(buildConfigurationAudited);
 
+            // the configurations to build are known only after the dependencies are resolved, which is the
+            // expensive part. Resolve them without a lock and verify the result once the configurations are claimed.
             BuildSetTask buildSetTask = buildTasksInitializer.createBuildSetTask(
                     buildConfigurationAudited,
                     user,
@@ -171,11 +200,50 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
                     this::buildRecordIdSupplier,
                     buildQueue.getUnfinishedTasks());
 
-            buildQueue.enqueueTaskSet(buildSetTask);
-            buildSetTask.getBuildTasks().stream().sorted(this::dependantsFirst).forEach(this::addTaskToBuildQueue);
+            try (BuildConfigurationLocks.Claim claim = buildConfigurationLocks
+                    .claim(getBuildConfigurationIds(buildSetTask))) {
+                checkNotRunning(buildConfigurationAudited);
+                if (hasConflictingSubmission(buildSetTask)) {
+                    log.debug(
+                            "Configurations of {} were submitted concurrently, re-creating the build set task.",
+                            buildConfigurationAudited);
+                    continue;
+                }
 
-            return buildSetTask;
+                buildQueue.enqueueTaskSet(buildSetTask);
+                schedule(buildSetTask, buildSetTask.getBuildTasks()).forEach(this::addTaskToBuildQueue);
+
+                return buildSetTask;
+            }
         }
+        throw new BuildConflictException(
+                "Configurations of BC [id=" + buildConfigurationAudited.getId() + ", rev="
+                        + buildConfigurationAudited.getRev() + "] keep being submitted concurrently");
+    }
+
+    private static Set<Integer> getBuildConfigurationIds(BuildSetTask buildSetTask) {
+        return buildSetTask.getBuildTasks()
+                .stream()
+                .map(task -> task.getBuildConfigurationAudited().getId())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Integer> getBuildConfigurationIds(BuildConfigurationSet buildConfigurationSet) {
+        return buildConfigurationSet.getBuildConfigurations()
+                .stream()
+                .map(BuildConfiguration::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Checks if a task of the set was created for a configuration which was enqueued by another submission after the
+     * set had been created. Has to be called with the configurations of the set claimed.
+     */
+    private boolean hasConflictingSubmission(BuildSetTask buildSetTask) {
+        return buildSetTask.getBuildTasks().stream().anyMatch(task -> {
+            Optional<BuildTask> unfinishedTask = buildQueue.getUnfinishedTask(task.getBuildConfigurationAudited());
+            return unfinishedTask.isPresent() && unfinishedTask.get() != task;
+        });
     }
 
     private void checkNotRunning(BuildConfigurationAudited buildConfigurationAudited) throws BuildConflictException {
@@ -222,7 +290,8 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
     @Override
     public BuildSetTask build(BuildConfigurationSet buildConfigurationSet, User user, BuildOptions buildOptions)
             throws CoreException {
-        synchronized (buildMethodLock) {
+        try (BuildConfigurationLocks.Claim claim = buildConfigurationLocks
+                .claim(getBuildConfigurationIds(buildConfigurationSet))) {
             BuildSetTask buildSetTask = buildTasksInitializer.createBuildSetTask(
                     buildConfigurationSet,
                     user,
@@ -259,7 +328,8 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
             User user,
             BuildOptions buildOptions) throws CoreException {
 
-        synchronized (buildMethodLock) {
+        try (BuildConfigurationLocks.Claim claim = buildConfigurationLocks
+                .claim(getBuildConfigurationIds(buildConfigurationSet))) {
             BuildSetTask buildSetTask = buildTasksInitializer.createBuildSetTask(
                     buildConfigurationSet,
                     buildConfigurationAuditedsMap,
@@ -297,21 +367,29 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
             boolean checkImplicitDependencies,
             boolean temporaryBuild) {
         Set<BuildConfiguration> buildConfigurations = buildConfigurationSet.getBuildConfigurations();
-        int requiresRebuild = buildConfigurations.size();
-        log.debug("There are {} configurations in a set {}.", requiresRebuild, buildConfigurationSet.getId());
-
-        Set<Integer> processedDependenciesCache = new HashSet<Integer>();
+        log.debug(
+                "There are {} configurations in a set {}.",
+                buildConfigurations.size(),
+                buildConfigurationSet.getId());
+
+        Map<Integer, BuildConfigurationAudited> taskAuditeds = buildSetTask.getBuildTasks()
+                .stream()
+                .map(BuildTask::getBuildConfigurationAudited)
+                .collect(Collectors.toMap(BuildConfigurationAudited::getId, bca -> bca, (first, second) -> first));
+        List<BuildConfigurationAudited> buildConfigurationAuditeds = new ArrayList<>();
         for (BuildConfiguration buildConfiguration : buildConfigurations) {
-            BuildConfigurationAudited buildConfigurationAudited = datastoreAdapter
-                    .getLatestBuildConfigurationAuditedInitializeBCDependencies(buildConfiguration.getId());
-            if (!datastoreAdapter.requiresRebuild(
-                    buildConfigurationAudited,
-                    checkImplicitDependencies,
-                    temporaryBuild,
-                    processedDependenciesCache)) {
-                requiresRebuild--;
+            BuildConfigurationAudited buildConfigurationAudited = taskAuditeds.get(buildConfiguration.getId());
+            if (buildConfigurationAudited == null) {
+                buildConfigurationAudited = datastoreAdapter
+                        .getLatestBuildConfigurationAuditedInitializeBCDependencies(buildConfiguration.getId());
             }
+            buildConfigurationAuditeds.add(buildConfigurationAudited);
         }
+        Map<IdRev, BuildRecord> noRebuildCauses = datastoreAdapter
+                .getNoRebuildCauses(buildConfigurationAuditeds, checkImplicitDependencies, temporaryBuild);
+        long requiresRebuild = buildConfigurationAuditeds.stream()
+                .filter(bca -> !noRebuildCauses.containsKey(bca.getIdRev()))
+                .count();
         if (requiresRebuild == 0) {
             updateBuildSetTaskStatus(
                     buildSetTask,
@@ -320,29 +398,38 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
         }
     }
 
+    /**
+     * Enqueues tasks of the set. Has to be called with the configurations of the set claimed.
+     */
     private void build(BuildSetTask buildSetTask) {
-        synchronized (buildMethodLock) {
-            // if the set is rejected stop further processing but process when NO_REBUILD_REQUIRED to create build
-            // records
-            if (!BuildSetStatus.REJECTED.equals(buildSetTask.getStatus())) {
-                buildQueue.enqueueTaskSet(buildSetTask);
-                buildSetTask.getBuildTasks()
-                        .stream()
-                        .filter(this::rejectAlreadySubmitted)
-                        .sorted(this::dependantsFirst)
-                        .forEach(this::addTaskToBuildQueue);
-            }
+        // if the set is rejected stop further processing but process when NO_REBUILD_REQUIRED to create build
+        // records
+        if (!BuildSetStatus.REJECTED.equals(buildSetTask.getStatus())) {
+            buildQueue.enqueueTaskSet(buildSetTask);
+            List<BuildTask> toSubmit = buildSetTask.getBuildTasks()
+                    .stream()
+                    .filter(this::rejectAlreadySubmitted)
+                    .collect(Collectors.toList());
+            schedule(buildSetTask, toSubmit).forEach(this::addTaskToBuildQueue);
         }
     }
 
-    private int dependantsFirst(BuildTask task1, BuildTask task2) {
-        if (task1.getDependencies().contains(task2)) {
-            return -1;
-        }
-        if (task1.getDependants().contains(task2)) {
-            return 1;
-        }
-        return 0;
+    /**
+     * Orders the tasks dependencies first, tasks heading the longest chains first, and records the makespan estimate
+     * of the set. Durations and critical paths are in milliseconds.
+     */
+    private List<BuildTask> schedule(BuildSetTask buildSetTask, Collection<BuildTask> tasks) {
+        tasks.forEach(task -> task.setEstimatedDuration(durationEstimator.estimate(task)));
+        CriticalPathSchedule schedule = CriticalPathSchedule.of(tasks, BuildTask::getEstimatedDuration);
+        tasks.forEach(task -> task.setCriticalPath(schedule.getCriticalPath(task)));
+        buildSetTask.setCriticalPath(schedule.getCriticalPath());
+        buildSetTask.setEstimatedMakespan(schedule.estimateMakespan(systemConfig.getCoordinatorMaxConcurrentBuilds()));
+        log.debug(
+                "Scheduled {} tasks, critical path: {}, estimated makespan: {}.",
+                tasks.size(),
+                buildSetTask.getCriticalPath(),
+                buildSetTask.getEstimatedMakespan());
+        return schedule.getOrder();
     }
 
     private void addTaskToBuildQueue(BuildTask buildTask) {
@@ -773,6 +860,7 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
                 log.debug("[buildTaskId: {}] Storing success build result.", buildTaskId);
                 BuildRecord buildRecord = datastoreAdapter.storeResult(buildTask, buildResult);
                 if (buildRecord.getStatus().completedSuccessfully()) {
+                    recordBuildDuration(buildRecord);
                     coordinationStatus = BuildCoordinationStatus.DONE;
                 } else {
                     log.warn(
@@ -794,9 +882,18 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
         }
     }
 
-    private synchronized void markFinished(BuildTask task, BuildCoordinationStatus status, String statusDescription) {
+    private void recordBuildDuration(BuildRecord buildRecord) {
+        if (buildRecord.getStartTime() != null && buildRecord.getEndTime() != null) {
+            durationEstimator.record(
+                    buildRecord.getBuildConfigurationId(),
+                    buildRecord.getEndTime().getTime() - buildRecord.getStartTime().getTime());
+        }
+    }
+
+    private void markFinished(BuildTask task, BuildCoordinationStatus status, String statusDescription) {
         log.debug("Finishing buildTask {}. Setting status {}.", task, status);
         buildQueue.removeTask(task);
+        datastoreAdapter.discardOpenBuildLog(task);
         task.setStatus(status);
         task.setStatusDescription(statusDescription);
         switch (status) {
@@ -810,14 +907,17 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
             case DONE_WITH_ERRORS:
             case CANCELLED:
                 handleErroneousFinish(task);
+                // release the queue entries of the failed task and of the dependants finished above
+                buildQueue.executeNewReadyTasks();
                 break;
             default:
                 throw new IllegalArgumentException(
                         "Unhandled build task status: " + task.getStatus() + ". Build task: " + task);
         }
 
+        // tasks of a set can finish concurrently, only the one which removes the set from the queue completes it
         BuildSetTask buildSetTask = task.getBuildSetTask();
-        if (buildSetTask != null && buildSetTask.isFinished()) {
+        if (buildSetTask != null && buildSetTask.isFinished() && buildQueue.removeSet(buildSetTask)) {
             completeBuildSetTask(buildSetTask);
         }
     }
@@ -826,11 +926,14 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
         BuildSetTask taskSet = failedTask.getBuildSetTask();
         if (taskSet != null) {
             log.debug("Finishing tasks in set {}, after failedTask {}.", taskSet, failedTask);
-            taskSet.getBuildTasks()
-                    .stream()
-                    .filter(t -> isDependentOn(failedTask, t))
-                    .filter(t -> !t.getStatus().isCompleted())
-                    .forEach(t -> finishDueToFailedDependency(failedTask, t));
+            // several tasks of the set can fail at once, make sure a dependant is finished only once
+            synchronized (taskSet) {
+                taskSet.getBuildTasks()
+                        .stream()
+                        .filter(t -> isDependentOn(failedTask, t))
+                        .filter(t -> !t.getStatus().isCompleted())
+                        .forEach(t -> finishDueToFailedDependency(failedTask, t));
+            }
         }
     }
 
@@ -856,7 +959,6 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
 
     private void completeBuildSetTask(BuildSetTask buildSetTask) {
         log.debug("Completing buildSetTask {} ...", buildSetTask);
-        buildQueue.removeSet(buildSetTask);
         buildSetTask.taskStatusUpdatedToFinalState();
         updateBuildSetTaskStatus(buildSetTask, BuildSetStatus.DONE);
 
@@ -898,9 +1000,19 @@ public class DefaultBuildCoordinator implements BuildCoordinator {
 
     @PostConstruct
     public void start() {
+        loadBuildDurations();
         startThreads();
     }
 
+    private void loadBuildDurations() {
+        Date endedAfter = Date.from(Instant.now().minus(DURATION_HISTORY_DAYS, ChronoUnit.DAYS));
+        try {
+            durationEstimator.load(datastoreAdapter.getSuccessfulBuildDurations(endedAfter));
+        } catch (RuntimeException e) {
+            log.warn("Cannot load build durations, the scheduler starts without history.", e);
+        }
+    }
+
     private void startThreads() {
         int threadPoolSize = systemConfig.getCoordinatorThreadPoolSize();
         ExecutorService executorService = MDCExecutors
@@ -0,0 +1,44 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.jboss.pnc.spi.coordinator.BuildTask;
+
+import java.util.Comparator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Decides which of the ready tasks is taken when a build slot frees up.
+ *
+ * Tasks waiting longer than the aging limit of the queue are taken oldest first regardless of the policy, so that no
+ * policy can starve a task forever.
+ */
+public interface ReadyTaskPolicy {
+
+    /**
+     * @return name of the policy, used in metrics
+     */
+    String getName();
+
+    /**
+     * @param shareLoad load of the fair share the task belongs to, that is the number of its running builds divided by
+     *        the share weight
+     * @return comparator ordering the ready tasks, the first task is taken
+     */
+    Comparator<ReadyTask> comparator(ToDoubleFunction<BuildTask> shareLoad);
+}
@@ -0,0 +1,74 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.jboss.pnc.spi.coordinator.BuildTask;
+
+import java.util.Comparator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Ready queue policies selectable by the {@code coordinatorQueuePolicy} system configuration.
+ */
+public enum StandardReadyTaskPolicy implements ReadyTaskPolicy {
+
+    /**
+     * Tasks are taken in the order they became ready.
+     */
+    FIFO {
+        @Override
+        public Comparator<ReadyTask> comparator(ToDoubleFunction<BuildTask> shareLoad) {
+            return OLDEST_FIRST;
+        }
+    },
+
+    /**
+     * Tasks heading the longest chain of waiting dependants are taken first.
+     */
+    CRITICAL_PATH {
+        @Override
+        public Comparator<ReadyTask> comparator(ToDoubleFunction<BuildTask> shareLoad) {
+            return LONGEST_PATH_FIRST;
+        }
+    },
+
+    /**
+     * Tasks of the share (group build or user of a single build) with the least running builds per weight are taken
+     * first, ties are broken by the critical path. A large group build can't block single builds of other users.
+     */
+    FAIR_SHARE {
+        @Override
+        public Comparator<ReadyTask> comparator(ToDoubleFunction<BuildTask> shareLoad) {
+            Comparator<ReadyTask> leastLoadedFirst = Comparator
+                    .comparingDouble(ready -> shareLoad.applyAsDouble(ready.getTask()));
+            return leastLoadedFirst.thenComparing(LONGEST_PATH_FIRST);
+        }
+    };
+
+    private static final Comparator<ReadyTask> OLDEST_FIRST = Comparator.comparingLong(ReadyTask::getReadySince);
+
+    private static final Comparator<ReadyTask> LONGEST_PATH_FIRST = Comparator
+            .comparingLong((ReadyTask ready) -> ready.getTask().getCriticalPath())
+            .reversed()
+            .thenComparing(OLDEST_FIRST);
+
+    @Override
+    public String getName() {
+        return name();
+    }
+}
@@ -24,6 +24,7 @@ import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildConfigurationAudited;
 import org.jboss.pnc.model.BuildConfigurationSet;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.enums.BuildStatus;
 import org.jboss.pnc.model.Project;
 import org.jboss.pnc.spi.BuildOptions;
@@ -31,6 +32,8 @@ import org.jboss.pnc.spi.BuildResult;
 import org.jboss.pnc.spi.builddriver.BuildDriverResult;
 import org.jboss.pnc.spi.coordinator.BuildTask;
 import org.jboss.pnc.spi.coordinator.CompletionStatus;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
+import org.jboss.pnc.spi.datastore.BuildLogWriter;
 import org.jboss.pnc.spi.datastore.Datastore;
 import org.jboss.pnc.spi.datastore.DatastoreException;
 import org.jboss.pnc.spi.environment.EnvironmentDriverResult;
@@ -43,9 +46,11 @@ import org.slf4j.LoggerFactory;
 import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -67,6 +72,8 @@ public class DatastoreAdapter {
 
     private Datastore datastore;
 
+    private BuildLogStore buildLogStore;
+
     private static final Logger log = LoggerFactory.getLogger(DatastoreAdapter.class);
     private static final Logger userLog = LoggerFactory.getLogger("org.jboss.pnc._userlog_.build-result");
 
@@ -76,8 +83,9 @@ public class DatastoreAdapter {
     }
 
     @Inject
-    public DatastoreAdapter(Datastore datastore) {
+    public DatastoreAdapter(Datastore datastore, BuildLogStore buildLogStore) {
         this.datastore = datastore;
+        this.buildLogStore = buildLogStore;
     }
 
     public BuildConfigSetRecord saveBuildConfigSetRecord(BuildConfigSetRecord buildConfigSetRecord)
@@ -141,7 +149,7 @@ public class DatastoreAdapter {
 
             if (buildResult.getBuildDriverResult().isPresent()) {
                 BuildDriverResult buildDriverResult = buildResult.getBuildDriverResult().get();
-                buildRecordBuilder.appendLog(buildDriverResult.getBuildLog());
+                appendLog(buildTask, buildRecordBuilder, buildDriverResult.getBuildLog());
                 buildDriverResult.getOutputChecksum().ifPresent(sum -> buildRecordBuilder.buildOutputChecksum(sum));
                 buildRecordStatus = buildDriverResult.getBuildStatus(); // TODO buildRecord should use CompletionStatus
             } else if (!buildResult.hasFailed()) {
@@ -154,7 +162,7 @@ public class DatastoreAdapter {
 
             if (buildResult.getEnvironmentDriverResult().isPresent()) {
                 EnvironmentDriverResult environmentDriverResult = buildResult.getEnvironmentDriverResult().get();
-                buildRecordBuilder.appendLog(environmentDriverResult.getLog());
+                appendLog(buildTask, buildRecordBuilder, environmentDriverResult.getLog());
 
                 environmentDriverResult.getSshCredentials().ifPresent(c -> {
                     buildRecordBuilder.sshCommand(c.getCommand());
@@ -167,7 +175,7 @@ public class DatastoreAdapter {
             if (buildResult.getRepositoryManagerResult().isPresent()) {
                 RepositoryManagerResult repositoryManagerResult = buildResult.getRepositoryManagerResult().get();
 
-                buildRecordBuilder.appendLog(repositoryManagerResult.getLog());
+                appendLog(buildTask, buildRecordBuilder, repositoryManagerResult.getLog());
                 if (repositoryManagerResult.getCompletionStatus().isFailed()) {
                     buildRecordStatus = FAILED; // TODO, do not mix statuses
                 }
@@ -197,7 +205,7 @@ public class DatastoreAdapter {
                     buildRecordStatus = CANCELLED;
                 } else if (buildResult.getCompletionStatus().equals(CompletionStatus.TIMED_OUT)) {
                     buildRecordStatus = SYSTEM_ERROR;
-                    buildRecordBuilder.appendLog("-- Operation TIMED-OUT --");
+                    appendLog(buildTask, buildRecordBuilder, "-- Operation TIMED-OUT --");
                     userLog.warn("Operation TIMED-OUT.");
                 }
             }
@@ -218,6 +226,8 @@ public class DatastoreAdapter {
                                 "Trying to store success build with incomplete result. Missing BuildExecutionConfiguration."));
             }
 
+            closeStoredLog(buildTask, buildRecordBuilder);
+
             log.debug("Storing results of buildTask [{}] to datastore.", buildTask.getId());
             userLog.info("Successfully completed.");
             return datastore.storeCompletedBuild(buildRecordBuilder, builtArtifacts, dependencies);
@@ -297,7 +307,7 @@ public class DatastoreAdapter {
         StringWriter stackTraceWriter = new StringWriter();
         e.printStackTrace(new PrintWriter(stackTraceWriter));
         errorLog.append(stackTraceWriter.getBuffer());
-        buildRecordBuilder.buildLog(errorLog.toString());
+        storeErrorLog(buildTask, buildRecordBuilder, errorLog.toString());
 
         userLog.error("Build status: {}.", getBuildStatus(buildResult));
         log.debug(
@@ -306,6 +316,57 @@ public class DatastoreAdapter {
         return datastore.storeCompletedBuild(buildRecordBuilder, Collections.emptyList(), Collections.emptyList());
     }
 
+    /**
+     * Appends to the build log in the log store when the build driver has streamed the log there, to the build record
+     * otherwise.
+     */
+    private void appendLog(BuildTask buildTask, BuildRecord.Builder buildRecordBuilder, String logPart)
+            throws IOException {
+        Optional<BuildLogWriter> writer = buildLogStore.getOpenWriter(buildTask.getId());
+        if (writer.isPresent()) {
+            writer.get().append(logPart);
+        } else {
+            buildRecordBuilder.appendLog(logPart);
+        }
+    }
+
+    private void closeStoredLog(BuildTask buildTask, BuildRecord.Builder buildRecordBuilder) throws IOException {
+        Optional<BuildLogWriter> writer = buildLogStore.getOpenWriter(buildTask.getId());
+        if (writer.isPresent()) {
+            BuildLogWriter buildLogWriter = writer.get();
+            buildLogWriter.close();
+            buildRecordBuilder.storedBuildLog(
+                    buildLogWriter.getSize(),
+                    buildLogWriter.getMd5(),
+                    buildLogWriter.getSha256());
+        }
+    }
+
+    /**
+     * Drops the log of a finished build if it was left open in the log store, which happens when the build is finished
+     * without its result being stored. Does nothing if the log was stored.
+     */
+    public void discardOpenBuildLog(BuildTask buildTask) {
+        try {
+            buildLogStore.discardOpenWriter(buildTask.getId());
+        } catch (IOException e) {
+            log.warn("Cannot discard the build log of buildTask [{}].", buildTask.getId(), e);
+        }
+    }
+
+    private void storeErrorLog(BuildTask buildTask, BuildRecord.Builder buildRecordBuilder, String errorLog) {
+        if (buildLogStore.getOpenWriter(buildTask.getId()).isPresent()) {
+            try {
+                appendLog(buildTask, buildRecordBuilder, errorLog);
+                closeStoredLog(buildTask, buildRecordBuilder);
+                return;
+            } catch (IOException e) {
+                log.error("Cannot store the build log of buildTask [{}] to the log store.", buildTask.getId(), e);
+            }
+        }
+        buildRecordBuilder.buildLog(errorLog);
+    }
+
     private CompletionStatus getBuildStatus(Optional<BuildResult> buildResult) {
         if (buildResult.isPresent()) {
             return buildResult.get().getCompletionStatus();
@@ -395,10 +456,22 @@ public class DatastoreAdapter {
                 task::setNoRebuildCause);
     }
 
+    public Map<IdRev, BuildRecord> getNoRebuildCauses(
+            Collection<BuildConfigurationAudited> buildConfigurationAuditeds,
+            boolean checkImplicitDependencies,
+            boolean temporaryBuild) {
+        return datastore
+                .getNoRebuildCauses(buildConfigurationAuditeds, checkImplicitDependencies, temporaryBuild);
+    }
+
     public Set<BuildConfiguration> getBuildConfigurations(BuildConfigurationSet buildConfigurationSet) {
         return datastore.getBuildConfigurations(buildConfigurationSet);
     }
 
+    public Map<Integer, List<Long>> getSuccessfulBuildDurations(Date endedAfter) {
+        return datastore.getSuccessfulBuildDurations(endedAfter);
+    }
+
     public BuildConfigSetRecord getBuildCongigSetRecordById(Integer buildConfigSetRecordId) {
         return datastore.getBuildConfigSetRecordById(buildConfigSetRecordId);
     }
@@ -23,8 +23,10 @@ import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildConfigSetRecord;
 import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.spi.coordinator.Result;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
 import org.jboss.pnc.spi.datastore.repositories.ArtifactRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigSetRecordRepository;
+import org.jboss.pnc.spi.datastore.repositories.BuildLogTermRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildRecordRepository;
 import org.jboss.pnc.spi.exception.ValidationException;
 import org.slf4j.Logger;
@@ -34,6 +36,7 @@ import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -55,6 +58,10 @@ public class TemporaryBuildsCleaner {
 
     private RemoteBuildsCleaner remoteBuildsCleaner;
 
+    private BuildLogStore buildLogStore;
+
+    private BuildLogTermRepository buildLogTermRepository;
+
     @Deprecated
     public TemporaryBuildsCleaner() {
     }
@@ -64,11 +71,15 @@ public class TemporaryBuildsCleaner {
             BuildRecordRepository buildRecordRepository,
             BuildConfigSetRecordRepository buildConfigSetRecordRepository,
             ArtifactRepository artifactRepository,
-            RemoteBuildsCleaner remoteBuildsCleaner) {
+            RemoteBuildsCleaner remoteBuildsCleaner,
+            BuildLogStore buildLogStore,
+            BuildLogTermRepository buildLogTermRepository) {
         this.buildRecordRepository = buildRecordRepository;
         this.buildConfigSetRecordRepository = buildConfigSetRecordRepository;
         this.artifactRepository = artifactRepository;
         this.remoteBuildsCleaner = remoteBuildsCleaner;
+        this.buildLogStore = buildLogStore;
+        this.buildLogTermRepository = buildLogTermRepository;
     }
 
     /**
@@ -105,8 +116,14 @@ public class TemporaryBuildsCleaner {
 
         removeRebuildCauseRelationship(buildRecord);
         removeBuiltArtifacts(buildRecord);
+        buildLogTermRepository.deleteForBuildRecord(buildRecord.getId());
 
         buildRecordRepository.delete(buildRecord.getId());
+        try {
+            buildLogStore.delete(buildRecord.getId());
+        } catch (IOException e) {
+            log.warn("Failed to delete the stored build log of the temporary build {}.", buildRecord.getId(), e);
+        }
         log.info("Deletion of the temporary build {} finished successfully.", buildRecord);
         return new Result(buildRecordId.toString(), ResultStatus.SUCCESS);
     }
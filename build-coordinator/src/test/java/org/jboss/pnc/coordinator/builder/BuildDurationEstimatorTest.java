@@ -0,0 +1,75 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BuildDurationEstimatorTest {
+
+    @Test
+    public void shouldUseDefaultWithoutHistory() {
+        BuildDurationEstimator estimator = new BuildDurationEstimator();
+
+        assertThat(estimator.estimate(1)).isEqualTo(BuildDurationEstimator.DEFAULT_DURATION_MILLIS);
+    }
+
+    @Test
+    public void shouldFollowRecentDurations() {
+        BuildDurationEstimator estimator = new BuildDurationEstimator();
+        estimator.record(1, 1000L);
+        assertThat(estimator.estimate(1)).isEqualTo(1000L);
+
+        for (int i = 0; i < 5 * BuildDurationEstimator.HISTORY_SIZE; i++) {
+            estimator.record(1, 5000L);
+        }
+
+        assertThat(estimator.estimate(1)).isBetween(4900L, 5000L);
+    }
+
+    @Test
+    public void shouldWeightRecentBuildsMore() {
+        BuildDurationEstimator estimator = new BuildDurationEstimator();
+        estimator.record(1, 1000L);
+        estimator.record(1, 2000L);
+
+        assertThat(estimator.estimate(1)).isGreaterThan(1000L).isLessThan(1500L);
+    }
+
+    @Test
+    public void shouldWarmUpFromHistory() {
+        Map<Integer, List<Long>> history = new HashMap<>();
+        history.put(1, Arrays.asList(1000L, 1000L, 1000L));
+        history.put(2, Collections.singletonList(3000L));
+        BuildDurationEstimator estimator = new BuildDurationEstimator();
+
+        estimator.load(history);
+
+        assertThat(estimator.estimate(1)).isEqualTo(1000L);
+        assertThat(estimator.estimate(2)).isEqualTo(3000L);
+        // configurations without history use the average of the known ones
+        assertThat(estimator.estimate(3)).isEqualTo(2000L);
+    }
+}
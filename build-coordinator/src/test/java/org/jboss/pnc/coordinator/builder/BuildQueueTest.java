@@ -0,0 +1,269 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.jboss.pnc.common.json.moduleconfig.SystemConfig;
+import org.jboss.pnc.enums.BuildCoordinationStatus;
+import org.jboss.pnc.mock.model.BuildEnvironmentMock;
+import org.jboss.pnc.mock.model.MockUser;
+import org.jboss.pnc.mock.model.RepositoryConfigurationMock;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildConfigurationAudited;
+import org.jboss.pnc.model.Project;
+import org.jboss.pnc.spi.BuildOptions;
+import org.jboss.pnc.spi.coordinator.BuildTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BuildQueueTest {
+
+    private static final Project PROJECT = Project.Builder.newBuilder().id(1).name("queue-project").build();
+
+    private BuildQueue buildQueue;
+
+    @Before
+    public void setUp() {
+        SystemConfig systemConfig = mock(SystemConfig.class);
+        when(systemConfig.getCoordinatorMaxConcurrentBuilds()).thenReturn(10);
+        buildQueue = new BuildQueue(systemConfig);
+        buildQueue.initSemaphore();
+    }
+
+    @Test
+    public void shouldMoveOnlyDirectDependantsToReady() throws InterruptedException {
+        BuildTask dependency = buildTask(1);
+        BuildTask dependant = buildTask(2);
+        BuildTask transitiveDependant = buildTask(3);
+        dependant.addDependency(dependency);
+        transitiveDependant.addDependency(dependant);
+
+        AtomicInteger dependantCallbacks = new AtomicInteger();
+        AtomicInteger transitiveCallbacks = new AtomicInteger();
+        buildQueue.addWaitingTask(transitiveDependant, transitiveCallbacks::incrementAndGet);
+        buildQueue.addWaitingTask(dependant, dependantCallbacks::incrementAndGet);
+        buildQueue.addReadyTask(dependency);
+        assertThat(buildQueue.getSubmittedBuildTasks()).hasSize(3);
+
+        assertThat(takeTask()).isEqualTo(dependency);
+        finish(dependency);
+
+        assertThat(dependantCallbacks.get()).isEqualTo(1);
+        assertThat(transitiveCallbacks.get()).isEqualTo(0);
+        assertThat(buildQueue.getSubmittedBuildTasks()).containsOnly(dependant, transitiveDependant);
+
+        assertThat(takeTask()).isEqualTo(dependant);
+        finish(dependant);
+
+        assertThat(transitiveCallbacks.get()).isEqualTo(1);
+        assertThat(takeTask()).isEqualTo(transitiveDependant);
+        finish(transitiveDependant);
+
+        assertThat(buildQueue.getSubmittedBuildTasks()).isEmpty();
+        assertThat(buildQueue.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldWaitForAllDependencies() throws InterruptedException {
+        BuildTask dependency1 = buildTask(1);
+        BuildTask dependency2 = buildTask(2);
+        BuildTask dependant = buildTask(3);
+        dependant.addDependency(dependency1);
+        dependant.addDependency(dependency2);
+
+        AtomicInteger callbacks = new AtomicInteger();
+        buildQueue.addWaitingTask(dependant, callbacks::incrementAndGet);
+        buildQueue.addReadyTask(dependency1);
+        buildQueue.addReadyTask(dependency2);
+
+        BuildTask first = takeTask();
+        finish(first);
+        assertThat(callbacks.get()).isEqualTo(0);
+
+        BuildTask second = takeTask();
+        finish(second);
+        assertThat(callbacks.get()).isEqualTo(1);
+        assertThat(takeTask()).isEqualTo(dependant);
+    }
+
+    @Test
+    public void shouldNotPromoteDependantsOfFailedTask() throws InterruptedException {
+        BuildTask dependency = buildTask(1);
+        BuildTask dependant = buildTask(2);
+        BuildTask other = buildTask(3);
+        dependant.addDependency(dependency);
+
+        AtomicInteger callbacks = new AtomicInteger();
+        buildQueue.addWaitingTask(dependant, callbacks::incrementAndGet);
+        buildQueue.addReadyTask(dependency);
+
+        assertThat(takeTask()).isEqualTo(dependency);
+        finish(dependency, BuildCoordinationStatus.SYSTEM_ERROR);
+        finish(dependant, BuildCoordinationStatus.REJECTED_FAILED_DEPENDENCIES);
+
+        assertThat(callbacks.get()).isEqualTo(0);
+        assertThat(buildQueue.isEmpty()).isTrue();
+
+        buildQueue.addReadyTask(other);
+        assertThat(takeTask()).isEqualTo(other);
+    }
+
+    @Test
+    public void shouldNotStartTaskRemovedWhileReady() throws InterruptedException {
+        BuildTask removed = buildTask(1);
+        BuildTask kept = buildTask(2);
+        buildQueue.addReadyTask(removed);
+        buildQueue.addReadyTask(kept);
+
+        buildQueue.removeTask(removed);
+
+        assertThat(buildQueue.getUnfinishedTask(removed.getBuildConfigurationAudited())).isEmpty();
+        assertThat(takeTask()).isEqualTo(kept);
+    }
+
+    @Test
+    public void shouldIndexUnfinishedTasksByConfiguration() {
+        BuildTask task = buildTask(1);
+        buildQueue.addReadyTask(task);
+
+        assertThat(buildQueue.isBuildAlreadySubmitted(task)).isTrue();
+        assertThat(buildQueue.getUnfinishedTask(task.getBuildConfigurationAudited())).contains(task);
+        assertThat(buildQueue.getTask(task.getBuildConfigurationAudited())).contains(task);
+
+        List<BuildTask> snapshot = buildQueue.getSubmittedBuildTasks();
+        buildQueue.removeTask(task);
+
+        assertThat(snapshot).containsOnly(task);
+        assertThat(buildQueue.getSubmittedBuildTasks()).isEmpty();
+        assertThat(buildQueue.isBuildAlreadySubmitted(task)).isFalse();
+    }
+
+    @Test
+    public void shouldPreferTasksOfLeastLoadedShare() throws InterruptedException {
+        BuildTask firstOfUser1 = buildTask(1, 1);
+        BuildTask secondOfUser1 = buildTask(2, 1);
+        BuildTask firstOfUser2 = buildTask(3, 2);
+        buildQueue.addReadyTask(firstOfUser1);
+        buildQueue.addReadyTask(secondOfUser1);
+        buildQueue.addReadyTask(firstOfUser2);
+
+        assertThat(takeTask()).isEqualTo(firstOfUser1);
+        assertThat(takeTask()).isEqualTo(firstOfUser2);
+        assertThat(takeTask()).isEqualTo(secondOfUser1);
+    }
+
+    @Test
+    public void shouldPreferLongestCriticalPath() throws InterruptedException {
+        buildQueue.setPolicy(StandardReadyTaskPolicy.CRITICAL_PATH);
+        BuildTask leaf = buildTask(1);
+        leaf.setCriticalPath(1);
+        BuildTask chainHead = buildTask(2);
+        chainHead.setCriticalPath(5);
+        buildQueue.addReadyTask(leaf);
+        buildQueue.addReadyTask(chainHead);
+
+        assertThat(takeTask()).isEqualTo(chainHead);
+        assertThat(takeTask()).isEqualTo(leaf);
+    }
+
+    @Test
+    public void shouldTakeAgedTaskFirst() throws InterruptedException {
+        SystemConfig systemConfig = mock(SystemConfig.class);
+        when(systemConfig.getCoordinatorMaxConcurrentBuilds()).thenReturn(10);
+        when(systemConfig.getCoordinatorQueuePolicy()).thenReturn(StandardReadyTaskPolicy.CRITICAL_PATH.name());
+        when(systemConfig.getCoordinatorQueueAgingMillis()).thenReturn(1L);
+        buildQueue = new BuildQueue(systemConfig);
+        buildQueue.initSemaphore();
+
+        BuildTask old = buildTask(1);
+        old.setCriticalPath(1);
+        buildQueue.addReadyTask(old);
+        Thread.sleep(10);
+        BuildTask chainHead = buildTask(2);
+        chainHead.setCriticalPath(5);
+        buildQueue.addReadyTask(chainHead);
+        Thread.sleep(10);
+
+        assertThat(takeTask()).isEqualTo(old);
+    }
+
+    private BuildTask takeTask() throws InterruptedException {
+        BlockingQueue<BuildTask> taken = new ArrayBlockingQueue<>(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                buildQueue.take(taken::add);
+                return null;
+            });
+            BuildTask task = taken.poll(5, TimeUnit.SECONDS);
+            assertThat(task).as("Task was not taken from the queue.").isNotNull();
+            return task;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void finish(BuildTask task) {
+        finish(task, BuildCoordinationStatus.DONE);
+    }
+
+    private void finish(BuildTask task, BuildCoordinationStatus status) {
+        buildQueue.removeTask(task);
+        task.setStatus(status);
+        buildQueue.executeNewReadyTasks();
+    }
+
+    private static BuildTask buildTask(int id) {
+        return buildTask(id, 1);
+    }
+
+    private static BuildTask buildTask(int id, int userId) {
+        BuildConfiguration buildConfiguration = BuildConfiguration.Builder.newBuilder()
+                .id(id)
+                .project(PROJECT)
+                .name("build-config-" + id)
+                .repositoryConfiguration(RepositoryConfigurationMock.newTestRepository())
+                .buildEnvironment(BuildEnvironmentMock.newTest())
+                .build();
+        BuildConfigurationAudited buildConfigurationAudited = BuildConfigurationAudited
+                .fromBuildConfiguration(buildConfiguration, 1);
+        return BuildTask.build(
+                buildConfigurationAudited,
+                new BuildOptions(),
+                MockUser.newTestUser(userId),
+                id,
+                null,
+                new Date(),
+                null,
+                "content-id-" + id,
+                Optional.empty());
+    }
+}
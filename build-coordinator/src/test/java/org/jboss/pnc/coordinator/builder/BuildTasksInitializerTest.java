@@ -0,0 +1,192 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.jboss.pnc.coordinator.builder.datastore.DatastoreAdapter;
+import org.jboss.pnc.model.BuildConfigSetRecord;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildConfigurationAudited;
+import org.jboss.pnc.model.BuildConfigurationSet;
+import org.jboss.pnc.model.User;
+import org.jboss.pnc.spi.BuildOptions;
+import org.jboss.pnc.spi.coordinator.BuildSetTask;
+import org.jboss.pnc.spi.coordinator.BuildTask;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BuildTasksInitializerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuildTasksInitializerTest.class);
+
+    private static final User USER = User.Builder.newBuilder().id(1).username("test-user").build();
+
+    private DatastoreAdapter datastoreAdapter;
+
+    @Before
+    public void setUp() throws Exception {
+        datastoreAdapter = mock(DatastoreAdapter.class);
+        when(datastoreAdapter.saveBuildConfigSetRecord(any(BuildConfigSetRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void shouldWireDirectDependenciesOfTasksInSet() throws Exception {
+        // given a diamond 1 -> (2, 3) -> 4
+        List<BuildConfiguration> configurations = configurations(4);
+        dependsOn(configurations, 1, 2);
+        dependsOn(configurations, 1, 3);
+        dependsOn(configurations, 2, 4);
+        dependsOn(configurations, 3, 4);
+
+        // when
+        BuildSetTask buildSetTask = createBuildSetTask(configurations, Collections.emptySet());
+
+        // then
+        assertThat(buildSetTask.getBuildTasks()).hasSize(4);
+        assertThat(dependencyIds(task(buildSetTask, 1))).containsExactlyInAnyOrder(2, 3);
+        assertThat(dependencyIds(task(buildSetTask, 2))).containsExactly(4);
+        assertThat(dependencyIds(task(buildSetTask, 3))).containsExactly(4);
+        assertThat(task(buildSetTask, 4).getDependencies()).isEmpty();
+        assertThat(task(buildSetTask, 4).getDependants()).hasSize(2);
+    }
+
+    @Test
+    public void shouldReuseAlreadySubmittedTask() throws Exception {
+        // given
+        List<BuildConfiguration> configurations = configurations(2);
+        dependsOn(configurations, 1, 2);
+        BuildSetTask previousSet = createBuildSetTask(configurations.subList(1, 2), Collections.emptySet());
+        BuildTask submitted = task(previousSet, 2);
+
+        // when
+        BuildSetTask buildSetTask = createBuildSetTask(configurations, Collections.singleton(submitted));
+
+        // then
+        assertThat(task(buildSetTask, 2)).isSameAs(submitted);
+        assertThat(task(buildSetTask, 1).getDependencies()).containsExactly(submitted);
+    }
+
+    /**
+     * Builds random DAGs of growing size, each configuration depending on up to 5 configurations with lower ids, and
+     * verifies the wiring. Logs the time spent in building the set.
+     */
+    @Test
+    public void shouldBuildLargeGraphs() throws Exception {
+        Random random = new Random(42);
+        for (int size : new int[] { 100, 1000, 10000 }) {
+            List<BuildConfiguration> configurations = configurations(size);
+            Map<Integer, Set<Integer>> expected = new HashMap<>();
+            expected.put(1, Collections.emptySet());
+            for (int id = 2; id <= size; id++) {
+                Set<Integer> dependencies = new HashSet<>();
+                int count = random.nextInt(6);
+                for (int i = 0; i < count; i++) {
+                    int dependency = 1 + random.nextInt(id - 1);
+                    dependsOn(configurations, id, dependency);
+                    dependencies.add(dependency);
+                }
+                expected.put(id, dependencies);
+            }
+
+            long start = System.nanoTime();
+            BuildSetTask buildSetTask = createBuildSetTask(configurations, Collections.emptySet());
+            long took = System.nanoTime() - start;
+            logger.info("Created a build set of {} tasks in {} ms.", size, took / 1_000_000);
+
+            assertThat(buildSetTask.getBuildTasks()).hasSize(size);
+            for (BuildTask buildTask : buildSetTask.getBuildTasks()) {
+                Integer id = buildTask.getBuildConfigurationAudited().getId();
+                assertThat(dependencyIds(buildTask)).isEqualTo(expected.get(id));
+            }
+        }
+    }
+
+    private BuildSetTask createBuildSetTask(List<BuildConfiguration> configurations, Set<BuildTask> submitted)
+            throws Exception {
+        BuildConfigurationSet buildConfigurationSet = BuildConfigurationSet.Builder.newBuilder()
+                .id(1)
+                .name("test-set")
+                .buildConfigurations(new HashSet<>(configurations))
+                .build();
+        when(datastoreAdapter.getBuildConfigurations(buildConfigurationSet))
+                .thenReturn(new HashSet<>(configurations));
+
+        Map<Integer, BuildConfigurationAudited> auditeds = configurations.stream()
+                .collect(
+                        Collectors.toMap(
+                                BuildConfiguration::getId,
+                                bc -> BuildConfigurationAudited.fromBuildConfiguration(bc, 1)));
+
+        AtomicInteger taskIds = new AtomicInteger(1);
+        return new BuildTasksInitializer(datastoreAdapter, 1L).createBuildSetTask(
+                buildConfigurationSet,
+                auditeds,
+                USER,
+                new BuildOptions(),
+                taskIds::getAndIncrement,
+                submitted);
+    }
+
+    private static List<BuildConfiguration> configurations(int count) {
+        List<BuildConfiguration> configurations = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            configurations.add(BuildConfiguration.Builder.newBuilder().id(id).name("bc-" + id).build());
+        }
+        return configurations;
+    }
+
+    /**
+     * Adds the dependency directly to skip the cycle check of {@link BuildConfiguration#addDependency}.
+     */
+    private static void dependsOn(List<BuildConfiguration> configurations, int id, int dependencyId) {
+        configurations.get(id - 1).getDependencies().add(configurations.get(dependencyId - 1));
+    }
+
+    private static BuildTask task(BuildSetTask buildSetTask, int configurationId) {
+        return buildSetTask.getBuildTasks()
+                .stream()
+                .filter(task -> task.getBuildConfigurationAudited().getId().equals(configurationId))
+                .findAny()
+                .get();
+    }
+
+    private static Set<Integer> dependencyIds(BuildTask buildTask) {
+        return buildTask.getDependencies()
+                .stream()
+                .map(task -> task.getBuildConfigurationAudited().getId())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.jboss.pnc.common.json.moduleconfig.SystemConfig;
+import org.jboss.pnc.coordinator.builder.datastore.DatastoreAdapter;
+import org.jboss.pnc.enums.BuildCoordinationStatus;
+import org.jboss.pnc.mapper.api.BuildMapper;
+import org.jboss.pnc.mapper.api.GroupBuildMapper;
+import org.jboss.pnc.mock.model.BuildEnvironmentMock;
+import org.jboss.pnc.mock.model.RepositoryConfigurationMock;
+import org.jboss.pnc.model.BuildConfigSetRecord;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildConfigurationAudited;
+import org.jboss.pnc.model.BuildConfigurationSet;
+import org.jboss.pnc.model.Project;
+import org.jboss.pnc.model.User;
+import org.jboss.pnc.spi.BuildOptions;
+import org.jboss.pnc.spi.coordinator.BuildCoordinator;
+import org.jboss.pnc.spi.coordinator.BuildSetTask;
+import org.jboss.pnc.spi.coordinator.BuildTask;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
+import org.jboss.pnc.spi.datastore.Datastore;
+import org.jboss.pnc.spi.datastore.DatastoreException;
+import org.jboss.pnc.spi.events.BuildSetStatusChangedEvent;
+import org.jboss.pnc.spi.events.BuildStatusChangedEvent;
+import org.jboss.pnc.spi.exception.BuildConflictException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.enterprise.event.Event;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Submits many overlapping group and single builds at once and checks that no configuration ends up in the queue
+ * twice. The configurations share dependencies, so single builds claim the dependency closures overlapping with the
+ * group builds and with each other.
+ */
+public class ConcurrentBuildSubmissionTest {
+
+    private static final int CONFIGURATIONS = 60;
+    private static final int GROUP_BUILDS = 300;
+    private static final int SINGLE_BUILDS = 100;
+    private static final int GROUP_SIZE = 12;
+    private static final int THREADS = 16;
+    private static final int MAX_DIRECT_DEPENDENCIES = 3;
+
+    private static final User USER = new User();
+    private static final BuildOptions BUILD_OPTIONS = new BuildOptions();
+
+    @Mock
+    private Datastore datastore;
+    @Mock
+    private BuildLogStore buildLogStore;
+    @Mock
+    private Event<BuildSetStatusChangedEvent> buildSetStatusChangedEventNotifier;
+    @Mock
+    private BuildSchedulerFactory buildSchedulerFactory;
+    @Mock
+    private SystemConfig systemConfig;
+    @Mock
+    private Event<BuildStatusChangedEvent> buildStatusChangedEventNotifier;
+    @Mock
+    private GroupBuildMapper groupBuildMapper;
+    @Mock
+    private BuildMapper buildMapper;
+
+    @InjectMocks
+    private DatastoreAdapter datastoreAdapter;
+
+    private BuildQueue buildQueue;
+
+    private BuildCoordinator coordinator;
+
+    private final List<BuildConfiguration> buildConfigurations = new ArrayList<>();
+
+    @Before
+    public void setUp() throws DatastoreException {
+        MockitoAnnotations.initMocks(this);
+        USER.setId(1);
+        when(systemConfig.getTemporaryBuildsLifeSpan()).thenReturn(14);
+        when(systemConfig.getCoordinatorThreadPoolSize()).thenReturn(1);
+        when(systemConfig.getCoordinatorMaxConcurrentBuilds()).thenReturn(10);
+        // nothing was built before, every configuration requires a rebuild
+        when(datastore.getNoRebuildCauses(anyCollection(), anyBoolean(), anyBoolean()))
+                .thenReturn(Collections.emptyMap());
+
+        AtomicInteger recordIds = new AtomicInteger();
+        when(datastore.getNextBuildRecordId()).thenAnswer(invocation -> recordIds.incrementAndGet());
+        AtomicInteger setRecordIds = new AtomicInteger();
+        when(datastore.saveBuildConfigSetRecord(any())).thenAnswer(invocation -> {
+            BuildConfigSetRecord record = invocation.getArgument(0);
+            if (record.getId() == null) {
+                record.setId(setRecordIds.incrementAndGet());
+            }
+            return record;
+        });
+        when(datastore.getBuildConfigurations(any()))
+                .thenAnswer(invocation -> ((BuildConfigurationSet) invocation.getArgument(0)).getBuildConfigurations());
+
+        Project project = Project.Builder.newBuilder().id(1).name("concurrent-project").build();
+        for (int id = 1; id <= CONFIGURATIONS; id++) {
+            BuildConfiguration buildConfiguration = BuildConfiguration.Builder.newBuilder()
+                    .id(id)
+                    .project(project)
+                    .name("build-config-" + id)
+                    .repositoryConfiguration(RepositoryConfigurationMock.newTestRepository())
+                    .buildEnvironment(BuildEnvironmentMock.newTest())
+                    .build();
+            project.addBuildConfiguration(buildConfiguration);
+            buildConfigurations.add(buildConfiguration);
+        }
+        addDependencies(new Random(7));
+        for (BuildConfiguration buildConfiguration : buildConfigurations) {
+            BuildConfigurationAudited audited = BuildConfigurationAudited.fromBuildConfiguration(buildConfiguration, 1);
+            when(datastore.getLatestBuildConfigurationAuditedLoadBCDependencies(buildConfiguration.getId()))
+                    .thenReturn(audited);
+            when(datastore.getLatestBuildConfigurationAudited(buildConfiguration.getId())).thenReturn(audited);
+        }
+
+        buildQueue = new BuildQueue(systemConfig);
+        buildQueue.initSemaphore();
+        coordinator = new DefaultBuildCoordinator(
+                datastoreAdapter,
+                buildStatusChangedEventNotifier,
+                buildSetStatusChangedEventNotifier,
+                buildSchedulerFactory,
+                buildQueue,
+                systemConfig,
+                groupBuildMapper,
+                buildMapper);
+    }
+
+    @Test
+    public void shouldNotEnqueueDuplicateTasksForOverlappingSubmissions() throws Exception {
+        Random random = new Random(42);
+        List<Callable<BuildSetTask>> submissions = new ArrayList<>();
+        for (int i = 0; i < GROUP_BUILDS; i++) {
+            BuildConfigurationSet buildConfigurationSet = randomSet(random, i);
+            submissions.add(() -> coordinator.build(buildConfigurationSet, USER, BUILD_OPTIONS));
+        }
+        for (int i = 0; i < SINGLE_BUILDS; i++) {
+            BuildConfiguration buildConfiguration = buildConfigurations.get(random.nextInt(CONFIGURATIONS));
+            submissions.add(() -> {
+                try {
+                    return coordinator.build(buildConfiguration, USER, BUILD_OPTIONS);
+                } catch (BuildConflictException e) {
+                    // the configuration is already in the queue
+                    return null;
+                }
+            });
+        }
+        Collections.shuffle(submissions, random);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<BuildSetTask> buildSetTasks = new ArrayList<>();
+        try {
+            for (Future<BuildSetTask> future : executor.invokeAll(submissions)) {
+                BuildSetTask buildSetTask = future.get();
+                if (buildSetTask != null) {
+                    buildSetTasks.add(buildSetTask);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        Map<BuildConfigurationAudited, Set<BuildTask>> activeTasks = new HashMap<>();
+        for (BuildSetTask buildSetTask : buildSetTasks) {
+            for (BuildTask buildTask : buildSetTask.getBuildTasks()) {
+                if (isActive(buildTask)) {
+                    activeTasks
+                            .computeIfAbsent(
+                                    buildTask.getBuildConfigurationAudited(),
+                                    bca -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                            .add(buildTask);
+                }
+            }
+        }
+
+        assertThat(activeTasks).isNotEmpty();
+        activeTasks.forEach((bca, tasks) -> {
+            assertThat(tasks).as("Enqueued tasks of %s", bca).hasSize(1);
+            assertThat(buildQueue.getUnfinishedTask(bca).get()).isSameAs(tasks.iterator().next());
+        });
+        assertThat(activeTasks.values().stream().flatMap(Set::stream))
+                .anyMatch(task -> task.getStatus() == BuildCoordinationStatus.WAITING_FOR_DEPENDENCIES);
+        assertThat(buildQueue.getSubmittedBuildTasks())
+                .allMatch(ConcurrentBuildSubmissionTest::isActive)
+                .hasSize(activeTasks.size());
+    }
+
+    private static boolean isActive(BuildTask buildTask) {
+        return buildTask.getStatus() == BuildCoordinationStatus.ENQUEUED
+                || buildTask.getStatus() == BuildCoordinationStatus.WAITING_FOR_DEPENDENCIES;
+    }
+
+    /**
+     * Every configuration depends on up to {@link #MAX_DIRECT_DEPENDENCIES} configurations with a lower id, so the
+     * configurations with low ids are shared dependencies of most of the others and the graph stays acyclic.
+     */
+    private void addDependencies(Random random) {
+        for (int i = 1; i < buildConfigurations.size(); i++) {
+            BuildConfiguration buildConfiguration = buildConfigurations.get(i);
+            int dependencies = random.nextInt(MAX_DIRECT_DEPENDENCIES + 1);
+            for (int d = 0; d < dependencies; d++) {
+                buildConfiguration.addDependency(buildConfigurations.get(random.nextInt(i)));
+            }
+        }
+    }
+
+    private BuildConfigurationSet randomSet(Random random, int id) {
+        Set<BuildConfiguration> members = new HashSet<>();
+        while (members.size() < GROUP_SIZE) {
+            members.add(buildConfigurations.get(random.nextInt(CONFIGURATIONS)));
+        }
+        return BuildConfigurationSet.Builder.newBuilder()
+                .id(id)
+                .name("group-" + id)
+                .buildConfigurations(members)
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.coordinator.builder;
+
+import org.jboss.pnc.mock.model.BuildEnvironmentMock;
+import org.jboss.pnc.mock.model.MockUser;
+import org.jboss.pnc.mock.model.RepositoryConfigurationMock;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildConfigurationAudited;
+import org.jboss.pnc.model.Project;
+import org.jboss.pnc.spi.BuildOptions;
+import org.jboss.pnc.spi.coordinator.BuildTask;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CriticalPathScheduleTest {
+
+    private static final Project PROJECT = Project.Builder.newBuilder().id(1).name("schedule-project").build();
+
+    @Test
+    public void shouldStartLongestChainFirst() {
+        // 1 <- 2 <- 3 <- 4 is the long chain, 5 and 6 are independent leaves
+        BuildTask task1 = buildTask(1);
+        BuildTask task2 = buildTask(2);
+        BuildTask task3 = buildTask(3);
+        BuildTask task4 = buildTask(4);
+        BuildTask task5 = buildTask(5);
+        BuildTask task6 = buildTask(6);
+        task2.addDependency(task1);
+        task3.addDependency(task2);
+        task4.addDependency(task3);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule
+                .of(Arrays.asList(task6, task5, task4, task3, task2, task1), task -> 1L);
+
+        assertThat(schedule.getOrder()).containsExactly(task1, task2, task3, task4, task5, task6);
+        assertThat(schedule.getCriticalPath(task1)).isEqualTo(4);
+        assertThat(schedule.getCriticalPath(task5)).isEqualTo(1);
+        assertThat(schedule.getCriticalPath()).isEqualTo(4);
+        assertThat(schedule.getTotalDuration()).isEqualTo(6);
+    }
+
+    @Test
+    public void shouldUseDurationsForCriticalPath() {
+        // 1 <- 2 takes 2 units, 3 alone takes 5
+        BuildTask task1 = buildTask(1);
+        BuildTask task2 = buildTask(2);
+        BuildTask task3 = buildTask(3);
+        task2.addDependency(task1);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule
+                .of(Arrays.asList(task1, task2, task3), task -> task.getId() == 3 ? 5L : 1L);
+
+        assertThat(schedule.getOrder()).containsExactly(task3, task1, task2);
+        assertThat(schedule.estimateMakespan(1)).isEqualTo(7);
+        assertThat(schedule.estimateMakespan(2)).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldEstimateMakespan() {
+        // diamond 1 <- 2, 1 <- 3, 2 <- 4, 3 <- 4
+        BuildTask task1 = buildTask(1);
+        BuildTask task2 = buildTask(2);
+        BuildTask task3 = buildTask(3);
+        BuildTask task4 = buildTask(4);
+        task2.addDependency(task1);
+        task3.addDependency(task1);
+        task4.addDependency(task2);
+        task4.addDependency(task3);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule.of(Arrays.asList(task1, task2, task3, task4), t -> 1L);
+
+        assertThat(schedule.getOrder().get(0)).isEqualTo(task1);
+        assertThat(schedule.getOrder().get(3)).isEqualTo(task4);
+        assertThat(schedule.estimateMakespan(1)).isEqualTo(4);
+        assertThat(schedule.estimateMakespan(2)).isEqualTo(3);
+        assertThat(schedule.estimateMakespan(10)).isEqualTo(schedule.getCriticalPath());
+    }
+
+    @Test
+    public void shouldIgnoreDependenciesOutsideOfTheSet() {
+        BuildTask submittedEarlier = buildTask(1);
+        BuildTask task2 = buildTask(2);
+        task2.addDependency(submittedEarlier);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule.of(Collections.singletonList(task2), t -> 1L);
+
+        assertThat(schedule.getOrder()).containsExactly(task2);
+        assertThat(schedule.getCriticalPath(submittedEarlier)).isZero();
+        assertThat(schedule.estimateMakespan(1)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepTasksOfACycle() {
+        BuildTask task1 = buildTask(1);
+        BuildTask task2 = buildTask(2);
+        BuildTask task3 = buildTask(3);
+        task1.getDependencies().add(task2);
+        task2.getDependants().add(task1);
+        task2.getDependencies().add(task1);
+        task1.getDependants().add(task2);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule.of(Arrays.asList(task1, task2, task3), t -> 1L);
+
+        assertThat(schedule.getOrder()).hasSize(3);
+        assertThat(schedule.getOrder().get(0)).isEqualTo(task3);
+    }
+
+    @Test
+    public void shouldOrderLargeRandomDagDependenciesFirst() {
+        int size = 5000;
+        Random random = new Random(7);
+        List<BuildTask> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BuildTask task = buildTask(i);
+            for (int j = 0; j < 3 && i > 0; j++) {
+                task.addDependency(tasks.get(random.nextInt(i)));
+            }
+            tasks.add(task);
+        }
+        Collections.shuffle(tasks, random);
+
+        CriticalPathSchedule schedule = CriticalPathSchedule.of(tasks, t -> 1L);
+
+        List<BuildTask> order = schedule.getOrder();
+        assertThat(order).hasSize(size);
+        boolean[] submitted = new boolean[size];
+        for (BuildTask task : order) {
+            for (BuildTask dependency : task.getDependencies()) {
+                assertThat(submitted[dependency.getId()]).as("dependency of %s submitted first", task).isTrue();
+            }
+            submitted[task.getId()] = true;
+        }
+        assertThat(schedule.estimateMakespan(10)).isGreaterThanOrEqualTo(schedule.getCriticalPath())
+                .isGreaterThanOrEqualTo(schedule.getTotalDuration() / 10);
+    }
+
+    private static BuildTask buildTask(int id) {
+        BuildConfiguration buildConfiguration = BuildConfiguration.Builder.newBuilder()
+                .id(id)
+                .project(PROJECT)
+                .name("build-config-" + id)
+                .repositoryConfiguration(RepositoryConfigurationMock.newTestRepository())
+                .buildEnvironment(BuildEnvironmentMock.newTest())
+                .build();
+        BuildConfigurationAudited buildConfigurationAudited = BuildConfigurationAudited
+                .fromBuildConfiguration(buildConfiguration, 1);
+        return BuildTask.build(
+                buildConfigurationAudited,
+                new BuildOptions(),
+                MockUser.newTestUser(1),
+                id,
+                null,
+                new Date(),
+                null,
+                "content-id-" + id,
+                Optional.empty());
+    }
+}
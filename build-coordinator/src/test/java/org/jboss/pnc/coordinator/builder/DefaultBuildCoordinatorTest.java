@@ -44,6 +44,7 @@ import org.jboss.pnc.spi.coordinator.BuildCoordinator;
 import org.jboss.pnc.spi.coordinator.BuildSetTask;
 import org.jboss.pnc.spi.coordinator.BuildTask;
 import org.jboss.pnc.spi.coordinator.CompletionStatus;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
 import org.jboss.pnc.spi.datastore.Datastore;
 import org.jboss.pnc.spi.datastore.DatastoreException;
 import org.jboss.pnc.spi.environment.EnvironmentDriverResult;
@@ -65,6 +66,7 @@ import org.mockito.stubbing.Answer;
 import javax.enterprise.event.Event;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
@@ -73,6 +75,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -81,6 +84,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -128,6 +132,8 @@ public class DefaultBuildCoordinatorTest {
     @Mock
     private Datastore datastore;
     @Mock
+    private BuildLogStore buildLogStore;
+    @Mock
     private Event<BuildSetStatusChangedEvent> buildSetStatusChangedEventNotifier;
     @Mock
     private BuildSchedulerFactory buildSchedulerFactory;
@@ -224,6 +230,12 @@ public class DefaultBuildCoordinatorTest {
                         any(Boolean.class),
                         any(Boolean.class),
                         anySet())).thenReturn(false);
+        when(datastore.getNoRebuildCauses(anyCollection(), any(Boolean.class), any(Boolean.class)))
+                .thenAnswer(invocation -> {
+                    Collection<BuildConfigurationAudited> auditeds = invocation.getArgument(0);
+                    return auditeds.stream()
+                            .collect(Collectors.toMap(BuildConfigurationAudited::getIdRev, bca -> new BuildRecord()));
+                });
 
         BuildConfigurationAudited bca1 = new BuildConfigurationAudited();
         bca1.setId(BC_1.getId());
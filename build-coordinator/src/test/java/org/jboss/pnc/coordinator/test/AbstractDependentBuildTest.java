@@ -29,14 +29,17 @@ import org.jboss.pnc.coordinator.builder.BuildScheduler;
 import org.jboss.pnc.coordinator.builder.BuildSchedulerFactory;
 import org.jboss.pnc.coordinator.builder.DefaultBuildCoordinator;
 import org.jboss.pnc.coordinator.builder.datastore.DatastoreAdapter;
+import org.jboss.pnc.datastore.BuildLogIndexer;
 import org.jboss.pnc.datastore.DefaultDatastore;
 import org.jboss.pnc.enums.BuildStatus;
+import org.jboss.pnc.mock.datastore.BuildLogStoreMock;
 import org.jboss.pnc.mock.model.BuildEnvironmentMock;
 import org.jboss.pnc.mock.model.RepositoryConfigurationMock;
 import org.jboss.pnc.mock.repository.ArtifactRepositoryMock;
 import org.jboss.pnc.mock.repository.BuildConfigSetRecordRepositoryMock;
 import org.jboss.pnc.mock.repository.BuildConfigurationAuditedRepositoryMock;
 import org.jboss.pnc.mock.repository.BuildConfigurationRepositoryMock;
+import org.jboss.pnc.mock.repository.BuildLogTermRepositoryMock;
 import org.jboss.pnc.mock.repository.BuildRecordRepositoryMock;
 import org.jboss.pnc.mock.repository.SequenceHandlerRepositoryMock;
 import org.jboss.pnc.mock.repository.TargetRepositoryRepositoryMock;
@@ -168,8 +171,12 @@ public abstract class AbstractDependentBuildTest {
                 new BuildConfigSetRecordRepositoryMock(),
                 new UserRepositoryMock(),
                 sequenceHandlerRepositoryMock,
-                targetRepositoryRepository);
-        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore);
+                targetRepositoryRepository,
+                new BuildLogIndexer(
+                        new BuildLogStoreMock(),
+                        new BuildLogTermRepositoryMock(),
+                        buildRecordRepository));
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore, new BuildLogStoreMock());
 
         if (buildSchedulerFactory == null) {
             buildSchedulerFactory = new MockBuildSchedulerFactory();
@@ -34,6 +34,7 @@ import org.jboss.pnc.executor.DefaultBuildExecutionSession;
 import org.jboss.pnc.executor.DefaultBuildExecutor;
 import org.jboss.pnc.mapper.AbstractArtifactMapper;
 import org.jboss.pnc.messaging.spi.MessageSender;
+import org.jboss.pnc.mock.datastore.BuildLogStoreMock;
 import org.jboss.pnc.mock.datastore.DatastoreMock;
 import org.jboss.pnc.mock.executor.BuildExecutorMock;
 import org.jboss.pnc.mock.model.builders.TestEntitiesFactory;
@@ -146,6 +147,7 @@ public class BuildCoordinatorDeployments {
     private static JavaArchive datastoreArchive() {
         return ShrinkWrap.create(JavaArchive.class)
                 .addClass(DatastoreMock.class)
+                .addClass(BuildLogStoreMock.class)
                 .addPackages(true, DatastoreAdapter.class.getPackage());
     }
 
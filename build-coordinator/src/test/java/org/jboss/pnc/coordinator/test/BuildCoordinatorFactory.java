@@ -25,6 +25,7 @@ import org.jboss.pnc.coordinator.builder.DefaultBuildCoordinator;
 import org.jboss.pnc.coordinator.builder.datastore.DatastoreAdapter;
 import org.jboss.pnc.mapper.api.BuildMapper;
 import org.jboss.pnc.mapper.api.GroupBuildMapper;
+import org.jboss.pnc.mock.datastore.BuildLogStoreMock;
 import org.jboss.pnc.mock.datastore.DatastoreMock;
 import org.jboss.pnc.spi.coordinator.BuildCoordinator;
 import org.jboss.pnc.spi.events.BuildSetStatusChangedEvent;
@@ -54,7 +55,7 @@ public class BuildCoordinatorFactory {
     private BuildMapper buildMapper;
 
     public BuildCoordinatorBeans createBuildCoordinator(DatastoreMock datastore) {
-        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore);
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore, new BuildLogStoreMock());
 
         SystemConfig systemConfig = createConfiguration();
         BuildQueue queue = new BuildQueue(systemConfig);
@@ -86,6 +87,14 @@ public class BuildCoordinatorFactory {
                 null,
                 "",
                 "",
-                "10");
+                "10",
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null);
     }
 }
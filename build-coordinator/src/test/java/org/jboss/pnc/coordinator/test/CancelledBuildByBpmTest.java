@@ -40,6 +40,7 @@ import org.jboss.pnc.mapper.api.GroupBuildMapper;
 import org.jboss.pnc.mapper.api.ProjectMapper;
 import org.jboss.pnc.mapper.api.SCMRepositoryMapper;
 import org.jboss.pnc.mapper.api.TargetRepositoryMapper;
+import org.jboss.pnc.mock.datastore.BuildLogStoreMock;
 import org.jboss.pnc.mock.datastore.DatastoreMock;
 import org.jboss.pnc.mock.model.MockUser;
 import org.jboss.pnc.mock.model.builders.TestProjectConfigurationBuilder;
@@ -121,7 +122,7 @@ public class CancelledBuildByBpmTest {
         DatastoreMock datastoreMock = new DatastoreMock();
         TestProjectConfigurationBuilder configurationBuilder = new TestProjectConfigurationBuilder(datastoreMock);
 
-        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastoreMock);
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastoreMock, new BuildLogStoreMock());
 
         SystemConfig systemConfig = createConfiguration();
         BuildQueue queue = new BuildQueue(systemConfig);
@@ -222,7 +223,15 @@ public class CancelledBuildByBpmTest {
                 null,
                 "14",
                 "",
-                "10");
+                "10",
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null);
     }
 
     private static class EventListener implements Event<BuildStatusChangedEvent> {
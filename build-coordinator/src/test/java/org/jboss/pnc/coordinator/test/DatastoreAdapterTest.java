@@ -18,8 +18,10 @@
 
 package org.jboss.pnc.coordinator.test;
 
+import org.jboss.pnc.common.security.Md5;
 import org.jboss.pnc.coordinator.builder.datastore.DatastoreAdapter;
 import org.jboss.pnc.mock.builddriver.BuildDriverResultMock;
+import org.jboss.pnc.mock.datastore.BuildLogStoreMock;
 import org.jboss.pnc.mock.datastore.DatastoreMock;
 import org.jboss.pnc.mock.environmentdriver.EnvironmentDriverResultMock;
 import org.jboss.pnc.mock.model.MockUser;
@@ -37,6 +39,8 @@ import org.jboss.pnc.enums.RebuildMode;
 import org.jboss.pnc.spi.builddriver.BuildDriverResult;
 import org.jboss.pnc.spi.coordinator.BuildTask;
 import org.jboss.pnc.spi.coordinator.CompletionStatus;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
+import org.jboss.pnc.spi.datastore.BuildLogWriter;
 import org.jboss.pnc.spi.datastore.DatastoreException;
 import org.jboss.pnc.spi.executor.BuildExecutionConfiguration;
 import org.jboss.pnc.spi.repositorymanager.RepositoryManagerResult;
@@ -44,6 +48,8 @@ import org.jboss.pnc.spi.repour.RepourResult;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -63,7 +69,7 @@ public class DatastoreAdapterTest {
     public void shouldStoreRepositoryManagerSuccessResult() throws DatastoreException {
         // given
         DatastoreMock datastore = new DatastoreMock();
-        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore);
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore, new BuildLogStoreMock());
 
         BuildStatus buildStatus = BuildStatus.SUCCESS;
         CompletionStatus completionStatus = CompletionStatus.SUCCESS;
@@ -85,7 +91,7 @@ public class DatastoreAdapterTest {
     public void shouldStoreRepositoryManagerError() throws DatastoreException {
         // given
         DatastoreMock datastore = new DatastoreMock();
-        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore);
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore, new BuildLogStoreMock());
 
         BuildStatus buildStatus = BuildStatus.SUCCESS;
         CompletionStatus completionStatus = CompletionStatus.FAILED;
@@ -107,7 +113,7 @@ public class DatastoreAdapterTest {
     public void shouldStoreNoRequiredRebuild() throws DatastoreException {
         // given
         DatastoreMock datastore = new DatastoreMock();
-        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore);
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore, new BuildLogStoreMock());
 
         // when
         datastoreAdapter.storeRecordForNoRebuild(mockBuildTask());
@@ -124,7 +130,7 @@ public class DatastoreAdapterTest {
     public void shouldStoreRepourResult() throws DatastoreException {
         // given
         DatastoreMock datastore = new DatastoreMock();
-        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore);
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore, new BuildLogStoreMock());
 
         RepourResult repourResult = RepourResultMock.mock();
 
@@ -161,6 +167,42 @@ public class DatastoreAdapterTest {
         Assert.assertEquals(repourResult.getLog(), buildRecord.getRepourLog());
     }
 
+    @Test
+    public void shouldAppendToStoredBuildLog() throws Exception {
+        // given
+        DatastoreMock datastore = new DatastoreMock();
+        ByteArrayOutputStream storedLog = new ByteArrayOutputStream();
+        BuildLogWriter buildLogWriter = new BuildLogWriter() {
+            @Override
+            protected void store(byte[] bytes, int offset, int length) {
+                storedLog.write(bytes, offset, length);
+            }
+
+            @Override
+            protected void complete() {
+            }
+        };
+        buildLogWriter.append("Streamed build log.");
+
+        BuildLogStore buildLogStore = mock(BuildLogStore.class);
+        when(buildLogStore.getOpenWriter(123)).thenReturn(Optional.of(buildLogWriter));
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore, buildLogStore);
+
+        // when
+        storeResult(datastoreAdapter, BuildStatus.SUCCESS, CompletionStatus.SUCCESS);
+
+        // then
+        BuildRecord buildRecord = datastore.getBuildRecords().get(0);
+        String log = new String(storedLog.toByteArray(), StandardCharsets.UTF_8);
+
+        Assert.assertTrue(log.startsWith("Streamed build log."));
+        Assert.assertTrue(log.contains(BUILD_LOG));
+        Assert.assertTrue(log.contains(REPOSITORY_MANAGER_LOG));
+        Assert.assertNull(buildRecord.getBuildLog());
+        Assert.assertEquals(Integer.valueOf(storedLog.size()), buildRecord.getBuildLogSize());
+        Assert.assertEquals(Md5.digest(log), buildRecord.getBuildLogMd5());
+    }
+
     private void storeResult(
             DatastoreAdapter datastoreAdapter,
             BuildStatus buildStatus,
@@ -0,0 +1,79 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.executor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Limits the number of builds the executor runs at a time. Builds over the limit wait for a free slot as a pending
+ * future, so they do not hold on to a thread while waiting.
+ */
+class BuildSlots {
+
+    /**
+     * Maximum number of running builds, 0 means no limit.
+     */
+    private final int capacity;
+
+    private int running;
+
+    private final Deque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+
+    BuildSlots(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * @return future completed once a slot is assigned to the caller, every acquired slot has to be released
+     */
+    CompletableFuture<Void> acquire() {
+        synchronized (this) {
+            if (capacity == 0 || running < capacity) {
+                running++;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> slot = new CompletableFuture<>();
+            waiting.add(slot);
+            return slot;
+        }
+    }
+
+    void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                running--;
+            }
+        }
+        // the slot is handed over to the next waiting build, complete it outside the lock as it runs its callbacks
+        if (next != null) {
+            next.complete(null);
+        }
+    }
+
+    synchronized int getRunning() {
+        return running;
+    }
+
+    synchronized int getWaiting() {
+        return waiting.size();
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.jboss.pnc.executor;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import org.jboss.pnc.auth.KeycloakServiceClient;
 import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.common.concurrent.MDCExecutors;
@@ -35,6 +37,7 @@ import org.jboss.pnc.executor.exceptions.BuildProcessException;
 import org.jboss.pnc.executor.servicefactories.BuildDriverFactory;
 import org.jboss.pnc.executor.servicefactories.EnvironmentDriverFactory;
 import org.jboss.pnc.executor.servicefactories.RepositoryManagerFactory;
+import org.jboss.pnc.pncmetrics.MetricsConfiguration;
 import org.jboss.pnc.spi.builddriver.BuildDriver;
 import org.jboss.pnc.spi.builddriver.BuildDriverResult;
 import org.jboss.pnc.spi.builddriver.CompletedBuild;
@@ -58,8 +61,10 @@ import org.jboss.pnc.spi.repositorymanager.model.RepositorySession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import java.net.URI;
 import java.util.Date;
@@ -68,7 +73,9 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
@@ -79,8 +86,35 @@ public class DefaultBuildExecutor implements BuildExecutor {
     private final Logger log = LoggerFactory.getLogger(DefaultBuildExecutor.class);
     private static final Logger userLog = LoggerFactory.getLogger("org.jboss.pnc._userlog_.build-executor");
 
+    private static final String METRICS_BASE = "build-executor.";
+    private static final String METRICS_STAGE_KEY = METRICS_BASE + "stage.";
+
+    private static final String STAGE_WAIT_FOR_CAPACITY = "wait-for-capacity";
+    private static final String STAGE_CONFIGURE_REPOSITORY = "configure-repository";
+    private static final String STAGE_SET_UP_ENVIRONMENT = "set-up-environment";
+    private static final String STAGE_RUN_BUILD = "run-build";
+    private static final String STAGE_ENABLE_SSH = "enable-ssh";
+    private static final String STAGE_BUILD_DRIVER_RESULTS = "retrieve-build-driver-results";
+    private static final String STAGE_REPOSITORY_MANAGER_RESULTS = "retrieve-repository-manager-results";
+    private static final String STAGE_COMPLETE_EXECUTION = "complete-execution";
+
+    /**
+     * Small pool for the stages that do not block (stage transitions, evaluating results).
+     */
     private ExecutorService executor;
 
+    /**
+     * Elastic pool for the stages blocked on repository manager and environment I/O.
+     */
+    private ExecutorService ioExecutor;
+
+    private BuildSlots buildSlots;
+
+    @Inject
+    Instance<MetricsConfiguration> metricsConfiguration;
+
+    private Optional<MetricRegistry> metricRegistry = Optional.empty();
+
     private RepositoryManagerFactory repositoryManagerFactory;
     private BuildDriverFactory buildDriverFactory;
     private EnvironmentDriverFactory environmentDriverFactory;
@@ -107,18 +141,33 @@ public class DefaultBuildExecutor implements BuildExecutor {
         this.serviceClient = serviceClient;
 
         int executorThreadPoolSize = 12;
+        int maxConcurrentBuilds = 0;
         try {
             systemConfig = configuration.getModuleConfig(new PncConfigProvider<>(SystemConfig.class));
             String executorThreadPoolSizeStr = systemConfig.getExecutorThreadPoolSize();
             if (executorThreadPoolSizeStr != null) {
                 executorThreadPoolSize = Integer.parseInt(executorThreadPoolSizeStr);
             }
+            maxConcurrentBuilds = systemConfig.getExecutorMaxConcurrentBuilds();
         } catch (ConfigurationParseException e) {
             log.warn("Unable parse config. Using defaults.");
         }
 
         executor = MDCExecutors
                 .newFixedThreadPool(executorThreadPoolSize, new NamedThreadFactory("default-build-executor"));
+        ioExecutor = MDCExecutors.newCachedThreadPool(new NamedThreadFactory("default-build-executor-io"));
+        buildSlots = new BuildSlots(maxConcurrentBuilds);
+    }
+
+    @PostConstruct
+    public void initMetrics() {
+        if (metricsConfiguration != null && !metricsConfiguration.isUnsatisfied()
+                && !metricsConfiguration.isAmbiguous()) {
+            MetricRegistry registry = metricsConfiguration.get().getMetricRegistry();
+            registry.register(METRICS_BASE + "running", (Gauge<Integer>) buildSlots::getRunning);
+            registry.register(METRICS_BASE + "waiting", (Gauge<Integer>) buildSlots::getWaiting);
+            metricRegistry = Optional.of(registry);
+        }
     }
 
     @Override
@@ -148,32 +197,81 @@ public class DefaultBuildExecutor implements BuildExecutor {
 
         DebugData debugData = new DebugData(buildExecutionConfiguration.isPodKeptOnFailure());
 
-        CompletableFuture.supplyAsync(() -> configureRepository(buildExecutionSession), executor)
+        long waitStart = System.nanoTime();
+        buildSlots.acquire()
+                .thenApplyAsync(nul -> {
+                    recordStage(STAGE_WAIT_FOR_CAPACITY, waitStart);
+                    return timed(STAGE_CONFIGURE_REPOSITORY, () -> configureRepository(buildExecutionSession));
+                }, ioExecutor)
                 .thenComposeAsync(
-                        repositoryConfiguration -> setUpEnvironment(
-                                buildExecutionSession,
-                                repositoryConfiguration,
-                                debugData),
-                        executor)
-                .thenComposeAsync(nul -> runTheBuild(buildExecutionSession), executor)
+                        repositoryConfiguration -> timedStage(
+                                STAGE_SET_UP_ENVIRONMENT,
+                                () -> setUpEnvironment(buildExecutionSession, repositoryConfiguration, debugData)),
+                        ioExecutor)
+                .thenComposeAsync(
+                        nul -> timedStage(STAGE_RUN_BUILD, () -> runTheBuild(buildExecutionSession)),
+                        ioExecutor)
                 // no cancellation after this point
                 .thenApplyAsync(completedBuild -> {
                     buildExecutionSession.setCancelHook(null);
-                    return optionallyEnableSsh(buildExecutionSession, completedBuild);
-                }, executor)
+                    return timed(STAGE_ENABLE_SSH, () -> optionallyEnableSsh(buildExecutionSession, completedBuild));
+                }, ioExecutor)
                 .thenApplyAsync(
-                        completedBuild -> retrieveBuildDriverResults(buildExecutionSession, completedBuild),
+                        completedBuild -> timed(
+                                STAGE_BUILD_DRIVER_RESULTS,
+                                () -> retrieveBuildDriverResults(buildExecutionSession, completedBuild)),
                         executor)
-                .thenApplyAsync(nul -> retrieveRepositoryManagerResults(buildExecutionSession), executor)
+                .thenApplyAsync(
+                        nul -> timed(
+                                STAGE_REPOSITORY_MANAGER_RESULTS,
+                                () -> retrieveRepositoryManagerResults(buildExecutionSession)),
+                        ioExecutor)
                 .handleAsync((nul, e) -> {
                     buildExecutionSession.setCancelHook(null); // make sure there are no references left
-                    return completeExecution(buildExecutionSession, e);
-                }, executor);
+                    return timed(STAGE_COMPLETE_EXECUTION, () -> completeExecution(buildExecutionSession, e));
+                }, ioExecutor)
+                .whenComplete((nul, e) -> buildSlots.release());
 
         // TODO re-connect running instances in case of crash
         return buildExecutionSession;
     }
 
+    /**
+     * Runs a stage that completes synchronously and records its latency.
+     */
+    private <T> T timed(String stage, Supplier<T> stageTask) {
+        long start = System.nanoTime();
+        try {
+            return stageTask.get();
+        } finally {
+            recordStage(stage, start);
+        }
+    }
+
+    /**
+     * Starts a stage that completes asynchronously and records its latency once the returned future completes.
+     */
+    private <T> CompletableFuture<T> timedStage(String stage, Supplier<CompletableFuture<T>> stageTask) {
+        long start = System.nanoTime();
+        CompletableFuture<T> stageFuture;
+        try {
+            stageFuture = stageTask.get();
+        } catch (RuntimeException e) {
+            recordStage(stage, start);
+            throw e;
+        }
+        if (stageFuture == null) {
+            recordStage(stage, start);
+            return null;
+        }
+        return stageFuture.whenComplete((result, e) -> recordStage(stage, start));
+    }
+
+    private void recordStage(String stage, long startNanos) {
+        metricRegistry.ifPresent(
+                r -> r.timer(METRICS_STAGE_KEY + stage).update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+    }
+
     @Override
     public void cancel(Integer executionConfigurationId) throws ExecutorException {
         DefaultBuildExecutionSession buildExecutionSession = runningExecutions.get(executionConfigurationId);
@@ -572,5 +670,6 @@ public class DefaultBuildExecutor implements BuildExecutor {
     @PreDestroy
     public void shutdown() {
         executor.shutdown();
+        ioExecutor.shutdown();
     }
 }
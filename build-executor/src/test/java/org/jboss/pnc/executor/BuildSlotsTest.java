@@ -0,0 +1,79 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.executor;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BuildSlotsTest {
+
+    @Test
+    public void shouldQueueBuildsOverCapacity() {
+        // given
+        BuildSlots slots = new BuildSlots(2);
+
+        // when
+        CompletableFuture<Void> first = slots.acquire();
+        CompletableFuture<Void> second = slots.acquire();
+        CompletableFuture<Void> third = slots.acquire();
+
+        // then
+        assertThat(first.isDone()).isTrue();
+        assertThat(second.isDone()).isTrue();
+        assertThat(third.isDone()).isFalse();
+        assertThat(slots.getRunning()).isEqualTo(2);
+        assertThat(slots.getWaiting()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldHandOverReleasedSlotToWaitingBuild() {
+        // given
+        BuildSlots slots = new BuildSlots(1);
+        slots.acquire();
+        CompletableFuture<Void> waiting = slots.acquire();
+
+        // when
+        slots.release();
+
+        // then
+        assertThat(waiting.isDone()).isTrue();
+        assertThat(slots.getRunning()).isEqualTo(1);
+        assertThat(slots.getWaiting()).isEqualTo(0);
+
+        slots.release();
+        assertThat(slots.getRunning()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotLimitBuildsWhenCapacityIsZero() {
+        // given
+        BuildSlots slots = new BuildSlots(0);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            assertThat(slots.acquire().isDone()).isTrue();
+        }
+
+        // then
+        assertThat(slots.getRunning()).isEqualTo(100);
+        assertThat(slots.getWaiting()).isEqualTo(0);
+    }
+}
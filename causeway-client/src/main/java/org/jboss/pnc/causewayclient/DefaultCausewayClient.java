@@ -20,7 +20,6 @@ package org.jboss.pnc.causewayclient;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.fluent.Request;
-import org.apache.http.entity.ContentType;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 import org.jboss.pnc.causewayclient.remotespi.BuildImportRequest;
@@ -55,23 +54,31 @@ public class DefaultCausewayClient implements CausewayClient {
 
     @Inject
     public DefaultCausewayClient(GlobalModuleGroup globalConfig, BpmModuleConfig bpmModuleConfig) {
-        String causewayBaseUrl = globalConfig.getExternalCausewayUrl();
+        this(globalConfig.getExternalCausewayUrl());
+    }
+
+    DefaultCausewayClient(String causewayBaseUrl) {
         buildPushEndpoint = causewayBaseUrl + "/import/build";
         untagEndpoint = causewayBaseUrl + "/untag/build";
     }
 
-    boolean post(String url, String jsonMessage, String authToken) {
+    /**
+     * Posts the body serialized to JSON. The body is streamed to the connection as it is serialized, so that requests
+     * of builds with huge number of artifacts are not held in memory.
+     */
+    boolean post(String url, Object body, String authToken) {
         Header authHeader = new BasicHeader("Authorization", "Bearer " + authToken);
         HttpResponse response;
         try {
             logger.info("Making POST request to {}.", url);
             if (logger.isDebugEnabled()) {
-                logger.debug("Request body {}.", secureBodyLog(jsonMessage));
+                // serializes the body once more, in memory
+                logger.debug("Request body {}.", secureBodyLog(JsonOutputConverterMapper.apply(body)));
             }
 
             Request request = Request.Post(url)
                     .addHeader(authHeader)
-                    .bodyString(jsonMessage, ContentType.APPLICATION_JSON);
+                    .body(new JsonStreamingEntity(JsonOutputConverterMapper.getMapper(), body));
             MDCUtils.getUserId().ifPresent(v -> request.addHeader("log-user-id", v));
             MDCUtils.getRequestContext().ifPresent(v -> request.addHeader("log-request-context", v));
             MDCUtils.getProcessContext().ifPresent(v -> request.addHeader("log-process-context", v));
@@ -97,14 +104,12 @@ public class DefaultCausewayClient implements CausewayClient {
 
     @Override
     public boolean importBuild(BuildImportRequest buildImportRequest, String authToken) {
-        String jsonMessage = JsonOutputConverterMapper.apply(buildImportRequest);
-        return post(buildPushEndpoint, jsonMessage, authToken);
+        return post(buildPushEndpoint, buildImportRequest, authToken);
     }
 
     @Override
     public boolean untagBuild(UntagRequest untagRequest, String authToken) {
-        String jsonMessage = JsonOutputConverterMapper.apply(untagRequest);
-        return post(untagEndpoint, jsonMessage, authToken);
+        return post(untagEndpoint, untagRequest, authToken);
     }
 
     /**
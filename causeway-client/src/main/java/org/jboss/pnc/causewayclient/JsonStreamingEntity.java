@@ -0,0 +1,82 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.causewayclient;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.Args;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Request entity writing the JSON representation of an object straight to the connection through Jackson's streaming
+ * generator. The body is sent chunked and never held in memory as a whole; collections are written element by element
+ * while they are iterated.
+ */
+class JsonStreamingEntity extends AbstractHttpEntity {
+
+    private final ObjectMapper mapper;
+
+    private final Object value;
+
+    JsonStreamingEntity(ObjectMapper mapper, Object value) {
+        this.mapper = Args.notNull(mapper, "Object mapper");
+        this.value = Args.notNull(value, "Value");
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * Serializes the whole value into memory, prefer {@link #writeTo(OutputStream)}.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(mapper.writeValueAsBytes(value));
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        Args.notNull(outStream, "Output stream");
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(outStream, JsonEncoding.UTF8)) {
+            // the connection owns the stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            mapper.writeValue(generator, value);
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -17,17 +17,151 @@
  */
 package org.jboss.pnc.causewayclient;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jboss.pnc.causewayclient.remotespi.BuildImportRequest;
+import org.jboss.pnc.causewayclient.remotespi.BuildRoot;
+import org.jboss.pnc.causewayclient.remotespi.BuiltArtifact;
+import org.jboss.pnc.causewayclient.remotespi.CallbackTarget;
+import org.jboss.pnc.causewayclient.remotespi.Dependency;
+import org.jboss.pnc.causewayclient.remotespi.Logfile;
+import org.jboss.pnc.causewayclient.remotespi.MavenBuild;
+import org.jboss.pnc.causewayclient.remotespi.MavenBuiltArtifact;
+import org.jboss.pnc.common.json.JsonOutputConverterMapper;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 
 public class DefaultCausewayClientTest {
 
+    private static final String TOKEN = "secret-token";
+
+    private HttpServer server;
+
+    private DefaultCausewayClient client;
+
+    private volatile int responseStatus = 200;
+
+    private volatile String body;
+
+    private volatile String authorization;
+
+    private volatile String transferEncoding;
+
+    @Before
+    public void startCausewayServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/import/build", this::handle);
+        server.start();
+        client = new DefaultCausewayClient("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @After
+    public void stopCausewayServer() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+        body = IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(responseStatus, -1);
+        exchange.close();
+    }
+
+    @Test
+    public void shouldStreamImportRequest() throws IOException {
+        // given
+        BuildImportRequest request = importRequest(100, 5000);
+
+        // when
+        boolean accepted = client.importBuild(request, TOKEN);
+
+        // then
+        assertThat(accepted).isTrue();
+        assertThat(authorization).isEqualTo("Bearer " + TOKEN);
+        assertThat(transferEncoding).isEqualToIgnoringCase("chunked");
+        assertThat(body).isEqualTo(JsonOutputConverterMapper.apply(request));
+
+        JsonNode build = JsonOutputConverterMapper.getMapper().readTree(body).get("build");
+        assertThat(build.get("@buildType").asText()).isEqualTo("maven");
+        assertThat(build.get("builtArtifacts")).hasSize(100);
+        assertThat(build.get("builtArtifacts").get(0).get("@artifactType").asText()).isEqualTo("maven");
+        assertThat(build.get("dependencies")).hasSize(5000);
+    }
+
+    @Test
+    public void shouldRejectWhenCausewayFails() {
+        // given
+        responseStatus = 500;
+
+        // when
+        boolean accepted = client.importBuild(importRequest(1, 1), TOKEN);
+
+        // then
+        assertThat(accepted).isFalse();
+        assertThat(body).isNotEmpty();
+    }
+
+    private static BuildImportRequest importRequest(int builtArtifactCount, int dependencyCount) {
+        Set<BuiltArtifact> builtArtifacts = new HashSet<>();
+        for (int i = 0; i < builtArtifactCount; i++) {
+            builtArtifacts.add(
+                    new MavenBuiltArtifact(
+                            "org.example",
+                            "artifact-" + i,
+                            "1.0",
+                            i,
+                            "artifact-" + i + "-1.0.jar",
+                            "MAVEN",
+                            "md5-" + i,
+                            "org/example/artifact-" + i + "/1.0/artifact-" + i + "-1.0.jar",
+                            "/api/content/maven/hosted/pnc-builds",
+                            1024));
+        }
+        Set<Dependency> dependencies = new HashSet<>();
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencies.add(new Dependency("dependency-" + i + ".jar", "md5-" + i, i));
+        }
+        MavenBuild build = new MavenBuild(
+                "org.example",
+                "root",
+                "1.0",
+                "org.example:root",
+                "1.0",
+                "PNC",
+                1,
+                "/pnc-rest/v2/builds/1",
+                new Date(),
+                new Date(),
+                "https://scm.example.com/root.git",
+                "abcdef",
+                "1.0",
+                new BuildRoot("DOCKER_IMAGE", "x86_64", "rhel", "x86_64", Collections.emptyMap()),
+                Collections.singleton(new Logfile("build.log", "/pnc-rest/v2/builds/1/logs/build", 10, "md5")),
+                dependencies,
+                builtArtifacts,
+                "tag");
+        CallbackTarget callback = CallbackTarget.callbackPost("http://localhost/callback", TOKEN);
+        return new BuildImportRequest(callback, build, false);
+    }
+
     @Test
     public void secureBodyLogTest() throws IOException {
         // given
@@ -21,6 +21,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
@@ -43,6 +44,19 @@ public class MDCExecutors {
         return newFixedThreadPool(nThreads, Executors.defaultThreadFactory());
     }
 
+    /**
+     * Unbounded pool for tasks that spend most of their time blocked on I/O. Idle threads are released after a minute.
+     */
+    public static ExecutorService newCachedThreadPool(ThreadFactory threadFactory) {
+        return new MDCThreadPoolExecutor(
+                0,
+                Integer.MAX_VALUE,
+                60L,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),
+                threadFactory);
+    }
+
     public static ScheduledExecutorService newScheduledThreadPool(int corePoolSize) {
         return new MDCScheduledThreadPoolExecutor(corePoolSize);
     }
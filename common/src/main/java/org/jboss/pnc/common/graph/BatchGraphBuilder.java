@@ -0,0 +1,159 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.common.graph;
+
+import org.jboss.util.graph.Graph;
+import org.jboss.util.graph.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Builds the same graphs as {@link GraphBuilder}, but walks them breadth-first. The nodes of each level are loaded
+ * with a single call of the node supplier and the vertices are looked up in a hash index instead of
+ * {@link Graph#findVertexByName(String)}. The depth of the graph is not limited by the stack size.
+ *
+ * @param <T> node type
+ * @param <S> node id type
+ */
+public class BatchGraphBuilder<T, S> {
+
+    private final Logger logger = LoggerFactory.getLogger(BatchGraphBuilder.class);
+
+    private final Function<Collection<S>, Map<S, T>> nodesSupplier;
+
+    private final Function<T, Collection<S>> dependencySupplier;
+
+    private final Function<T, Collection<S>> dependantSupplier;
+
+    /**
+     * @param nodesSupplier loads the nodes with the given ids, ids without a node are left out of the graph
+     * @param dependencySupplier ids of the direct dependencies of a node
+     * @param dependantSupplier ids of the direct dependants of a node
+     */
+    public BatchGraphBuilder(
+            Function<Collection<S>, Map<S, T>> nodesSupplier,
+            Function<T, Collection<S>> dependencySupplier,
+            Function<T, Collection<S>> dependantSupplier) {
+        this.nodesSupplier = nodesSupplier;
+        this.dependencySupplier = dependencySupplier;
+        this.dependantSupplier = dependantSupplier;
+    }
+
+    /**
+     * Adds the node and all its direct and indirect dependencies to the graph. Vertices already in the graph are
+     * connected, but not walked further.
+     *
+     * @return vertex of the node or null if the node doesn't exist
+     */
+    public Vertex<T> buildDependencyGraph(Graph<T> graph, S nodeId) {
+        return build(graph, nodeId, true);
+    }
+
+    /**
+     * Adds the node and all its direct and indirect dependants to the graph. Vertices already in the graph are
+     * connected, but not walked further.
+     *
+     * @return vertex of the node or null if the node doesn't exist
+     */
+    public Vertex<T> buildDependentGraph(Graph<T> graph, S nodeId) {
+        return build(graph, nodeId, false);
+    }
+
+    private Vertex<T> build(Graph<T> graph, S nodeId, boolean dependencies) {
+        Map<String, Vertex<T>> vertices = new HashMap<>();
+        for (Vertex<T> vertex : graph.getVerticies()) {
+            vertices.put(vertex.getName(), vertex);
+        }
+
+        Vertex<T> root = vertices.get(nodeId.toString());
+        if (root == null) {
+            List<Vertex<T>> added = addVertices(graph, vertices, Collections.singleton(nodeId));
+            if (added.isEmpty()) {
+                return null;
+            }
+            root = added.get(0);
+        }
+
+        List<Vertex<T>> level = Collections.singletonList(root);
+        while (!level.isEmpty()) {
+            Map<Vertex<T>, Collection<S>> neighbours = new LinkedHashMap<>();
+            Set<S> toLoad = new LinkedHashSet<>();
+            for (Vertex<T> vertex : level) {
+                Collection<S> ids = dependencies ? dependencySupplier.apply(vertex.getData())
+                        : dependantSupplier.apply(vertex.getData());
+                neighbours.put(vertex, ids);
+                for (S id : ids) {
+                    if (!vertices.containsKey(id.toString())) {
+                        toLoad.add(id);
+                    }
+                }
+            }
+            List<Vertex<T>> nextLevel = addVertices(graph, vertices, toLoad);
+
+            for (Map.Entry<Vertex<T>, Collection<S>> entry : neighbours.entrySet()) {
+                Vertex<T> vertex = entry.getKey();
+                for (S id : entry.getValue()) {
+                    Vertex<T> neighbour = vertices.get(id.toString());
+                    if (neighbour == null) {
+                        continue;
+                    }
+                    if (dependencies) {
+                        logger.trace("Creating new dependency edge from {} to {}.", vertex, neighbour);
+                        graph.addEdge(vertex, neighbour, 1);
+                    } else {
+                        logger.trace("Creating new dependant edge from {} to {}.", neighbour, vertex);
+                        graph.addEdge(neighbour, vertex, 1);
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+        return root;
+    }
+
+    private List<Vertex<T>> addVertices(Graph<T> graph, Map<String, Vertex<T>> vertices, Collection<S> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<S, T> nodes = nodesSupplier.apply(ids);
+        List<Vertex<T>> added = new ArrayList<>(nodes.size());
+        for (S id : ids) {
+            T node = nodes.get(id);
+            if (node == null) {
+                logger.debug("Node {} not found, leaving it out of the graph.", id);
+                continue;
+            }
+            Vertex<T> vertex = new NameUniqueVertex<>(id.toString(), node);
+            graph.addVertex(vertex);
+            vertices.put(vertex.getName(), vertex);
+            added.add(vertex);
+        }
+        return added;
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.common.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reachability index over a dependency graph. Vertices are identified by a key (typically an entity id) and an edge
+ * {@code from -> to} means that {@code from} depends on {@code to}.
+ *
+ * The transitive closure of every queried vertex is memoized as a {@link BitSet}, so repeated reachability and cycle
+ * checks are answered with a single bit lookup. Closures are computed lazily and reuse already memoized closures of
+ * the vertices they reach. When an edge is added or removed, only the closures of the source vertex and of its
+ * transitive dependants are invalidated, all the other closures stay valid.
+ *
+ * The index is thread-safe.
+ *
+ * @param <K> vertex key type
+ */
+public class DependencyIndex<K> {
+
+    private final Map<K, Integer> indices = new HashMap<>();
+    private final List<K> keys = new ArrayList<>();
+
+    private final Map<Integer, Set<Integer>> dependencies = new HashMap<>();
+    private final Map<Integer, Set<Integer>> dependants = new HashMap<>();
+
+    private final Map<Integer, BitSet> closures = new HashMap<>();
+
+    /**
+     * Builds the index from the given roots walking their dependencies.
+     *
+     * @param roots vertices to start from
+     * @param key function returning the key of a vertex
+     * @param dependencies function returning the direct dependencies of a vertex
+     */
+    public static <T, K> DependencyIndex<K> build(
+            Collection<T> roots,
+            Function<T, K> key,
+            Function<T, Collection<T>> dependencies) {
+        DependencyIndex<K> index = new DependencyIndex<>();
+        Set<K> visited = new HashSet<>();
+        Deque<T> toVisit = new ArrayDeque<>();
+        for (T root : roots) {
+            if (visited.add(key.apply(root))) {
+                toVisit.add(root);
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            T vertex = toVisit.poll();
+            K from = key.apply(vertex);
+            index.addVertex(from);
+            for (T dependency : dependencies.apply(vertex)) {
+                K to = key.apply(dependency);
+                index.addDependency(from, to);
+                if (visited.add(to)) {
+                    toVisit.add(dependency);
+                }
+            }
+        }
+        return index;
+    }
+
+    public synchronized void addVertex(K vertex) {
+        indexOf(vertex);
+    }
+
+    public synchronized boolean contains(K vertex) {
+        return indices.containsKey(vertex);
+    }
+
+    /**
+     * Adds the edge {@code from -> to}. Cycles are not rejected, use {@link #wouldCreateCycle(Object, Object)} before
+     * adding an edge to keep the graph acyclic.
+     */
+    public synchronized void addDependency(K from, K to) {
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        if (dependencies.get(fromIndex).add(toIndex)) {
+            dependants.get(toIndex).add(fromIndex);
+            invalidate(fromIndex);
+        }
+    }
+
+    public synchronized void removeDependency(K from, K to) {
+        Integer fromIndex = indices.get(from);
+        Integer toIndex = indices.get(to);
+        if (fromIndex == null || toIndex == null) {
+            return;
+        }
+        if (dependencies.get(fromIndex).remove(toIndex)) {
+            dependants.get(toIndex).remove(fromIndex);
+            invalidate(fromIndex);
+        }
+    }
+
+    /**
+     * Replaces all the outgoing edges of {@code from} with edges to the given vertices. Incoming edges are kept.
+     */
+    public synchronized void setDependencies(K from, Collection<K> to) {
+        int fromIndex = indexOf(from);
+        Set<Integer> toIndices = new LinkedHashSet<>();
+        for (K vertex : to) {
+            toIndices.add(indexOf(vertex));
+        }
+        Set<Integer> current = dependencies.get(fromIndex);
+        if (current.equals(toIndices)) {
+            return;
+        }
+        for (Integer dependency : current) {
+            dependants.get(dependency).remove(fromIndex);
+        }
+        for (Integer dependency : toIndices) {
+            dependants.get(dependency).add(fromIndex);
+        }
+        dependencies.put(fromIndex, toIndices);
+        invalidate(fromIndex);
+    }
+
+    /**
+     * Removes the vertex together with all its incoming and outgoing edges.
+     */
+    public synchronized void removeVertex(K vertex) {
+        Integer index = indices.remove(vertex);
+        if (index == null) {
+            return;
+        }
+        invalidate(index);
+        for (Integer dependency : dependencies.remove(index)) {
+            dependants.get(dependency).remove(index);
+        }
+        for (Integer dependant : dependants.remove(index)) {
+            dependencies.get(dependant).remove(index);
+        }
+        keys.set(index, null);
+    }
+
+    /**
+     * @return true if {@code from} depends directly or transitively on {@code to}
+     */
+    public synchronized boolean dependsOn(K from, K to) {
+        Integer fromIndex = indices.get(from);
+        Integer toIndex = indices.get(to);
+        if (fromIndex == null || toIndex == null) {
+            return false;
+        }
+        return closure(fromIndex).get(toIndex);
+    }
+
+    /**
+     * @return true if adding the edge {@code from -> to} would introduce a cycle
+     */
+    public synchronized boolean wouldCreateCycle(K from, K to) {
+        return from.equals(to) || dependsOn(to, from);
+    }
+
+    /**
+     * @return all direct and indirect dependencies of the vertex
+     */
+    public synchronized Set<K> getAllDependencies(K vertex) {
+        Integer index = indices.get(vertex);
+        if (index == null) {
+            return Collections.emptySet();
+        }
+        BitSet closure = closure(index);
+        Set<K> result = new HashSet<>(closure.cardinality());
+        for (int i = closure.nextSetBit(0); i >= 0; i = closure.nextSetBit(i + 1)) {
+            result.add(keys.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return all vertices depending directly or indirectly on the vertex
+     */
+    public synchronized Set<K> getAllDependants(K vertex) {
+        Integer index = indices.get(vertex);
+        if (index == null) {
+            return Collections.emptySet();
+        }
+        Set<K> result = new HashSet<>();
+        for (int i : reachableDependants(index)) {
+            if (i != index || closure(index).get(index)) {
+                result.add(keys.get(i));
+            }
+        }
+        return result;
+    }
+
+    public synchronized boolean hasCycle() {
+        return topologicalOrder().size() != indices.size();
+    }
+
+    /**
+     * Returns the vertices ordered so that every vertex comes after all its dependencies (Kahn's algorithm).
+     *
+     * @throws IllegalStateException if the graph contains a cycle
+     */
+    public synchronized List<K> getTopologicalOrder() {
+        List<K> order = topologicalOrder();
+        if (order.size() != indices.size()) {
+            throw new IllegalStateException("Dependency graph contains a cycle.");
+        }
+        return order;
+    }
+
+    private List<K> topologicalOrder() {
+        Map<Integer, Integer> remaining = new HashMap<>(indices.size() * 2);
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (Integer index : indices.values()) {
+            int size = dependencies.get(index).size();
+            remaining.put(index, size);
+            if (size == 0) {
+                ready.add(index);
+            }
+        }
+        List<K> order = new ArrayList<>(indices.size());
+        while (!ready.isEmpty()) {
+            Integer index = ready.poll();
+            order.add(keys.get(index));
+            for (Integer dependant : dependants.get(index)) {
+                if (remaining.merge(dependant, -1, Integer::sum) == 0) {
+                    ready.add(dependant);
+                }
+            }
+        }
+        return order;
+    }
+
+    private int indexOf(K vertex) {
+        Integer index = indices.get(vertex);
+        if (index == null) {
+            index = keys.size();
+            keys.add(vertex);
+            indices.put(vertex, index);
+            dependencies.put(index, new LinkedHashSet<>());
+            dependants.put(index, new LinkedHashSet<>());
+        }
+        return index;
+    }
+
+    /**
+     * Computes the closure with a breadth-first walk which does not descend into vertices with an already memoized
+     * closure, their closure is merged instead. A memoized closure is always complete, so the result stays correct
+     * even when the graph contains cycles.
+     */
+    private BitSet closure(int index) {
+        BitSet memoized = closures.get(index);
+        if (memoized != null) {
+            return memoized;
+        }
+        BitSet closure = new BitSet(keys.size());
+        Deque<Integer> toVisit = new ArrayDeque<>(dependencies.get(index));
+        while (!toVisit.isEmpty()) {
+            int next = toVisit.poll();
+            if (closure.get(next)) {
+                continue;
+            }
+            closure.set(next);
+            BitSet nextClosure = closures.get(next);
+            if (nextClosure != null) {
+                closure.or(nextClosure);
+            } else {
+                for (Integer dependency : dependencies.get(next)) {
+                    if (!closure.get(dependency)) {
+                        toVisit.add(dependency);
+                    }
+                }
+            }
+        }
+        closures.put(index, closure);
+        return closure;
+    }
+
+    /**
+     * Closures of the vertex and of everything depending on it may contain stale reachability.
+     */
+    private void invalidate(int index) {
+        for (int i : reachableDependants(index)) {
+            closures.remove(i);
+        }
+    }
+
+    private Set<Integer> reachableDependants(int index) {
+        Set<Integer> visited = new HashSet<>();
+        Deque<Integer> toVisit = new ArrayDeque<>();
+        visited.add(index);
+        toVisit.add(index);
+        while (!toVisit.isEmpty()) {
+            for (Integer dependant : dependants.get(toVisit.poll())) {
+                if (visited.add(dependant)) {
+                    toVisit.add(dependant);
+                }
+            }
+        }
+        return visited;
+    }
+}
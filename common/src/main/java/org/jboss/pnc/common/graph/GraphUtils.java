@@ -23,8 +23,11 @@ import org.jboss.util.graph.Vertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
@@ -41,17 +44,20 @@ public class GraphUtils {
             target.addVertex(vertex);
         }
 
-        // merge edges
+        // merge edges, edges are identified by the names of their vertices
         List<Edge<T>> edges = target.getEdges();
-        for (Edge newEdge : toMerge.getEdges()) {
-            Optional<Edge<T>> any = edges.stream()
-                    .filter(
-                            existing -> existing.getFrom().getName().equals(newEdge.getFrom().getName())
-                                    && existing.getTo().getName().equals(newEdge.getTo().getName()))
-                    .findAny();
-            if (!any.isPresent()) {
+        Set<Map.Entry<String, String>> existing = new HashSet<>(edges.size() * 2);
+        for (Edge<T> edge : edges) {
+            existing.add(key(edge));
+        }
+        for (Edge<T> newEdge : toMerge.getEdges()) {
+            if (existing.add(key(newEdge))) {
                 edges.add(newEdge);
             }
         }
     }
+
+    private static Map.Entry<String, String> key(Edge<?> edge) {
+        return new SimpleImmutableEntry<>(edge.getFrom().getName(), edge.getTo().getName());
+    }
 }
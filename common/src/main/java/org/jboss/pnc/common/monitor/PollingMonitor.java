@@ -47,6 +47,14 @@ public class PollingMonitor {
     private static final int DEFAULT_CHECK_INTERVAL = 1;
     private static final String PULLING_MONITOR_CHECK_INTERVAL_KEY = "pulling_monitor_check_interval";
 
+    /** First delay of the backoff monitor, doubled after every unsatisfied check (in milliseconds) */
+    private static final int DEFAULT_BACKOFF_INITIAL_DELAY = 100;
+    private static final String PULLING_MONITOR_BACKOFF_INITIAL_DELAY_KEY = "pulling_monitor_backoff_initial_delay";
+
+    /** Upper bound of the delay between two checks of the backoff monitor (in milliseconds) */
+    private static final int DEFAULT_BACKOFF_MAX_DELAY = 5000;
+    private static final String PULLING_MONITOR_BACKOFF_MAX_DELAY_KEY = "pulling_monitor_backoff_max_delay";
+
     /** */
     private static final TimeUnit DEFAULT_TIME_UNIT = TimeUnit.SECONDS;
 
@@ -58,6 +66,8 @@ public class PollingMonitor {
 
     private int timeout;
     private int checkInterval;
+    private int backoffInitialDelay;
+    private int backoffMaxDelay;
 
     public PollingMonitor() {
         ReadEnvProperty reader = new ReadEnvProperty();
@@ -65,6 +75,11 @@ public class PollingMonitor {
         timeout = reader.getIntValueFromPropertyOrDefault(PULLING_MONITOR_TIMEOUT_KEY, DEFAULT_TIMEOUT);
         checkInterval = reader
                 .getIntValueFromPropertyOrDefault(PULLING_MONITOR_CHECK_INTERVAL_KEY, DEFAULT_CHECK_INTERVAL);
+        backoffInitialDelay = reader.getIntValueFromPropertyOrDefault(
+                PULLING_MONITOR_BACKOFF_INITIAL_DELAY_KEY,
+                DEFAULT_BACKOFF_INITIAL_DELAY);
+        backoffMaxDelay = reader
+                .getIntValueFromPropertyOrDefault(PULLING_MONITOR_BACKOFF_MAX_DELAY_KEY, DEFAULT_BACKOFF_MAX_DELAY);
 
         int threadSize = reader
                 .getIntValueFromPropertyOrDefault(PULLING_MONITOR_THREADPOOL_KEY, DEFAULT_EXECUTOR_THREADPOOL_SIZE);
@@ -92,6 +107,39 @@ public class PollingMonitor {
         return scheduledExecutor.scheduleWithFixedDelayAndTimeout(condition, 0L, checkInterval, timeout, timeUnit);
     }
 
+    /**
+     * Checks the condition with an exponentially growing delay between the checks, starting with a short one. Use for
+     * probes of remote endpoints instead of {@link #monitor(Supplier)} to get both a quick reaction and a low load on
+     * the endpoint.
+     *
+     * @param condition
+     * @return CancellableCompletableFuture
+     */
+    public CancellableCompletableFuture<Void> monitorWithBackoff(Supplier<Boolean> condition) {
+        return monitorWithBackoff(
+                condition,
+                backoffInitialDelay,
+                backoffMaxDelay,
+                DEFAULT_TIME_UNIT.toMillis(timeout),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public CancellableCompletableFuture<Void> monitorWithBackoff(
+            Supplier<Boolean> condition,
+            long initialDelay,
+            long maxDelay,
+            long timeout,
+            TimeUnit timeUnit) {
+        return scheduledExecutor.scheduleWithBackoffAndTimeout(condition, initialDelay, maxDelay, timeout, timeUnit);
+    }
+
+    /**
+     * @return how long the monitors wait for the condition (in seconds)
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
     public ScheduledFuture<?> timer(Runnable task, long delay, TimeUnit timeUnit) {
         return executorService.schedule(task, delay, timeUnit);
     }
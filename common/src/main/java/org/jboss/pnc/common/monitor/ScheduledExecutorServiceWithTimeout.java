@@ -72,6 +72,97 @@ public class ScheduledExecutorServiceWithTimeout {
         return completableFuture;
     }
 
+    /**
+     * Evaluates the condition immediately and then again after initialDelay; the delay doubles after every
+     * unsatisfied evaluation up to maxDelay. Useful for probes of resources which usually come up quickly but may take
+     * long on a busy cluster: a fast start is noticed early and a slow one does not flood the target with requests.
+     */
+    public CancellableCompletableFuture<Void> scheduleWithBackoffAndTimeout(
+            Supplier<Boolean> condition,
+            long initialDelay,
+            long maxDelay,
+            long timeout,
+            TimeUnit timeUnit) {
+        BackoffTask task = new BackoffTask(condition, Math.max(1L, initialDelay), maxDelay, timeUnit);
+
+        Runnable selfTimeout = () -> {
+            task.cancel();
+            task.completableFuture.completeExceptionally(
+                    new TimeoutException("Condition was not satisfied in: " + timeout + " " + timeUnit.toString()));
+        };
+        task.setTimeoutFuture(executorService.schedule(selfTimeout, timeout, timeUnit));
+        task.schedule(0L);
+        return task.completableFuture;
+    }
+
+    private class BackoffTask implements Runnable {
+
+        private final Supplier<Boolean> condition;
+
+        private final long maxDelay;
+
+        private final TimeUnit timeUnit;
+
+        private final CancellableCompletableFuture<Void> completableFuture;
+
+        private long delay;
+
+        private volatile ScheduledFuture<?> timeoutFuture;
+
+        private volatile ScheduledFuture<?> taskFuture;
+
+        private volatile boolean cancelled;
+
+        BackoffTask(Supplier<Boolean> condition, long initialDelay, long maxDelay, TimeUnit timeUnit) {
+            this.condition = condition;
+            this.delay = initialDelay;
+            this.maxDelay = maxDelay;
+            this.timeUnit = timeUnit;
+            this.completableFuture = new CancellableCompletableFuture<>(this::cancel);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                if (condition.get()) {
+                    cancel();
+                    completableFuture.complete(null);
+                } else {
+                    schedule(delay);
+                    delay = Math.min(delay * 2, maxDelay);
+                }
+            } catch (Throwable t) {
+                cancel();
+                completableFuture.completeExceptionally(t);
+            }
+        }
+
+        private void schedule(long nextDelay) {
+            taskFuture = executorService.schedule(this, nextDelay, timeUnit);
+            // cancel() may have run between the check in run() and the assignment above
+            if (cancelled) {
+                taskFuture.cancel(false);
+            }
+        }
+
+        void setTimeoutFuture(ScheduledFuture<?> timeoutFuture) {
+            this.timeoutFuture = timeoutFuture;
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (taskFuture != null) {
+                taskFuture.cancel(false);
+            }
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+        }
+    }
+
     private class Task implements Runnable {
 
         private Runnable runnable;
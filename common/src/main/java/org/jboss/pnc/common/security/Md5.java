@@ -41,6 +41,10 @@ public class Md5 {
         md.update(message.getBytes("UTF-8"));
     }
 
+    public void add(byte[] bytes, int offset, int length) {
+        md.update(bytes, offset, length);
+    }
+
     public String digest() {
         byte[] digest = md.digest();
         return CheckSum.format(digest);
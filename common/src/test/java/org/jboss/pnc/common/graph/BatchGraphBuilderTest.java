@@ -0,0 +1,147 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.common.graph;
+
+import org.jboss.util.graph.Edge;
+import org.jboss.util.graph.Graph;
+import org.jboss.util.graph.Vertex;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchGraphBuilderTest {
+
+    private final Map<Integer, Node> nodes = new HashMap<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void shouldBuildTheSameGraphAsGraphBuilder() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            node(i);
+            for (int j = 0; j < 3 && i > 0; j++) {
+                dependsOn(i, random.nextInt(i));
+            }
+        }
+
+        for (int root : new int[] { 0, 50, 100, 199 }) {
+            Graph<Node> expected = new Graph<>();
+            GraphBuilder<Node, Integer> graphBuilder = new GraphBuilder<>(
+                    nodes::get,
+                    n -> n.dependencies,
+                    n -> n.dependants);
+            graphBuilder.buildDependencyGraph(expected, root);
+            graphBuilder.buildDependentGraph(expected, root);
+
+            Graph<Node> actual = new Graph<>();
+            BatchGraphBuilder<Node, Integer> batchGraphBuilder = batchGraphBuilder();
+            batchGraphBuilder.buildDependencyGraph(actual, root);
+            batchGraphBuilder.buildDependentGraph(actual, root);
+
+            assertThat(names(actual)).isEqualTo(names(expected));
+            assertThat(edges(actual)).isEqualTo(edges(expected));
+        }
+    }
+
+    @Test
+    public void shouldLoadEachLevelInOneCall() {
+        // 1 -> (2, 3) -> 4 -> 5 -> ... -> 10000
+        dependsOn(1, 2);
+        dependsOn(1, 3);
+        dependsOn(2, 4);
+        dependsOn(3, 4);
+        for (int i = 4; i < 10000; i++) {
+            dependsOn(i, i + 1);
+        }
+
+        Graph<Node> graph = new Graph<>();
+        Vertex<Node> root = batchGraphBuilder().buildDependencyGraph(graph, 1);
+
+        assertThat(root.getName()).isEqualTo("1");
+        assertThat(graph.size()).isEqualTo(10000);
+        assertThat(graph.getEdges()).hasSize(10000);
+        assertThat(loads.get()).isEqualTo(9999);
+    }
+
+    @Test
+    public void shouldLeaveOutMissingNodes() {
+        dependsOn(1, 2);
+        node(1).dependencies.add(3);
+
+        Graph<Node> graph = new Graph<>();
+        batchGraphBuilder().buildDependencyGraph(graph, 1);
+
+        assertThat(names(graph)).containsExactlyInAnyOrder("1", "2");
+        assertThat(batchGraphBuilder().buildDependencyGraph(new Graph<>(), 3)).isNull();
+    }
+
+    private BatchGraphBuilder<Node, Integer> batchGraphBuilder() {
+        return new BatchGraphBuilder<>(ids -> {
+            loads.incrementAndGet();
+            return ids.stream().filter(nodes::containsKey).collect(Collectors.toMap(id -> id, nodes::get));
+        }, n -> n.dependencies, n -> n.dependants);
+    }
+
+    private Node node(int id) {
+        return nodes.computeIfAbsent(id, Node::new);
+    }
+
+    private void dependsOn(int dependant, int dependency) {
+        node(dependant).dependencies.add(dependency);
+        node(dependency).dependants.add(dependant);
+    }
+
+    private static Set<String> names(Graph<Node> graph) {
+        return graph.getVerticies().stream().map(Vertex::getName).collect(Collectors.toSet());
+    }
+
+    private static Set<String> edges(Graph<Node> graph) {
+        Set<String> edges = new HashSet<>();
+        for (Edge<Node> edge : graph.getEdges()) {
+            edges.add(edge.getFrom().getName() + "->" + edge.getTo().getName());
+        }
+        return edges;
+    }
+
+    private static class Node {
+        private final int id;
+        private final Collection<Integer> dependencies = new ArrayList<>();
+        private final List<Integer> dependants = new ArrayList<>();
+
+        private Node(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(id);
+        }
+    }
+}
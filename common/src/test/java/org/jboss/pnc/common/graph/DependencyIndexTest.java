@@ -0,0 +1,188 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.common.graph;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DependencyIndexTest {
+
+    private final Logger logger = LoggerFactory.getLogger(DependencyIndexTest.class);
+
+    @Test
+    public void shouldAnswerReachabilityQueries() {
+        DependencyIndex<Integer> index = diamond();
+
+        assertThat(index.dependsOn(1, 4)).isTrue();
+        assertThat(index.dependsOn(2, 4)).isTrue();
+        assertThat(index.dependsOn(4, 1)).isFalse();
+        assertThat(index.dependsOn(2, 3)).isFalse();
+        assertThat(index.getAllDependencies(1)).containsExactlyInAnyOrder(2, 3, 4);
+        assertThat(index.getAllDependants(4)).containsExactlyInAnyOrder(1, 2, 3);
+        assertThat(index.wouldCreateCycle(4, 1)).isTrue();
+        assertThat(index.wouldCreateCycle(2, 3)).isFalse();
+        assertThat(index.wouldCreateCycle(2, 2)).isTrue();
+    }
+
+    @Test
+    public void shouldInvalidateClosuresIncrementally() {
+        DependencyIndex<Integer> index = diamond();
+        index.addDependency(5, 6);
+        assertThat(index.dependsOn(1, 6)).isFalse();
+        assertThat(index.dependsOn(5, 6)).isTrue();
+
+        index.addDependency(4, 5);
+        assertThat(index.dependsOn(1, 6)).isTrue();
+        assertThat(index.getAllDependants(6)).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+
+        index.removeDependency(2, 4);
+        assertThat(index.dependsOn(1, 6)).isTrue();
+        assertThat(index.dependsOn(2, 6)).isFalse();
+
+        index.removeVertex(4);
+        assertThat(index.dependsOn(1, 6)).isFalse();
+        assertThat(index.contains(4)).isFalse();
+        assertThat(index.getAllDependencies(1)).containsExactlyInAnyOrder(2, 3);
+    }
+
+    @Test
+    public void shouldReplaceDependencies() {
+        DependencyIndex<Integer> index = diamond();
+        assertThat(index.dependsOn(1, 4)).isTrue();
+
+        index.setDependencies(2, Collections.singleton(5));
+        index.setDependencies(3, Collections.emptySet());
+        assertThat(index.dependsOn(1, 4)).isFalse();
+        assertThat(index.getAllDependencies(1)).containsExactlyInAnyOrder(2, 3, 5);
+        assertThat(index.getAllDependants(4)).isEmpty();
+        assertThat(index.getAllDependants(5)).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    public void shouldDetectCycles() {
+        DependencyIndex<Integer> index = diamond();
+        assertThat(index.hasCycle()).isFalse();
+
+        index.addDependency(4, 1);
+
+        assertThat(index.hasCycle()).isTrue();
+        assertThat(index.dependsOn(1, 1)).isTrue();
+        assertThat(index.getAllDependants(1)).containsExactlyInAnyOrder(1, 2, 3, 4);
+        assertThatThrownBy(index::getTopologicalOrder).isInstanceOf(IllegalStateException.class);
+
+        index.removeDependency(4, 1);
+        assertThat(index.hasCycle()).isFalse();
+        assertThat(index.dependsOn(1, 1)).isFalse();
+    }
+
+    @Test
+    public void shouldOrderDependenciesFirst() {
+        DependencyIndex<Integer> index = diamond();
+
+        List<Integer> order = index.getTopologicalOrder();
+
+        assertThat(order).hasSize(4);
+        assertThat(order.get(0)).isEqualTo(4);
+        assertThat(order.get(3)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldBuildFromObjectGraph() {
+        Map<String, Collection<String>> graph = new HashMap<>();
+        graph.put("a", Arrays.asList("b", "c"));
+        graph.put("b", Collections.singletonList("c"));
+        graph.put("c", Collections.emptyList());
+
+        DependencyIndex<String> index = DependencyIndex
+                .build(Collections.singletonList("a"), s -> s, s -> graph.get(s));
+
+        assertThat(index.getTopologicalOrder()).containsExactly("c", "b", "a");
+        assertThat(index.getAllDependants("c")).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    public void shouldMatchNaiveReachabilityOnRandomDag() {
+        int size = 2000;
+        Random random = new Random(42);
+        DependencyIndex<Integer> index = new DependencyIndex<>();
+        List<List<Integer>> adjacency = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            index.addVertex(i);
+            List<Integer> deps = new ArrayList<>();
+            for (int j = 0; j < 3 && i > 0; j++) {
+                int dep = random.nextInt(i);
+                deps.add(dep);
+                index.addDependency(i, dep);
+            }
+            adjacency.add(deps);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 1000; i++) {
+            int from = random.nextInt(size);
+            int to = random.nextInt(size);
+            assertThat(index.dependsOn(from, to)).isEqualTo(naiveDependsOn(adjacency, from, to));
+        }
+        assertThat(index.hasCycle()).isFalse();
+        logger.info("Checked 1000 random reachability queries in {}ms.", System.currentTimeMillis() - start);
+    }
+
+    private boolean naiveDependsOn(List<List<Integer>> adjacency, int from, int to) {
+        Set<Integer> visited = new HashSet<>();
+        Deque<Integer> toVisit = new ArrayDeque<>(adjacency.get(from));
+        while (!toVisit.isEmpty()) {
+            Integer next = toVisit.poll();
+            if (next == to) {
+                return true;
+            }
+            if (visited.add(next)) {
+                toVisit.addAll(adjacency.get(next));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 1 -> 2 -> 4, 1 -> 3 -> 4
+     */
+    private DependencyIndex<Integer> diamond() {
+        DependencyIndex<Integer> index = new DependencyIndex<>();
+        index.addDependency(1, 2);
+        index.addDependency(1, 3);
+        index.addDependency(2, 4);
+        index.addDependency(3, 4);
+        return index;
+    }
+}
@@ -27,6 +27,9 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -139,4 +142,45 @@ public class PollingMonitorTest {
         boolean await = lock.await(1, TimeUnit.SECONDS);
         Assert.assertTrue("Did not received the exception.", await);
     }
+
+    @Test
+    public void backoffMonitorShouldIncreaseDelayBetweenChecks() throws Exception {
+        List<Long> checks = Collections.synchronizedList(new ArrayList<>());
+        Supplier<Boolean> condition = () -> {
+            checks.add(System.nanoTime());
+            return checks.size() == 5;
+        };
+        CancellableCompletableFuture<Void> monitor = pollingMonitor
+                .monitorWithBackoff(condition, 20, 160, 5000, TimeUnit.MILLISECONDS);
+        monitor.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(5, checks.size());
+        // delays are 20, 40, 80, 160 ms
+        long first = TimeUnit.NANOSECONDS.toMillis(checks.get(2) - checks.get(1));
+        long last = TimeUnit.NANOSECONDS.toMillis(checks.get(4) - checks.get(3));
+        Assert.assertTrue("Delay did not grow: " + first + " ms vs " + last + " ms.", last >= 2 * first);
+        Assert.assertTrue("Delay exceeds the maximum: " + last + " ms.", last >= 160 && last < 1000);
+    }
+
+    @Test
+    public void backoffMonitorShouldTimeoutDueToUnsatisfiedCondition() throws InterruptedException {
+        AtomicInteger polled = new AtomicInteger(0);
+        CancellableCompletableFuture<Void> monitor = pollingMonitor.monitorWithBackoff(() -> {
+            polled.incrementAndGet();
+            return false;
+        }, 50, 100, 500, TimeUnit.MILLISECONDS);
+        try {
+            monitor.get(2, TimeUnit.SECONDS);
+            Assert.fail("Monitor should time out.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        } catch (TimeoutException e) {
+            Assert.fail("Monitor did not time out in time.");
+        }
+        int polledOnTimeout = polled.get();
+        // checks at 0, 50, 150, 250, 350, 450 ms
+        Assert.assertTrue("Unexpected number of checks: " + polledOnTimeout, polledOnTimeout <= 7);
+        Thread.sleep(300);
+        Assert.assertEquals("Monitor kept polling after the timeout.", polledOnTimeout, polled.get());
+    }
 }
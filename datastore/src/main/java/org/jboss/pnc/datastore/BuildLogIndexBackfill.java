@@ -0,0 +1,113 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.datastore;
+
+import org.jboss.pnc.spi.datastore.repositories.BuildLogTermRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Resource;
+import javax.ejb.EJBException;
+import javax.ejb.Schedule;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * Indexes the logs of the build records which are not marked as indexed, ie. the builds stored before the index was
+ * introduced and the builds which indexing failed or was skipped. The run goes through all such records in pages, the
+ * progress is kept in the database by marking the indexed records.
+ *
+ * Each page is indexed in its own transaction holding the backfill lock, so only one node indexes at a time. A run
+ * which does not get the lock ends, the other node is already indexing. The records which indexing failed are retried
+ * by the next run.
+ */
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class BuildLogIndexBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuildLogIndexBackfill.class);
+
+    /**
+     * Number of build records indexed in one transaction.
+     */
+    private static final int PAGE_SIZE = 10;
+
+    private BuildLogIndexer buildLogIndexer;
+
+    private BuildLogTermRepository buildLogTermRepository;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @Deprecated // CDI workaround
+    public BuildLogIndexBackfill() {
+    }
+
+    @Inject
+    public BuildLogIndexBackfill(BuildLogIndexer buildLogIndexer, BuildLogTermRepository buildLogTermRepository) {
+        this.buildLogIndexer = buildLogIndexer;
+        this.buildLogTermRepository = buildLogTermRepository;
+    }
+
+    @Schedule(hour = "*", minute = "*/5", persistent = false)
+    public void indexUnindexedLogs() {
+        BuildLogIndexBackfill self = sessionContext.getBusinessObject(BuildLogIndexBackfill.class);
+        int indexed = 0;
+        int afterId = 0;
+        List<Integer> buildRecordIds;
+        do {
+            buildRecordIds = buildLogTermRepository.queryUnindexedBuildRecordIds(afterId, PAGE_SIZE);
+            if (buildRecordIds.isEmpty()) {
+                break;
+            }
+            try {
+                if (!self.indexPage(buildRecordIds)) {
+                    logger.debug("Build log index backfill is running on another node.");
+                    break;
+                }
+                indexed += buildRecordIds.size();
+            } catch (EJBException e) {
+                logger.warn("Cannot backfill build log index of build records " + buildRecordIds + ".", e);
+            }
+            afterId = buildRecordIds.get(buildRecordIds.size() - 1);
+        } while (buildRecordIds.size() == PAGE_SIZE);
+        if (indexed > 0) {
+            logger.info("Backfilled build log index of {} build records.", indexed);
+        }
+    }
+
+    /**
+     * Indexes the page of build records, if no other node holds the backfill lock.
+     *
+     * @return false if the lock is held by another node and nothing was indexed
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean indexPage(List<Integer> buildRecordIds) {
+        if (!buildLogTermRepository.tryLockIndexBackfill()) {
+            return false;
+        }
+        for (Integer buildRecordId : buildRecordIds) {
+            buildLogIndexer.index(buildRecordId);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,307 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.datastore;
+
+import org.jboss.pnc.common.concurrent.MDCThreadPoolExecutor;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
+import org.jboss.pnc.model.BuildLogTerm;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
+import org.jboss.pnc.spi.datastore.BuildLogTokenizer;
+import org.jboss.pnc.spi.datastore.repositories.BuildLogTermRepository;
+import org.jboss.pnc.spi.datastore.repositories.BuildRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Builds the build log search index. The whole log is read line by line, the first occurrence of every distinct term
+ * is stored as a {@link BuildLogTerm}, so the searches don't need to read the logs. Number of terms per build is
+ * limited, the index size does not grow with the log size. When the log has more distinct terms than the limit, the
+ * terms seen last are indexed too, so the errors at the end of a long log are found.
+ *
+ * The logs of the stored builds are indexed asynchronously, once the build record is committed. The indexed records are
+ * marked, the builds which indexing failed or was skipped are picked up by {@link BuildLogIndexBackfill}.
+ */
+@ApplicationScoped
+public class BuildLogIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuildLogIndexer.class);
+
+    /**
+     * Maximal number of distinct terms indexed from the start of the log.
+     */
+    static final int HEAD_TERMS = 20000;
+
+    /**
+     * Maximal number of distinct terms indexed from the end of the log, in addition to the {@link #HEAD_TERMS}.
+     */
+    static final int TAIL_TERMS = 5000;
+
+    /**
+     * Only the start of the longer lines is indexed.
+     */
+    static final int MAX_LINE_LENGTH = 16 * 1024;
+
+    /**
+     * Maximal number of builds waiting for indexing. The requests over the limit are left to the backfill.
+     */
+    private static final int QUEUE_SIZE = 20;
+
+    private BuildLogStore buildLogStore;
+
+    private BuildLogTermRepository buildLogTermRepository;
+
+    private BuildRecordRepository buildRecordRepository;
+
+    private Event<IndexRequest> indexRequests;
+
+    private ExecutorService executor;
+
+    @Deprecated // CDI workaround
+    public BuildLogIndexer() {
+    }
+
+    @Inject
+    public BuildLogIndexer(
+            BuildLogStore buildLogStore,
+            BuildLogTermRepository buildLogTermRepository,
+            BuildRecordRepository buildRecordRepository,
+            Event<IndexRequest> indexRequests) {
+        this(buildLogStore, buildLogTermRepository, buildRecordRepository);
+        this.indexRequests = indexRequests;
+    }
+
+    /**
+     * Creates an indexer outside of the container, the scheduled indexing is not bound to a transaction.
+     */
+    public BuildLogIndexer(
+            BuildLogStore buildLogStore,
+            BuildLogTermRepository buildLogTermRepository,
+            BuildRecordRepository buildRecordRepository) {
+        this.buildLogStore = buildLogStore;
+        this.buildLogTermRepository = buildLogTermRepository;
+        this.buildRecordRepository = buildRecordRepository;
+        this.executor = new MDCThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE),
+                new NamedThreadFactory("build-log-indexer"));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedules indexing of a build record log. When called in a transaction the log is indexed after the transaction
+     * commits, nothing is indexed when it rolls back. The log is read when the indexing starts.
+     *
+     * @param buildRecordId id of the stored build record
+     */
+    public void scheduleIndexing(Integer buildRecordId) {
+        IndexRequest request = new IndexRequest(buildRecordId);
+        if (indexRequests == null) {
+            submit(request);
+        } else {
+            indexRequests.fire(request);
+        }
+    }
+
+    void onBuildRecordStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) IndexRequest request) {
+        submit(request);
+    }
+
+    private void submit(IndexRequest request) {
+        try {
+            executor.execute(() -> index(request.buildRecordId));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Indexing queue is full, build log {} is left to the backfill.", request.buildRecordId);
+        }
+    }
+
+    /**
+     * Indexes the log of a saved build record right away.
+     */
+    public void index(BuildRecord buildRecord) {
+        index(buildRecord.getId(), buildRecord::getBuildLog);
+    }
+
+    /**
+     * Indexes the log of a stored build record right away, the log stored in the record is loaded only when the log is
+     * not in the build log store.
+     */
+    public void index(Integer buildRecordId) {
+        index(buildRecordId, () -> buildRecordRepository.getBuildLog(buildRecordId));
+    }
+
+    /**
+     * Indexes the log of a saved build record right away, replacing the previous index of the record. The log is read
+     * from the build log store when it is stored there. A record without any log is marked as indexed with no terms.
+     * Failures are logged only, the record stays unindexed and is picked up by the backfill.
+     *
+     * @param buildRecordId id of the stored build record
+     * @param inlineLog supplies the log stored in the build record, called only when the log is not in the store
+     */
+    public void index(Integer buildRecordId, Supplier<String> inlineLog) {
+        try (InputStream log = openLog(buildRecordId, inlineLog)) {
+            if (log == null) {
+                buildLogTermRepository.replaceForBuildRecord(buildRecordId, Collections.emptyList());
+                return;
+            }
+            BuildRecord buildRecord = new BuildRecord();
+            buildRecord.setId(buildRecordId);
+            Collection<BuildLogTerm> terms = readTerms(buildRecord, log);
+            logger.debug("Indexing {} terms of build log {}.", terms.size(), buildRecordId);
+            buildLogTermRepository.replaceForBuildRecord(buildRecordId, terms);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot index build log of build " + buildRecordId + ".", e);
+        }
+    }
+
+    private InputStream openLog(Integer buildRecordId, Supplier<String> inlineLog) throws IOException {
+        if (buildLogStore.isEnabled()) {
+            Optional<Long> size = buildLogStore.getSize(buildRecordId);
+            if (size.isPresent()) {
+                return buildLogStore.read(buildRecordId, 0);
+            }
+        }
+        String log = inlineLog.get();
+        if (log == null) {
+            return null;
+        }
+        return new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Collection<BuildLogTerm> readTerms(BuildRecord buildRecord, InputStream log) throws IOException {
+        Terms terms = new Terms();
+        InputStream in = new BufferedInputStream(log);
+        ByteArrayOutputStream lineBytes = new ByteArrayOutputStream();
+        int lineNumber = 1;
+        long lineOffset = 0;
+        long offset = 0;
+        int b;
+        while (true) {
+            b = in.read();
+            if (b == '\n' || b == -1) {
+                String line = new String(lineBytes.toByteArray(), StandardCharsets.UTF_8);
+                for (String term : BuildLogTokenizer.tokenize(line)) {
+                    terms.add(buildRecord, term, line, lineNumber, lineOffset);
+                }
+                if (b == -1) {
+                    break;
+                }
+                lineBytes.reset();
+                lineNumber++;
+                lineOffset = offset + 1;
+            } else if (lineBytes.size() < MAX_LINE_LENGTH) {
+                lineBytes.write(b);
+            }
+            offset++;
+        }
+        return terms.values();
+    }
+
+    /**
+     * The first {@link #HEAD_TERMS} distinct terms and the {@link #TAIL_TERMS} distinct terms seen last.
+     */
+    private static class Terms {
+
+        private final Map<String, BuildLogTerm> head = new LinkedHashMap<>();
+
+        private final Map<String, BuildLogTerm> tail = new LinkedHashMap<String, BuildLogTerm>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BuildLogTerm> eldest) {
+                return size() > TAIL_TERMS;
+            }
+        };
+
+        void add(BuildRecord buildRecord, String term, String line, int lineNumber, long lineOffset) {
+            if (head.containsKey(term)) {
+                return;
+            }
+            Map<String, BuildLogTerm> terms = head.size() < HEAD_TERMS ? head : tail;
+            // the lookup moves a term of the access ordered tail to its end
+            if (terms.get(term) == null) {
+                terms.put(term, new BuildLogTerm(buildRecord, term, lineNumber, lineOffset, snippet(line, term)));
+            }
+        }
+
+        Collection<BuildLogTerm> values() {
+            List<BuildLogTerm> values = new ArrayList<>(head.size() + tail.size());
+            values.addAll(head.values());
+            values.addAll(tail.values());
+            return values;
+        }
+    }
+
+    /**
+     * @return the line or the part of the line around the first occurrence of the term if the line is too long
+     */
+    static String snippet(String line, String term) {
+        String trimmed = line.trim();
+        if (trimmed.length() <= BuildLogTerm.MAX_SNIPPET_LENGTH) {
+            return trimmed;
+        }
+        int termIndex = Math.max(0, trimmed.toLowerCase(Locale.ROOT).indexOf(term));
+        int start = Math.max(0, termIndex - (BuildLogTerm.MAX_SNIPPET_LENGTH - term.length()) / 2);
+        int end = Math.min(trimmed.length(), start + BuildLogTerm.MAX_SNIPPET_LENGTH);
+        start = end - BuildLogTerm.MAX_SNIPPET_LENGTH;
+        return trimmed.substring(start, end);
+    }
+
+    /**
+     * Request to index the log of a stored build record.
+     */
+    public static class IndexRequest {
+
+        private final Integer buildRecordId;
+
+        IndexRequest(Integer buildRecordId) {
+            this.buildRecordId = buildRecordId;
+        }
+    }
+}
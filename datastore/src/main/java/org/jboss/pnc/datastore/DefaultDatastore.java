@@ -17,6 +17,7 @@
  */
 package org.jboss.pnc.datastore;
 
+import org.jboss.pnc.enums.BuildStatus;
 import org.jboss.pnc.enums.RepositoryType;
 import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildConfigSetRecord;
@@ -48,6 +49,7 @@ import javax.inject.Inject;
 import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -82,6 +84,8 @@ public class DefaultDatastore implements Datastore {
 
     private TargetRepositoryRepository targetRepositoryRepository;
 
+    private BuildLogIndexer buildLogIndexer;
+
     public DefaultDatastore() {
     }
 
@@ -94,7 +98,8 @@ public class DefaultDatastore implements Datastore {
             BuildConfigSetRecordRepository buildConfigSetRecordRepository,
             UserRepository userRepository,
             SequenceHandlerRepository sequenceHandlerRepository,
-            TargetRepositoryRepository targetRepositoryRepository) {
+            TargetRepositoryRepository targetRepositoryRepository,
+            BuildLogIndexer buildLogIndexer) {
         this.artifactRepository = artifactRepository;
         this.buildRecordRepository = buildRecordRepository;
         this.buildConfigurationRepository = buildConfigurationRepository;
@@ -103,6 +108,7 @@ public class DefaultDatastore implements Datastore {
         this.userRepository = userRepository;
         this.sequenceHandlerRepository = sequenceHandlerRepository;
         this.targetRepositoryRepository = targetRepositoryRepository;
+        this.buildLogIndexer = buildLogIndexer;
     }
 
     private static final String ARTIFACT_ALREADY_BUILT_CONFLICT_MESSAGE = "This artifact was already built in build #";
@@ -154,17 +160,24 @@ public class DefaultDatastore implements Datastore {
          * Built artifacts must be saved before the dependencies. In case an artifact is built and the dependency
          * (re-downloaded), it must be linked to built artifacts repository.
          */
+        long start = System.currentTimeMillis();
         logger.debug("Saving built artifacts ...");
         final Set<Artifact> savedBuiltArtifacts = saveArtifacts(builtArtifacts, repositoriesCache, artifactCache);
 
         logger.debug("Saving dependencies ...");
         buildRecord.setDependencies(saveArtifacts(dependencies, repositoriesCache, artifactCache));
 
-        logger.debug("Done saving artifacts.");
+        logger.debug(
+                "Done saving {} built artifacts and {} dependencies in {} ms.",
+                builtArtifacts.size(),
+                dependencies.size(),
+                System.currentTimeMillis() - start);
         logger.trace("Saving build record {}.", buildRecord);
         buildRecord = buildRecordRepository.save(buildRecord);
         logger.debug("Build record {} saved.", buildRecord.getId());
 
+        buildLogIndexer.scheduleIndexing(buildRecord.getId());
+
         logger.trace("Setting artifacts as built.");
         for (Artifact builtArtifact : savedBuiltArtifacts) {
             builtArtifact.setBuildRecord(buildRecord);
@@ -186,7 +199,8 @@ public class DefaultDatastore implements Datastore {
 
     /**
      * Checks the given list against the existing database and creates a new list containing artifacts which have been
-     * saved to or loaded from the database.
+     * saved to or loaded from the database. New artifacts are only persisted here, the inserts are sent to the database
+     * in JDBC batches when the persistence context is flushed.
      *
      * @param artifacts of in-memory artifacts to either insert to the database or find the matching record in the db
      * @param artifactCache
@@ -281,6 +295,8 @@ public class DefaultDatastore implements Datastore {
             // Relation owner (BuildRecord) must be saved first, the relation is saved when the BR is saved
             artifact.setDependantBuildRecords(Collections.emptySet());
             artifactFromDb = artifactRepository.save(artifact);
+            // the same artifact can be listed more than once, don't insert it again
+            artifactCache.put(artifactFromDb.getIdentifierSha256(), artifactFromDb);
 
             logger.trace("Saved new artifact {}.", artifactFromDb);
         } else {
@@ -379,6 +395,11 @@ public class DefaultDatastore implements Datastore {
                         .queryWithPredicates(withBuildConfigurationSetId(buildConfigurationSet.getId())));
     }
 
+    @Override
+    public Map<Integer, List<Long>> getSuccessfulBuildDurations(Date endedAfter) {
+        return buildRecordRepository.findSuccessfulBuildDurations(endedAfter);
+    }
+
     @Override
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public boolean requiresRebuild(
@@ -437,6 +458,130 @@ public class DefaultDatastore implements Datastore {
                 processedDependenciesCache);
     }
 
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public Map<IdRev, BuildRecord> getNoRebuildCauses(
+            Collection<BuildConfigurationAudited> buildConfigurationAuditeds,
+            boolean checkImplicitDependencies,
+            boolean temporaryBuild) {
+        Set<Integer> configurationIds = new HashSet<>();
+        for (BuildConfigurationAudited buildConfigurationAudited : buildConfigurationAuditeds) {
+            configurationIds.add(buildConfigurationAudited.getId());
+            for (BuildConfiguration dependency : buildConfigurationAudited.getBuildConfiguration().getDependencies()) {
+                configurationIds.add(dependency.getId());
+            }
+        }
+        Map<Integer, List<BuildRecord>> recordsByConfiguration = buildRecordRepository
+                .queryWithBuildConfigurationIds(configurationIds)
+                .stream()
+                .collect(Collectors.groupingBy(BuildRecord::getBuildConfigurationId));
+
+        Map<Integer, BuildRecord> latestByConfiguration = new HashMap<>();
+        recordsByConfiguration.forEach((configurationId, records) -> {
+            BuildRecord latest = buildRecordRepository.getLatestSuccessfulBuildRecord(records, temporaryBuild);
+            if (latest != null) {
+                latestByConfiguration.put(configurationId, latest);
+            }
+        });
+
+        Map<IdRev, BuildRecord> noRebuildCauses = new HashMap<>();
+        for (BuildConfigurationAudited buildConfigurationAudited : buildConfigurationAuditeds) {
+            IdRev idRev = buildConfigurationAudited.getIdRev();
+            List<BuildRecord> successfulRecordsOfIdRev = recordsByConfiguration
+                    .getOrDefault(idRev.getId(), Collections.emptyList())
+                    .stream()
+                    .filter(record -> record.getStatus() == BuildStatus.SUCCESS)
+                    .filter(record -> idRev.equals(record.getBuildConfigurationAuditedIdRev()))
+                    .collect(Collectors.toList());
+            BuildRecord latestSuccessfulBuildRecord = buildRecordRepository
+                    .getLatestSuccessfulBuildRecord(successfulRecordsOfIdRev, temporaryBuild);
+            if (latestSuccessfulBuildRecord == null) {
+                logger.debug(
+                        "Rebuild of buildConfiguration.idRev: {} required as there is no successful BuildRecord.",
+                        idRev);
+                continue;
+            }
+            BuildRecord latestOfConfiguration = latestByConfiguration.get(idRev.getId());
+            if (latestOfConfiguration == null
+                    || !idRev.equals(latestOfConfiguration.getBuildConfigurationAuditedIdRev())) {
+                logger.debug(
+                        "Last successful BuildRecord of buildConfiguration.id {} is not from this BuildConfigurationAudited idRev {}.",
+                        idRev.getId(),
+                        idRev);
+                continue;
+            }
+            boolean rebuild = buildConfigurationAudited.getBuildConfiguration()
+                    .getDependencies()
+                    .stream()
+                    .map(dependency -> latestByConfiguration.get(dependency.getId()))
+                    .anyMatch(
+                            dependencyLatest -> dependencyLatest == null || dependencyLatest.getEndTime()
+                                    .after(latestSuccessfulBuildRecord.getEndTime()));
+            logger.debug(
+                    "Explicit dependency check for rebuild of buildConfiguration.idRev: {} required: {}.",
+                    idRev,
+                    rebuild);
+            if (!rebuild) {
+                noRebuildCauses.put(idRev, latestSuccessfulBuildRecord);
+            }
+        }
+
+        if (checkImplicitDependencies && !noRebuildCauses.isEmpty()) {
+            removeWithRebuiltImplicitDependency(noRebuildCauses, temporaryBuild);
+        }
+        return noRebuildCauses;
+    }
+
+    /**
+     * Removes the candidates whose latest successful BuildRecord captured a dependency produced by a BuildRecord which
+     * is not the latest successful one of its idRev any more. The producers of all the candidates are loaded at once.
+     */
+    private void removeWithRebuiltImplicitDependency(Map<IdRev, BuildRecord> noRebuildCauses, boolean temporaryBuild) {
+        Set<Integer> candidateRecordIds = noRebuildCauses.values()
+                .stream()
+                .map(BuildRecord::getId)
+                .collect(Collectors.toSet());
+        Map<Integer, Set<BuildRecord>> producersByRecord = buildRecordRepository
+                .findDependencyProducers(candidateRecordIds);
+
+        List<IdRev> producerIdRevs = producersByRecord.values()
+                .stream()
+                .flatMap(Set::stream)
+                .map(BuildRecord::getBuildConfigurationAuditedIdRev)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<IdRev, List<BuildRecord>> successfulByIdRev = buildRecordRepository
+                .querySuccessfulWithBuildConfigurationIdRevs(producerIdRevs)
+                .stream()
+                .collect(Collectors.groupingBy(BuildRecord::getBuildConfigurationAuditedIdRev));
+
+        Map<IdRev, BuildRecord> latestByIdRev = new HashMap<>();
+        successfulByIdRev.forEach(
+                (idRev, records) -> latestByIdRev
+                        .put(idRev, buildRecordRepository.getLatestSuccessfulBuildRecord(records, temporaryBuild)));
+
+        noRebuildCauses.entrySet().removeIf(candidate -> {
+            BuildRecord candidateRecord = candidate.getValue();
+            for (BuildRecord producer : producersByRecord
+                    .getOrDefault(candidateRecord.getId(), Collections.emptySet())) {
+                BuildRecord latest = latestByIdRev.get(producer.getBuildConfigurationAuditedIdRev());
+                if (latest == null) {
+                    logger.error(
+                            "Something went wrong, the buildRecord {} should be successful (to this latest or the BuildRecord that produced artifacts.).",
+                            producer.getId());
+                }
+                if (latest == null || !producer.getId().equals(latest.getId())) {
+                    logger.debug(
+                            "Latest successful BuildRecord: {} has implicitly dependent BR: {} that requires rebuild.",
+                            candidateRecord.getId(),
+                            producer.getId());
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
     /**
      * @return true when the latest success {@link BuildRecord} of {@link BuildConfiguration} is build from this
      *         {@link BuildConfigurationAudited} if a build is persistent {@param temporaryBuild} , then it skips
@@ -0,0 +1,331 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.datastore;
+
+import org.jboss.pnc.common.json.moduleconfig.BuildLogStoreConfig;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
+import org.jboss.pnc.spi.datastore.BuildLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores each build log in its own directory as a sequence of gzip compressed segments. Every segment but the last one
+ * holds the same number of uncompressed bytes, so reading from an offset decompresses only the segments from the
+ * offset on. The size and the checksums of the log are written to a metadata file once the log is complete; logs
+ * without the metadata are still being written.
+ */
+@ApplicationScoped
+public class FileSystemBuildLogStore implements BuildLogStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String METADATA_FILE = "build-log.properties";
+
+    private static final String SIZE = "size";
+
+    private static final String SEGMENT_SIZE = "segmentSize";
+
+    private static final String MD5 = "md5";
+
+    private static final String SHA256 = "sha256";
+
+    private Path storageDir;
+
+    private int segmentSize;
+
+    private final ConcurrentMap<Integer, SegmentedLogWriter> openWriters = new ConcurrentHashMap<>();
+
+    @Deprecated // CDI workaround
+    public FileSystemBuildLogStore() {
+    }
+
+    @Inject
+    public FileSystemBuildLogStore(BuildLogStoreConfig config) {
+        if (config != null && config.getStorageDir() != null) {
+            this.storageDir = Paths.get(config.getStorageDir());
+            this.segmentSize = config.getSegmentSize();
+            logger.info("Storing build logs in {}.", storageDir);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return storageDir != null;
+    }
+
+    @Override
+    public BuildLogWriter openWriter(Integer buildId) throws IOException {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Build log storage is not configured.");
+        }
+        Path logDir = getLogDir(buildId);
+        deleteRecursively(logDir);
+        Files.createDirectories(logDir);
+
+        SegmentedLogWriter writer = new SegmentedLogWriter(buildId, logDir, segmentSize);
+        openWriters.put(buildId, writer);
+        return writer;
+    }
+
+    @Override
+    public Optional<BuildLogWriter> getOpenWriter(Integer buildId) {
+        return Optional.ofNullable(openWriters.get(buildId)).map(BuildLogWriter.class::cast);
+    }
+
+    @Override
+    public Optional<Long> getSize(Integer buildId) throws IOException {
+        return readMetadata(buildId).map(metadata -> Long.parseLong(metadata.getProperty(SIZE)));
+    }
+
+    @Override
+    public InputStream read(Integer buildId, long offset) throws IOException {
+        Properties metadata = readMetadata(buildId)
+                .orElseThrow(() -> new FileNotFoundException("Build log of build " + buildId + " is not stored."));
+        long size = Long.parseLong(metadata.getProperty(SIZE));
+        int logSegmentSize = Integer.parseInt(metadata.getProperty(SEGMENT_SIZE));
+        if (offset < 0 || offset > size) {
+            throw new IllegalArgumentException("Offset " + offset + " is outside of the build log of size " + size);
+        }
+
+        Path logDir = getLogDir(buildId);
+        int segments = (int) ((size + logSegmentSize - 1) / logSegmentSize);
+        int firstSegment = (int) (offset / logSegmentSize);
+        long skipInFirstSegment = offset % logSegmentSize;
+
+        Enumeration<InputStream> segmentStreams = new Enumeration<InputStream>() {
+            private int next = firstSegment;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < segments;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (!hasMoreElements()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    InputStream segment = openSegment(logDir, next);
+                    if (next == firstSegment) {
+                        skipFully(segment, skipInFirstSegment);
+                    }
+                    next++;
+                    return segment;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read segment " + next + " of build log " + buildId, e);
+                }
+            }
+        };
+        return new SequenceInputStream(segmentStreams);
+    }
+
+    @Override
+    public void discardOpenWriter(Integer buildId) throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        SegmentedLogWriter openWriter = openWriters.remove(buildId);
+        if (openWriter != null) {
+            logger.debug("Discarding unfinished build log of build {}.", buildId);
+            openWriter.discard();
+            deleteRecursively(getLogDir(buildId));
+        }
+    }
+
+    @Override
+    public void delete(Integer buildId) throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        SegmentedLogWriter openWriter = openWriters.remove(buildId);
+        if (openWriter != null) {
+            openWriter.discard();
+        }
+        deleteRecursively(getLogDir(buildId));
+    }
+
+    private Path getLogDir(Integer buildId) {
+        return storageDir.resolve(buildId.toString());
+    }
+
+    private Optional<Properties> readMetadata(Integer buildId) throws IOException {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        Path metadataFile = getLogDir(buildId).resolve(METADATA_FILE);
+        if (!Files.exists(metadataFile)) {
+            return Optional.empty();
+        }
+        Properties metadata = new Properties();
+        try (InputStream inputStream = Files.newInputStream(metadataFile)) {
+            metadata.load(inputStream);
+        }
+        return Optional.of(metadata);
+    }
+
+    private static Path getSegmentFile(Path logDir, int segment) {
+        return logDir.resolve(String.format("segment-%06d.gz", segment));
+    }
+
+    private static InputStream openSegment(Path logDir, int segment) throws IOException {
+        return new GZIPInputStream(new BufferedInputStream(Files.newInputStream(getSegmentFile(logDir, segment))));
+    }
+
+    private static void skipFully(InputStream inputStream, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of build log segment.");
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot delete " + path, e);
+                }
+            });
+        }
+    }
+
+    private class SegmentedLogWriter extends BuildLogWriter {
+
+        private final Integer buildId;
+
+        private final Path logDir;
+
+        private final int segmentSize;
+
+        private OutputStream segment;
+
+        private int segmentIndex;
+
+        private int segmentBytes;
+
+        private boolean discarded;
+
+        private SegmentedLogWriter(Integer buildId, Path logDir, int segmentSize) {
+            this.buildId = buildId;
+            this.logDir = logDir;
+            this.segmentSize = segmentSize;
+        }
+
+        @Override
+        protected void store(byte[] bytes, int offset, int length) throws IOException {
+            if (discarded) {
+                throw new IOException("Build log of build " + buildId + " was discarded.");
+            }
+            while (length > 0) {
+                if (segment == null) {
+                    segment = new GZIPOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(getSegmentFile(logDir, segmentIndex))));
+                }
+                int chunk = Math.min(length, segmentSize - segmentBytes);
+                segment.write(bytes, offset, chunk);
+                segmentBytes += chunk;
+                offset += chunk;
+                length -= chunk;
+
+                if (segmentBytes == segmentSize) {
+                    closeSegment();
+                }
+            }
+        }
+
+        @Override
+        protected void complete() throws IOException {
+            if (discarded) {
+                return;
+            }
+            try {
+                closeSegment();
+
+                Properties metadata = new Properties();
+                metadata.setProperty(SIZE, Long.toString(getSize()));
+                metadata.setProperty(SEGMENT_SIZE, Integer.toString(segmentSize));
+                metadata.setProperty(MD5, getMd5());
+                metadata.setProperty(SHA256, getSha256());
+
+                Path tmpFile = logDir.resolve(METADATA_FILE + ".tmp");
+                try (OutputStream outputStream = Files.newOutputStream(tmpFile)) {
+                    metadata.store(outputStream, "Build log " + buildId);
+                }
+                Files.move(tmpFile, logDir.resolve(METADATA_FILE), StandardCopyOption.ATOMIC_MOVE);
+                logger.debug("Stored build log of build {} with size {}.", buildId, getSize());
+            } finally {
+                openWriters.remove(buildId, this);
+            }
+        }
+
+        /**
+         * Closes the current segment without completing the log, the log is never made readable.
+         */
+        private synchronized void discard() throws IOException {
+            discarded = true;
+            if (segment != null) {
+                segment.close();
+                segment = null;
+            }
+        }
+
+        private void closeSegment() throws IOException {
+            if (segment != null) {
+                segment.close();
+                segment = null;
+                segmentIndex++;
+                segmentBytes = 0;
+            }
+        }
+    }
+}
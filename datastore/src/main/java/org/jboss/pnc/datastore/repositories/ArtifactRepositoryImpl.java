@@ -17,9 +17,15 @@
  */
 package org.jboss.pnc.datastore.repositories;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.ejb.Stateless;
@@ -28,34 +34,91 @@ import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import org.jboss.pnc.datastore.repositories.internal.AbstractRepository;
 import org.jboss.pnc.datastore.repositories.internal.ArtifactSpringRepository;
+import org.jboss.pnc.enums.ArtifactQuality;
+import org.jboss.pnc.enums.RepositoryType;
 import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.spi.datastore.predicates.ArtifactPredicates;
+import org.jboss.pnc.spi.datastore.projections.ArtifactInfo;
 import org.jboss.pnc.spi.datastore.repositories.ArtifactRepository;
 
 @Stateless
 public class ArtifactRepositoryImpl extends AbstractRepository<Artifact, Integer> implements ArtifactRepository {
 
+    private ArtifactSpringRepository artifactSpringRepository;
+
     @Inject
     public ArtifactRepositoryImpl(ArtifactSpringRepository springArtifactRepository) {
         super(springArtifactRepository, springArtifactRepository);
+        this.artifactSpringRepository = springArtifactRepository;
     }
 
+    /**
+     * Maximum number of checksums in a single IN clause, the JDBC drivers limit the number of bind parameters.
+     */
+    private static final int MAX_QUERY_CHECKSUMS = 1000;
+
+    /**
+     * Maximum number of build ids in a single IN clause of the projection queries.
+     */
+    private static final int MAX_QUERY_IDS = 1000;
+
     @Override
     public Set<Artifact> withIdentifierAndSha256s(Set<Artifact.IdentifierSha256> identifierSha256s) {
-        Set<String> sha256s = identifierSha256s.stream().map(is -> is.getSha256()).collect(Collectors.toSet());
-
-        List<Artifact> artifacts = queryWithPredicates(ArtifactPredicates.withSha256In(sha256s));
+        List<String> sha256s = identifierSha256s.stream()
+                .map(is -> is.getSha256())
+                .distinct()
+                .collect(Collectors.toList());
 
-        // make sure the identifier matches too
-        Set<Artifact> artifactsMatchingIdentifier = artifacts.stream()
-                .filter(
-                        a -> identifierSha256s
-                                .contains(new Artifact.IdentifierSha256(a.getIdentifier(), a.getSha256())))
-                .collect(Collectors.toSet());
+        Set<Artifact> artifactsMatchingIdentifier = new HashSet<>();
+        for (int from = 0; from < sha256s.size(); from += MAX_QUERY_CHECKSUMS) {
+            int to = Math.min(from + MAX_QUERY_CHECKSUMS, sha256s.size());
+            Set<String> chunk = new HashSet<>(sha256s.subList(from, to));
+            List<Artifact> artifacts = queryWithPredicates(ArtifactPredicates.withSha256In(chunk));
 
+            // make sure the identifier matches too
+            artifacts.stream()
+                    .filter(
+                            a -> identifierSha256s
+                                    .contains(new Artifact.IdentifierSha256(a.getIdentifier(), a.getSha256())))
+                    .forEach(artifactsMatchingIdentifier::add);
+        }
         return artifactsMatchingIdentifier;
     }
 
+    @Override
+    public Map<Integer, List<ArtifactInfo>> findBuiltArtifactInfos(Collection<Integer> buildRecordIds) {
+        return queryInfos(buildRecordIds, artifactSpringRepository::findBuiltArtifactInfos);
+    }
+
+    @Override
+    public Map<Integer, List<ArtifactInfo>> findDependencyInfos(Collection<Integer> buildRecordIds) {
+        return queryInfos(buildRecordIds, artifactSpringRepository::findDependencyInfos);
+    }
+
+    private Map<Integer, List<ArtifactInfo>> queryInfos(
+            Collection<Integer> buildRecordIds,
+            Function<Collection<Integer>, List<Object[]>> query) {
+        List<Integer> ids = new ArrayList<>(new HashSet<>(buildRecordIds));
+        Map<Integer, List<ArtifactInfo>> infos = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_QUERY_IDS) {
+            int to = Math.min(from + MAX_QUERY_IDS, ids.size());
+            for (Object[] row : query.apply(ids.subList(from, to))) {
+                ArtifactInfo info = new ArtifactInfo(
+                        (Integer) row[1],
+                        (String) row[2],
+                        (String) row[3],
+                        (String) row[4],
+                        (Long) row[5],
+                        (String) row[6],
+                        (ArtifactQuality) row[7],
+                        (RepositoryType) row[8],
+                        (String) row[9]);
+                infos.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add(info);
+            }
+        }
+        return infos;
+    }
+
     @Override
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public Artifact save(Artifact artifact) {
@@ -0,0 +1,112 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.datastore.repositories;
+
+import org.jboss.pnc.datastore.repositories.internal.AbstractRepository;
+import org.jboss.pnc.datastore.repositories.internal.BuildLogTermSpringRepository;
+import org.jboss.pnc.model.BuildLogTerm;
+import org.jboss.pnc.spi.datastore.repositories.BuildLogTermRepository;
+import org.springframework.data.domain.PageRequest;
+
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.jboss.pnc.spi.datastore.predicates.BuildLogTermPredicates.withBuildRecordIds;
+import static org.jboss.pnc.spi.datastore.predicates.BuildLogTermPredicates.withTermPrefixes;
+
+@Stateless
+public class BuildLogTermRepositoryImpl extends AbstractRepository<BuildLogTerm, Long>
+        implements BuildLogTermRepository {
+
+    /**
+     * Matches hibernate.jdbc.batch_size, the terms are flushed once a batch is complete.
+     */
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * Key of the database lock taken by the build log index backfill, the same on all nodes.
+     */
+    private static final long INDEX_BACKFILL_LOCK_KEY = BuildLogTerm.class.getName().hashCode();
+
+    private BuildLogTermSpringRepository springRepository;
+
+    private EntityManager entityManager;
+
+    /**
+     * @deprecated Created for CDI.
+     */
+    @Deprecated
+    public BuildLogTermRepositoryImpl() {
+    }
+
+    @Inject
+    public BuildLogTermRepositoryImpl(BuildLogTermSpringRepository springRepository, EntityManager entityManager) {
+        super(springRepository, springRepository);
+        this.springRepository = springRepository;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<BuildLogTerm> queryMatches(Collection<Integer> buildRecordIds, Collection<String> termPrefixes) {
+        return queryWithPredicates(withBuildRecordIds(buildRecordIds), withTermPrefixes(termPrefixes));
+    }
+
+    @Override
+    public void deleteForBuildRecord(Integer buildRecordId) {
+        springRepository.deleteByBuildRecordId(buildRecordId);
+    }
+
+    @Override
+    public void replaceForBuildRecord(Integer buildRecordId, Collection<BuildLogTerm> terms) {
+        springRepository.deleteByBuildRecordId(buildRecordId);
+        List<BuildLogTerm> batch = new ArrayList<>(BATCH_SIZE);
+        for (BuildLogTerm term : terms) {
+            entityManager.persist(term);
+            batch.add(term);
+            if (batch.size() == BATCH_SIZE) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+        springRepository.markBuildLogIndexed(buildRecordId);
+    }
+
+    /**
+     * Flushes and detaches the batch, so the persistence context does not grow with the number of terms. Only the
+     * terms are detached, the entities of a surrounding transaction stay managed.
+     */
+    private void flush(List<BuildLogTerm> batch) {
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+
+    @Override
+    public List<Integer> queryUnindexedBuildRecordIds(Integer afterId, int maxResults) {
+        return springRepository.findUnindexedBuildRecordIds(afterId, new PageRequest(0, maxResults));
+    }
+
+    @Override
+    public boolean tryLockIndexBackfill() {
+        return springRepository.tryAdvisoryTransactionLock(INDEX_BACKFILL_LOCK_KEY);
+    }
+}
@@ -21,6 +21,7 @@ import org.jboss.pnc.datastore.repositories.internal.AbstractRepository;
 import org.jboss.pnc.datastore.repositories.internal.BuildRecordSpringRepository;
 import org.jboss.pnc.datastore.repositories.internal.PageableMapper;
 import org.jboss.pnc.datastore.repositories.internal.SpecificationsMapper;
+import org.jboss.pnc.enums.BuildStatus;
 import org.jboss.pnc.model.BuildConfigurationAudited;
 import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.model.BuildRecord_;
@@ -37,14 +38,22 @@ import org.slf4j.LoggerFactory;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.buildFinishedBefore;
 import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.includeTemporary;
+import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.submittedBefore;
 import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.temporaryBuild;
 import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.withBuildConfigurationId;
+import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.withBuildConfigurationIdInSet;
 import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.withBuildConfigurationIdRev;
 import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.withCausingBuildRecordId;
 import static org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates.withSuccess;
@@ -94,6 +103,26 @@ public class BuildRecordRepositoryImpl extends AbstractRepository<BuildRecord, I
         return buildRecord;
     }
 
+    @Override
+    public List<BuildRecord> findByIdsFetchProperties(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<BuildRecord> buildRecords = repository.findByIdsFetchProperties(ids);
+
+        Set<IdRev> idRevs = new HashSet<>();
+        for (BuildRecord buildRecord : buildRecords) {
+            idRevs.add(buildRecord.getBuildConfigurationAuditedIdRev());
+        }
+        if (!idRevs.isEmpty()) {
+            Map<IdRev, BuildConfigurationAudited> audited = buildConfigurationAuditedRepository.queryById(idRevs);
+            for (BuildRecord buildRecord : buildRecords) {
+                buildRecord.setBuildConfigurationAudited(audited.get(buildRecord.getBuildConfigurationAuditedIdRev()));
+            }
+        }
+        return buildRecords;
+    }
+
     private void fetchBuildConfigurationAudited(BuildRecord buildRecord) {
         Integer revision = buildRecord.getBuildConfigurationRev();
         BuildConfigurationAudited buildConfigurationAudited = buildConfigurationAuditedRepository
@@ -123,6 +152,24 @@ public class BuildRecordRepositoryImpl extends AbstractRepository<BuildRecord, I
                 .getContent();
     }
 
+    @Override
+    public List<BuildRecord> queryWithPredicatesAfter(
+            Date submitTime,
+            Integer id,
+            int pageSize,
+            Predicate<BuildRecord>... predicates) {
+        List<Predicate<BuildRecord>> andPredicates = new ArrayList<>(Arrays.asList(predicates));
+        if (submitTime != null && id != null) {
+            andPredicates.add(submittedBefore(submitTime, id));
+        }
+        PageInfo pageInfo = new DefaultPageInfo(0, pageSize);
+        SortInfo sortInfo = new DefaultSortInfo(
+                SortInfo.SortingDirection.DESC,
+                BuildRecord_.submitTime.getName(),
+                BuildRecord_.id.getName());
+        return queryWithPredicatesUsingCursor(pageInfo, sortInfo, andPredicates.toArray(new Predicate[0]));
+    }
+
     @Override
     public BuildRecord getLatestSuccessfulBuildRecord(Integer configurationId, boolean temporaryBuild) {
         List<BuildRecord> buildRecords = queryWithBuildConfigurationId(configurationId);
@@ -134,6 +181,16 @@ public class BuildRecordRepositoryImpl extends AbstractRepository<BuildRecord, I
         return queryWithPredicates(withBuildConfigurationId(configurationId));
     }
 
+    @Override
+    public List<BuildRecord> queryWithBuildConfigurationIds(Collection<Integer> configurationIds) {
+        return queryWithPredicates(withBuildConfigurationIdInSet(configurationIds));
+    }
+
+    @Override
+    public List<BuildRecord> querySuccessfulWithBuildConfigurationIdRevs(List<IdRev> buildConfigurationAuditedIdRevs) {
+        return queryWithPredicates(withBuildConfigurationIdRev(buildConfigurationAuditedIdRevs), withSuccess());
+    }
+
     @Override
     public List<BuildRecord> findIndependentTemporaryBuildsOlderThan(Date date) {
         return queryWithPredicates(temporaryBuild(), buildFinishedBefore(date), withoutImplicitDependants());
@@ -163,8 +220,39 @@ public class BuildRecordRepositoryImpl extends AbstractRepository<BuildRecord, I
         return repository.findByBuiltArtifacts(artifactsId);
     }
 
+    @Override
+    public Map<Integer, Set<BuildRecord>> findDependencyProducers(Set<Integer> buildRecordIds) {
+        Map<Integer, Set<BuildRecord>> producers = new HashMap<>();
+        if (buildRecordIds.isEmpty()) {
+            return producers;
+        }
+        for (Object[] row : repository.findDependencyProducers(buildRecordIds)) {
+            producers.computeIfAbsent((Integer) row[0], id -> new HashSet<>()).add((BuildRecord) row[1]);
+        }
+        return producers;
+    }
+
     @Override
     public List<BuildRecord> getBuildByCausingRecord(Integer causingRecordId) {
         return queryWithPredicates(withCausingBuildRecordId(causingRecordId));
     }
+
+    @Override
+    public Map<Integer, List<Long>> findSuccessfulBuildDurations(Date endedAfter) {
+        Map<Integer, List<Long>> durations = new HashMap<>();
+        for (Object[] row : repository.findBuildTimes(BuildStatus.SUCCESS, endedAfter)) {
+            Date startTime = (Date) row[1];
+            Date endTime = (Date) row[2];
+            if (startTime != null && endTime != null) {
+                durations.computeIfAbsent((Integer) row[0], id -> new ArrayList<>())
+                        .add(endTime.getTime() - startTime.getTime());
+            }
+        }
+        return durations;
+    }
+
+    @Override
+    public String getBuildLog(Integer buildRecordId) {
+        return repository.findBuildLog(buildRecordId);
+    }
 }
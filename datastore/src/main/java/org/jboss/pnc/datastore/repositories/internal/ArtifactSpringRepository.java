@@ -20,10 +20,22 @@ package org.jboss.pnc.datastore.repositories.internal;
 import org.jboss.pnc.model.Artifact;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 import javax.enterprise.context.Dependent;
+import java.util.Collection;
+import java.util.List;
 
 @Dependent
 public interface ArtifactSpringRepository extends JpaRepository<Artifact, Integer>, JpaSpecificationExecutor<Artifact> {
 
+    @Query("SELECT br.id, a.id, a.identifier, a.filename, a.md5, a.size, a.deployPath, a.artifactQuality, "
+            + "tr.repositoryType, tr.repositoryPath FROM Artifact a " + "JOIN a.buildRecord br "
+            + "JOIN a.targetRepository tr " + "WHERE br.id IN (?1)")
+    List<Object[]> findBuiltArtifactInfos(Collection<Integer> buildRecordIds);
+
+    @Query("SELECT br.id, a.id, a.identifier, a.filename, a.md5, a.size, a.deployPath, a.artifactQuality, "
+            + "tr.repositoryType, tr.repositoryPath FROM BuildRecord br " + "JOIN br.dependencies a "
+            + "JOIN a.targetRepository tr " + "WHERE br.id IN (?1)")
+    List<Object[]> findDependencyInfos(Collection<Integer> buildRecordIds);
 }
@@ -0,0 +1,50 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.datastore.repositories.internal;
+
+import org.jboss.pnc.model.BuildLogTerm;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.enterprise.context.Dependent;
+import java.util.List;
+
+@Dependent
+public interface BuildLogTermSpringRepository
+        extends JpaRepository<BuildLogTerm, Long>, JpaSpecificationExecutor<BuildLogTerm> {
+
+    @Modifying
+    @Query("delete from BuildLogTerm t where t.buildRecord.id = ?1")
+    void deleteByBuildRecordId(Integer buildRecordId);
+
+    @Modifying
+    @Query("update BuildRecord br set br.buildLogIndexed = true where br.id = ?1")
+    void markBuildLogIndexed(Integer buildRecordId);
+
+    @Query("select br.id from BuildRecord br where br.id > ?1 and br.buildLogIndexed = false order by br.id")
+    List<Integer> findUnindexedBuildRecordIds(Integer afterId, Pageable pageable);
+
+    /**
+     * PostgreSQL advisory lock, released when the transaction ends.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(?1)", nativeQuery = true)
+    boolean tryAdvisoryTransactionLock(long key);
+}
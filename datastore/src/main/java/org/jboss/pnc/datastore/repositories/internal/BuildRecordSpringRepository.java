@@ -17,11 +17,15 @@
  */
 package org.jboss.pnc.datastore.repositories.internal;
 
+import org.jboss.pnc.enums.BuildStatus;
 import org.jboss.pnc.model.BuildRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import javax.enterprise.context.Dependent;
 
@@ -36,7 +40,22 @@ public interface BuildRecordSpringRepository
             + "left join fetch br.buildConfigSetRecord " + "left join fetch br.user " + "where br.id = ?1")
     BuildRecord findByIdFetchProperties(Integer id);
 
+    @Query("select distinct br from BuildRecord br " + "left join fetch br.productMilestone "
+            + "left join fetch br.buildConfigSetRecord " + "left join fetch br.user " + "where br.id in (?1)")
+    List<BuildRecord> findByIdsFetchProperties(Collection<Integer> ids);
+
     @Query("SELECT DISTINCT br FROM BuildRecord br " + "JOIN br.builtArtifacts builtArtifacts "
             + "WHERE builtArtifacts.id IN (?1)")
     Set<BuildRecord> findByBuiltArtifacts(Set<Integer> dependenciesIds);
+
+    @Query("SELECT br.id, producer FROM BuildRecord br " + "JOIN br.dependencies dependency "
+            + "JOIN dependency.buildRecord producer " + "WHERE br.id IN (?1)")
+    List<Object[]> findDependencyProducers(Set<Integer> buildRecordIds);
+
+    @Query("SELECT br.buildConfigurationId, br.startTime, br.endTime FROM BuildRecord br "
+            + "WHERE br.status = ?1 AND br.endTime > ?2 ORDER BY br.endTime")
+    List<Object[]> findBuildTimes(BuildStatus status, Date endedAfter);
+
+    @Query("SELECT br.buildLog FROM BuildRecord br WHERE br.id = ?1")
+    String findBuildLog(Integer id);
 }
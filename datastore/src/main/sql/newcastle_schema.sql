@@ -73,8 +73,8 @@ COMMENT ON TABLE artifact IS 'Build Artifacts';
 --
 
 CREATE SEQUENCE artifact_id_seq
-    START WITH 1
-    INCREMENT BY 1
+    START WITH 100
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
     CACHE 1;
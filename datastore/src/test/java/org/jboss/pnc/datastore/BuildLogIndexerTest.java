@@ -0,0 +1,150 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.datastore;
+
+import org.jboss.pnc.mock.datastore.BuildLogStoreMock;
+import org.jboss.pnc.mock.repository.BuildLogTermRepositoryMock;
+import org.jboss.pnc.mock.repository.BuildRecordRepositoryMock;
+import org.jboss.pnc.model.BuildLogTerm;
+import org.jboss.pnc.model.BuildRecord;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BuildLogIndexerTest {
+
+    private static final String LOG = "[INFO] Building demo 1.0.0\n" + "[ERROR] Failed to execute goal\n"
+            + "[ERROR] BUILD FAILURE\n";
+
+    private BuildLogTermRepositoryMock repository;
+
+    private BuildRecordRepositoryMock buildRecordRepository;
+
+    private BuildLogIndexer indexer;
+
+    @Before
+    public void init() {
+        repository = new BuildLogTermRepositoryMock();
+        buildRecordRepository = new BuildRecordRepositoryMock();
+        indexer = new BuildLogIndexer(new BuildLogStoreMock(), repository, buildRecordRepository);
+    }
+
+    @Test
+    public void shouldIndexFirstOccurrenceOfTerms() {
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setId(1);
+        buildRecord.setBuildLog(LOG);
+
+        indexer.index(buildRecord);
+
+        Map<String, BuildLogTerm> terms = repository.queryAll()
+                .stream()
+                .collect(Collectors.toMap(BuildLogTerm::getTerm, Function.identity()));
+        assertThat(terms).containsOnlyKeys(
+                "info",
+                "building",
+                "demo",
+                "error",
+                "failed",
+                "to",
+                "execute",
+                "goal",
+                "build",
+                "failure");
+        assertThat(terms.get("error").getLineNumber()).isEqualTo(2);
+        assertThat(terms.get("error").getLineOffset()).isEqualTo(27);
+        assertThat(terms.get("error").getSnippet()).isEqualTo("[ERROR] Failed to execute goal");
+        assertThat(terms.get("build").getLineNumber()).isEqualTo(3);
+        assertThat(terms.get("build").getLineOffset()).isEqualTo(58);
+    }
+
+    @Test
+    public void shouldFindIndexedBuildsByTermPrefix() {
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setId(1);
+        buildRecord.setBuildLog(LOG);
+        indexer.index(buildRecord);
+
+        List<BuildLogTerm> matches = repository.queryMatches(Collections.singleton(1), Arrays.asList("fail"));
+
+        assertThat(matches).extracting(BuildLogTerm::getTerm).containsExactlyInAnyOrder("failed", "failure");
+    }
+
+    @Test
+    public void shouldIndexTailOfLogWithTooManyTerms() {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < BuildLogIndexer.HEAD_TERMS + 2 * BuildLogIndexer.TAIL_TERMS; i++) {
+            log.append("[INFO] term").append(i).append('\n');
+        }
+        log.append("[ERROR] BUILD FAILURE\n");
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setId(1);
+        buildRecord.setBuildLog(log.toString());
+
+        indexer.index(buildRecord);
+
+        List<String> terms = repository.queryAll().stream().map(BuildLogTerm::getTerm).collect(Collectors.toList());
+        assertThat(terms).hasSize(BuildLogIndexer.HEAD_TERMS + BuildLogIndexer.TAIL_TERMS)
+                .contains("info", "term0", "failure")
+                .doesNotContain("term" + (BuildLogIndexer.HEAD_TERMS + BuildLogIndexer.TAIL_TERMS));
+    }
+
+    @Test
+    public void shouldReplaceIndexOfReindexedBuild() {
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setId(1);
+        buildRecord.setBuildLog(LOG);
+        indexer.index(buildRecord);
+
+        indexer.index(1, () -> "[INFO] BUILD SUCCESS");
+
+        assertThat(repository.queryAll()).extracting(BuildLogTerm::getTerm)
+                .containsExactlyInAnyOrder("info", "build", "success");
+    }
+
+    @Test
+    public void shouldLoadLogOfStoredBuildRecord() {
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setId(1);
+        buildRecord.setBuildLog("[INFO] BUILD SUCCESS");
+        buildRecordRepository.save(buildRecord);
+
+        indexer.index(1);
+
+        assertThat(repository.queryAll()).extracting(BuildLogTerm::getTerm)
+                .containsExactlyInAnyOrder("info", "build", "success");
+    }
+
+    @Test
+    public void shouldShortenLongLinesAroundTerm() {
+        String line = String.join("", Collections.nCopies(300, "x")) + " Needle "
+                + String.join("", Collections.nCopies(300, "y"));
+
+        String snippet = BuildLogIndexer.snippet(line, "needle");
+
+        assertThat(snippet).hasSize(BuildLogTerm.MAX_SNIPPET_LENGTH).contains("Needle").startsWith("x").endsWith("y");
+    }
+}
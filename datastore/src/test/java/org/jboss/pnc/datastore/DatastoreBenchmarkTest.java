@@ -0,0 +1,199 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.datastore;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.junit.InSequence;
+import org.jboss.arquillian.transaction.api.annotation.Transactional;
+import org.jboss.pnc.enums.BuildType;
+import org.jboss.pnc.enums.RepositoryType;
+import org.jboss.pnc.enums.SystemImageType;
+import org.jboss.pnc.mock.repository.SequenceHandlerRepositoryMock;
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildConfigurationAudited;
+import org.jboss.pnc.model.BuildEnvironment;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.Project;
+import org.jboss.pnc.model.RepositoryConfiguration;
+import org.jboss.pnc.model.TargetRepository;
+import org.jboss.pnc.model.User;
+import org.jboss.pnc.spi.datastore.Datastore;
+import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationAuditedRepository;
+import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationRepository;
+import org.jboss.pnc.spi.datastore.repositories.BuildEnvironmentRepository;
+import org.jboss.pnc.spi.datastore.repositories.ProjectRepository;
+import org.jboss.pnc.spi.datastore.repositories.RepositoryConfigurationRepository;
+import org.jboss.pnc.spi.datastore.repositories.SequenceHandlerRepository;
+import org.jboss.pnc.spi.datastore.repositories.UserRepository;
+import org.jboss.pnc.test.category.BenchmarkTest;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures storing of builds with many artifacts. Run with the benchmark-tests profile.
+ */
+@RunWith(Arquillian.class)
+@Category(BenchmarkTest.class)
+public class DatastoreBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatastoreBenchmarkTest.class);
+
+    private static final int BULK_BUILT_ARTIFACTS = 1000;
+
+    private static final int BULK_DEPENDENCIES = 50000;
+
+    @Inject
+    BuildConfigurationRepository buildConfigurationRepository;
+
+    @Inject
+    RepositoryConfigurationRepository repositoryConfigurationRepository;
+
+    @Inject
+    BuildConfigurationAuditedRepository buildConfigurationAuditedRepository;
+
+    @Inject
+    BuildEnvironmentRepository buildEnvironmentRepository;
+
+    @Inject
+    ProjectRepository projectRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    Datastore datastore;
+
+    SequenceHandlerRepository sequenceHandlerRepository = new SequenceHandlerRepositoryMock();
+
+    @Deployment
+    public static Archive<?> getDeployment() {
+        return DeploymentFactory.createDatastoreDeployment();
+    }
+
+    /**
+     * The build configuration is created in a separate transaction, so the hibernate envers BuildConfigurationAudit is
+     * created.
+     */
+    @Test
+    @InSequence(1)
+    @Transactional
+    public void initBuildConfigData() {
+        Project project = Project.Builder.newBuilder().name("Benchmark Project").description("Benchmark").build();
+        BuildEnvironment buildEnv = BuildEnvironment.Builder.newBuilder()
+                .name("benchmark build env")
+                .systemImageId("22345")
+                .systemImageType(SystemImageType.DOCKER_IMAGE)
+                .deprecated(false)
+                .build();
+        RepositoryConfiguration repositoryConfiguration = RepositoryConfiguration.Builder.newBuilder()
+                .internalUrl("github.com/project-ncl/pnc-benchmark")
+                .build();
+        BuildConfiguration buildConfig = BuildConfiguration.Builder.newBuilder()
+                .id(sequenceHandlerRepository.getNextID(BuildConfiguration.SEQUENCE_NAME).intValue())
+                .name("benchmark build config")
+                .buildScript("mvn deploy")
+                .buildType(BuildType.MVN)
+                .build();
+
+        buildConfig.setRepositoryConfiguration(repositoryConfigurationRepository.save(repositoryConfiguration));
+        buildConfig.setProject(projectRepository.save(project));
+        buildConfig.setBuildEnvironment(buildEnvironmentRepository.save(buildEnv));
+        buildConfigurationRepository.save(buildConfig);
+    }
+
+    /**
+     * Stores a build with a synthetic set of {@value #BULK_DEPENDENCIES} dependencies to measure the artifact
+     * persistence.
+     */
+    @Test
+    @InSequence(2)
+    @Transactional
+    public void testStoreBuildWithManyDependencies() throws Exception {
+        // given
+        BuildConfiguration buildConfig = buildConfigurationRepository.queryAll().get(0);
+        BuildConfigurationAudited buildConfigAud = buildConfigurationAuditedRepository
+                .findAllByIdOrderByRevDesc(buildConfig.getId())
+                .get(0);
+        User user = userRepository
+                .save(User.Builder.newBuilder().username("benchmark").email("benchmark@redhat.com").build());
+
+        List<Artifact> builtArtifacts = new ArrayList<>();
+        for (int i = 0; i < BULK_BUILT_ARTIFACTS; i++) {
+            builtArtifacts.add(bulkArtifact("built", i, "builds-untested"));
+        }
+        List<Artifact> dependencies = new ArrayList<>();
+        for (int i = 0; i < BULK_DEPENDENCIES; i++) {
+            dependencies.add(bulkArtifact("dependency", i, "shared-imports"));
+        }
+        BuildRecord.Builder buildRecordBuilder = BuildRecord.Builder.newBuilder()
+                .id(datastore.getNextBuildRecordId())
+                .buildConfigurationAudited(buildConfigAud)
+                .submitTime(Date.from(Instant.now()))
+                .startTime(Date.from(Instant.now()))
+                .endTime(Date.from(Instant.now()))
+                .user(user)
+                .temporaryBuild(false);
+
+        // when
+        long start = System.currentTimeMillis();
+        BuildRecord buildRecord = datastore.storeCompletedBuild(buildRecordBuilder, builtArtifacts, dependencies);
+        logger.info(
+                "Stored a build with {} built artifacts and {} dependencies in {} ms.",
+                BULK_BUILT_ARTIFACTS,
+                BULK_DEPENDENCIES,
+                System.currentTimeMillis() - start);
+
+        // then
+        assertThat(buildRecord.getBuiltArtifacts()).hasSize(BULK_BUILT_ARTIFACTS);
+        assertThat(buildRecord.getDependencies()).hasSize(BULK_DEPENDENCIES);
+    }
+
+    private Artifact bulkArtifact(String prefix, int index, String repositoryPath) {
+        TargetRepository targetRepository = TargetRepository.newBuilder()
+                .repositoryType(RepositoryType.MAVEN)
+                .repositoryPath(repositoryPath)
+                .identifier("indy-maven")
+                .temporaryRepo(false)
+                .build();
+        String checksum = prefix + "-" + index;
+        return Artifact.Builder.newBuilder()
+                .identifier("org.jboss.bulk:" + prefix + ":" + index)
+                .size((long) index)
+                .md5("md-fake-" + checksum)
+                .sha1("sha1-fake-" + checksum)
+                .sha256("sha256-fake-" + checksum)
+                .originUrl("http://test/" + checksum + ".jar")
+                .importDate(Date.from(Instant.now()))
+                .targetRepository(targetRepository)
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.datastore;
+
+import org.jboss.pnc.common.json.moduleconfig.BuildLogStoreConfig;
+import org.jboss.pnc.common.security.Md5;
+import org.jboss.pnc.common.security.Sha256;
+import org.jboss.pnc.spi.datastore.BuildLogWriter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FileSystemBuildLogStoreTest {
+
+    private static final String LOG = "[INFO] Building 1.0.0\n[INFO] BUILD SUCCESS\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FileSystemBuildLogStore store;
+
+    @Before
+    public void init() {
+        BuildLogStoreConfig config = new BuildLogStoreConfig(temporaryFolder.getRoot().getAbsolutePath(), 10);
+        store = new FileSystemBuildLogStore(config);
+    }
+
+    @Test
+    public void shouldBeDisabledWithoutStorageDir() throws IOException {
+        FileSystemBuildLogStore disabledStore = new FileSystemBuildLogStore(new BuildLogStoreConfig(null, null));
+
+        assertThat(disabledStore.isEnabled()).isFalse();
+        assertThat(disabledStore.getSize(1)).isEmpty();
+    }
+
+    @Test
+    public void shouldStoreLogInSegments() throws Exception {
+        // when
+        BuildLogWriter writer = store.openWriter(1);
+        writer.append(LOG.substring(0, 15));
+        writer.append(LOG.substring(15));
+
+        // then
+        assertThat(store.getOpenWriter(1)).contains(writer);
+        assertThat(store.getSize(1)).isEmpty();
+
+        writer.close();
+
+        assertThat(store.getOpenWriter(1)).isEmpty();
+        assertThat(store.getSize(1)).contains((long) LOG.length());
+        assertThat(writer.getSize()).isEqualTo(LOG.length());
+        assertThat(writer.getMd5()).isEqualTo(Md5.digest(LOG));
+        assertThat(writer.getSha256()).isEqualTo(Sha256.digest(LOG));
+        assertThat(temporaryFolder.getRoot().toPath().resolve("1").toFile().list())
+                .contains("segment-000000.gz", "segment-000004.gz");
+        assertThat(read(1, 0)).isEqualTo(LOG);
+    }
+
+    @Test
+    public void shouldReadFromOffset() throws Exception {
+        // given
+        try (BuildLogWriter writer = store.openWriter(2)) {
+            writer.append(LOG);
+        }
+
+        // then
+        assertThat(read(2, 10)).isEqualTo(LOG.substring(10));
+        assertThat(read(2, 23)).isEqualTo(LOG.substring(23));
+        assertThat(read(2, LOG.length())).isEmpty();
+    }
+
+    @Test
+    public void shouldDeleteLog() throws Exception {
+        // given
+        try (BuildLogWriter writer = store.openWriter(3)) {
+            writer.append(LOG);
+        }
+
+        // when
+        store.delete(3);
+
+        // then
+        assertThat(store.getSize(3)).isEmpty();
+        assertThat(temporaryFolder.getRoot().toPath().resolve("3")).doesNotExist();
+    }
+
+    @Test
+    public void shouldDiscardUnfinishedLog() throws Exception {
+        // given
+        BuildLogWriter writer = store.openWriter(4);
+        writer.append(LOG);
+
+        // when
+        store.discardOpenWriter(4);
+
+        // then
+        assertThat(store.getOpenWriter(4)).isEmpty();
+        assertThat(store.getSize(4)).isEmpty();
+        assertThat(temporaryFolder.getRoot().toPath().resolve("4")).doesNotExist();
+        assertThatThrownBy(() -> writer.append(LOG)).isInstanceOf(IOException.class);
+        writer.close();
+        assertThat(temporaryFolder.getRoot().toPath().resolve("4")).doesNotExist();
+    }
+
+    @Test
+    public void shouldKeepClosedLogWhenDiscarding() throws Exception {
+        // given
+        try (BuildLogWriter writer = store.openWriter(5)) {
+            writer.append(LOG);
+        }
+
+        // when
+        store.discardOpenWriter(5);
+
+        // then
+        assertThat(read(5, 0)).isEqualTo(LOG);
+    }
+
+    private String read(Integer buildId, long offset) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (InputStream inputStream = store.read(buildId, offset)) {
+            byte[] buffer = new byte[7];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        return new String(outputStream.toByteArray(), UTF_8);
+    }
+}
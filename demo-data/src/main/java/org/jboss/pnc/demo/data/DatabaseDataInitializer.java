@@ -21,6 +21,7 @@ import com.google.common.base.Preconditions;
 import org.jboss.pnc.common.concurrent.Sequence;
 import org.jboss.pnc.common.json.moduleconfig.DemoDataConfig;
 import org.jboss.pnc.common.json.moduleconfig.SystemConfig;
+import org.jboss.pnc.datastore.BuildLogIndexer;
 import org.jboss.pnc.enums.ArtifactQuality;
 import org.jboss.pnc.enums.BuildStatus;
 import org.jboss.pnc.enums.BuildType;
@@ -168,6 +169,9 @@ public class DatabaseDataInitializer {
     @Inject
     private Datastore datastore;
 
+    @Inject
+    private BuildLogIndexer buildLogIndexer;
+
     @Inject
     DemoDataConfig demoDataConfig;
 
@@ -652,6 +656,7 @@ public class DatabaseDataInitializer {
 
             log.info("Saving buildRecord1: " + buildRecord1);
             BuildRecord savedBuildRecord1 = buildRecordRepository.save(buildRecord1);
+            buildLogIndexer.index(savedBuildRecord1);
             builtArtifact1.setBuildRecord(savedBuildRecord1);
             builtArtifact2.setBuildRecord(savedBuildRecord1);
 
@@ -683,6 +688,7 @@ public class DatabaseDataInitializer {
 
             log.info("Saving tempRecord1: " + tempRecord1);
             BuildRecord savedTempRecord1 = buildRecordRepository.save(tempRecord1);
+            buildLogIndexer.index(savedTempRecord1);
             builtArtifact3.setBuildRecord(savedTempRecord1);
             builtArtifact4.setBuildRecord(savedTempRecord1);
             log.info(
@@ -778,6 +784,7 @@ public class DatabaseDataInitializer {
             log.info("####nextId: " + nextId);
 
             BuildRecord savedBuildRecord2 = buildRecordRepository.save(buildRecord2);
+            buildLogIndexer.index(savedBuildRecord2);
             builtArtifact5.setBuildRecord(savedBuildRecord2);
             builtArtifact6.setBuildRecord(savedBuildRecord2);
             buildRecords.add(buildRecord2);
@@ -798,6 +805,7 @@ public class DatabaseDataInitializer {
                     .build();
 
             BuildRecord savedTempRecord1 = buildRecordRepository.save(tempRecord1);
+            buildLogIndexer.index(savedTempRecord1);
 
             builtArtifact7.setBuildRecord(savedTempRecord1);
             builtArtifact8.setBuildRecord(savedTempRecord1);
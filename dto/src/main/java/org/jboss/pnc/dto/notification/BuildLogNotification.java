@@ -0,0 +1,75 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.dto.notification;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import org.jboss.pnc.enums.JobNotificationProgress;
+import org.jboss.pnc.enums.JobNotificationType;
+
+import java.util.List;
+
+import static org.jboss.pnc.enums.JobNotificationProgress.IN_PROGRESS;
+import static org.jboss.pnc.enums.JobNotificationType.BUILD;
+
+/**
+ * Lines of the log of a running build, sent to the clients subscribed to the {@code build-log} topic.
+ *
+ * <pre>
+ * Job: {@link JobNotificationType#BUILD} Notification type: {@code BUILD_LOG} Progress:
+ * {@link JobNotificationProgress#IN_PROGRESS} - more lines will follow {@link JobNotificationProgress#FINISHED} - last
+ * lines of the log Message: no
+ *
+ * <pre>
+ *
+ * The first notification after subscribing contains the tail of the log kept in memory, so the line offsets of the
+ * notifications can overlap. Clients should skip the lines below the offset they already received.
+ */
+@Data
+public class BuildLogNotification extends Notification {
+
+    private static final String BUILD_LOG = "BUILD_LOG";
+
+    /**
+     * Id of the build.
+     */
+    private final String buildId;
+
+    /**
+     * Number of log lines preceding the first line of this notification.
+     */
+    private final long offset;
+
+    /**
+     * Log lines without the line separators.
+     */
+    private final List<String> lines;
+
+    @JsonCreator
+    public BuildLogNotification(
+            @JsonProperty("buildId") String buildId,
+            @JsonProperty("offset") long offset,
+            @JsonProperty("lines") List<String> lines,
+            @JsonProperty("progress") JobNotificationProgress progress) {
+        super(BUILD, BUILD_LOG, progress, IN_PROGRESS);
+        this.buildId = buildId;
+        this.offset = offset;
+        this.lines = lines;
+    }
+}
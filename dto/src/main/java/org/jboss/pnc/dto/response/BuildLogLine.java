@@ -0,0 +1,53 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.dto.response;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Line of a build log.
+ */
+@Getter
+@AllArgsConstructor
+@Builder(builderClassName = "Builder")
+@JsonDeserialize(builder = BuildLogLine.Builder.class)
+public class BuildLogLine {
+
+    /**
+     * Number of the line starting from 1.
+     */
+    private final int lineNumber;
+
+    /**
+     * Offset of the line start in bytes. The log from this line can be read using the byte range request.
+     */
+    private final long offset;
+
+    /**
+     * Content of the line, long lines are shortened around the searched term.
+     */
+    private final String snippet;
+
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class Builder {
+    }
+}
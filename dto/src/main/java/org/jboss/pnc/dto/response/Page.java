@@ -48,7 +48,7 @@ public class Page<T> {
     private int totalPages;
 
     /**
-     * Number of all hits (not only this page).
+     * Number of all hits (not only this page) or -1 if unknown.
      */
     private int totalHits;
 
@@ -57,10 +57,20 @@ public class Page<T> {
      */
     private Collection<T> content;
 
+    /**
+     * Opaque token to be passed as pageCursor to get the following page or null if the listing does not support
+     * cursors or there are no more results.
+     */
+    private String nextPageCursor;
+
     public Page() {
         content = Collections.emptyList();
     }
 
+    public Page(int pageIndex, int pageSize, int totalPages, int totalHits, Collection<T> content) {
+        this(pageIndex, pageSize, totalPages, totalHits, content, null);
+    }
+
     public Page(int pageIndex, int pageSize, int totalHits, Collection<T> content) {
         this.pageIndex = pageIndex;
         this.pageSize = pageSize;
@@ -20,6 +20,9 @@ package org.jboss.pnc.dto.response;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.Instant;
+import java.util.Map;
+
 /**
  * Statistics of running builds.
  *
@@ -41,5 +44,9 @@ public class RunningBuildCount {
      * Number of builds waiting for dependencies.
      */
     private int waitingForDependencies;
+    /**
+     * Estimated completion time of the running group builds mapped by the group build id.
+     */
+    private Map<String, Instant> groupBuildEtas;
 
 }
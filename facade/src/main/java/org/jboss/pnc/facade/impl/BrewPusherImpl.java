@@ -38,14 +38,13 @@ import org.jboss.pnc.facade.validation.EmptyEntityException;
 import org.jboss.pnc.facade.validation.InvalidEntityException;
 import org.jboss.pnc.facade.validation.OperationNotAllowedException;
 import org.jboss.pnc.mapper.api.BuildPushResultMapper;
-import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.model.BuildRecordPushResult;
 import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.spi.coordinator.ProcessException;
 import org.jboss.pnc.spi.datastore.InconsistentDataException;
-import org.jboss.pnc.spi.datastore.predicates.ArtifactPredicates;
 import org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates;
+import org.jboss.pnc.spi.datastore.projections.ArtifactInfo;
 import org.jboss.pnc.spi.datastore.repositories.ArtifactRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildRecordPushResultRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildRecordRepository;
@@ -54,12 +53,18 @@ import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.jboss.pnc.constants.MDCKeys.BUILD_ID_KEY;
 import static org.jboss.pnc.enums.ArtifactQuality.BLACKLISTED;
@@ -104,48 +109,83 @@ public class BrewPusherImpl implements BrewPusher {
                 .tagPrefix(tagPrefix)
                 .reimport(false)
                 .build();
-        List<BuildRecord> buildRecords = buildRecordRepository
-                .queryWithPredicates(BuildRecordPredicates.withBuildConfigSetRecordId(buildGroupId));
+        List<Integer> buildRecordIds = buildRecordRepository
+                .queryWithPredicates(BuildRecordPredicates.withBuildConfigSetRecordId(buildGroupId))
+                .stream()
+                .map(BuildRecord::getId)
+                .collect(Collectors.toList());
+        List<BuildRecord> buildRecords = buildRecordRepository.findByIdsFetchProperties(buildRecordIds);
 
         Set<BuildPushResult> results = new HashSet<>();
+        // collect and validate input data of all the builds before pushing them together
+        Map<Long, Integer> requestedBuildIds = new HashMap<>();
+        Map<Long, BuildRecord> toPush = new LinkedHashMap<>();
         for (BuildRecord buildRecord : buildRecords) {
             Long buildPushResultId = Sequence.nextId();
             MDCUtils.addProcessContext(buildPushResultId.toString());
             MDCUtils.addCustomContext(BUILD_ID_KEY, buildRecord.getId().toString());
             try {
-                results.add(doPushBuild(buildRecord.getId(), buildPushParameters, buildPushResultId));
+                userLog.info("Push started.");
+                requestedBuildIds.put(buildPushResultId, buildRecord.getId());
+                toPush.put(buildPushResultId, getLatestSuccessfullyExecutedBuildRecord(buildRecord));
             } catch (OperationNotAllowedException e) {
-                results.add(
-                        BuildPushResult.builder()
-                                .status(BuildPushStatus.REJECTED)
-                                .id(buildPushResultId.toString())
-                                .buildId(buildRecord.getId().toString())
-                                .message(e.getMessage())
-                                .build());
+                results.add(pushResult(buildPushResultId, buildRecord.getId(), BuildPushStatus.REJECTED, e));
             } catch (InconsistentDataException e) {
-                results.add(
-                        BuildPushResult.builder()
-                                .status(BuildPushStatus.SYSTEM_ERROR)
-                                .id(buildPushResultId.toString())
-                                .buildId(buildRecord.getId().toString())
-                                .message(e.getMessage())
-                                .build());
-            } catch (AlreadyRunningException e) {
-                results.add(
-                        BuildPushResult.builder()
-                                .status(BuildPushStatus.REJECTED)
-                                .id(buildPushResultId.toString())
-                                .buildId(buildRecord.getId().toString())
-                                .message(e.getMessage())
-                                .build());
-            } catch (ProcessException e) {
-                results.add(
-                        BuildPushResult.builder()
-                                .status(BuildPushStatus.SYSTEM_ERROR)
-                                .id(buildPushResultId.toString())
-                                .buildId(buildRecord.getId().toString())
-                                .message(e.getMessage())
-                                .build());
+                results.add(pushResult(buildPushResultId, buildRecord.getId(), BuildPushStatus.SYSTEM_ERROR, e));
+            } finally {
+                MDCUtils.removeProcessContext();
+                MDCUtils.removeCustomContext(BUILD_ID_KEY);
+            }
+        }
+
+        Map<Integer, List<ArtifactInfo>> builtArtifacts = artifactRepository.findBuiltArtifactInfos(
+                toPush.values().stream().map(BuildRecord::getId).collect(Collectors.toSet()));
+        List<BuildPushOperation> buildPushOperations = new ArrayList<>();
+        for (Map.Entry<Long, BuildRecord> entry : toPush.entrySet()) {
+            Long buildPushResultId = entry.getKey();
+            Integer buildId = requestedBuildIds.get(buildPushResultId);
+            MDCUtils.addProcessContext(buildPushResultId.toString());
+            MDCUtils.addCustomContext(BUILD_ID_KEY, buildId.toString());
+            try {
+                buildPushOperations.add(
+                        createPushOperation(
+                                buildId,
+                                entry.getValue(),
+                                builtArtifacts.getOrDefault(entry.getValue().getId(), Collections.emptyList()),
+                                buildPushParameters,
+                                buildPushResultId));
+            } catch (OperationNotAllowedException e) {
+                results.add(pushResult(buildPushResultId, buildId, BuildPushStatus.REJECTED, e));
+            } finally {
+                MDCUtils.removeProcessContext();
+                MDCUtils.removeCustomContext(BUILD_ID_KEY);
+            }
+        }
+        if (buildPushOperations.isEmpty()) {
+            return results;
+        }
+
+        // the data are loaded and the imports sent in the background, a push failing there is reported by an event
+        List<Result> pushResults = buildResultPushManager.push(buildPushOperations, userService.currentUserToken());
+        for (Result pushResult : pushResults) {
+            Long buildPushResultId = Long.valueOf(pushResult.getId());
+            Integer buildId = requestedBuildIds.get(buildPushResultId);
+            MDCUtils.addProcessContext(pushResult.getId());
+            MDCUtils.addCustomContext(BUILD_ID_KEY, buildId.toString());
+            try {
+                log.info("Push Result {}.", pushResult);
+                logPushStatus(pushResult);
+                if (BuildPushStatus.ACCEPTED.equals(pushResult.getStatus())) {
+                    results.add(toBuildPushResult(pushResult));
+                } else {
+                    results.add(
+                            BuildPushResult.builder()
+                                    .status(pushResult.getStatus())
+                                    .id(pushResult.getId())
+                                    .buildId(buildId.toString())
+                                    .message(pushResult.getMessage())
+                                    .build());
+                }
             } finally {
                 MDCUtils.removeProcessContext();
                 MDCUtils.removeCustomContext(BUILD_ID_KEY);
@@ -154,6 +194,19 @@ public class BrewPusherImpl implements BrewPusher {
         return results;
     }
 
+    private static BuildPushResult pushResult(
+            Long buildPushResultId,
+            Integer buildId,
+            BuildPushStatus status,
+            RuntimeException e) {
+        return BuildPushResult.builder()
+                .status(status)
+                .id(buildPushResultId.toString())
+                .buildId(buildId.toString())
+                .message(e.getMessage())
+                .build();
+    }
+
     @Override
     public BuildPushResult pushBuild(String buildId, BuildPushParameters buildPushParameters) throws ProcessException {
         BuildRecord build = buildRecordRepository.queryById(Integer.valueOf(buildId));
@@ -180,9 +233,45 @@ public class BrewPusherImpl implements BrewPusher {
         userLog.info("Push started."); // TODO START timing event
         // collect and validate input data
         BuildRecord buildRecord = getLatestSuccessfullyExecutedBuildRecord(buildId);
-        List<Artifact> artifacts = artifactRepository
-                .queryWithPredicates(ArtifactPredicates.withBuildRecordId(buildRecord.getId()));
-        if (hasBadArtifactQuality(artifacts)) {
+        List<ArtifactInfo> artifacts = artifactRepository
+                .findBuiltArtifactInfos(Collections.singleton(buildRecord.getId()))
+                .getOrDefault(buildRecord.getId(), Collections.emptyList());
+        BuildPushOperation buildPushOperation = createPushOperation(
+                buildId,
+                buildRecord,
+                artifacts,
+                buildPushParameters,
+                buildPushResultId);
+
+        Result pushResult = buildResultPushManager.push(buildPushOperation, userService.currentUserToken());
+        log.info("Push Result {}.", pushResult);
+        logPushStatus(pushResult);
+
+        BuildPushResult result = toBuildPushResult(pushResult);
+
+        // verify operation status
+        switch (pushResult.getStatus()) {
+            case ACCEPTED:
+                return result;
+            case REJECTED:
+                throw new AlreadyRunningException(pushResult.getMessage(), result);
+            case SYSTEM_ERROR:
+                throw new ProcessException(pushResult.getMessage());
+            default:
+                throw new ProcessException("Invalid push result status.");
+        }
+    }
+
+    /**
+     * @throws OperationNotAllowedException when the build contains artifacts of insufficient quality
+     */
+    private BuildPushOperation createPushOperation(
+            Integer buildId,
+            BuildRecord buildRecord,
+            List<ArtifactInfo> builtArtifacts,
+            BuildPushParameters buildPushParameters,
+            Long buildPushResultId) {
+        if (hasBadArtifactQuality(builtArtifacts)) {
             String message = "Build contains artifacts of insufficient quality: BLACKLISTED/DELETED.";
             log.debug(message);
             BuildPushResult pushResult = BuildPushResult.builder()
@@ -197,43 +286,44 @@ public class BrewPusherImpl implements BrewPusher {
 
         log.debug("Pushing Build.id {}.", buildRecord.getId());
 
-        BuildPushOperation buildPushOperation = new BuildPushOperation(
+        return new BuildPushOperation(
                 buildRecord,
                 buildPushResultId,
                 buildPushParameters.getTagPrefix(),
                 buildPushParameters.isReimport(),
                 getCompleteCallbackUrlTemplate());
+    }
 
-        Result pushResult = buildResultPushManager.push(buildPushOperation, userService.currentUserToken());
-        log.info("Push Result {}.", pushResult);
-
-        BuildPushResult result = BuildPushResult.builder()
+    private static BuildPushResult toBuildPushResult(Result pushResult) {
+        return BuildPushResult.builder()
                 .id(pushResult.getId())
                 .buildId(pushResult.getBuildId())
                 .status(pushResult.getStatus())
                 .logContext(pushResult.getId())
                 .message(pushResult.getMessage())
                 .build();
+    }
 
-        // verify operation status
+    private static void logPushStatus(Result pushResult) {
         switch (pushResult.getStatus()) {
             case ACCEPTED:
                 userLog.info("Push ACCEPTED.");
-                return result;
+                break;
             case REJECTED:
                 userLog.warn("Push REJECTED.");
-                throw new AlreadyRunningException(pushResult.getMessage(), result);
+                break;
             case SYSTEM_ERROR:
                 userLog.error("Brew push failed: " + pushResult.getMessage());
-                throw new ProcessException(pushResult.getMessage());
+                break;
             default:
                 userLog.error("Invalid push result status.");
-                throw new ProcessException("Invalid push result status.");
         }
     }
 
-    private boolean hasBadArtifactQuality(Collection<Artifact> builtArtifacts) {
-        return builtArtifacts.stream().map(Artifact::getArtifactQuality).anyMatch(ARTIFACT_BAD_QUALITIES::contains);
+    private boolean hasBadArtifactQuality(Collection<ArtifactInfo> builtArtifacts) {
+        return builtArtifacts.stream()
+                .map(ArtifactInfo::getArtifactQuality)
+                .anyMatch(ARTIFACT_BAD_QUALITIES::contains);
     }
 
     /**
@@ -248,6 +338,16 @@ public class BrewPusherImpl implements BrewPusher {
         if (buildRecord == null) {
             throw new EmptyEntityException("Build record not found.");
         }
+        return getLatestSuccessfullyExecutedBuildRecord(buildRecord);
+    }
+
+    /**
+     * @param buildRecord loaded build record
+     * @return the build record itself or the latest build record with status success in case of NO_REBUILD_REQUIRED
+     * @throws InconsistentDataException when there is no SUCCESS status before NO_REBUILD_REQUIRED
+     * @throws OperationNotAllowedException when the status is not SUCCESS or NO_REBUILD_REQUIRED
+     */
+    private BuildRecord getLatestSuccessfullyExecutedBuildRecord(BuildRecord buildRecord) {
         if (BuildStatus.SUCCESS.equals(buildRecord.getStatus())) {
             return buildRecord;
         } else if (BuildStatus.NO_REBUILD_REQUIRED.equals(buildRecord.getStatus())) {
@@ -132,8 +132,15 @@ public abstract class AbstractProvider<ID extends Serializable, DB extends Gener
                 .queryWithPredicates(pageInfo, sortInfo, ObjectArrays.concat(rsqlPredicate, predicates));
         int totalHits = repository.count(ObjectArrays.concat(rsqlPredicate, predicates));
         int totalPages = (totalHits + pageSize - 1) / pageSize;
-        List<DTO> content = nullableStreamOf(collection).map(mapper::toDTO).collect(Collectors.toList());
-        return new Page<>(pageIndex, pageSize, totalPages, totalHits, content);
+        return new Page<>(pageIndex, pageSize, totalPages, totalHits, toDTOs(collection));
+    }
+
+    /**
+     * Maps a page of entities to DTOs. Providers can override it to load what the mapping needs for the whole page at
+     * once.
+     */
+    protected List<DTO> toDTOs(List<DB> entities) {
+        return nullableStreamOf(entities).map(mapper::toDTO).collect(Collectors.toList());
     }
 
     protected void validateBeforeUpdating(String id, DTO restEntity) {
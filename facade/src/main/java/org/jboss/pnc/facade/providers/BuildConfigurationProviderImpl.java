@@ -50,6 +50,7 @@ import org.jboss.pnc.model.BuildConfigurationAudited;
 import org.jboss.pnc.model.BuildConfigurationSet;
 import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.model.RepositoryConfiguration;
+import org.jboss.pnc.spi.coordinator.BuildConfigurationDependencyIndex;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationAuditedRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationSetRepository;
@@ -64,6 +65,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.security.PermitAll;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -129,6 +131,9 @@ public class BuildConfigurationProviderImpl extends
     @Inject
     private UserMapper userMapper;
 
+    @Inject
+    private BuildConfigurationDependencyIndex dependencyIndex;
+
     private static final SCMRepository FAKE_REPOSITORY = SCMRepository.builder().id("-1").build();
 
     @Inject
@@ -181,6 +186,7 @@ public class BuildConfigurationProviderImpl extends
             }
         }
         org.jboss.pnc.model.BuildConfiguration saved = repository.save(mapper.toEntity(restEntity));
+        dependencyIndex.dependenciesChanged(saved);
         return mapper.toDTO(saved);
     }
 
@@ -210,6 +216,7 @@ public class BuildConfigurationProviderImpl extends
 
         org.jboss.pnc.model.BuildConfiguration buildConfig = repository.queryById(Integer.valueOf(buildConfigId));
 
+        List<org.jboss.pnc.model.BuildConfiguration> dependencyConfigs = new ArrayList<>();
         for (String id : dependencies.keySet()) {
 
             Integer dependencyId = Integer.valueOf(id);
@@ -219,12 +226,14 @@ public class BuildConfigurationProviderImpl extends
                             !buildConfig.getId().equals(dependencyId),
                             "A build configuration cannot depend on itself");
 
-            org.jboss.pnc.model.BuildConfiguration dependency = repository.queryById(dependencyId);
+            dependencyConfigs.add(repository.queryById(dependencyId));
+        }
 
+        for (org.jboss.pnc.model.BuildConfiguration dependency : dependencyConfigs) {
             ValidationBuilder.validateObject(buildConfig, WhenUpdating.class)
                     .validateCondition(
-                            !dependency.getAllDependencies().contains(buildConfig),
-                            "Cannot add dependency from : " + buildConfig.getId() + " to: " + dependencyId
+                            !dependencyIndex.wouldCreateCycle(buildConfig, dependency),
+                            "Cannot add dependency from : " + buildConfig.getId() + " to: " + dependency.getId()
                                     + " because it would introduce a cyclic dependency");
         }
     }
@@ -270,6 +279,7 @@ public class BuildConfigurationProviderImpl extends
         bcEntity.setLastModificationUser(user);
 
         buildConfigRevisionHelper.updateBuildConfiguration(bcEntity);
+        dependencyIndex.dependenciesChanged(bcEntity);
         return buildConfigRevisionHelper.findRevision(id, bcEntity);
     }
 
@@ -362,13 +372,14 @@ public class BuildConfigurationProviderImpl extends
                 .validateCondition(dependency != null, "No dependency build config exists with id: " + dependencyId)
                 .validateCondition(!configId.equals(dependencyId), "A build configuration cannot depend on itself")
                 .validateCondition(
-                        !dependency.getAllDependencies().contains(buildConfig),
+                        !dependencyIndex.wouldCreateCycle(buildConfig, dependency),
                         "Cannot add dependency from : " + configId + " to: " + dependencyId
                                 + " because it would introduce a cyclic dependency");
 
         logger.debug("Didn't throw any validation errors");
-        buildConfig.addDependency(dependency);
+        dependencyIndex.addDependency(buildConfig, dependency);
         repository.save(buildConfig);
+        dependencyIndex.dependenciesChanged(buildConfig);
     }
 
     @Override
@@ -383,6 +394,7 @@ public class BuildConfigurationProviderImpl extends
 
         buildConfig.removeDependency(dependency);
         repository.save(buildConfig);
+        dependencyIndex.dependenciesChanged(buildConfig);
     }
 
     @Override
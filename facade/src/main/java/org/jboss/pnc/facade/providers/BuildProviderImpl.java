@@ -21,7 +21,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.Getter;
 import org.jboss.pnc.common.gerrit.Gerrit;
 import org.jboss.pnc.common.gerrit.GerritException;
-import org.jboss.pnc.common.graph.GraphBuilder;
+import org.jboss.pnc.common.graph.BatchGraphBuilder;
 import org.jboss.pnc.common.graph.GraphUtils;
 import org.jboss.pnc.common.util.HttpUtils;
 import org.jboss.pnc.common.util.StringUtils;
@@ -30,6 +30,8 @@ import org.jboss.pnc.coordinator.maintenance.TemporaryBuildsCleanerAsyncInvoker;
 import org.jboss.pnc.dto.Build;
 import org.jboss.pnc.dto.BuildConfigurationRevision;
 import org.jboss.pnc.dto.BuildRef;
+import org.jboss.pnc.dto.response.BuildLogLine;
+import org.jboss.pnc.dto.response.BuildLogMatch;
 import org.jboss.pnc.dto.response.Graph;
 import org.jboss.pnc.dto.response.Page;
 import org.jboss.pnc.dto.response.RunningBuildCount;
@@ -38,6 +40,7 @@ import org.jboss.pnc.enums.BuildStatus;
 import org.jboss.pnc.facade.providers.api.BuildPageInfo;
 import org.jboss.pnc.facade.providers.api.BuildProvider;
 import org.jboss.pnc.facade.util.GraphDtoBuilder;
+import org.jboss.pnc.facade.util.BuildPageCursor;
 import org.jboss.pnc.facade.util.MergeIterator;
 import org.jboss.pnc.facade.util.UserService;
 import org.jboss.pnc.facade.validation.ConflictedEntryException;
@@ -46,6 +49,7 @@ import org.jboss.pnc.facade.validation.DTOValidationException;
 import org.jboss.pnc.facade.validation.EmptyEntityException;
 import org.jboss.pnc.facade.validation.InvalidEntityException;
 import org.jboss.pnc.facade.validation.RepositoryViolationException;
+import org.jboss.pnc.mapper.BuildBCRevisionFetcher;
 import org.jboss.pnc.mapper.api.BuildConfigurationRevisionMapper;
 import org.jboss.pnc.mapper.api.BuildMapper;
 import org.jboss.pnc.mapper.api.ResultMapper;
@@ -53,17 +57,23 @@ import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildConfigSetRecord;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildConfigurationAudited;
+import org.jboss.pnc.model.BuildLogTerm;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecord_;
 import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.model.User;
 import org.jboss.pnc.spi.coordinator.BuildCoordinator;
+import org.jboss.pnc.spi.coordinator.BuildSetTask;
 import org.jboss.pnc.spi.coordinator.BuildTask;
 import org.jboss.pnc.spi.coordinator.Result;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
+import org.jboss.pnc.spi.datastore.BuildLogTokenizer;
 import org.jboss.pnc.spi.datastore.predicates.BuildRecordPredicates;
 import org.jboss.pnc.spi.datastore.repositories.ArtifactRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigSetRecordRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationAuditedRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationRepository;
+import org.jboss.pnc.spi.datastore.repositories.BuildLogTermRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildRecordRepository;
 import org.jboss.pnc.spi.datastore.repositories.SortInfoProducer;
 import org.jboss.pnc.spi.datastore.repositories.api.PageInfo;
@@ -80,14 +90,20 @@ import javax.annotation.security.RolesAllowed;
 import javax.ejb.EJBAccessException;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -98,12 +114,14 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.jboss.pnc.common.util.StreamHelper.nullableStreamOf;
 import static org.jboss.pnc.facade.providers.api.UserRoles.SYSTEM_USER;
 import static org.jboss.pnc.spi.datastore.predicates.ArtifactPredicates.withIds;
@@ -145,6 +163,9 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
 
     private TemporaryBuildsCleanerAsyncInvoker temporaryBuildsCleanerAsyncInvoker;
     private ResultMapper resultMapper;
+    private BuildLogStore buildLogStore;
+    private BuildLogTermRepository buildLogTermRepository;
+    private BuildBCRevisionFetcher buildBCRevisionFetcher;
 
     @Inject
     public BuildProviderImpl(
@@ -160,7 +181,10 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
             SortInfoProducer sortInfoProducer,
             UserService userService,
             TemporaryBuildsCleanerAsyncInvoker temporaryBuildsCleanerAsyncInvoker,
-            ResultMapper resultMapper) {
+            ResultMapper resultMapper,
+            BuildLogStore buildLogStore,
+            BuildLogTermRepository buildLogTermRepository,
+            BuildBCRevisionFetcher buildBCRevisionFetcher) {
         super(repository, mapper, BuildRecord.class);
 
         this.artifactRepository = artifactRepository;
@@ -176,6 +200,17 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
         this.userService = userService;
         this.temporaryBuildsCleanerAsyncInvoker = temporaryBuildsCleanerAsyncInvoker;
         this.resultMapper = resultMapper;
+        this.buildLogStore = buildLogStore;
+        this.buildLogTermRepository = buildLogTermRepository;
+        this.buildBCRevisionFetcher = buildBCRevisionFetcher;
+    }
+
+    @Override
+    protected List<Build> toDTOs(List<BuildRecord> buildRecords) {
+        if (buildRecords != null) {
+            buildBCRevisionFetcher.prefetch(buildRecords);
+        }
+        return super.toDTOs(buildRecords);
     }
 
     @Override
@@ -304,8 +339,43 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
     }
 
     @Override
-    public String getBuildLog(String buildId) {
-        return getBuildRecord(buildId).getBuildLog();
+    public Long getBuildLogSize(String buildId) {
+        Optional<Long> storedLogSize = getStoredBuildLogSize(buildId);
+        if (storedLogSize.isPresent()) {
+            return storedLogSize.get();
+        }
+
+        BuildRecord buildRecord = getBuildRecord(buildId);
+        if (buildRecord.getBuildLogSize() != null) {
+            return buildRecord.getBuildLogSize().longValue();
+        }
+        String buildLog = buildRecord.getBuildLog();
+        return buildLog == null ? null : (long) buildLog.getBytes(UTF_8).length;
+    }
+
+    @Override
+    public InputStream getBuildLog(String buildId, long offset) {
+        if (getStoredBuildLogSize(buildId).isPresent()) {
+            try {
+                return buildLogStore.read(BuildMapper.idMapper.toEntity(buildId), offset);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read the stored build log of build " + buildId, e);
+            }
+        }
+
+        // logs of builds completed before the log store was configured are kept in the build records
+        String buildLog = getBuildRecord(buildId).getBuildLog();
+        byte[] bytes = buildLog == null ? new byte[0] : buildLog.getBytes(UTF_8);
+        int start = (int) min(offset, bytes.length);
+        return new ByteArrayInputStream(bytes, start, bytes.length - start);
+    }
+
+    private Optional<Long> getStoredBuildLogSize(String buildId) {
+        try {
+            return buildLogStore.getSize(BuildMapper.idMapper.toEntity(buildId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the stored build log of build " + buildId, e);
+        }
     }
 
     @Override
@@ -429,8 +499,11 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
         }
         List<String> runningAndStoredIds = getBuildIdsInTheGroup(buildConfigSetRecord);
         org.jboss.util.graph.Graph<BuildWithDependencies> buildGraph = new org.jboss.util.graph.Graph<>();
+        BuildWithDependenciesLoader loader = new BuildWithDependenciesLoader();
         for (String buildId : runningAndStoredIds) {
-            org.jboss.util.graph.Graph<BuildWithDependencies> dependencyGraph = createBuildDependencyGraph(buildId);
+            org.jboss.util.graph.Graph<BuildWithDependencies> dependencyGraph = createBuildDependencyGraph(
+                    buildId,
+                    loader);
             GraphUtils.merge(buildGraph, dependencyGraph);
             logger.trace(
                     "Merged graph from buildRecordId {} to BuildConfigSetRecordGraph {}; Edges {},",
@@ -473,15 +546,19 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
         if (specific == null) {
             throw new EmptyEntityException("there is no record for given buildId.");
         }
-        org.jboss.util.graph.Graph<BuildWithDependencies> buildGraph = createBuildDependencyGraph(buildId);
+        org.jboss.util.graph.Graph<BuildWithDependencies> buildGraph = createBuildDependencyGraph(
+                buildId,
+                new BuildWithDependenciesLoader());
         GraphDtoBuilder<BuildWithDependencies, Build> graphBuilder = new GraphDtoBuilder();
         return graphBuilder.from(buildGraph, Build.class, vertex -> vertex.getData().getBuild());
     }
 
-    private org.jboss.util.graph.Graph<BuildWithDependencies> createBuildDependencyGraph(String buildId) {
+    private org.jboss.util.graph.Graph<BuildWithDependencies> createBuildDependencyGraph(
+            String buildId,
+            BuildWithDependenciesLoader loader) {
         org.jboss.util.graph.Graph<BuildWithDependencies> graph = new org.jboss.util.graph.Graph<>();
-        GraphBuilder<BuildWithDependencies, String> graphBuilder = new GraphBuilder<>(
-                id -> getRunningOrCompletedBuild(id),
+        BatchGraphBuilder<BuildWithDependencies, String> graphBuilder = new BatchGraphBuilder<>(
+                loader::load,
                 bt -> bt.getDependencies(),
                 bt -> bt.getDependants());
 
@@ -530,28 +607,6 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
         }
     }
 
-    /**
-     *
-     * @param id
-     * @return BuildWithDependencies
-     * @throws CorruptedDataException when there is no running nor completed build for a given id
-     */
-    private BuildWithDependencies getRunningOrCompletedBuild(String id) {
-        Optional<BuildTask> buildTask = buildCoordinator.getSubmittedBuildTasks()
-                .stream()
-                .filter(submittedBuild -> Integer.toString(submittedBuild.getId()).equals(id))
-                .findFirst();
-        if (buildTask.isPresent()) {
-            return new BuildWithDependencies(buildTask.get());
-        } else {
-            BuildRecord buildRecord = buildRecordRepository.findByIdFetchProperties(Integer.parseInt(id));
-            if (buildRecord == null) {
-                throw new CorruptedDataException("Missing build with id:" + id);
-            }
-            return new BuildWithDependencies(buildRecord);
-        }
-    }
-
     @Override
     public Build getSpecific(String buildId) {
 
@@ -586,7 +641,84 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
                 sortingRsql,
                 query,
                 BuildRecordPredicates.withStatus(status),
-                BuildRecordPredicates.withBuildLogContains(search));
+                BuildRecordPredicates.withBuildLogTerms(searchTerms(search)));
+    }
+
+    @Override
+    public Page<BuildLogMatch> searchBuildLogs(
+            int pageIndex,
+            int pageSize,
+            String sortingRsql,
+            String query,
+            BuildStatus status,
+            String search) {
+        Set<String> terms = searchTerms(search);
+        List<Predicate<BuildRecord>> predicates = new ArrayList<>();
+        if (status != null) {
+            predicates.add(BuildRecordPredicates.withStatus(status));
+        }
+        predicates.add(BuildRecordPredicates.withBuildLogTerms(terms));
+        Page<Build> builds = queryForCollection(
+                pageIndex,
+                pageSize,
+                sortingRsql,
+                query,
+                predicates.toArray(new Predicate[0]));
+
+        List<Integer> buildIds = builds.getContent()
+                .stream()
+                .map(build -> BuildMapper.idMapper.toEntity(build.getId()))
+                .collect(Collectors.toList());
+        Map<Integer, List<BuildLogTerm>> termsByBuild = Collections.emptyMap();
+        if (!buildIds.isEmpty()) {
+            termsByBuild = buildLogTermRepository.queryMatches(buildIds, terms)
+                    .stream()
+                    .collect(Collectors.groupingBy(term -> term.getBuildRecord().getId()));
+        }
+
+        List<BuildLogMatch> matches = new ArrayList<>(buildIds.size());
+        for (Integer buildId : buildIds) {
+            matches.add(
+                    BuildLogMatch.builder()
+                            .buildId(BuildMapper.idMapper.toDto(buildId))
+                            .lines(matchedLines(terms, termsByBuild.getOrDefault(buildId, Collections.emptyList())))
+                            .build());
+        }
+        return new Page<>(pageIndex, pageSize, builds.getTotalPages(), builds.getTotalHits(), matches);
+    }
+
+    private Set<String> searchTerms(String search) {
+        Set<String> terms = search == null ? Collections.emptySet() : BuildLogTokenizer.tokenize(search);
+        if (terms.isEmpty()) {
+            throw new InvalidEntityException(
+                    "Log search must contain a word of at least " + BuildLogTokenizer.MIN_TERM_LENGTH
+                            + " letters or digits.");
+        }
+        return terms;
+    }
+
+    /**
+     * Picks the first matching line for every searched term, the index entry of the shortest matching term is the one
+     * closest to an exact match.
+     */
+    private List<BuildLogLine> matchedLines(Set<String> searchTerms, List<BuildLogTerm> logTerms) {
+        Map<Integer, BuildLogTerm> lines = new TreeMap<>();
+        for (String searchTerm : searchTerms) {
+            logTerms.stream()
+                    .filter(logTerm -> logTerm.getTerm().startsWith(searchTerm))
+                    .min(Comparator.comparing((BuildLogTerm logTerm) -> logTerm.getTerm().length())
+                            .thenComparing(BuildLogTerm::getLineNumber))
+                    .ifPresent(logTerm -> lines.putIfAbsent(logTerm.getLineNumber(), logTerm));
+        }
+        return lines.values()
+                .stream()
+                .map(
+                        logTerm -> BuildLogLine.builder()
+                                .lineNumber(logTerm.getLineNumber())
+                                .offset(logTerm.getLineOffset())
+                                .snippet(logTerm.getSnippet())
+                                .build())
+                .collect(Collectors.toList());
     }
 
     @RolesAllowed(SYSTEM_USER)
@@ -642,8 +774,12 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
         int waitingForDependencies = 0;
         int running = 0;
         int enqueued = 0;
+        Map<Integer, BuildSetTask> groupBuilds = new HashMap<>();
 
         for (BuildTask task : x) {
+            if (task.getBuildConfigSetRecordId() != null && task.getBuildSetTask() != null) {
+                groupBuilds.putIfAbsent(task.getBuildConfigSetRecordId(), task.getBuildSetTask());
+            }
             switch (task.getStatus()) {
                 case ENQUEUED:
                     enqueued++;
@@ -656,7 +792,13 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
                     continue;
             }
         }
-        return new RunningBuildCount(running, enqueued, waitingForDependencies);
+        Date now = new Date();
+        Map<String, Instant> groupBuildEtas = new HashMap<>();
+        groupBuilds.forEach(
+                (id, buildSetTask) -> groupBuildEtas.put(
+                        id.toString(),
+                        now.toInstant().plusMillis(buildSetTask.estimateRemainingMillis(now))));
+        return new RunningBuildCount(running, enqueued, waitingForDependencies, groupBuildEtas);
     }
 
     public Page<Build> getByAttribute(BuildPageInfo buildPageInfo, Map<String, String> attributeConstraints) {
@@ -688,7 +830,7 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
                 buildPageInfo.getPageIndex(),
                 buildPageInfo.getPageSize(),
                 hits,
-                resultList.stream().map(b -> mapper.toDTO(b)).collect(Collectors.toList()));
+                toDTOs(resultList));
     }
 
     private DefaultPageInfo toPageInfo(BuildPageInfo buildPageInfo) {
@@ -770,6 +912,9 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
             BuildPageInfo pageInfo,
             java.util.function.Predicate<BuildTask> predicate,
             Predicate<BuildRecord> dbPredicate) {
+        if (!StringUtils.isEmpty(pageInfo.getPageCursor())) {
+            return getBuildsAfterCursor(pageInfo, predicate, dbPredicate);
+        }
         List<Build> runningBuilds = readRunningBuilds(pageInfo, predicate);
 
         int firstPossibleDBIndex = pageInfo.getPageIndex() * pageInfo.getPageSize() - runningBuilds.size();
@@ -780,12 +925,16 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
                 dbPredicate,
                 pageInfo.getQ(),
                 pageInfo.getBuildConfigName());
-        Comparator<Build> comparing = Comparator.comparing(Build::getSubmitTime).reversed();
+        Comparator<Build> comparing = BuildPageCursor.ORDER;
+        SortInfo sortInfo = sortInfoProducer.getSortInfo(
+                SortInfo.SortingDirection.DESC,
+                BuildRecord_.submitTime.getName(),
+                BuildRecord_.id.getName());
         if (!StringUtils.isEmpty(pageInfo.getSort())) {
             comparing = rsqlPredicateProducer.getComparator(pageInfo.getSort());
+            sortInfo = rsqlPredicateProducer.getSortInfo(type, pageInfo.getSort());
         }
 
-        SortInfo sortInfo = rsqlPredicateProducer.getSortInfo(type, pageInfo.getSort());
         MergeIterator<Build> builds = new MergeIterator(
                 runningBuilds.iterator(),
                 new BuildIterator(
@@ -803,12 +952,67 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
 
         int hits = repository.count(predicates) + runningBuilds.size();
 
+        String nextPageCursor = null;
+        if (StringUtils.isEmpty(pageInfo.getSort())) {
+            nextPageCursor = getNextPageCursor(resultList, pageInfo.getPageSize());
+        }
         return new Page<>(
                 pageInfo.getPageIndex(),
                 pageInfo.getPageSize(),
                 (int) Math.ceil((double) hits / pageInfo.getPageSize()),
                 hits,
-                resultList);
+                resultList,
+                nextPageCursor);
+    }
+
+    /**
+     * Returns the page of builds (running or finished) following the position given by the page cursor. The
+     * finished builds are read by seeking to the position, so the cost does not depend on how deep the page is. Total
+     * counts are not computed.
+     */
+    private Page<Build> getBuildsAfterCursor(
+            BuildPageInfo pageInfo,
+            java.util.function.Predicate<BuildTask> predicate,
+            Predicate<BuildRecord> dbPredicate) {
+        if (!StringUtils.isEmpty(pageInfo.getSort())) {
+            throw new InvalidEntityException("Page cursor can be used only with the default sorting.");
+        }
+        BuildPageCursor cursor = BuildPageCursor.decode(pageInfo.getPageCursor());
+
+        Iterator<Build> runningBuilds = readRunningBuilds(pageInfo, predicate).stream()
+                .filter(cursor::precedes)
+                .iterator();
+        Predicate<BuildRecord>[] predicates = preparePredicates(
+                dbPredicate,
+                pageInfo.getQ(),
+                pageInfo.getBuildConfigName());
+        Iterator<Build> finishedBuilds = toDTOs(
+                ((BuildRecordRepository) repository).queryWithPredicatesAfter(
+                        cursor.getSubmitDate(),
+                        cursor.getId(),
+                        pageInfo.getPageSize(),
+                        predicates)).iterator();
+
+        MergeIterator<Build> builds = new MergeIterator<>(runningBuilds, finishedBuilds, BuildPageCursor.ORDER);
+        List<Build> resultList = StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(builds, Spliterator.ORDERED | Spliterator.SORTED), false)
+                .limit(pageInfo.getPageSize())
+                .collect(Collectors.toList());
+
+        return new Page<>(
+                pageInfo.getPageIndex(),
+                pageInfo.getPageSize(),
+                -1,
+                -1,
+                resultList,
+                getNextPageCursor(resultList, pageInfo.getPageSize()));
+    }
+
+    private String getNextPageCursor(List<Build> page, int pageSize) {
+        if (page.size() < pageSize) {
+            return null;
+        }
+        return BuildPageCursor.of(page.get(page.size() - 1)).encode();
     }
 
     private Predicate<BuildRecord>[] preparePredicates(
@@ -846,7 +1050,7 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
         if (!StringUtils.isEmpty(pageInfo.getQ())) {
             streamPredicate = rsqlPredicateProducer.getStreamPredicate(pageInfo.getQ());
         }
-        Comparator<Build> comparing = Comparator.comparing(Build::getSubmitTime).reversed();
+        Comparator<Build> comparing = BuildPageCursor.ORDER;
         if (!StringUtils.isEmpty(pageInfo.getSort())) {
             comparing = rsqlPredicateProducer.getComparator(pageInfo.getSort());
         }
@@ -941,6 +1145,56 @@ public class BuildProviderImpl extends AbstractProvider<Integer, BuildRecord, Bu
         }
     }
 
+    /**
+     * Loads builds for the dependency graphs. Running builds are taken from a single snapshot of the submitted build
+     * tasks, completed builds are loaded from the DB in one query per call. Loaded builds are kept, so that graphs
+     * sharing the builds (i.e. the graphs of a group build) don't load them again.
+     */
+    private class BuildWithDependenciesLoader {
+
+        private final Map<String, BuildTask> runningBuilds = new HashMap<>();
+        private final Map<String, BuildWithDependencies> loaded = new HashMap<>();
+
+        private BuildWithDependenciesLoader() {
+            nullableStreamOf(buildCoordinator.getSubmittedBuildTasks()).filter(Objects::nonNull)
+                    .forEach(buildTask -> runningBuilds.put(Integer.toString(buildTask.getId()), buildTask));
+        }
+
+        /**
+         * @throws CorruptedDataException when there is no running nor completed build for some of the ids
+         */
+        private Map<String, BuildWithDependencies> load(Collection<String> ids) {
+            Map<String, BuildWithDependencies> result = new HashMap<>();
+            Set<Integer> toQuery = new HashSet<>();
+            for (String id : ids) {
+                BuildWithDependencies build = loaded.get(id);
+                if (build == null && runningBuilds.containsKey(id)) {
+                    build = new BuildWithDependencies(runningBuilds.get(id));
+                    loaded.put(id, build);
+                }
+                if (build != null) {
+                    result.put(id, build);
+                } else {
+                    toQuery.add(Integer.parseInt(id));
+                }
+            }
+            if (!toQuery.isEmpty()) {
+                for (BuildRecord buildRecord : buildRecordRepository.findByIdsFetchProperties(toQuery)) {
+                    String id = Integer.toString(buildRecord.getId());
+                    BuildWithDependencies build = new BuildWithDependencies(buildRecord);
+                    loaded.put(id, build);
+                    result.put(id, build);
+                }
+            }
+            for (String id : ids) {
+                if (!result.containsKey(id)) {
+                    throw new CorruptedDataException("Missing build with id:" + id);
+                }
+            }
+            return result;
+        }
+    }
+
     @Getter
     private class BuildWithDependencies {
         private final Build build;
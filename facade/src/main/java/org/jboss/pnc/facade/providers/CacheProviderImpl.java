@@ -17,14 +17,18 @@
  */
 package org.jboss.pnc.facade.providers;
 
+import java.text.DecimalFormat;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.TreeMap;
 
 import javax.annotation.security.PermitAll;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 
 import org.jboss.pnc.facade.providers.api.CacheProvider;
+import org.jboss.pnc.facade.util.UserIdentityCache;
+import org.jboss.pnc.mapper.BuildBCRevisionFetcher;
 import org.jboss.pnc.model.utils.HibernateMetric;
 import org.jboss.pnc.spi.datastore.repositories.CacheHandlerRepository;
 import org.slf4j.Logger;
@@ -38,9 +42,18 @@ public class CacheProviderImpl implements CacheProvider {
 
     private CacheHandlerRepository cacheHandlerRepository;
 
+    private BuildBCRevisionFetcher buildBCRevisionFetcher;
+
+    private UserIdentityCache userIdentityCache;
+
     @Inject
-    public CacheProviderImpl(CacheHandlerRepository cacheHandlerRepository) {
+    public CacheProviderImpl(
+            CacheHandlerRepository cacheHandlerRepository,
+            BuildBCRevisionFetcher buildBCRevisionFetcher,
+            UserIdentityCache userIdentityCache) {
         this.cacheHandlerRepository = cacheHandlerRepository;
+        this.buildBCRevisionFetcher = buildBCRevisionFetcher;
+        this.userIdentityCache = userIdentityCache;
     }
 
     @Override
@@ -63,15 +76,58 @@ public class CacheProviderImpl implements CacheProvider {
 
     @Override
     public SortedMap<String, HibernateMetric> getGenericStats() {
-        logger.debug("Get general statistics related to Hibernate.");
-        return cacheHandlerRepository.getGenericStats();
+        logger.debug("Get general statistics related to Hibernate and the application caches.");
+        SortedMap<String, HibernateMetric> genericStats = new TreeMap<>(cacheHandlerRepository.getGenericStats());
+        putCacheStats(
+                genericStats,
+                "pnc.build-config-revision-cache",
+                "buildConfigRevisionCache",
+                "build config revisions",
+                buildBCRevisionFetcher.getSize(),
+                buildBCRevisionFetcher.getHitCount(),
+                buildBCRevisionFetcher.getMissCount());
+        putCacheStats(
+                genericStats,
+                "pnc.user-identity-cache",
+                "userIdentityCache",
+                "user identities",
+                userIdentityCache.getSize(),
+                userIdentityCache.getHitCount(),
+                userIdentityCache.getMissCount());
+        return genericStats;
     }
 
     @Override
     public void clearAllCache() {
         logger.info("Evicting all content from second level cache...");
         cacheHandlerRepository.clearCache();
+        buildBCRevisionFetcher.clear();
+        userIdentityCache.clear();
         logger.info("Second level cache evicted");
     }
 
+    private static void putCacheStats(
+            SortedMap<String, HibernateMetric> stats,
+            String prefix,
+            String name,
+            String entries,
+            int size,
+            long hits,
+            long misses) {
+        double hitRatio = hits + misses != 0 ? (double) hits / (hits + misses) * 100 : -1;
+        stats.put(prefix + ".size", new HibernateMetric(name + "Size", "Number of cached " + entries + ".", size));
+        stats.put(
+                prefix + ".hit.count",
+                new HibernateMetric(name + "HitCount", "Number of " + entries + " found in the cache.", hits));
+        stats.put(
+                prefix + ".miss.count",
+                new HibernateMetric(name + "MissCount", "Number of " + entries + " not found in the cache.", misses));
+        stats.put(
+                prefix + ".hit.ratio",
+                new HibernateMetric(
+                        name + "HitRatio",
+                        "Ratio of " + entries + " found in the cache.",
+                        new DecimalFormat("#.##").format(hitRatio)));
+    }
+
 }
@@ -17,6 +17,7 @@
  */
 package org.jboss.pnc.facade.providers.api;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
 /**
@@ -24,6 +25,7 @@ import lombok.Data;
  * @author Honza Brázdil &lt;jbrazdil@redhat.com&gt;
  */
 @Data
+@AllArgsConstructor
 public class BuildPageInfo {
 
     private final int pageIndex;
@@ -33,5 +35,17 @@ public class BuildPageInfo {
     private final boolean latest;
     private final boolean running;
     private final String buildConfigName;
+    private final String pageCursor;
+
+    public BuildPageInfo(
+            int pageIndex,
+            int pageSize,
+            String sort,
+            String q,
+            boolean latest,
+            boolean running,
+            String buildConfigName) {
+        this(pageIndex, pageSize, sort, q, latest, running, buildConfigName, null);
+    }
 
 }
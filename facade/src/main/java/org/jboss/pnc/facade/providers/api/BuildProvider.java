@@ -20,6 +20,7 @@ package org.jboss.pnc.facade.providers.api;
 import org.jboss.pnc.dto.Build;
 import org.jboss.pnc.dto.BuildConfigurationRevision;
 import org.jboss.pnc.dto.BuildRef;
+import org.jboss.pnc.dto.response.BuildLogMatch;
 import org.jboss.pnc.dto.response.Graph;
 import org.jboss.pnc.dto.response.Page;
 import org.jboss.pnc.dto.response.RunningBuildCount;
@@ -27,6 +28,7 @@ import org.jboss.pnc.dto.response.SSHCredentials;
 import org.jboss.pnc.enums.BuildStatus;
 import org.jboss.pnc.facade.validation.EmptyEntityException;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
@@ -52,7 +54,18 @@ public interface BuildProvider extends Provider<Integer, org.jboss.pnc.model.Bui
 
     String getRepourLog(String id);
 
-    String getBuildLog(String id);
+    /**
+     * @param id build id
+     * @return size of the build log in bytes or null if the build has no log
+     */
+    Long getBuildLogSize(String id);
+
+    /**
+     * @param id build id
+     * @param offset number of bytes of the log to skip
+     * @return stream of the build log, the caller is responsible for closing it
+     */
+    InputStream getBuildLog(String id, long offset);
 
     boolean delete(String id, String callback);
 
@@ -106,6 +119,21 @@ public interface BuildProvider extends Provider<Integer, org.jboss.pnc.model.Bui
             BuildStatus status,
             String search);
 
+    /**
+     * Searches the build log index for the builds which logs contain all the words of the search. Words of the search
+     * match the log words starting with them.
+     *
+     * @return matching builds with the first log line containing each of the words
+     * @throws org.jboss.pnc.facade.validation.InvalidEntityException when the search has no searchable word
+     */
+    Page<BuildLogMatch> searchBuildLogs(
+            int pageIndex,
+            int pageSize,
+            String sortingRsql,
+            String query,
+            BuildStatus status,
+            String search);
+
     void setBuiltArtifacts(String id, List<String> artifactIds);
 
     void setDependentArtifacts(String id, List<String> artifactIds);
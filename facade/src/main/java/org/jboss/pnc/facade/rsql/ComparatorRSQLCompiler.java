@@ -0,0 +1,74 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.facade.rsql;
+
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.LogicalNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Comparator;
+
+import static org.jboss.pnc.facade.rsql.RSQLProducerImpl.DESC;
+
+/**
+ * Compiles the RSQL sort query into a comparator that reads the properties through {@link PropertyAccessor}s, instead
+ * of looking up the getter for each comparison like {@link ComparatorRSQLNodeTraveller} does.
+ */
+class ComparatorRSQLCompiler<DTO> extends RSQLNodeTraveller<Comparator<DTO>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    @Override
+    public Comparator<DTO> visit(LogicalNode logicalNode) {
+        return null;
+    }
+
+    @Override
+    public Comparator<DTO> visit(ComparisonNode node) {
+        logger.trace("Compiling sorting direction - {}, arguments {}", node.getOperator(), node.getArguments());
+        Comparator<DTO> comparator = null;
+        for (String argument : node.getArguments()) {
+            PropertyAccessor accessor = new PropertyAccessor(argument);
+            Comparator<DTO> comp = Comparator.comparing(dto -> getComparable(accessor, dto));
+            if (comparator == null) {
+                comparator = comp;
+            } else {
+                comparator = comparator.thenComparing(comp);
+            }
+        }
+        if (comparator == null) {
+            throw new RSQLException("No argument for RSQL comparsion found.");
+        }
+        if (node.getOperator().equals(DESC)) {
+            comparator = comparator.reversed();
+        }
+        return comparator;
+    }
+
+    private static Comparable getComparable(PropertyAccessor accessor, Object object) {
+        Object value = accessor.get(object);
+        if (value instanceof Comparable) {
+            return (Comparable) value;
+        } else {
+            throw new RSQLException("Field " + accessor.getPath() + " is not comparable.");
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.facade.rsql;
+
+import org.jboss.pnc.common.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Reads a (possibly nested) property such as <code>project.name</code> from DTOs. The getter of every path element is
+ * resolved once per class and kept as a {@link MethodHandle}, so evaluating the accessor on many instances doesn't go
+ * through reflection lookups again.
+ */
+class PropertyAccessor {
+
+    /**
+     * Returned by {@link #get(Object)} when an intermediate element of the path is null, as opposed to the property
+     * itself being null.
+     */
+    static final Object NESTED_NULL = new Object();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final String path;
+    private final Getter[] getters;
+
+    PropertyAccessor(String path) {
+        this.path = path;
+        String[] names = path.split("\\.");
+        getters = new Getter[names.length];
+        for (int i = 0; i < names.length; i++) {
+            getters[i] = new Getter(names[i]);
+        }
+    }
+
+    /**
+     * @throws RSQLException when the object doesn't have the property.
+     */
+    Object get(Object object) {
+        Object value = object;
+        for (int i = 0; i < getters.length; i++) {
+            if (value == null) {
+                return i == 0 ? null : NESTED_NULL;
+            }
+            value = getters[i].get(value);
+        }
+        return value;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    private static class Getter extends ClassValue<MethodHandle> {
+
+        private final String name;
+
+        private Getter(String name) {
+            this.name = name;
+        }
+
+        private Object get(Object object) {
+            MethodHandle handle = get(object.getClass());
+            try {
+                return handle.invokeExact(object);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new RuntimeException("Could not access field " + name + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            Method method = findGetter(type);
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+            } catch (IllegalAccessException | SecurityException ex) {
+                throw new RuntimeException("Could not access field " + name + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        private Method findGetter(Class<?> type) {
+            String capitalized = StringUtils.firstCharToUpperCase(name);
+            try {
+                return type.getMethod("get" + capitalized);
+            } catch (NoSuchMethodException ex) {
+                try {
+                    return type.getMethod("is" + capitalized);
+                } catch (NoSuchMethodException e) {
+                    throw new RSQLException("Field " + name + " not found.", ex);
+                }
+            }
+        }
+    }
+}
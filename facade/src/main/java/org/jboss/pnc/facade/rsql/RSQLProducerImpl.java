@@ -35,8 +35,11 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Path;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -66,6 +69,15 @@ public class RSQLProducerImpl implements RSQLProducer {
     static final ComparisonOperator ASC = new ComparisonOperator("=asc=", true);
     static final ComparisonOperator DESC = new ComparisonOperator("=desc=", true);
 
+    /**
+     * Maximum number of compiled stream predicates and comparators kept. The same few queries are repeated by clients
+     * polling for running builds.
+     */
+    static final int COMPILED_CACHE_SIZE = 256;
+
+    private final Map<String, java.util.function.Predicate<Object>> streamPredicates = lruCache(COMPILED_CACHE_SIZE);
+    private final Map<String, Comparator<Object>> comparators = lruCache(COMPILED_CACHE_SIZE);
+
     @Inject
     UniversalRSQLMapper mapper;
 
@@ -98,8 +110,13 @@ public class RSQLProducerImpl implements RSQLProducer {
         if (rsql == null || rsql.isEmpty()) {
             return x -> true;
         }
-        Node rootNode = predicateParser.parse(preprocessRSQL(rsql));
-        return getStreamPredicate(rootNode);
+        java.util.function.Predicate<Object> predicate = streamPredicates.get(rsql);
+        if (predicate == null) {
+            Node rootNode = predicateParser.parse(preprocessRSQL(rsql));
+            predicate = rootNode.accept(new StreamRSQLCompiler());
+            streamPredicates.put(rsql, predicate);
+        }
+        return (java.util.function.Predicate<T>) predicate;
     }
 
     @Override
@@ -125,9 +142,13 @@ public class RSQLProducerImpl implements RSQLProducer {
         if (!rsql.startsWith(FIXED_START_OF_SORTING_EXPRESSION)) {
             rsql = FIXED_START_OF_SORTING_EXPRESSION + rsql;
         }
-        Node rootNode = sortParser.parse(preprocessRSQL(rsql));
-
-        return rootNode.accept(new ComparatorRSQLNodeTraveller<>());
+        Comparator<Object> comparator = comparators.get(rsql);
+        if (comparator == null) {
+            Node rootNode = sortParser.parse(preprocessRSQL(rsql));
+            comparator = rootNode.accept(new ComparatorRSQLCompiler<>());
+            comparators.put(rsql, comparator);
+        }
+        return (Comparator<DTO>) comparator;
     }
 
     private String preprocessRSQL(String rsql) {
@@ -154,12 +175,13 @@ public class RSQLProducerImpl implements RSQLProducer {
         };
     }
 
-    private <T> java.util.function.Predicate<T> getStreamPredicate(Node rootNode) {
-        return instance -> {
-            RSQLNodeTraveller<Boolean> visitor = new StreamRSQLNodeTraveller(instance);
-
-            return rootNode.accept(visitor);
-        };
+    private static <V> Map<String, V> lruCache(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        });
     }
 
 }
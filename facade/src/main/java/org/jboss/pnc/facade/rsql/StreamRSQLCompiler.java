@@ -0,0 +1,145 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.facade.rsql;
+
+import cz.jirutka.rsql.parser.ast.AndNode;
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.LogicalNode;
+import cz.jirutka.rsql.parser.ast.Node;
+import cz.jirutka.rsql.parser.ast.OrNode;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the RSQL query into a predicate once, instead of walking the node tree for every streamed instance like
+ * {@link StreamRSQLNodeTraveller} does. Properties are read through {@link PropertyAccessor}s and the arguments
+ * (numbers, like patterns, in sets) are prepared at compile time. The resulting predicate evaluates the same way as
+ * {@link StreamRSQLNodeTraveller} and is thread-safe.
+ */
+class StreamRSQLCompiler extends RSQLNodeTraveller<Predicate<Object>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final ThreadLocal<NumberFormat> numberFormat = ThreadLocal.withInitial(NumberFormat::getInstance);
+
+    @Override
+    public Predicate<Object> visit(LogicalNode node) {
+        logger.trace("Compiling LogicalNode {}", node);
+        Predicate<Object> result = null;
+        for (Node child : node) {
+            Predicate<Object> next = visit(child);
+            if (result == null) {
+                result = next;
+            } else if (node instanceof AndNode) {
+                result = result.and(next);
+            } else if (node instanceof OrNode) {
+                result = result.or(next);
+            } else {
+                throw new UnsupportedOperationException("Logical operation not supported");
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Predicate<Object> visit(ComparisonNode node) {
+        logger.trace("Compiling ComparisonNode {}", node);
+        PropertyAccessor accessor = new PropertyAccessor(node.getSelector());
+        ComparisonOperator operator = node.getOperator();
+        String argument = node.getArguments().get(0);
+
+        if (operator.equals(RSQLProducerImpl.IS_NULL)) {
+            boolean expectNull = Boolean.parseBoolean(argument);
+            return instance -> {
+                Object value = accessor.get(instance);
+                return value != PropertyAccessor.NESTED_NULL && (value == null) == expectNull;
+            };
+        }
+        Predicate<String> test = compileTest(operator, argument, node.getArguments());
+        return instance -> {
+            Object value = accessor.get(instance);
+            // Null values are considered not equal, same as nested nulls (i.e. idRev.id is null). Values are
+            // compared as strings, the same way BeanUtils.getProperty converts them.
+            return value != null && value != PropertyAccessor.NESTED_NULL && test.test(value.toString());
+        };
+    }
+
+    private static Predicate<String> compileTest(ComparisonOperator operator, String argument, List<String> arguments) {
+        if (operator.equals(RSQLOperators.EQUAL)) {
+            return argument::equals;
+        } else if (operator.equals(RSQLOperators.NOT_EQUAL)) {
+            return value -> !argument.equals(value);
+        } else if (operator.equals(RSQLOperators.GREATER_THAN)) {
+            int number = parseInt(argument);
+            return numeric(value -> value < number);
+        } else if (operator.equals(RSQLOperators.GREATER_THAN_OR_EQUAL)) {
+            int number = parseInt(argument);
+            return numeric(value -> value <= number);
+        } else if (operator.equals(RSQLOperators.LESS_THAN)) {
+            int number = parseInt(argument);
+            return numeric(value -> value > number);
+        } else if (operator.equals(RSQLProducerImpl.LIKE)) {
+            Pattern pattern = likePattern(argument);
+            return value -> pattern.matcher(value).matches();
+        } else if (operator.equals(RSQLProducerImpl.NOT_LIKE)) {
+            Pattern pattern = likePattern(argument);
+            return value -> !pattern.matcher(value).matches();
+        } else if (operator.equals(RSQLOperators.IN)) {
+            Set<String> set = new HashSet<>(arguments);
+            return set::contains;
+        } else if (operator.equals(RSQLOperators.NOT_IN)) {
+            Set<String> set = new HashSet<>(arguments);
+            return value -> !set.contains(value);
+        } else {
+            // fail on evaluation, same as StreamRSQLNodeTraveller
+            return value -> {
+                throw new UnsupportedOperationException("Not Implemented yet!");
+            };
+        }
+    }
+
+    private static Predicate<String> numeric(IntPredicate test) {
+        return value -> test.test(parseInt(value));
+    }
+
+    private static int parseInt(String number) {
+        try {
+            return numberFormat.get().parse(number).intValue();
+        } catch (ParseException e) {
+            throw new IllegalStateException("RSQL parse exception", e);
+        }
+    }
+
+    private static Pattern likePattern(String argument) {
+        return Pattern.compile(
+                argument.replaceAll(RSQLProducerImpl.UNKNOWN_PART_PLACEHOLDER, ".*").replaceAll("%", ".*"));
+    }
+
+}
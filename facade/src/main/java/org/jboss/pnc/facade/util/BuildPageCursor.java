@@ -0,0 +1,91 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.facade.util;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.jboss.pnc.dto.Build;
+import org.jboss.pnc.facade.validation.InvalidEntityException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+
+/**
+ * Position in a listing of builds ordered by submit time and id in descending order. The position is handed to the
+ * clients as an opaque token, so the following page can be read by seeking to it instead of skipping all the previous
+ * pages.
+ */
+@Getter
+@EqualsAndHashCode
+public class BuildPageCursor {
+
+    /**
+     * Order of builds in cursored listings: the latest submitted first, builds submitted at the same time by id.
+     */
+    public static final Comparator<Build> ORDER = Comparator.comparing(Build::getSubmitTime)
+            .thenComparing(build -> Integer.valueOf(build.getId()))
+            .reversed();
+
+    private static final String SEPARATOR = ":";
+
+    private final long submitTime;
+
+    private final int id;
+
+    public BuildPageCursor(long submitTime, int id) {
+        this.submitTime = submitTime;
+        this.id = id;
+    }
+
+    public static BuildPageCursor of(Build build) {
+        return new BuildPageCursor(build.getSubmitTime().toEpochMilli(), Integer.parseInt(build.getId()));
+    }
+
+    public static BuildPageCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new InvalidEntityException("Invalid page cursor: " + token);
+            }
+            return new BuildPageCursor(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            throw new InvalidEntityException("Invalid page cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String position = submitTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return true if the build is placed after this position in the {@link #ORDER}
+     */
+    public boolean precedes(Build build) {
+        long buildSubmitTime = build.getSubmitTime().toEpochMilli();
+        return buildSubmitTime < submitTime
+                || (buildSubmitTime == submitTime && Integer.parseInt(build.getId()) < id);
+    }
+
+    public Date getSubmitDate() {
+        return new Date(submitTime);
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.facade.util;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of user ids by the identity of the authenticated user (token subject and username). Entries expire
+ * after a fixed time, so that changes of the user are picked up. When the identity is not cached, concurrent requests
+ * for it wait for a single load instead of querying or creating the user each.
+ */
+@ApplicationScoped
+public class UserIdentityCache {
+
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final ConcurrentMap<Identity, Entry> entries = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+
+    private final int maxSize;
+
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public UserIdentityCache() {
+        this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_SIZE, System::currentTimeMillis);
+    }
+
+    UserIdentityCache(long ttlMillis, int maxSize, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached user id of the identity or loads it using the loader. Only one loader runs for an identity at
+     * a time, other callers wait for its result. When the loader fails, nothing is cached and the exception is
+     * rethrown to all the waiting callers.
+     *
+     * @param subject token subject of the user
+     * @param username name of the user
+     * @param loader returns the user id, creating the user if needed
+     * @return the user id
+     */
+    public Integer getUserId(String subject, String username, Supplier<Integer> loader) {
+        Identity identity = new Identity(subject, username);
+        long now = clock.getAsLong();
+        Entry entry = entries.compute(
+                identity,
+                (key, existing) -> existing == null || existing.isExpired(now) ? new Entry(now + ttlMillis)
+                        : existing);
+
+        if (!entry.claim()) {
+            hits.increment();
+            return entry.get();
+        }
+        misses.increment();
+        if (entries.size() > maxSize) {
+            evict(now);
+        }
+        try {
+            Integer userId = loader.get();
+            entry.userId.complete(userId);
+            return userId;
+        } catch (RuntimeException e) {
+            entries.remove(identity, entry);
+            entry.userId.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the identity from the cache, e.g. when the cached user no longer exists.
+     */
+    public void invalidate(String subject, String username) {
+        entries.remove(new Identity(subject, username));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Removes expired entries. If the cache is still over the limit, the entries expiring first are removed.
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        while (entries.size() > maxSize) {
+            Map.Entry<Identity, Entry> oldest = null;
+            Iterator<Map.Entry<Identity, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Identity, Entry> next = iterator.next();
+                if (oldest == null || next.getValue().expiresAt < oldest.getValue().expiresAt) {
+                    oldest = next;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private static final class Entry {
+
+        private final long expiresAt;
+
+        private final AtomicBoolean loading = new AtomicBoolean();
+
+        private final CompletableFuture<Integer> userId = new CompletableFuture<>();
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        /**
+         * @return true if the caller is the first one and has to load the user id
+         */
+        private boolean claim() {
+            return loading.compareAndSet(false, true);
+        }
+
+        private Integer get() {
+            try {
+                return userId.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static final class Identity {
+
+        private final String subject;
+
+        private final String username;
+
+        private Identity(String subject, String username) {
+            this.subject = subject;
+            this.username = username;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Identity identity = (Identity) o;
+            return Objects.equals(subject, identity.subject) && Objects.equals(username, identity.username);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subject, username);
+        }
+    }
+}
@@ -47,23 +47,28 @@ public class UserService {
     @Inject
     private UserRepository repository;
 
+    @Inject
+    private UserIdentityCache userIdentityCache;
+
+    private LoggedInUser loggedInUser;
+
     public String currentUserToken() {
         logger.trace("Getting current user token using authenticationProvider: {}.", authenticationProvider.getId());
-        LoggedInUser currentUser = authenticationProvider.getLoggedInUser(httpServletRequest);
+        LoggedInUser currentUser = loggedInUser();
         logger.trace("LoggedInUser: {}.", currentUser);
         return currentUser.getTokenString();
     }
 
     public String currentUsername() {
         logger.trace("Getting current user token using authenticationProvider: {}.", authenticationProvider.getId());
-        LoggedInUser currentUser = authenticationProvider.getLoggedInUser(httpServletRequest);
+        LoggedInUser currentUser = loggedInUser();
         logger.trace("LoggedInUser: {}.", currentUser);
         return currentUser.getUserName();
     }
 
     public User currentUser() {
         logger.trace("Getting current user using authenticationProvider: {}.", authenticationProvider.getId());
-        LoggedInUser currentUser = authenticationProvider.getLoggedInUser(httpServletRequest);
+        LoggedInUser currentUser = loggedInUser();
         logger.trace("LoggedInUser: {}.", currentUser);
         String username = currentUser.getUserName();
 
@@ -79,28 +84,47 @@ public class UserService {
 
     public boolean hasLoggedInUserRole(String role) {
         logger.trace("Getting current user using authenticationProvider: {}.", authenticationProvider.getId());
-        LoggedInUser currentUser = authenticationProvider.getLoggedInUser(httpServletRequest);
+        LoggedInUser currentUser = loggedInUser();
         logger.trace("LoggedInUser: {}.", currentUser);
         return currentUser.isUserInRole(role);
     }
 
+    /**
+     * The logged in user doesn't change during the request.
+     */
+    private LoggedInUser loggedInUser() {
+        if (loggedInUser == null) {
+            loggedInUser = authenticationProvider.getLoggedInUser(httpServletRequest);
+        }
+        return loggedInUser;
+    }
+
     private User getOrCreate(LoggedInUser loggedInUser, String username) {
+        String subject = loggedInUser.getSubject();
+        Integer userId = userIdentityCache
+                .getUserId(subject, username, () -> queryOrCreate(loggedInUser, username).getId());
+        User user = repository.queryById(userId);
+        if (user == null) {
+            logger.debug("Cached user {} with id {} not found, querying it again.", username, userId);
+            userIdentityCache.invalidate(subject, username);
+            userId = userIdentityCache
+                    .getUserId(subject, username, () -> queryOrCreate(loggedInUser, username).getId());
+            user = repository.queryById(userId);
+        }
+        return user;
+    }
+
+    private User queryOrCreate(LoggedInUser loggedInUser, String username) {
         User user = repository.queryByPredicates(withUserName(username));
         if (user == null) {
             logger.debug("User not in database yet, creating new user: {}.", loggedInUser);
-            String syncObject = username.intern();
-            synchronized (syncObject) {
-                user = repository.queryByPredicates(withUserName(username));
-                if (user == null) {
-                    user = User.Builder.newBuilder()
-                            .username(username)
-                            .firstName(loggedInUser.getFirstName())
-                            .lastName(loggedInUser.getLastName())
-                            .email(loggedInUser.getEmail())
-                            .build();
-                    repository.save(user);
-                }
-            }
+            user = User.Builder.newBuilder()
+                    .username(username)
+                    .firstName(loggedInUser.getFirstName())
+                    .lastName(loggedInUser.getLastName())
+                    .email(loggedInUser.getEmail())
+                    .build();
+            user = repository.save(user);
         }
         return user;
     }
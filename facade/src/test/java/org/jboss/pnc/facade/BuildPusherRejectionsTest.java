@@ -24,11 +24,11 @@ import org.jboss.pnc.enums.BuildStatus;
 import org.jboss.pnc.facade.impl.BrewPusherImpl;
 import org.jboss.pnc.facade.validation.OperationNotAllowedException;
 import org.jboss.pnc.mock.repository.BuildRecordRepositoryMock;
-import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.spi.coordinator.ProcessException;
 import org.jboss.pnc.spi.datastore.InconsistentDataException;
+import org.jboss.pnc.spi.datastore.projections.ArtifactInfo;
 import org.jboss.pnc.spi.datastore.repositories.ArtifactRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildRecordRepository;
 import org.junit.Before;
@@ -51,6 +51,7 @@ import static org.jboss.pnc.enums.ArtifactQuality.NEW;
 import static org.jboss.pnc.enums.BuildStatus.FAILED;
 import static org.jboss.pnc.enums.BuildStatus.NO_REBUILD_REQUIRED;
 import static org.jboss.pnc.enums.BuildStatus.SUCCESS;
+import static org.jboss.pnc.enums.RepositoryType.MAVEN;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -107,12 +108,20 @@ public class BuildPusherRejectionsTest {
         record.setStatus(buildStatus);
         BuildRecord savedBuildRecord = buildRecordRepository.save(record);
 
-        Artifact artifact = Artifact.builder().build();
-        artifact.setArtifactQuality(artifactQuality);
-        artifact.setBuildRecord(savedBuildRecord);
+        ArtifactInfo artifact = new ArtifactInfo(
+                1,
+                "g:a:jar:1.0",
+                "a-1.0.jar",
+                "md5",
+                1L,
+                "/g/a",
+                artifactQuality,
+                MAVEN,
+                "");
 
         when(globalModuleGroup.getPncUrl()).thenReturn("http://localhost/");
-        when(artifactRepository.queryWithPredicates(any())).thenReturn(Collections.singletonList(artifact));
+        when(artifactRepository.findBuiltArtifactInfos(any()))
+                .thenReturn(Collections.singletonMap(savedBuildRecord.getId(), Collections.singletonList(artifact)));
         when(buildRecordRepository.getLatestSuccessfulBuildRecord(any(IdRev.class), any(Boolean.class)))
                 .thenReturn(null);
 
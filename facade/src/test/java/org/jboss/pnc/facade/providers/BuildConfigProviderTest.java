@@ -24,6 +24,7 @@ import org.jboss.pnc.dto.SCMRepository;
 import org.jboss.pnc.dto.response.Page;
 import org.jboss.pnc.enums.BuildType;
 import org.jboss.pnc.facade.util.UserService;
+import org.jboss.pnc.facade.validation.InvalidEntityException;
 import org.jboss.pnc.mock.repository.SequenceHandlerRepositoryMock;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildConfigurationAudited;
@@ -32,6 +33,7 @@ import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.model.Project;
 import org.jboss.pnc.model.RepositoryConfiguration;
 import org.jboss.pnc.model.User;
+import org.jboss.pnc.spi.coordinator.BuildConfigurationDependencyIndex;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationAuditedRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationRepository;
 import org.jboss.pnc.spi.datastore.repositories.SequenceHandlerRepository;
@@ -53,6 +55,7 @@ import java.util.HashSet;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -70,6 +73,9 @@ public class BuildConfigProviderTest extends AbstractIntIdProviderTest<BuildConf
     @Spy
     private SequenceHandlerRepository sequence = new SequenceHandlerRepositoryMock();
 
+    @Spy
+    private BuildConfigurationDependencyIndex dependencyIndex = new BuildConfigurationDependencyIndex();
+
     @Spy
     @InjectMocks
     private BuildConfigurationProviderImpl provider;
@@ -188,6 +194,22 @@ public class BuildConfigProviderTest extends AbstractIntIdProviderTest<BuildConf
                 .doNotHave(new Condition<>(dependency::equals, "BC is equal to 'dependency' bc"));
     }
 
+    @Test
+    public void testAddDependencyRejectsCycleAfterDependencyChanges() {
+        // With
+        String first = "2"; // BC(name: "First!")
+        String second = "3"; // BC(name: "Second!!"), depends on "First!"
+        assertThatThrownBy(() -> provider.addDependency(first, second)).isInstanceOf(InvalidEntityException.class);
+
+        // When
+        provider.removeDependency(second, first);
+        provider.addDependency(first, second);
+
+        // Then
+        assertThat(provider.getSpecific(first).getDependencies()).containsKey(second);
+        assertThatThrownBy(() -> provider.addDependency(second, first)).isInstanceOf(InvalidEntityException.class);
+    }
+
     @Test
     public void testClone() {
         // When
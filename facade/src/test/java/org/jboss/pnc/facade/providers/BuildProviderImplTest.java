@@ -19,6 +19,7 @@ package org.jboss.pnc.facade.providers;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
 import org.assertj.core.api.Condition;
+import org.jboss.pnc.common.util.IoUtils;
 import org.jboss.pnc.coordinator.maintenance.TemporaryBuildsCleanerAsyncInvoker;
 import org.jboss.pnc.dto.Build;
 import org.jboss.pnc.dto.response.Edge;
@@ -30,6 +31,7 @@ import org.jboss.pnc.facade.providers.api.BuildPageInfo;
 import org.jboss.pnc.facade.util.UserService;
 import org.jboss.pnc.facade.validation.CorruptedDataException;
 import org.jboss.pnc.facade.validation.EmptyEntityException;
+import org.jboss.pnc.facade.validation.InvalidEntityException;
 import org.jboss.pnc.mapper.api.BuildMapper;
 import org.jboss.pnc.model.BuildConfigSetRecord;
 import org.jboss.pnc.model.BuildConfiguration;
@@ -40,6 +42,7 @@ import org.jboss.pnc.spi.coordinator.BuildCoordinator;
 import org.jboss.pnc.spi.coordinator.BuildSetTask;
 import org.jboss.pnc.spi.coordinator.BuildTask;
 import org.jboss.pnc.spi.coordinator.Result;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigSetRecordRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationAuditedRepository;
 import org.jboss.pnc.spi.datastore.repositories.BuildRecordRepository;
@@ -58,13 +61,19 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -89,6 +98,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -125,6 +135,9 @@ public class BuildProviderImplTest extends AbstractIntIdProviderTest<BuildRecord
     @Mock
     private TemporaryBuildsCleanerAsyncInvoker temporaryBuildsCleanerAsyncInvoker;
 
+    @Mock
+    private BuildLogStore buildLogStore;
+
     private User user;
 
     @InjectMocks
@@ -150,6 +163,10 @@ public class BuildProviderImplTest extends AbstractIntIdProviderTest<BuildRecord
             Integer id = inv.getArgument(0);
             return repositoryList.stream().filter(a -> id.equals(a.getId())).findFirst().orElse(null);
         });
+        when(repository.findByIdsFetchProperties(any())).thenAnswer(inv -> {
+            Collection<Integer> ids = inv.getArgument(0);
+            return repositoryList.stream().filter(a -> ids.contains(a.getId())).collect(Collectors.toList());
+        });
 
         when(buildCoordinator.getSubmittedBuildTasks()).thenReturn(runningBuilds);
         when(sortInfoProducer.getSortInfo(any(), any())).thenAnswer(i -> mock(SortInfo.class));
@@ -368,6 +385,56 @@ public class BuildProviderImplTest extends AbstractIntIdProviderTest<BuildRecord
         testPage(2, 10);
     }
 
+    @Test
+    public void testGetBuildsWithPageCursor() {
+        // Prepare
+        BuildRecord build8 = mockBuildRecord();
+        BuildTask build7 = mockBuildTask();
+        BuildRecord build6 = mockBuildRecord();
+        BuildTask build5 = mockBuildTask();
+        BuildRecord build4 = mockBuildRecord();
+        BuildTask build3 = mockBuildTask();
+        BuildRecord build2 = mockBuildRecord();
+        BuildTask build1 = mockBuildTask();
+        when(repository.queryWithPredicatesAfter(any(), any(), anyInt(), any())).thenAnswer(inv -> {
+            Date submitTime = inv.getArgument(0);
+            Integer id = inv.getArgument(1);
+            int pageSize = inv.getArgument(2);
+            return repositoryList.stream()
+                    .filter(
+                            br -> br.getSubmitTime().before(submitTime)
+                                    || (br.getSubmitTime().equals(submitTime) && br.getId() < id))
+                    .limit(pageSize)
+                    .collect(Collectors.toList());
+        });
+
+        // When
+        Page<Build> first = provider.getBuilds(new BuildPageInfo(0, 3, "", "", false, false, ""));
+        Page<Build> second = provider
+                .getBuilds(new BuildPageInfo(0, 3, "", "", false, false, "", first.getNextPageCursor()));
+        Page<Build> third = provider
+                .getBuilds(new BuildPageInfo(0, 3, "", "", false, false, "", second.getNextPageCursor()));
+
+        // Verify
+        assertThat(first.getContent()).extracting(Build::getId)
+                .containsExactly(toId(build1.getId()), toId(build2.getId()), toId(build3.getId()));
+        assertThat(second.getContent()).extracting(Build::getId)
+                .containsExactly(toId(build4.getId()), toId(build5.getId()), toId(build6.getId()));
+        assertEquals(-1, second.getTotalHits());
+        assertThat(third.getContent()).extracting(Build::getId)
+                .containsExactly(toId(build7.getId()), toId(build8.getId()));
+        assertThat(third.getNextPageCursor()).isNull();
+    }
+
+    @Test(expected = InvalidEntityException.class)
+    public void testGetBuildsWithInvalidPageCursor() {
+        provider.getBuilds(new BuildPageInfo(0, 3, "", "", false, false, "", "not a cursor"));
+    }
+
+    private static String toId(Integer id) {
+        return BuildMapper.idMapper.toDto(id);
+    }
+
     private void testPage(int idx, int size, Integer... ids) {
         BuildPageInfo pageInfo = new BuildPageInfo(idx, size, "", "", false, false, "");
         Page<Build> builds = provider.getBuilds(pageInfo);
@@ -471,6 +538,7 @@ public class BuildProviderImplTest extends AbstractIntIdProviderTest<BuildRecord
                         new Condition<>(
                                 b -> buildRecord3.getSubmitTime().toInstant().equals(b.getSubmitTime()),
                                 "Build present"));
+        verify(buildBCRevisionFetcher).prefetch(any());
     }
 
     @Test
@@ -614,6 +682,34 @@ public class BuildProviderImplTest extends AbstractIntIdProviderTest<BuildRecord
         wireMockServer.stop();
     }
 
+    @Test
+    public void shouldReadBuildLogFromBuildRecordWhenNotStored() throws IOException {
+        // given
+        BuildRecord buildRecord = mockBuildRecord();
+        buildRecord.setBuildLog("[INFO] BUILD SUCCESS");
+        when(buildLogStore.getSize(buildRecord.getId())).thenReturn(Optional.empty());
+
+        // when
+        InputStream buildLog = provider.getBuildLog(BuildMapper.idMapper.toDto(buildRecord.getId()), 7);
+
+        // then
+        assertThat(IoUtils.readStreamAsString(buildLog)).isEqualTo("BUILD SUCCESS");
+    }
+
+    @Test
+    public void shouldReadStoredBuildLog() throws IOException {
+        // given
+        BuildRecord buildRecord = mockBuildRecord();
+        InputStream storedLog = new ByteArrayInputStream("BUILD SUCCESS".getBytes(StandardCharsets.UTF_8));
+        when(buildLogStore.getSize(buildRecord.getId())).thenReturn(Optional.of(20L));
+        when(buildLogStore.read(buildRecord.getId(), 7)).thenReturn(storedLog);
+        String buildId = BuildMapper.idMapper.toDto(buildRecord.getId());
+
+        // then
+        assertThat(provider.getBuildLogSize(buildId)).isEqualTo(20L);
+        assertThat(provider.getBuildLog(buildId, 7)).isSameAs(storedLog);
+    }
+
     private BuildTask mockBuildTaskWithSet(BuildSetTask buildSetTask) {
         BuildTask task = mockBuildTask();
         when(task.getBuildSetTask()).thenReturn(buildSetTask);
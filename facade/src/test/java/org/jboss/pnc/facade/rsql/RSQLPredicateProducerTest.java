@@ -17,6 +17,9 @@
  */
 package org.jboss.pnc.facade.rsql;
 
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.ast.Node;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
 import org.jboss.pnc.dto.BuildConfiguration;
 import org.jboss.pnc.dto.Project;
 import org.jboss.pnc.facade.rsql.mapper.UniversalRSQLMapper;
@@ -46,11 +49,13 @@ import javax.persistence.criteria.Root;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.fail;
 
 /**
@@ -178,6 +183,30 @@ public class RSQLPredicateProducerTest {
         }
     }
 
+    @Test
+    public void testStreamPredicateOperators() {
+        Project projBar = Project.builder().name("Bar Project").build();
+        BuildConfiguration fooBar = BuildConfiguration.builder().id("3").name("FooBar").project(projBar).build();
+        BuildConfiguration fooBaz = BuildConfiguration.builder().id("5").name("FooBaz").description("baz").build();
+        List<BuildConfiguration> configs = Arrays.asList(fooBar, fooBaz);
+
+        String[] queries = { "name=like=\"%Bar\"", "name=notlike=\"Foo_a%\"", "name=in=(FooBaz,Foo)",
+                "name=out=(FooBaz,Foo)", "description=isnull=true", "description=isnull=false",
+                "project.name=isnull=true", "project.name!=\"Bar Project\"", "id=gt=4", "id=lt=4",
+                "name==FooBar,description==baz", "name==FooBar;description==baz" };
+        for (String query : queries) {
+            Predicate<BuildConfiguration> compiled = producer.getStreamPredicate(query);
+            List<BuildConfiguration> filtered = configs.stream().filter(compiled).collect(Collectors.toList());
+            assertEquals(query, filterWithTraveller(configs, query), filtered);
+        }
+    }
+
+    @Test
+    public void testCompiledQueriesAreCached() {
+        assertSame(producer.getStreamPredicate("name==FooBar"), producer.getStreamPredicate("name==FooBar"));
+        assertSame(producer.getComparator("=desc=id"), producer.getComparator("=desc=id"));
+    }
+
     @Test
     public void testComparator() {
         Comparator<BuildConfiguration> comparator = producer.getComparator("=desc=id");
@@ -216,6 +245,24 @@ public class RSQLPredicateProducerTest {
         }
     }
 
+    private static List<BuildConfiguration> filterWithTraveller(List<BuildConfiguration> configs, String query) {
+        Node rootNode = new RSQLParser(
+                new HashSet<>(
+                        Arrays.asList(
+                                RSQLOperators.EQUAL,
+                                RSQLOperators.NOT_EQUAL,
+                                RSQLOperators.GREATER_THAN,
+                                RSQLOperators.LESS_THAN,
+                                RSQLOperators.IN,
+                                RSQLOperators.NOT_IN,
+                                RSQLProducerImpl.LIKE,
+                                RSQLProducerImpl.NOT_LIKE,
+                                RSQLProducerImpl.IS_NULL))).parse(query);
+        return configs.stream()
+                .filter(config -> rootNode.accept(new StreamRSQLNodeTraveller(config)))
+                .collect(Collectors.toList());
+    }
+
     private Answer<Path<?>> callBuildRecordPath() {
         return new Answer<Path<?>>() {
             @Override
@@ -0,0 +1,127 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.facade.rsql;
+
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.Node;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.jboss.pnc.dto.BuildConfiguration;
+import org.jboss.pnc.dto.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares filtering and sorting of DTO streams by the compiled predicates and comparators of {@link RSQLProducerImpl}
+ * with the reflection based {@link StreamRSQLNodeTraveller} and {@link ComparatorRSQLNodeTraveller}. It is not run as
+ * part of the test suite; run it from the test classpath with {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RSQLStreamBenchmark {
+
+    private static final String QUERY = "project.name==\"Project 7\",name=like=\"%-1_\";id=gt=100";
+    private static final String SORT = "=desc=name";
+
+    @Param({ "100", "1000" })
+    int size;
+
+    private List<BuildConfiguration> configurations;
+
+    private RSQLProducerImpl producer;
+
+    private Node queryNode;
+
+    private Comparator<BuildConfiguration> travellerComparator;
+
+    @Setup
+    public void setup() {
+        configurations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Project project = Project.builder().id(Integer.toString(i % 10)).name("Project " + i % 10).build();
+            configurations.add(
+                    BuildConfiguration.builder()
+                            .id(Integer.toString(i))
+                            .name("configuration-" + i)
+                            .project(project)
+                            .build());
+        }
+        Collections.shuffle(configurations);
+
+        producer = new RSQLProducerImpl();
+
+        Set<ComparisonOperator> operators = RSQLOperators.defaultOperators();
+        operators.add(RSQLProducerImpl.LIKE);
+        operators.add(RSQLProducerImpl.NOT_LIKE);
+        operators.add(RSQLProducerImpl.IS_NULL);
+        queryNode = new RSQLParser(operators).parse(QUERY);
+
+        travellerComparator = new RSQLParser(Collections.singleton(RSQLProducerImpl.DESC)).parse("sort" + SORT)
+                .accept(new ComparatorRSQLNodeTraveller<>());
+    }
+
+    @Benchmark
+    public List<BuildConfiguration> filterCompiled() {
+        return configurations.stream().filter(producer.getStreamPredicate(QUERY)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BuildConfiguration> filterTraveller() {
+        return configurations.stream()
+                .filter(c -> queryNode.accept(new StreamRSQLNodeTraveller(c)))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BuildConfiguration> sortCompiled() {
+        return configurations.stream().sorted(producer.getComparator(SORT)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BuildConfiguration> sortTraveller() {
+        return configurations.stream().sorted(travellerComparator).collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RSQLStreamBenchmark.class.getSimpleName()).build()).run();
+    }
+}
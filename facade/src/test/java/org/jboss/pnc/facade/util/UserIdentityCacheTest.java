@@ -0,0 +1,129 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.facade.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserIdentityCacheTest {
+
+    private final AtomicLong time = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final UserIdentityCache cache = new UserIdentityCache(1000, 3, time::get);
+
+    @Test
+    public void shouldCacheUserIdUntilExpired() {
+        assertThat(cache.getUserId("sub-1", "user", () -> load(1))).isEqualTo(1);
+        time.set(999);
+        assertThat(cache.getUserId("sub-1", "user", () -> load(2))).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(1);
+
+        time.set(1000);
+        assertThat(cache.getUserId("sub-1", "user", () -> load(2))).isEqualTo(2);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldKeyBySubjectAndUsername() {
+        cache.getUserId("sub-1", "user", () -> load(1));
+        assertThat(cache.getUserId("sub-2", "user", () -> load(2))).isEqualTo(2);
+        assertThat(cache.getUserId("sub-1", "other", () -> load(3))).isEqualTo(3);
+
+        cache.invalidate("sub-1", "user");
+        assertThat(cache.getUserId("sub-1", "user", () -> load(4))).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldNotCacheFailedLoad() {
+        assertThatThrownBy(() -> cache.getUserId("sub-1", "user", () -> {
+            throw new IllegalStateException("DB down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.getUserId("sub-1", "user", () -> load(1))).isEqualTo(1);
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldStayBounded() {
+        for (int i = 0; i < 10; i++) {
+            time.incrementAndGet();
+            cache.getUserId("sub-" + i, "user-" + i, () -> load(1));
+        }
+        assertThat(cache.getSize()).isEqualTo(3);
+        // the latest identities are kept
+        cache.getUserId("sub-9", "user-9", () -> load(2));
+        assertThat(loads.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldLoadOnceForConcurrentRequests() throws Exception {
+        int threads = 8;
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.getUserId("sub-1", "user", () -> {
+                loading.countDown();
+                await(release);
+                return load(42);
+            })));
+            loading.await(5, TimeUnit.SECONDS);
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> cache.getUserId("sub-1", "user", () -> load(-1))));
+            }
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Integer load(int userId) {
+        loads.incrementAndGet();
+        return userId;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -60,6 +60,7 @@ import javax.validation.ValidatorFactory;
 import java.io.File;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -68,7 +69,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.commonjava.indy.model.core.GenericPackageTypeDescriptor.GENERIC_PKG_KEY;
 import static org.commonjava.indy.pkg.maven.model.MavenPackageTypeDescriptor.MAVEN_PKG_KEY;
@@ -109,6 +114,27 @@ public class IndyRepositorySession implements RepositorySession {
 
     private String buildPromotionTarget;
 
+    /**
+     * Number of tracked entries processed by a single task.
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * Executor shared by the sessions of the driver, used to process tracked entries.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Executor shared by the sessions of the driver, used to run promotions. It is separate from the processing
+     * executor, so the promotions of one build don't hold up the processing of the others.
+     */
+    private final ExecutorService promotionExecutor;
+
+    /**
+     * Maximum number of promotion requests of this session running at a time.
+     */
+    private final int promotionParallelism;
+
     private static Set<String> checksumSuffixes;
     static {
         checksumSuffixes = new HashSet<>(4);
@@ -126,7 +152,10 @@ public class IndyRepositorySession implements RepositorySession {
             IndyRepositoryConnectionInfo info,
             ArtifactFilter artifactFilter,
             String buildPromotionTarget,
-            boolean isTempBuild) {
+            boolean isTempBuild,
+            ExecutorService executor,
+            ExecutorService promotionExecutor,
+            int promotionParallelism) {
         this.validator = validatorFactory.getValidator();
         this.indy = indy;
         this.serviceAccountIndy = serviceAccountIndy;
@@ -136,6 +165,9 @@ public class IndyRepositorySession implements RepositorySession {
         this.connectionInfo = info;
         this.buildPromotionTarget = buildPromotionTarget;
         this.isTempBuild = isTempBuild;
+        this.executor = executor;
+        this.promotionExecutor = promotionExecutor;
+        this.promotionParallelism = Math.max(1, promotionParallelism);
     }
 
     @Override
@@ -306,11 +338,18 @@ public class IndyRepositorySession implements RepositorySession {
         if (CollectionUtils.isEmpty(downloads)) {
             deps = Collections.emptyList();
         } else {
+            // nothing is promoted when any of the downloaded artifacts is invalid
             deps = collectDownloadedArtifacts(report);
-
             if (promote) {
                 Map<StoreKey, Map<StoreKey, Set<String>>> depMap = collectDownloadsPromotionMap(downloads);
-                promoteDownloads(depMap);
+                List<Future<Void>> promotions = promoteDownloads(depMap);
+                try {
+                    for (Future<Void> promotion : promotions) {
+                        await(promotion);
+                    }
+                } finally {
+                    promotions.forEach(promotion -> promotion.cancel(true));
+                }
             }
         }
 
@@ -329,9 +368,7 @@ public class IndyRepositorySession implements RepositorySession {
                     e.getMessage());
         }
 
-        Set<TrackedContentEntryDTO> downloads = report.getDownloads();
-        List<Artifact> deps = new ArrayList<>(downloads.size());
-        for (TrackedContentEntryDTO download : downloads) {
+        return processInChunks(report.getDownloads(), download -> {
             String path = download.getPath();
             if (artifactFilter.acceptsForData(download)) {
                 String identifier = computeIdentifier(download);
@@ -358,11 +395,10 @@ public class IndyRepositorySession implements RepositorySession {
                         .identifier(identifier)
                         .targetRepository(targetRepository);
 
-                Artifact artifact = validateArtifact(artifactBuilder.build());
-                deps.add(artifact);
+                return validateArtifact(artifactBuilder.build());
             }
-        }
-        return deps;
+            return null;
+        });
     }
 
     private Map<StoreKey, Map<StoreKey, Set<String>>> collectDownloadsPromotionMap(
@@ -421,55 +457,86 @@ public class IndyRepositorySession implements RepositorySession {
     }
 
     /**
-     * Promotes by path downloads captured in given map. The key in the map is promotion target store key. The value is
-     * another map, where key is promotion source store key and value is list of paths to be promoted.
+     * Starts promotion by path of downloads captured in given map. The key in the map is promotion target store key.
+     * The value is another map, where key is promotion source store key and value is list of paths to be promoted.
+     * Requests are distributed over at most {@link #promotionParallelism} lanes, each lane runs its requests one after
+     * another and stops when any of the requests fails.
      *
      * @param depMap dependencies map
-     * @throws RepositoryManagerException in case of an unexpected error during promotion
-     * @throws PromotionValidationException when the promotion process results in an error due to validation failure
+     * @return one future per lane, completed exceptionally with {@link RepositoryManagerException} in case of an
+     *         unexpected error during promotion or with {@link PromotionValidationException} when the promotion process
+     *         results in an error due to validation failure
      */
-    private void promoteDownloads(Map<StoreKey, Map<StoreKey, Set<String>>> depMap)
-            throws RepositoryManagerException, PromotionValidationException {
+    private List<Future<Void>> promoteDownloads(Map<StoreKey, Map<StoreKey, Set<String>>> depMap) {
+        List<PathsPromoteRequest> requests = new ArrayList<>();
         for (Map.Entry<StoreKey, Map<StoreKey, Set<String>>> targetToSources : depMap.entrySet()) {
             StoreKey target = targetToSources.getKey();
             for (Map.Entry<StoreKey, Set<String>> sourceToPaths : targetToSources.getValue().entrySet()) {
                 StoreKey source = sourceToPaths.getKey();
-                PathsPromoteRequest req = new PathsPromoteRequest(source, target, sourceToPaths.getValue())
-                        .setPurgeSource(false);
-                // set read-only only the generic http proxy hosted repos, not shared-imports
-                boolean readonly = !isTempBuild && GENERIC_PKG_KEY.equals(target.getPackageType());
+                requests.add(new PathsPromoteRequest(source, target, sourceToPaths.getValue()).setPurgeSource(false));
+            }
+        }
 
-                StopWatch stopWatchDoPromote = StopWatch.createStarted();
-                try {
-                    logger.info(
-                            "BEGIN: doPromoteByPath: source: '{}', target: '{}', readonly: {}",
-                            req.getSource().toString(),
-                            req.getTarget().toString(),
-                            readonly);
-                    userLog.info(
-                            "Promoting {} dependencies from {} to {}",
-                            req.getPaths().size(),
-                            req.getSource(),
-                            req.getTarget());
-
-                    doPromoteByPath(req, false, readonly);
-
-                    logger.info(
-                            "END: doPromoteByPath: source: '{}', target: '{}', readonly: {}, took: {} seconds",
-                            req.getSource().toString(),
-                            req.getTarget().toString(),
-                            readonly,
-                            stopWatchDoPromote.getTime(TimeUnit.SECONDS));
-                } catch (RepositoryManagerException ex) {
-                    logger.info(
-                            "END: doPromoteByPath: source: '{}', target: '{}', readonly: {}, took: {} seconds",
-                            req.getSource().toString(),
-                            req.getTarget().toString(),
-                            readonly,
-                            stopWatchDoPromote.getTime(TimeUnit.SECONDS));
-                    throw ex;
-                }
+        int lanes = Math.min(promotionParallelism, requests.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<Void>> promotions = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            List<PathsPromoteRequest> laneRequests = new ArrayList<>();
+            for (int i = lane; i < requests.size(); i += lanes) {
+                laneRequests.add(requests.get(i));
             }
+            promotions.add(promotionExecutor.submit(() -> {
+                for (PathsPromoteRequest req : laneRequests) {
+                    if (failed.get()) {
+                        break;
+                    }
+                    try {
+                        promoteDownloads(req);
+                    } catch (RepositoryManagerException | PromotionValidationException | RuntimeException ex) {
+                        failed.set(true);
+                        throw ex;
+                    }
+                }
+                return null;
+            }));
+        }
+        return promotions;
+    }
+
+    private void promoteDownloads(PathsPromoteRequest req)
+            throws RepositoryManagerException, PromotionValidationException {
+        // set read-only only the generic http proxy hosted repos, not shared-imports
+        boolean readonly = !isTempBuild && GENERIC_PKG_KEY.equals(req.getTarget().getPackageType());
+
+        StopWatch stopWatchDoPromote = StopWatch.createStarted();
+        try {
+            logger.info(
+                    "BEGIN: doPromoteByPath: source: '{}', target: '{}', readonly: {}",
+                    req.getSource().toString(),
+                    req.getTarget().toString(),
+                    readonly);
+            userLog.info(
+                    "Promoting {} dependencies from {} to {}",
+                    req.getPaths().size(),
+                    req.getSource(),
+                    req.getTarget());
+
+            doPromoteByPath(req, false, readonly);
+
+            logger.info(
+                    "END: doPromoteByPath: source: '{}', target: '{}', readonly: {}, took: {} seconds",
+                    req.getSource().toString(),
+                    req.getTarget().toString(),
+                    readonly,
+                    stopWatchDoPromote.getTime(TimeUnit.SECONDS));
+        } catch (RepositoryManagerException ex) {
+            logger.info(
+                    "END: doPromoteByPath: source: '{}', target: '{}', readonly: {}, took: {} seconds",
+                    req.getSource().toString(),
+                    req.getTarget().toString(),
+                    readonly,
+                    stopWatchDoPromote.getTime(TimeUnit.SECONDS));
+            throw ex;
         }
     }
 
@@ -595,7 +662,6 @@ public class IndyRepositorySession implements RepositorySession {
             data = Collections.emptyList();
             promotion = Collections.emptyList();
         } else {
-            data = new ArrayList<>();
             Set<String> promotionSet = new HashSet<>();
 
             IndyContentClientModule content;
@@ -608,7 +674,7 @@ public class IndyRepositorySession implements RepositorySession {
                         e.getMessage());
             }
 
-            for (TrackedContentEntryDTO upload : uploads) {
+            data = processInChunks(uploads, upload -> {
                 String path = upload.getPath();
                 StoreKey storeKey = upload.getStoreKey();
 
@@ -632,10 +698,14 @@ public class IndyRepositorySession implements RepositorySession {
                             .targetRepository(targetRepository)
                             .artifactQuality(artifactQuality);
 
-                    Artifact artifact = validateArtifact(artifactBuilder.build());
-                    data.add(artifact);
+                    return validateArtifact(artifactBuilder.build());
                 }
+                return null;
+            });
 
+            for (TrackedContentEntryDTO upload : uploads) {
+                String path = upload.getPath();
+                StoreKey storeKey = upload.getStoreKey();
                 if (artifactFilter.acceptsForPromotion(upload, false)) {
                     promotionSet.add(path);
                     if (MAVEN_PKG_KEY.equals(storeKey.getPackageType()) && !isChecksum(path)) {
@@ -724,6 +794,79 @@ public class IndyRepositorySession implements RepositorySession {
         return identifier;
     }
 
+    /**
+     * Processes the entries in chunks of {@link #CHUNK_SIZE} in parallel. Entries for which the processor returns null
+     * are skipped.
+     *
+     * @param entries tracked downloads or uploads
+     * @param processor maps an entry to the result, it must be thread safe
+     * @return results of all the chunks
+     * @throws RepositoryManagerException when the processor fails for any of the entries
+     */
+    private <T> List<T> processInChunks(Collection<TrackedContentEntryDTO> entries, EntryProcessor<T> processor)
+            throws RepositoryManagerException {
+        List<TrackedContentEntryDTO> entryList = new ArrayList<>(entries);
+        List<Future<List<T>>> chunks = new ArrayList<>();
+        for (int from = 0; from < entryList.size(); from += CHUNK_SIZE) {
+            List<TrackedContentEntryDTO> chunk = entryList.subList(from, Math.min(from + CHUNK_SIZE, entryList.size()));
+            chunks.add(executor.submit(() -> {
+                List<T> processed = new ArrayList<>(chunk.size());
+                for (TrackedContentEntryDTO entry : chunk) {
+                    T result = processor.process(entry);
+                    if (result != null) {
+                        processed.add(result);
+                    }
+                }
+                return processed;
+            }));
+        }
+
+        List<T> results = new ArrayList<>(entryList.size());
+        try {
+            for (Future<List<T>> chunk : chunks) {
+                results.addAll(awaitProcessing(chunk));
+            }
+        } finally {
+            chunks.forEach(chunk -> chunk.cancel(true));
+        }
+        return results;
+    }
+
+    private <T> T awaitProcessing(Future<T> future) throws RepositoryManagerException {
+        try {
+            return await(future);
+        } catch (PromotionValidationException e) {
+            // processors don't promote
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Waits for the task and rethrows its failure.
+     */
+    private <T> T await(Future<T> future) throws RepositoryManagerException, PromotionValidationException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryManagerException("Interrupted while processing artifacts of %s.", e, buildContentId);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RepositoryManagerException) {
+                throw (RepositoryManagerException) cause;
+            } else if (cause instanceof PromotionValidationException) {
+                throw (PromotionValidationException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RepositoryManagerException(
+                    "Failed to process artifacts of %s. Reason: %s",
+                    cause,
+                    buildContentId,
+                    cause.getMessage());
+        }
+    }
+
     /**
      * Check artifact for any validation errors. If there are constraint violations, then a RepositoryManagerException
      * is thrown. Otherwise the artifact is returned.
@@ -911,6 +1054,12 @@ public class IndyRepositorySession implements RepositorySession {
         IOUtils.closeQuietly(serviceAccountIndy);
     }
 
+    @FunctionalInterface
+    private interface EntryProcessor<T> {
+
+        T process(TrackedContentEntryDTO entry) throws RepositoryManagerException;
+    }
+
     private class Uploads {
 
         /** List of artifacts to be stored in DB. */
@@ -36,6 +36,8 @@ import org.commonjava.indy.promote.client.IndyPromoteClientModule;
 import org.commonjava.util.jhttpc.model.SiteConfig;
 import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
 import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.common.concurrent.MDCExecutors;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
 import org.jboss.pnc.common.json.ConfigurationParseException;
 import org.jboss.pnc.common.json.GlobalModuleGroup;
 import org.jboss.pnc.common.json.moduleconfig.IndyRepoDriverModuleConfig;
@@ -58,6 +60,7 @@ import org.jboss.pnc.spi.repositorymanager.model.RunningRepositoryPromotion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -67,6 +70,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import static org.commonjava.indy.pkg.maven.model.MavenPackageTypeDescriptor.MAVEN_PKG_KEY;
@@ -108,6 +112,12 @@ public class RepositoryManagerDriver implements RepositoryManager {
 
     private BuildRecordRepository buildRecordRepository;
 
+    private int promotionParallelism;
+
+    private ExecutorService artifactProcessingExecutor;
+
+    private ExecutorService promotionExecutor;
+
     @Deprecated
     public RepositoryManagerDriver() { // workaround for CDI constructor parameter injection bug
         this.DEFAULT_REQUEST_TIMEOUT = 0;
@@ -130,6 +140,13 @@ public class RepositoryManagerDriver implements RepositoryManager {
         this.DEFAULT_REQUEST_TIMEOUT = indyDriverConfig.getDefaultRequestTimeout();
         this.BUILD_PROMOTION_TARGET = indyDriverConfig.getBuildPromotionTarget();
         this.TEMP_BUILD_PROMOTION_TARGET = indyDriverConfig.getTempBuildPromotionTarget();
+        this.promotionParallelism = indyDriverConfig.getPromotionParallelism();
+        this.artifactProcessingExecutor = MDCExecutors.newFixedThreadPool(
+                indyDriverConfig.getArtifactProcessingThreadPoolSize(),
+                new NamedThreadFactory("indy-artifact-processing"));
+        this.promotionExecutor = MDCExecutors.newFixedThreadPool(
+                indyDriverConfig.getPromotionThreadPoolSize(),
+                new NamedThreadFactory("indy-promotion"));
 
         baseUrl = StringUtils.stripEnd(globalConfig.getIndyUrl(), "/");
         if (!baseUrl.endsWith("/api")) {
@@ -158,6 +175,16 @@ public class RepositoryManagerDriver implements RepositoryManager {
         }
     }
 
+    @PreDestroy
+    public void destroy() {
+        if (artifactProcessingExecutor != null) {
+            artifactProcessingExecutor.shutdownNow();
+        }
+        if (promotionExecutor != null) {
+            promotionExecutor.shutdownNow();
+        }
+    }
+
     private synchronized Indy init(String accessToken) {
         IndyClientAuthenticator authenticator = null;
         if (accessToken != null) {
@@ -166,8 +193,8 @@ public class RepositoryManagerDriver implements RepositoryManager {
         try {
             SiteConfig siteConfig = new SiteConfigBuilder("indy", baseUrl)
                     .withRequestTimeoutSeconds(DEFAULT_REQUEST_TIMEOUT)
-                    // this client is used in single build, we don't need more than 1 connection at a time
-                    .withMaxConnections(1)
+                    // this client is used in single build, only the promotions of the build run concurrently
+                    .withMaxConnections(promotionParallelism)
                     .build();
 
             IndyClientModule[] modules = new IndyClientModule[] { new IndyFoloAdminClientModule(),
@@ -257,7 +284,10 @@ public class RepositoryManagerDriver implements RepositoryManager {
                 new IndyRepositoryConnectionInfo(url, deployUrl),
                 artifactFilter,
                 buildPromotionTarget,
-                tempBuild);
+                tempBuild,
+                artifactProcessingExecutor,
+                promotionExecutor,
+                promotionParallelism);
     }
 
     private String getIndyPackageTypeKey(RepositoryType repoType) {
@@ -300,7 +330,10 @@ public class RepositoryManagerDriver implements RepositoryManager {
                 null,
                 artifactFilter,
                 buildPromotionTarget,
-                tempBuild);
+                tempBuild,
+                artifactProcessingExecutor,
+                promotionExecutor,
+                promotionParallelism);
         return session.extractBuildArtifacts(false);
     }
 
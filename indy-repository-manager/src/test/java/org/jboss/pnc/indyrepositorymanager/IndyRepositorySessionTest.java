@@ -0,0 +1,204 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.indyrepositorymanager;
+
+import org.commonjava.indy.client.core.Indy;
+import org.commonjava.indy.client.core.module.IndyContentClientModule;
+import org.commonjava.indy.client.core.module.IndyStoresClientModule;
+import org.commonjava.indy.folo.client.IndyFoloAdminClientModule;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.folo.dto.TrackedContentEntryDTO;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.commonjava.indy.promote.client.IndyPromoteClientModule;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+import org.jboss.pnc.spi.coordinator.CompletionStatus;
+import org.jboss.pnc.spi.repositorymanager.RepositoryManagerException;
+import org.jboss.pnc.spi.repositorymanager.RepositoryManagerResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.commonjava.indy.pkg.maven.model.MavenPackageTypeDescriptor.MAVEN_PKG_KEY;
+import static org.jboss.pnc.indyrepositorymanager.IndyRepositoryConstants.SHARED_IMPORTS_ID;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Processing of the tracking report with a mocked Indy client.
+ */
+public class IndyRepositorySessionTest {
+
+    private static final String BUILD_CONTENT_ID = "build-1";
+
+    private static final StoreKey SHARED_IMPORTS = new StoreKey(MAVEN_PKG_KEY, StoreType.hosted, SHARED_IMPORTS_ID);
+
+    private final Indy indy = mock(Indy.class);
+
+    private final Indy serviceAccountIndy = mock(Indy.class);
+
+    private final IndyFoloAdminClientModule foloAdmin = mock(IndyFoloAdminClientModule.class);
+
+    private final IndyPromoteClientModule promoter = mock(IndyPromoteClientModule.class);
+
+    private final IndyStoresClientModule stores = mock(IndyStoresClientModule.class);
+
+    private final TrackedContentDTO report = mock(TrackedContentDTO.class);
+
+    private final ArtifactFilter artifactFilter = mock(ArtifactFilter.class);
+
+    private ExecutorService executor;
+
+    @Before
+    public void init() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+
+        IndyContentClientModule content = mock(IndyContentClientModule.class);
+        when(content.contentPath(any(StoreKey.class))).thenReturn("content/maven/hosted/" + SHARED_IMPORTS_ID);
+        when(indy.content()).thenReturn(content);
+        when(indy.module(IndyFoloAdminClientModule.class)).thenReturn(foloAdmin);
+        when(foloAdmin.sealTrackingRecord(BUILD_CONTENT_ID)).thenReturn(true);
+        when(foloAdmin.getTrackingReport(BUILD_CONTENT_ID)).thenReturn(report);
+        when(report.getUploads()).thenReturn(Collections.emptySet());
+        when(serviceAccountIndy.module(IndyPromoteClientModule.class)).thenReturn(promoter);
+        when(serviceAccountIndy.stores()).thenReturn(stores);
+
+        when(artifactFilter.acceptsForData(any())).thenReturn(true);
+        when(artifactFilter.acceptsForPromotion(any(), anyBoolean())).thenReturn(true);
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCollectDownloadsInChunksAndPromoteThemPerSource() throws Exception {
+        // given
+        Set<TrackedContentEntryDTO> downloads = new HashSet<>();
+        for (int i = 0; i < 1200; i++) {
+            downloads.add(download(remote("remote-" + i % 3), i, "md5-" + i));
+        }
+        when(report.getDownloads()).thenReturn(downloads);
+        promotionResult(true, null);
+
+        // when
+        RepositoryManagerResult result = session(2).extractBuildArtifacts(true);
+
+        // then
+        assertThat(result.getCompletionStatus()).isEqualTo(CompletionStatus.SUCCESS);
+        assertThat(result.getDependencies()).hasSize(1200);
+        ArgumentCaptor<PathsPromoteRequest> requests = ArgumentCaptor.forClass(PathsPromoteRequest.class);
+        verify(promoter, times(3)).promoteByPath(requests.capture());
+        assertThat(requests.getAllValues()).extracting(PathsPromoteRequest::getTarget).containsOnly(SHARED_IMPORTS);
+        assertThat(requests.getAllValues().stream().map(PathsPromoteRequest::getSource).collect(Collectors.toSet()))
+                .containsExactlyInAnyOrder(remote("remote-0"), remote("remote-1"), remote("remote-2"));
+        // every jar is promoted with its md5 and sha1 checksums
+        assertThat(requests.getAllValues().stream().mapToInt(request -> request.getPaths().size()).sum())
+                .isEqualTo(3 * 1200);
+    }
+
+    @Test
+    public void shouldNotPromoteWhenDownloadedArtifactIsInvalid() throws Exception {
+        // given
+        Set<TrackedContentEntryDTO> downloads = new HashSet<>();
+        downloads.add(download(remote("central"), 1, "md5-1"));
+        downloads.add(download(remote("central"), 2, null));
+        when(report.getDownloads()).thenReturn(downloads);
+        promotionResult(true, null);
+
+        // when, then
+        assertThatThrownBy(() -> session(2).extractBuildArtifacts(true))
+                .isInstanceOf(RepositoryManagerException.class);
+        verify(promoter, never()).promoteByPath(any());
+    }
+
+    @Test
+    public void shouldStopPromotionLaneAfterRejectedPromotion() throws Exception {
+        // given
+        Set<TrackedContentEntryDTO> downloads = new HashSet<>();
+        downloads.add(download(remote("central"), 1, "md5-1"));
+        downloads.add(download(remote("jboss"), 2, "md5-2"));
+        when(report.getDownloads()).thenReturn(downloads);
+        promotionResult(false, "Rejected by validation rule");
+
+        // when
+        RepositoryManagerResult result = session(1).extractBuildArtifacts(true);
+
+        // then
+        assertThat(result.getCompletionStatus()).isEqualTo(CompletionStatus.FAILED);
+        assertThat(result.getLog()).contains("Rejected by validation rule");
+        assertThat(result.getDependencies()).isEmpty();
+        verify(promoter, times(1)).promoteByPath(any());
+    }
+
+    private IndyRepositorySession session(int promotionParallelism) {
+        return new IndyRepositorySession(
+                indy,
+                serviceAccountIndy,
+                BUILD_CONTENT_ID,
+                MAVEN_PKG_KEY,
+                null,
+                artifactFilter,
+                "pnc-builds",
+                false,
+                executor,
+                executor,
+                promotionParallelism);
+    }
+
+    private void promotionResult(boolean succeeded, String error) throws Exception {
+        PathsPromoteResult result = mock(PathsPromoteResult.class);
+        when(result.succeeded()).thenReturn(succeeded);
+        when(result.getError()).thenReturn(error);
+        when(promoter.promoteByPath(any())).thenReturn(result);
+    }
+
+    private static StoreKey remote(String name) {
+        return new StoreKey(MAVEN_PKG_KEY, StoreType.remote, name);
+    }
+
+    private static TrackedContentEntryDTO download(StoreKey source, int index, String md5) {
+        String path = "org/jboss/pnc/dep" + index + "/1.0/dep" + index + "-1.0.jar";
+        TrackedContentEntryDTO download = mock(TrackedContentEntryDTO.class);
+        when(download.getStoreKey()).thenReturn(source);
+        when(download.getPath()).thenReturn(path);
+        when(download.getOriginUrl()).thenReturn("http://repo.example.com/" + path);
+        when(download.getMd5()).thenReturn(md5);
+        when(download.getSha1()).thenReturn("sha1-" + index);
+        when(download.getSha256()).thenReturn("sha256-" + index);
+        when(download.getSize()).thenReturn(1024L);
+        return download;
+    }
+}
@@ -35,10 +35,20 @@ import org.mapstruct.MappingTarget;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * Workaround for NCL-4889 and NCL-5257. This class will fetch the audited Build Config from DB if it is missing from
  * the transient filed in BuildRecord entity and will map it to appropriate fields in the Build DTO.
+ * <p>
+ * The mapped references are cached by the Build Config revision, as the audited revisions don't change. Use
+ * {@link #prefetch(Collection)} before mapping a page of builds to load all the missing revisions in one query.
  *
  * @author jbrazdil
  */
@@ -60,25 +70,105 @@ public class BuildBCRevisionFetcher {
     @Inject
     private BuildConfigurationAuditedRepository bcAuditedRepository;
 
+    /**
+     * Maximum number of Build Config revisions kept in the cache.
+     */
+    static final int CACHE_SIZE = 2000;
+
+    private final Map<IdRev, RevisionRefs> cache = Collections
+            .synchronizedMap(new LinkedHashMap<IdRev, RevisionRefs>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<IdRev, RevisionRefs> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
     @BeforeMapping
     public void mockBrewAttributes(BuildRecord build, @MappingTarget Build.Builder dtoBuilder) {
-        Integer id = build.getBuildConfigurationId();
-        Integer revision = build.getBuildConfigurationRev();
+        IdRev idRev = new IdRev(build.getBuildConfigurationId(), build.getBuildConfigurationRev());
+
+        RevisionRefs refs = cache.get(idRev);
+        if (refs == null) {
+            misses.increment();
+            // If somebody before us already set the BCA we don't need to query it from DB again
+            BuildConfigurationAudited bca = build.getBuildConfigurationAudited();
+            if (bca == null) {
+                bca = bcAuditedRepository.queryById(idRev);
+            }
+            refs = cache(idRev, bca);
+        } else {
+            hits.increment();
+        }
 
-        // If somebody before us already set the BCA we don't need to query it from DB again
-        BuildConfigurationAudited bca = build.getBuildConfigurationAudited();
-        if (bca == null) {
-            bca = bcAuditedRepository.queryById(new IdRev(id, revision));
+        dtoBuilder.buildConfigRevision(refs.bcRevision);
+        dtoBuilder.project(refs.project);
+        dtoBuilder.environment(refs.environment);
+        dtoBuilder.scmRepository(refs.scmRepository);
+    }
+
+    /**
+     * Loads the Build Config revisions of the builds that are neither cached nor set in the build records, using a
+     * single query.
+     *
+     * @param builds builds that are going to be mapped
+     */
+    public void prefetch(Collection<BuildRecord> builds) {
+        Set<IdRev> missing = builds.stream()
+                .filter(build -> build.getBuildConfigurationAudited() == null)
+                .map(build -> new IdRev(build.getBuildConfigurationId(), build.getBuildConfigurationRev()))
+                .filter(idRev -> !cache.containsKey(idRev))
+                .collect(Collectors.toSet());
+        if (missing.isEmpty()) {
+            return;
         }
+        bcAuditedRepository.queryById(missing).forEach(this::cache);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
 
-        BuildConfigurationRevisionRef bcRevision = bcRevisionMapper.toRef(bca);
-        ProjectRef project = projectMapper.toRef(bca.getProject());
-        Environment environment = environmentMapper.toRef(bca.getBuildEnvironment());
-        SCMRepository scmRepository = scmRepositoryMapper.toRef(bca.getRepositoryConfiguration());
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int getSize() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
 
-        dtoBuilder.buildConfigRevision(bcRevision);
-        dtoBuilder.project(project);
-        dtoBuilder.environment(environment);
-        dtoBuilder.scmRepository(scmRepository);
+    private RevisionRefs cache(IdRev idRev, BuildConfigurationAudited bca) {
+        RevisionRefs refs = new RevisionRefs(
+                bcRevisionMapper.toRef(bca),
+                projectMapper.toRef(bca.getProject()),
+                environmentMapper.toRef(bca.getBuildEnvironment()),
+                scmRepositoryMapper.toRef(bca.getRepositoryConfiguration()));
+        cache.put(idRev, refs);
+        return refs;
+    }
+
+    private static final class RevisionRefs {
+
+        private final BuildConfigurationRevisionRef bcRevision;
+        private final ProjectRef project;
+        private final Environment environment;
+        private final SCMRepository scmRepository;
+
+        private RevisionRefs(
+                BuildConfigurationRevisionRef bcRevision,
+                ProjectRef project,
+                Environment environment,
+                SCMRepository scmRepository) {
+            this.bcRevision = bcRevision;
+            this.project = project;
+            this.environment = environment;
+            this.scmRepository = scmRepository;
+        }
     }
 }
@@ -74,7 +74,8 @@ public interface BuildMapper extends EntityMapper<Integer, BuildRecord, Build, B
                     "dependencies", "repourLog", "repourLogMd5", "repourLogSha256", "repourLogSize",
                     "buildRecordPushResults", "buildConfigurationId", "buildConfigurationRev",
                     "buildConfigurationAuditedIdRev", "buildEnvironment", "buildConfigurationAudited",
-                    "buildOutputChecksum", "dependentBuildRecordIds", "dependencyBuildRecordIds", "attributesMap" })
+                    "buildOutputChecksum", "dependentBuildRecordIds", "dependencyBuildRecordIds", "attributesMap",
+                    "buildLogIndexed" })
     Build toDTO(BuildRecord dbEntity);
 
     @Override
@@ -98,7 +99,7 @@ public interface BuildMapper extends EntityMapper<Integer, BuildRecord, Build, B
                     "repourLogMd5", "repourLogSha256", "repourLogSize", "buildRecordPushResults",
                     "buildConfigurationId", "buildConfigurationRev", "buildEnvironment", "buildConfigurationAudited",
                     "dependentBuildRecordIds", "dependencyBuildRecordIds", "user", "attributes", "attributesMap",
-                    "buildConfigurationAuditedIdRev", "buildOutputChecksum", "noRebuildRequired" })
+                    "buildConfigurationAuditedIdRev", "buildOutputChecksum", "noRebuildRequired", "buildLogIndexed" })
     BuildRef toRef(BuildRecord dbEntity);
 
     @Override
@@ -0,0 +1,187 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.mapper;
+
+import org.jboss.pnc.dto.Build;
+import org.jboss.pnc.mapper.api.BuildConfigurationRevisionMapper;
+import org.jboss.pnc.mapper.api.EnvironmentMapper;
+import org.jboss.pnc.mapper.api.ProjectMapper;
+import org.jboss.pnc.mapper.api.SCMRepositoryMapper;
+import org.jboss.pnc.model.BuildConfigurationAudited;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.IdRev;
+import org.jboss.pnc.spi.datastore.repositories.BuildConfigurationAuditedRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuildBCRevisionFetcherTest {
+
+    @Mock
+    private BuildConfigurationRevisionMapper bcRevisionMapper;
+
+    @Mock
+    private ProjectMapper projectMapper;
+
+    @Mock
+    private EnvironmentMapper environmentMapper;
+
+    @Mock
+    private SCMRepositoryMapper scmRepositoryMapper;
+
+    @Mock
+    private BuildConfigurationAuditedRepository bcAuditedRepository;
+
+    @InjectMocks
+    private BuildBCRevisionFetcher fetcher;
+
+    @Test
+    public void shouldPrefetchOnlyMissingRevisionsInOneQuery() {
+        // given
+        mockRevisionsQuery();
+        BuildRecord cached = build(4, true);
+        fetcher.mockBrewAttributes(cached, Build.builder());
+        List<BuildRecord> page = Arrays
+                .asList(build(1, false), build(1, false), build(2, false), build(3, true), cached);
+
+        // when
+        fetcher.prefetch(page);
+        page.forEach(build -> fetcher.mockBrewAttributes(build, Build.builder()));
+
+        // then
+        ArgumentCaptor<Set<IdRev>> prefetched = ArgumentCaptor.forClass(Set.class);
+        verify(bcAuditedRepository, times(1)).queryById(prefetched.capture());
+        assertThat(prefetched.getValue()).containsExactlyInAnyOrder(new IdRev(1, 1), new IdRev(2, 1));
+        verify(bcAuditedRepository, never()).queryById(any(IdRev.class));
+        assertThat(fetcher.getHitCount()).isEqualTo(4);
+        assertThat(fetcher.getMissCount()).isEqualTo(2);
+        assertThat(fetcher.getSize()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldNotQueryWhenThePageIsCached() {
+        // given
+        mockRevisionsQuery();
+        List<BuildRecord> page = Arrays.asList(build(1, false), build(2, false));
+        fetcher.prefetch(page);
+
+        // when
+        fetcher.prefetch(page);
+        page.forEach(build -> fetcher.mockBrewAttributes(build, Build.builder()));
+
+        // then
+        verify(bcAuditedRepository, times(1)).queryById(anySet());
+        verify(bcAuditedRepository, never()).queryById(any(IdRev.class));
+        assertThat(fetcher.getHitCount()).isEqualTo(2);
+        assertThat(fetcher.getMissCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldQuerySingleRevisionWhenNotPrefetched() {
+        // given
+        mockRevisionQuery();
+
+        // when
+        fetcher.mockBrewAttributes(build(1, false), Build.builder());
+        fetcher.mockBrewAttributes(build(1, false), Build.builder());
+
+        // then
+        verify(bcAuditedRepository, times(1)).queryById(any(IdRev.class));
+        assertThat(fetcher.getHitCount()).isEqualTo(1);
+        assertThat(fetcher.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedRevisions() {
+        // given
+        mockRevisionsQuery();
+        mockRevisionQuery();
+        List<BuildRecord> page = new ArrayList<>();
+        for (int i = 1; i <= BuildBCRevisionFetcher.CACHE_SIZE + 1; i++) {
+            page.add(build(i, false));
+        }
+
+        // when
+        fetcher.prefetch(page);
+
+        // then
+        assertThat(fetcher.getSize()).isEqualTo(BuildBCRevisionFetcher.CACHE_SIZE);
+        fetcher.mockBrewAttributes(build(BuildBCRevisionFetcher.CACHE_SIZE + 1, false), Build.builder());
+        verify(bcAuditedRepository, never()).queryById(any(IdRev.class));
+        fetcher.mockBrewAttributes(build(1, false), Build.builder());
+        verify(bcAuditedRepository, times(1)).queryById(new IdRev(1, 1));
+        assertThat(fetcher.getSize()).isEqualTo(BuildBCRevisionFetcher.CACHE_SIZE);
+    }
+
+    private void mockRevisionsQuery() {
+        when(bcAuditedRepository.queryById(anySet())).thenAnswer(invocation -> {
+            Set<IdRev> idRevs = invocation.getArgument(0);
+            Map<IdRev, BuildConfigurationAudited> found = new LinkedHashMap<>();
+            idRevs.stream()
+                    .sorted(Comparator.comparing(IdRev::getId))
+                    .forEach(idRev -> found.put(idRev, audited(idRev.getId(), idRev.getRev())));
+            return found;
+        });
+    }
+
+    private void mockRevisionQuery() {
+        when(bcAuditedRepository.queryById(any(IdRev.class))).thenAnswer(invocation -> {
+            IdRev idRev = invocation.getArgument(0);
+            return audited(idRev.getId(), idRev.getRev());
+        });
+    }
+
+    private static BuildRecord build(int buildConfigurationId, boolean withAudited) {
+        BuildRecord build = new BuildRecord();
+        if (withAudited) {
+            build.setBuildConfigurationAudited(audited(buildConfigurationId, 1));
+        } else {
+            build.setBuildConfigurationId(buildConfigurationId);
+            build.setBuildConfigurationRev(1);
+        }
+        return build;
+    }
+
+    private static BuildConfigurationAudited audited(int id, int rev) {
+        BuildConfigurationAudited audited = new BuildConfigurationAudited();
+        audited.setId(id);
+        audited.setRev(rev);
+        audited.setIdRev(new IdRev(id, rev));
+        return audited;
+    }
+}
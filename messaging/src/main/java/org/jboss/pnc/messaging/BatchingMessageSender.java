@@ -0,0 +1,292 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.messaging;
+
+import org.jboss.pnc.common.concurrent.MDCExecutors;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
+import org.jboss.pnc.common.json.moduleconfig.SystemConfig;
+import org.jboss.pnc.messaging.spi.MessageSender;
+import org.jboss.pnc.messaging.spi.MessagingRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+import javax.jms.JMSException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous message sender that coalesces messages arriving within a short window and sends them in a single
+ * transacted session. Messages are sent in the order they were submitted. Callers only queue the messages, they are
+ * not serialized by the container lock, so a caller waiting for a free slot does not block the others.
+ *
+ * @see DeliveryGuarantee
+ */
+@Singleton
+@Lock(LockType.READ)
+public class BatchingMessageSender extends DefaultMessageSender implements MessageSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingMessageSender.class);
+
+    private static final int MAX_RETRIES = 3;
+
+    private static final long RETRY_DELAY_MILLIS = 500L;
+
+    /**
+     * How long a caller waits for a free slot in the queue when delivery is {@link DeliveryGuarantee#AT_LEAST_ONCE}.
+     */
+    private static final long ENQUEUE_TIMEOUT_SECONDS = 30L;
+
+    private final int queueSize;
+
+    private final int maxBatchSize;
+
+    private final long batchWindowNanos;
+
+    private final DeliveryGuarantee deliveryGuarantee;
+
+    private BlockingQueue<PendingMessage> queue;
+
+    private ExecutorService dispatcher;
+
+    private volatile boolean running;
+
+    /**
+     * Used by the dispatcher thread only.
+     */
+    private PooledProducer transactedProducer;
+
+    public BatchingMessageSender() {
+        this(1000, 100, 10L, DeliveryGuarantee.AT_LEAST_ONCE);
+    }
+
+    public BatchingMessageSender(
+            int queueSize,
+            int maxBatchSize,
+            long batchWindowMillis,
+            DeliveryGuarantee deliveryGuarantee) {
+        this.queueSize = queueSize;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+        this.deliveryGuarantee = deliveryGuarantee;
+    }
+
+    @Inject
+    public BatchingMessageSender(SystemConfig systemConfig) {
+        this(
+                systemConfig.getMessagingInternalQueueSize(),
+                systemConfig.getMessagingBatchSize(),
+                systemConfig.getMessagingBatchWindowMillis(),
+                toDeliveryGuarantee(systemConfig.getMessagingDeliveryGuarantee()));
+    }
+
+    static DeliveryGuarantee toDeliveryGuarantee(String deliveryGuarantee) {
+        if (deliveryGuarantee == null) {
+            return DeliveryGuarantee.AT_LEAST_ONCE;
+        }
+        try {
+            return DeliveryGuarantee.valueOf(deliveryGuarantee);
+        } catch (IllegalArgumentException e) {
+            logger.warn(
+                    "Invalid messaging delivery guarantee: {}. Will use default value: {}",
+                    deliveryGuarantee,
+                    DeliveryGuarantee.AT_LEAST_ONCE);
+            return DeliveryGuarantee.AT_LEAST_ONCE;
+        }
+    }
+
+    @Override
+    public String getMessageSenderId() {
+        return BatchingMessageSender.class.getName();
+    }
+
+    @Override
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueSize);
+        running = true;
+        dispatcher = MDCExecutors.newFixedThreadPool(1, new NamedThreadFactory("jms-batching-sender"));
+        dispatcher.execute(() -> {
+            try {
+                super.init();
+            } catch (MessagingRuntimeException e) {
+                // the connection is re-tried when the first batch is sent
+                logger.error("Cannot connect to JMS.", e);
+            }
+            dispatch();
+        });
+    }
+
+    @Override
+    @PreDestroy
+    public void destroy() {
+        logger.info("Destroying JMS sender.");
+        running = false;
+        dispatcher.shutdown();
+        try {
+            if (!dispatcher.awaitTermination(10, TimeUnit.SECONDS)) {
+                dispatcher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            dispatcher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        List<PendingMessage> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        unsent.forEach(this::logUnsent);
+        if (transactedProducer != null) {
+            transactedProducer.close();
+        }
+        closeConnection();
+        logger.info("JMS sender destroyed.");
+    }
+
+    @Override
+    public void sendToTopic(String message, Map<String, String> headers) {
+        PendingMessage pending = new PendingMessage(message, headers);
+        if (!running) {
+            logUnsent(pending);
+            return;
+        }
+        boolean queued;
+        if (deliveryGuarantee == DeliveryGuarantee.AT_LEAST_ONCE) {
+            try {
+                queued = queue.offer(pending, ENQUEUE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+        } else {
+            queued = queue.offer(pending);
+        }
+        if (!queued) {
+            logUnsent(pending);
+        }
+    }
+
+    private void dispatch() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collectBatch(batch);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                batch.forEach(this::logUnsent);
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<PendingMessage> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + batchWindowNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                return;
+            }
+            PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void sendBatch(List<PendingMessage> batch) throws InterruptedException {
+        int attempt = 0;
+        while (true) {
+            try {
+                sendTransacted(batch);
+                logger.debug("Sent a batch of {} JMS messages.", batch.size());
+                return;
+            } catch (MessagingRuntimeException | JMSException e) {
+                if (transactedProducer != null) {
+                    transactedProducer.close();
+                    transactedProducer = null;
+                }
+                attempt++;
+                if (deliveryGuarantee == DeliveryGuarantee.AT_MOST_ONCE || attempt > MAX_RETRIES) {
+                    logger.error("Unable to send a batch of {} JMS messages.", batch.size(), e);
+                    batch.forEach(this::logUnsent);
+                    return;
+                }
+                logger.warn("Failed to send a batch of {} JMS messages, attempt {}.", batch.size(), attempt, e);
+                TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MILLIS * attempt);
+            }
+        }
+    }
+
+    private void sendTransacted(List<PendingMessage> batch) throws JMSException {
+        if (transactedProducer == null || isStale(transactedProducer)) {
+            if (transactedProducer != null) {
+                transactedProducer.close();
+            }
+            transactedProducer = createProducer(true);
+        }
+        try {
+            for (PendingMessage pending : batch) {
+                sendUsingProducer(
+                        pending.message,
+                        pending.headers,
+                        transactedProducer.session,
+                        transactedProducer.producer);
+            }
+            transactedProducer.session.commit();
+        } catch (MessagingRuntimeException | JMSException e) {
+            try {
+                transactedProducer.session.rollback();
+            } catch (JMSException rollbackException) {
+                logger.warn("Cannot rollback JMS session.", rollbackException);
+            }
+            throw e;
+        }
+    }
+
+    private void logUnsent(PendingMessage pending) {
+        logger.error("Unable to send JMS message. Message: {}, Headers: {}.", pending.message, pending.headers);
+    }
+
+    private static class PendingMessage {
+
+        private final String message;
+
+        private final Map<String, String> headers;
+
+        PendingMessage(String message, Map<String, String> headers) {
+            this.message = message;
+            this.headers = headers;
+        }
+    }
+}
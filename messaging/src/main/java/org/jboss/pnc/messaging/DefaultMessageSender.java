@@ -25,6 +25,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
 import javax.ejb.Singleton;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
@@ -36,11 +38,18 @@ import javax.jms.Session;
 import javax.jms.TextMessage;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
 
 /**
+ * Sends messages synchronously. Sessions and producers are pooled and reused across messages, the pool is dropped
+ * and the connection re-created when the broker reports a connection failure. Messages are sent concurrently, the
+ * connection handling is synchronized by the bean itself.
+ *
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
  */
 @Singleton
+@Lock(LockType.READ)
 public class DefaultMessageSender implements MessageSender {
 
     private Logger logger = LoggerFactory.getLogger(DefaultMessageSender.class);
@@ -53,6 +62,20 @@ public class DefaultMessageSender implements MessageSender {
 
     protected Connection connection;
 
+    /**
+     * Maximum number of idle sessions kept open for reuse.
+     */
+    private static final int MAX_IDLE_PRODUCERS = 8;
+
+    private final BlockingDeque<PooledProducer> idleProducers = new LinkedBlockingDeque<>(MAX_IDLE_PRODUCERS);
+
+    /**
+     * Incremented on each (re)connect, producers created on an older connection are discarded.
+     */
+    private volatile int connectionGeneration;
+
+    private volatile boolean connectionBroken;
+
     @Override
     public String getMessageSenderId() {
         return DefaultMessageSender.class.getName();
@@ -61,23 +84,51 @@ public class DefaultMessageSender implements MessageSender {
     @Override
     public void init() {
         try {
-            connection = connectionFactory.createConnection();
-            logger.info("JMS client ID {}.", connection.getClientID());
-            ExceptionListener internalExceptionListener = e -> {
-                logger.error("JMS exception.", e);
-            };
-            connection.setExceptionListener(internalExceptionListener);
+            connect();
         } catch (Exception e) {
             throw new MessagingRuntimeException("Failed to initialize JMS.", e);
         }
     }
 
+    private synchronized void connect() throws JMSException {
+        connection = connectionFactory.createConnection();
+        logger.info("JMS client ID {}.", connection.getClientID());
+        ExceptionListener internalExceptionListener = e -> {
+            logger.error("JMS exception.", e);
+            connectionBroken = true;
+        };
+        connection.setExceptionListener(internalExceptionListener);
+        connectionGeneration++;
+        connectionBroken = false;
+    }
+
+    /**
+     * Re-creates the connection when the broker reported a failure (or the connection was never established). Pooled
+     * producers of the old connection are discarded.
+     */
+    private synchronized void reconnectIfBroken() {
+        if (connection != null && !connectionBroken) {
+            return;
+        }
+        logger.warn("JMS connection is not available, reconnecting.");
+        closeConnection();
+        try {
+            connect();
+        } catch (JMSException e) {
+            throw new MessagingRuntimeException("Failed to reconnect JMS.", e);
+        }
+    }
+
     @PreDestroy
     public void destroy() {
         closeConnection();
     }
 
     protected void closeConnection() {
+        PooledProducer pooled;
+        while ((pooled = idleProducers.pollFirst()) != null) {
+            pooled.close();
+        }
         if (connection != null) {
             try {
                 connection.close();
@@ -87,6 +138,49 @@ public class DefaultMessageSender implements MessageSender {
         }
     }
 
+    /**
+     * Creates a new session and producer on the current connection.
+     *
+     * @param transacted whether the session is transacted
+     * @throws JMSException
+     */
+    protected PooledProducer createProducer(boolean transacted) throws JMSException {
+        reconnectIfBroken();
+        int generation = connectionGeneration;
+        int acknowledgeMode = transacted ? Session.SESSION_TRANSACTED : Session.AUTO_ACKNOWLEDGE;
+        Session session = connection.createSession(transacted, acknowledgeMode);
+        try {
+            return new PooledProducer(session, session.createProducer(destination), generation);
+        } catch (JMSException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if the producer was created on a connection that has been replaced or has failed since
+     */
+    protected boolean isStale(PooledProducer pooled) {
+        return connectionBroken || pooled.generation != connectionGeneration;
+    }
+
+    private PooledProducer borrowProducer() throws JMSException {
+        PooledProducer pooled;
+        while ((pooled = idleProducers.pollFirst()) != null) {
+            if (!isStale(pooled)) {
+                return pooled;
+            }
+            pooled.close();
+        }
+        return createProducer(false);
+    }
+
+    private void returnProducer(PooledProducer pooled) {
+        if (isStale(pooled) || !idleProducers.offerFirst(pooled)) {
+            pooled.close();
+        }
+    }
+
     @Override
     public void sendToTopic(Message message) {
         sendToTopic(message.toJson());
@@ -113,31 +207,19 @@ public class DefaultMessageSender implements MessageSender {
      * @throws MessagingRuntimeException
      */
     protected void doSendMessage(String message, Map<String, String> headers) {
-        Session session = null;
-        MessageProducer messageProducer = null;
+        PooledProducer pooled = null;
         try {
-            session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-            messageProducer = session.createProducer(destination);
-            sendUsingProducer(message, headers, session, messageProducer);
+            pooled = borrowProducer();
+            sendUsingProducer(message, headers, pooled.session, pooled.producer);
+            returnProducer(pooled);
         } catch (Exception e) {
+            if (pooled != null) {
+                // the session might be unusable after a failed send, don't put it back to the pool
+                pooled.close();
+            }
             throw new MessagingRuntimeException(
                     "Cannot send the message: " + message + "; with headers: " + headers + ".",
                     e);
-        } finally {
-            if (session != null) {
-                try {
-                    session.close();
-                } catch (JMSException e) {
-                    logger.error("Cannot close JMS session.");
-                }
-            }
-            if (messageProducer != null) {
-                try {
-                    messageProducer.close();
-                } catch (JMSException e) {
-                    logger.error("Cannot close JMS messageProducer.");
-                }
-            }
         }
     }
 
@@ -174,4 +256,35 @@ public class DefaultMessageSender implements MessageSender {
             throw new MessagingRuntimeException(e);
         }
     }
+
+    /**
+     * JMS session with its producer. Sessions are not thread safe, a pooled producer is used by one thread at a time.
+     */
+    protected class PooledProducer {
+
+        protected final Session session;
+
+        protected final MessageProducer producer;
+
+        private final int generation;
+
+        PooledProducer(Session session, MessageProducer producer, int generation) {
+            this.session = session;
+            this.producer = producer;
+            this.generation = generation;
+        }
+
+        protected void close() {
+            try {
+                producer.close();
+            } catch (JMSException e) {
+                logger.error("Cannot close JMS messageProducer.");
+            }
+            try {
+                session.close();
+            } catch (JMSException e) {
+                logger.error("Cannot close JMS session.");
+            }
+        }
+    }
 }
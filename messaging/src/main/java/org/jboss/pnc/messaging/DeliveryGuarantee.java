@@ -0,0 +1,35 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.messaging;
+
+/**
+ * Delivery guarantee of the asynchronous message senders.
+ */
+public enum DeliveryGuarantee {
+
+    /**
+     * Failed batches are discarded and the messages logged, a full queue drops new messages.
+     */
+    AT_MOST_ONCE,
+
+    /**
+     * Failed batches are retried, a full queue blocks the sender for a limited time. Messages of a batch that is
+     * retried after a failed commit might be delivered twice.
+     */
+    AT_LEAST_ONCE;
+}
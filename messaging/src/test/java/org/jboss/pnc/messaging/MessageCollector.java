@@ -21,8 +21,8 @@ import lombok.Getter;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.jms.TextMessage;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
@@ -31,7 +31,7 @@ import java.util.Set;
 public class MessageCollector {
 
     @Getter
-    private Set<TextMessage> receivedMessages = new HashSet<>();
+    private Set<TextMessage> receivedMessages = ConcurrentHashMap.newKeySet();
 
     public void add(TextMessage message) {
         receivedMessages.add(message);
@@ -0,0 +1,129 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.messaging;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.pnc.common.concurrent.MDCExecutors;
+import org.jboss.pnc.common.concurrent.MDCThreadPoolExecutor;
+import org.jboss.pnc.common.concurrent.MDCWrappers;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
+import org.jboss.pnc.common.json.AbstractModuleConfig;
+import org.jboss.pnc.common.json.moduleconfig.KeycloakClientConfig;
+import org.jboss.pnc.common.json.moduleconfig.SystemConfig;
+import org.jboss.pnc.messaging.spi.MessageSender;
+import org.jboss.pnc.messaging.spi.MessagingRuntimeException;
+import org.jboss.pnc.test.category.ContainerTest;
+import org.jboss.pnc.test.util.Wait;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.jms.JMSException;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Compares the throughput of the pooled synchronous sender and the batching sender against the embedded broker.
+ */
+@RunWith(Arquillian.class)
+@Category(ContainerTest.class)
+public class MessageSenderThroughputTest extends BaseMessageSenderTest {
+
+    private static Logger logger = LoggerFactory.getLogger(MessageSenderThroughputTest.class);
+
+    private static final int MESSAGES = 2000;
+
+    @Deployment
+    public static Archive<?> deployment() {
+        return getDeployment().addClass(BatchingMessageSender.class)
+                .addClass(DeliveryGuarantee.class)
+                .addClass(SystemConfig.class)
+                .addClass(AbstractModuleConfig.class)
+                .addClass(KeycloakClientConfig.class)
+                .addClass(ThroughputSysConfigProducer.class)
+                .addClass(MDCExecutors.class)
+                .addClass(MDCThreadPoolExecutor.class)
+                .addClass(MDCWrappers.class)
+                .addClass(NamedThreadFactory.class);
+    }
+
+    @Inject
+    Instance<MessageSender> messageSenders;
+
+    @Test
+    public void pooledSenderShouldDeliverAllMessages() throws InterruptedException {
+        measure(DefaultMessageSender.class.getName(), "pooled-");
+    }
+
+    @Test
+    public void batchingSenderShouldDeliverAllMessages() throws InterruptedException {
+        measure(BatchingMessageSender.class.getName(), "batched-");
+    }
+
+    private void measure(String messageSenderId, String prefix) throws InterruptedException {
+        MessageSender messageSender = select(messageSenderId);
+        messageSender.init();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            messageSender.sendToTopic(prefix + i, Collections.singletonMap("index", Integer.toString(i)));
+        }
+        long submitted = System.nanoTime();
+        try {
+            Wait.forCondition(() -> countReceived(prefix) == MESSAGES, 60, ChronoUnit.SECONDS);
+        } catch (TimeoutException e) {
+            Assert.fail("Received only " + countReceived(prefix) + " of " + MESSAGES + " messages.");
+        }
+        long delivered = System.nanoTime();
+
+        logger.info(
+                "{}: submitted {} messages in {} ms, all delivered in {} ms ({} msg/s).",
+                messageSenderId,
+                MESSAGES,
+                (submitted - start) / 1_000_000,
+                (delivered - start) / 1_000_000,
+                MESSAGES * 1_000_000_000L / Math.max(1, delivered - start));
+    }
+
+    private MessageSender select(String messageSenderId) {
+        for (MessageSender sender : messageSenders) {
+            if (sender.getMessageSenderId().equals(messageSenderId)) {
+                return sender;
+            }
+        }
+        throw new AssertionError("Message sender " + messageSenderId + " is not deployed.");
+    }
+
+    private long countReceived(String prefix) {
+        return messageCollector.getReceivedMessages().stream().filter(m -> {
+            try {
+                return m.getText().startsWith(prefix);
+            } catch (JMSException e) {
+                throw new MessagingRuntimeException(e);
+            }
+        }).count();
+    }
+}
@@ -82,8 +82,11 @@ public class Artifact implements GenericEntity<Integer> {
 
     public static final String SEQUENCE_NAME = "artifact_id_seq";
 
+    /**
+     * Ids are allocated in blocks so that artifacts of a build can be inserted in JDBC batches.
+     */
     @Id
-    @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME, initialValue = 100, allocationSize = 1)
+    @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME, initialValue = 100, allocationSize = 50)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
     private Integer id;
 
@@ -20,14 +20,17 @@ package org.jboss.pnc.model;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 
 import javax.persistence.Cacheable;
@@ -374,12 +377,26 @@ public class BuildConfiguration implements GenericEntity<Integer>, Cloneable {
     }
 
     public boolean addDependency(BuildConfiguration dependency) {
+        return addDependency(dependency, BuildConfiguration::dependsOn);
+    }
+
+    /**
+     * Adds the dependency, checking for circular dependencies with the given reachability check instead of walking
+     * the whole dependency graph of the dependency.
+     *
+     * @param dependency the build config to depend on
+     * @param dependsOn returns true if the first build config depends directly or indirectly on the second one
+     * @return true if the dependency was not present yet
+     */
+    public boolean addDependency(
+            BuildConfiguration dependency,
+            BiPredicate<BuildConfiguration, BuildConfiguration> dependsOn) {
         // Don't allow a build config to depend on itself
         if (dependency.getId().equals(this.getId())) {
             throw new PersistenceException("A build configuration cannot depend on itself");
         }
         // Verify that we are not creating a circular dependency
-        if (dependency.getAllDependencies().contains(this)) {
+        if (dependsOn.test(dependency, this)) {
             List<BuildConfiguration> depPath = dependency.dependencyDepthFirstSearch(this);
             String depPathString = depPath.stream().map(dep -> dep.getName()).collect(Collectors.joining(" -> "));
             throw new PersistenceException(
@@ -409,21 +426,15 @@ public class BuildConfiguration implements GenericEntity<Integer>, Cloneable {
      */
     public Set<BuildConfiguration> getIndirectDependencies() {
         Set<BuildConfiguration> indirectDependencies = new HashSet<BuildConfiguration>();
-        List<BuildConfiguration> configsToCheck = new ArrayList<BuildConfiguration>();
-        configsToCheck.addAll(getDependencies());
+        Deque<BuildConfiguration> configsToCheck = new ArrayDeque<BuildConfiguration>(getDependencies());
         while (!configsToCheck.isEmpty()) {
-            BuildConfiguration nextConfig = configsToCheck.get(0);
+            BuildConfiguration nextConfig = configsToCheck.poll();
             for (BuildConfiguration nextDep : nextConfig.getDependencies()) {
-                if (!indirectDependencies.contains(nextDep)) {
-                    // Do not add an indirect dependency multiple times
-                    indirectDependencies.add(nextDep);
-                    // Do not check a config multiple times
-                    if (!configsToCheck.contains(nextDep)) {
-                        configsToCheck.add(nextDep);
-                    }
+                // Do not add an indirect dependency nor check a config multiple times
+                if (indirectDependencies.add(nextDep)) {
+                    configsToCheck.add(nextDep);
                 }
             }
-            configsToCheck.remove(nextConfig);
         }
         return indirectDependencies;
     }
@@ -460,7 +471,8 @@ public class BuildConfiguration implements GenericEntity<Integer>, Cloneable {
     }
 
     /**
-     * Get the full set of both the direct and indirect dependencies.
+     * Get the full set of both the direct and indirect dependencies. The whole dependency graph is walked on every call,
+     * managed build configs should be queried through the application wide dependency index.
      *
      * @return A set containing both direct and indirect dependencies
      */
@@ -0,0 +1,147 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.model;
+
+import javax.persistence.Entity;
+import javax.persistence.ForeignKey;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Entry of the build log search index. There is one entry for every distinct term of a build log, pointing to the first
+ * line of the log containing the term.
+ */
+@Entity
+@Table(
+        indexes = { @Index(name = "idx_buildlogterm_term", columnList = "term"),
+                @Index(name = "idx_buildlogterm_buildrecord", columnList = "buildrecord_id") })
+public class BuildLogTerm implements GenericEntity<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String SEQUENCE_NAME = "build_log_term_id_seq";
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    public static final int MAX_SNIPPET_LENGTH = 255;
+
+    /**
+     * Logs are indexed in bulk, ids are allocated in blocks to avoid a sequence round trip for every term.
+     */
+    @Id
+    @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME, initialValue = 100, allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+    private Long id;
+
+    @NotNull
+    @Size(max = MAX_TERM_LENGTH)
+    private String term;
+
+    @NotNull
+    @ManyToOne
+    @JoinColumn(updatable = false, foreignKey = @ForeignKey(name = "fk_buildlogterm_buildrecord"))
+    private BuildRecord buildRecord;
+
+    /**
+     * Number of the line starting from 1.
+     */
+    private int lineNumber;
+
+    /**
+     * Offset of the line start in bytes, it can be used to read the log from the line.
+     */
+    private long lineOffset;
+
+    @Size(max = MAX_SNIPPET_LENGTH)
+    private String snippet;
+
+    public BuildLogTerm() {
+    }
+
+    public BuildLogTerm(BuildRecord buildRecord, String term, int lineNumber, long lineOffset, String snippet) {
+        this.buildRecord = buildRecord;
+        this.term = term;
+        this.lineNumber = lineNumber;
+        this.lineOffset = lineOffset;
+        this.snippet = snippet;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public void setTerm(String term) {
+        this.term = term;
+    }
+
+    public BuildRecord getBuildRecord() {
+        return buildRecord;
+    }
+
+    public void setBuildRecord(BuildRecord buildRecord) {
+        this.buildRecord = buildRecord;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    public long getLineOffset() {
+        return lineOffset;
+    }
+
+    public void setLineOffset(long lineOffset) {
+        this.lineOffset = lineOffset;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildLogTerm{" + "id=" + id + ", term='" + term + '\'' + ", lineNumber=" + lineNumber
+                + ", lineOffset=" + lineOffset + '}';
+    }
+}
@@ -87,7 +87,8 @@ import static java.nio.charset.StandardCharsets.UTF_8;
                         name = "idx_buildrecord_buildconfiguration_aud",
                         columnList = "buildconfiguration_id,buildconfiguration_rev"),
                 @Index(name = "idx_buildrecord_productmilestone", columnList = "productmilestone_id"),
-                @Index(name = "idx_buildrecord_norebuildcause", columnList = "norebuildcause_id") })
+                @Index(name = "idx_buildrecord_norebuildcause", columnList = "norebuildcause_id"),
+                @Index(name = "idx_buildrecord_submittime_id", columnList = "submittime,id") })
 public class BuildRecord implements GenericEntity<Integer> {
 
     private static final long serialVersionUID = -5472083609387609797L;
@@ -179,6 +180,13 @@ public class BuildRecord implements GenericEntity<Integer> {
     @LazyGroup("buildLog")
     private String buildLog;
 
+    /**
+     * True once the build log is in the build log search index. Set only by the indexer, the saved records never
+     * overwrite it.
+     */
+    @Column(insertable = false, updatable = false, columnDefinition = "boolean default false not null")
+    private boolean buildLogIndexed;
+
     private String buildLogMd5;
 
     private String buildLogSha256;
@@ -485,6 +493,10 @@ public class BuildRecord implements GenericEntity<Integer> {
         this.buildLog = buildLog;
     }
 
+    public boolean isBuildLogIndexed() {
+        return buildLogIndexed;
+    }
+
     /**
      * Gets the status.
      *
@@ -870,6 +882,14 @@ public class BuildRecord implements GenericEntity<Integer> {
 
         private String buildLog = "";
 
+        private boolean buildLogStored;
+
+        private long storedBuildLogSize;
+
+        private String storedBuildLogMd5;
+
+        private String storedBuildLogSha256;
+
         private String buildOutputChecksum;
 
         private BuildStatus status;
@@ -938,8 +958,13 @@ public class BuildRecord implements GenericEntity<Integer> {
             setLogs(buildRecord, sanitizeLogs);
 
             try {
-                buildRecord.setBuildLogMd5(Md5.digest(buildRecord.buildLog));
-                buildRecord.setBuildLogSha256(Sha256.digest(buildRecord.buildLog));
+                if (buildLogStored) {
+                    buildRecord.setBuildLogMd5(storedBuildLogMd5);
+                    buildRecord.setBuildLogSha256(storedBuildLogSha256);
+                } else {
+                    buildRecord.setBuildLogMd5(Md5.digest(buildRecord.buildLog));
+                    buildRecord.setBuildLogSha256(Sha256.digest(buildRecord.buildLog));
+                }
 
                 buildRecord.setRepourLogMd5(Md5.digest(buildRecord.repourLog));
                 buildRecord.setRepourLogSha256(Sha256.digest(buildRecord.repourLog));
@@ -996,7 +1021,9 @@ public class BuildRecord implements GenericEntity<Integer> {
                 }
                 buildRecord.setRepourLogSize(buildRecord.repourLog.getBytes(UTF_8).length);
             }
-            if (buildLog != null) {
+            if (buildLogStored) {
+                buildRecord.setBuildLogSize((int) Math.min(storedBuildLogSize, Integer.MAX_VALUE));
+            } else if (buildLog != null) {
                 if (sanitizeLogs) {
                     buildRecord.setBuildLog(buildLog.replaceAll("\u0000", ""));
                 } else {
@@ -1081,6 +1108,17 @@ public class BuildRecord implements GenericEntity<Integer> {
             return this;
         }
 
+        /**
+         * The build log is kept in the build log store, only its size and checksums are set to the record.
+         */
+        public Builder storedBuildLog(long size, String md5, String sha256) {
+            this.buildLogStored = true;
+            this.storedBuildLogSize = size;
+            this.storedBuildLogMd5 = md5;
+            this.storedBuildLogSha256 = sha256;
+            return this;
+        }
+
         public Builder buildOutputChecksum(String buildOutputChecksum) {
             this.buildOutputChecksum = buildOutputChecksum;
             return this;
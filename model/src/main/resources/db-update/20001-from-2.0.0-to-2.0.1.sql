@@ -0,0 +1,48 @@
+--
+-- JBoss, Home of Professional Open Source.
+-- Copyright 2014-2020 Red Hat, Inc., and individual contributors
+-- as indicated by the @author tags.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+-- http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Seek based pagination of build listings ordered by submitTime and id
+BEGIN transaction;
+    CREATE INDEX idx_buildrecord_submittime_id ON buildrecord (submittime, id);
+COMMIT;
+
+-- Build log search index
+BEGIN transaction;
+    CREATE SEQUENCE build_log_term_id_seq START WITH 100 INCREMENT BY 50;
+    CREATE TABLE buildlogterm (
+        id bigint NOT NULL,
+        term character varying(64) NOT NULL,
+        buildrecord_id integer NOT NULL,
+        linenumber integer NOT NULL,
+        lineoffset bigint NOT NULL,
+        snippet character varying(255),
+        CONSTRAINT buildlogterm_pkey PRIMARY KEY (id),
+        CONSTRAINT fk_buildlogterm_buildrecord FOREIGN KEY (buildrecord_id) REFERENCES buildrecord(id)
+    );
+    -- pattern ops allow the index to be used for the prefix searches (term LIKE 'prefix%')
+    CREATE INDEX idx_buildlogterm_term ON buildlogterm (term varchar_pattern_ops);
+    CREATE INDEX idx_buildlogterm_buildrecord ON buildlogterm (buildrecord_id);
+    ALTER TABLE buildrecord ADD COLUMN buildlogindexed boolean DEFAULT false NOT NULL;
+    -- the backfill looks up the records which are not indexed yet
+    CREATE INDEX idx_buildrecord_buildlog_unindexed ON buildrecord (id) WHERE NOT buildlogindexed;
+COMMIT;
+
+-- Artifact ids are allocated in blocks of 50 (pooled optimizer)
+BEGIN transaction;
+    ALTER SEQUENCE artifact_id_seq INCREMENT BY 50;
+COMMIT;
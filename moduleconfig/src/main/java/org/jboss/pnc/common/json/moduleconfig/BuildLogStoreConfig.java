@@ -0,0 +1,61 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.common.json.moduleconfig;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.jboss.pnc.common.json.AbstractModuleConfig;
+
+/**
+ * Configuration of the build log storage. When no storage directory is set the build logs are stored in the build
+ * records.
+ */
+public class BuildLogStoreConfig extends AbstractModuleConfig {
+
+    public static final String MODULE_NAME = "build-log-store-config";
+
+    /**
+     * Directory where the compressed build logs are stored
+     */
+    private String storageDir;
+
+    /**
+     * Number of uncompressed bytes stored in one compressed segment of a log. Defaults to 4MB.
+     */
+    private int segmentSize;
+
+    public BuildLogStoreConfig(
+            @JsonProperty("storageDir") String storageDir,
+            @JsonProperty("segmentSize") Integer segmentSize) {
+        super();
+        this.storageDir = storageDir;
+        this.segmentSize = segmentSize == null ? 4 * 1024 * 1024 : segmentSize;
+    }
+
+    public String getStorageDir() {
+        return storageDir;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildLogStoreConfig [storageDir=" + storageDir + ", segmentSize=" + segmentSize + "]";
+    }
+}
@@ -86,6 +86,30 @@ public class IndyRepoDriverModuleConfig extends AbstractModuleConfig {
     @JsonProperty(required = false)
     private String tempBuildPromotionTarget = "temporary-builds";
 
+    /**
+     * Number of threads shared by all builds to process tracking reports.
+     */
+    @Getter
+    @Setter
+    @JsonProperty(required = false)
+    private Integer artifactProcessingThreadPoolSize = 8;
+
+    /**
+     * Number of threads shared by all builds to run promotions.
+     */
+    @Getter
+    @Setter
+    @JsonProperty(required = false)
+    private Integer promotionThreadPoolSize = 8;
+
+    /**
+     * Maximum number of promotion requests of a single build running at a time.
+     */
+    @Getter
+    @Setter
+    @JsonProperty(required = false)
+    private Integer promotionParallelism = 4;
+
     public IndyRepoDriverModuleConfig() {
     }
 
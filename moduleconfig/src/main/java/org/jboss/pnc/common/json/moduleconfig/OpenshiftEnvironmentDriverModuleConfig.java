@@ -38,6 +38,7 @@ public class OpenshiftEnvironmentDriverModuleConfig extends EnvironmentDriverMod
 
     public static final String MODULE_NAME = "openshift-environment-driver";
     private static final int DEFAULT_BUILDER_POD_MEMORY = 4;
+    private static final int DEFAULT_WARM_POOL_MAX_IDLE_MINUTES = 60;
 
     private String restEndpointUrl;
     private String buildAgentHost;
@@ -53,6 +54,21 @@ public class OpenshiftEnvironmentDriverModuleConfig extends EnvironmentDriverMod
 
     private String creationPodRetry;
 
+    /**
+     * Wait for the pods to start using a single watch of the namespace instead of polling each pod.
+     */
+    private boolean watchPodReadiness;
+
+    /**
+     * Number of idle build agent pods kept running per build environment image, 0 disables the pool.
+     */
+    private final int warmPoolSize;
+
+    /**
+     * Idle pods of the pool are destroyed after this time.
+     */
+    private final int warmPoolMaxIdleMinutes;
+
     public OpenshiftEnvironmentDriverModuleConfig(
             @JsonProperty("restEndpointUrl") String restEndpointUrl,
             @JsonProperty("buildAgentHost") String buildAgentHost,
@@ -72,7 +88,10 @@ public class OpenshiftEnvironmentDriverModuleConfig extends EnvironmentDriverMod
             @JsonProperty("keepBuildAgentInstance") Boolean keepBuildAgentInstance,
             @JsonProperty("exposeBuildAgentOnPublicUrl") Boolean exposeBuildAgentOnPublicUrl,
             @JsonProperty("creationPodRetry") String creationPodRetry,
-            @JsonProperty("builderPodMemory") Integer builderPodMemory) {
+            @JsonProperty("builderPodMemory") Integer builderPodMemory,
+            @JsonProperty("watchPodReadiness") Boolean watchPodReadiness,
+            @JsonProperty("warmPoolSize") Integer warmPoolSize,
+            @JsonProperty("warmPoolMaxIdleMinutes") Integer warmPoolMaxIdleMinutes) {
         super(
                 imageId,
                 firewallAllowedDestinations,
@@ -94,6 +113,10 @@ public class OpenshiftEnvironmentDriverModuleConfig extends EnvironmentDriverMod
         this.exposeBuildAgentOnPublicUrl = exposeBuildAgentOnPublicUrl != null ? exposeBuildAgentOnPublicUrl : false;
         this.creationPodRetry = creationPodRetry;
         this.builderPodMemory = builderPodMemory == null ? DEFAULT_BUILDER_POD_MEMORY : builderPodMemory;
+        this.watchPodReadiness = watchPodReadiness != null ? watchPodReadiness : false;
+        this.warmPoolSize = warmPoolSize == null ? 0 : warmPoolSize;
+        this.warmPoolMaxIdleMinutes = warmPoolMaxIdleMinutes == null ? DEFAULT_WARM_POOL_MAX_IDLE_MINUTES
+                : warmPoolMaxIdleMinutes;
 
         log.debug("Created new instance {}", toString());
     }
@@ -138,6 +161,10 @@ public class OpenshiftEnvironmentDriverModuleConfig extends EnvironmentDriverMod
         return creationPodRetry;
     }
 
+    public boolean getWatchPodReadiness() {
+        return watchPodReadiness;
+    }
+
     @Override
     public String toString() {
         return "OpenshiftEnvironmentDriverModuleConfig{" + "restEndpointUrl='" + restEndpointUrl + '\'' + ", imageId='"
@@ -149,7 +176,8 @@ public class OpenshiftEnvironmentDriverModuleConfig extends EnvironmentDriverMod
                 + executorThreadPoolSize + '\'' + ", restAuthToken= HIDDEN " + ", containerPort='" + containerPort
                 + '\'' + ", disabled='" + disabled + '\'' + ", keepBuildAgentInstance='" + keepBuildAgentInstance + '\''
                 + ", exposeBuildAgentOnPublicUrl='" + exposeBuildAgentOnPublicUrl + '\'' + ", creationPodRetry='"
-                + creationPodRetry + '\'' + '}';
+                + creationPodRetry + '\'' + ", watchPodReadiness='" + watchPodReadiness + '\'' + ", warmPoolSize='"
+                + warmPoolSize + '\'' + ", warmPoolMaxIdleMinutes='" + warmPoolMaxIdleMinutes + '\'' + '}';
     }
 
 }
@@ -35,11 +35,18 @@ public class SystemConfig extends AbstractModuleConfig {
     private final String authenticationProviderId;
 
     /**
-     * Number of threads that are used to run executor operations (setting up the repos, configuring the build,
-     * triggering the build, collecting the results)
+     * Number of threads that are used to run the short, non-blocking executor operations (stage transitions,
+     * evaluating build driver results). Stages blocked on repository manager or environment I/O run on an elastic
+     * pool.
      */
     private String executorThreadPoolSize;
 
+    /**
+     * Maximum number of builds the executor runs at a time. Builds above the limit wait without occupying a thread. 0
+     * means no limit in the executor (the coordinator still limits the builds it hands over).
+     */
+    private int executorMaxConcurrentBuilds;
+
     /**
      * Number of threads that are used to run the build and listen for completion.
      */
@@ -73,6 +80,42 @@ public class SystemConfig extends AbstractModuleConfig {
 
     private int messagingInternalQueueSize;
 
+    /**
+     * What to do with a notification client whose send queue is full: DISCONNECT, DROP_OLDEST or DROP_NEWEST.
+     */
+    private String notificationSlowClientPolicy;
+
+    /**
+     * Maximum number of messages the batching message sender commits in a single JMS transaction.
+     */
+    private int messagingBatchSize;
+
+    /**
+     * How long the batching message sender waits for more messages before it commits a batch.
+     */
+    private long messagingBatchWindowMillis;
+
+    /**
+     * Delivery guarantee of the batching message sender, AT_LEAST_ONCE or AT_MOST_ONCE.
+     */
+    private String messagingDeliveryGuarantee;
+
+    /**
+     * Policy deciding which ready build is started next: FIFO, CRITICAL_PATH or FAIR_SHARE. Defaults to FIFO.
+     */
+    private String coordinatorQueuePolicy;
+
+    /**
+     * Builds waiting in the ready queue longer than this are started oldest first regardless of the policy. 0 disables
+     * aging. Defaults to 30 minutes.
+     */
+    private long coordinatorQueueAgingMillis;
+
+    /**
+     * Weight of the fair share of a group build relative to the share of a user's single builds.
+     */
+    private double coordinatorGroupBuildShareWeight;
+
     public SystemConfig(
             @JsonProperty("buildDriverId") String buildDriverId,
             @JsonProperty("buildSchedulerId") String buildSchedulerId,
@@ -86,7 +129,15 @@ public class SystemConfig extends AbstractModuleConfig {
             @JsonProperty("serviceTokenRefreshIfExpiresInSeconds") String serviceTokenRefreshIfExpiresInSeconds,
             @JsonProperty("temporaryBuildsLifeSpan") String temporaryBuildsLifeSpan,
             @JsonProperty("messageSenderId") String messageSenderId,
-            @JsonProperty("messagingInternalQueueSize") String messagingInternalQueueSize) {
+            @JsonProperty("messagingInternalQueueSize") String messagingInternalQueueSize,
+            @JsonProperty("notificationSlowClientPolicy") String notificationSlowClientPolicy,
+            @JsonProperty("messagingBatchSize") String messagingBatchSize,
+            @JsonProperty("messagingBatchWindowMillis") String messagingBatchWindowMillis,
+            @JsonProperty("messagingDeliveryGuarantee") String messagingDeliveryGuarantee,
+            @JsonProperty("coordinatorQueuePolicy") String coordinatorQueuePolicy,
+            @JsonProperty("coordinatorQueueAgingMillis") String coordinatorQueueAgingMillis,
+            @JsonProperty("coordinatorGroupBuildShareWeight") String coordinatorGroupBuildShareWeight,
+            @JsonProperty("executorMaxConcurrentBuilds") String executorMaxConcurrentBuilds) {
         this.buildDriverId = buildDriverId;
         this.buildSchedulerId = buildSchedulerId;
         this.authenticationProviderId = authenticationProviderId;
@@ -110,6 +161,26 @@ public class SystemConfig extends AbstractModuleConfig {
                 "messagingInternalQueueSize",
                 messagingInternalQueueSize,
                 1000);
+        this.notificationSlowClientPolicy = notificationSlowClientPolicy;
+        this.messagingBatchSize = toIntWithDefault("messagingBatchSize", messagingBatchSize, 100);
+        this.messagingBatchWindowMillis = toIntWithDefault(
+                "messagingBatchWindowMillis",
+                messagingBatchWindowMillis,
+                10);
+        this.messagingDeliveryGuarantee = messagingDeliveryGuarantee;
+        this.coordinatorQueuePolicy = coordinatorQueuePolicy;
+        this.coordinatorQueueAgingMillis = toIntWithDefault(
+                "coordinatorQueueAgingMillis",
+                coordinatorQueueAgingMillis,
+                30 * 60 * 1000);
+        this.coordinatorGroupBuildShareWeight = toDoubleWithDefault(
+                "coordinatorGroupBuildShareWeight",
+                coordinatorGroupBuildShareWeight,
+                1.0);
+        this.executorMaxConcurrentBuilds = toIntWithDefault(
+                "executorMaxConcurrentBuilds",
+                executorMaxConcurrentBuilds,
+                0);
     }
 
     public String getBuildDriverId() {
@@ -124,6 +195,10 @@ public class SystemConfig extends AbstractModuleConfig {
         return executorThreadPoolSize;
     }
 
+    public int getExecutorMaxConcurrentBuilds() {
+        return executorMaxConcurrentBuilds;
+    }
+
     public String getBuilderThreadPoolSize() {
         return builderThreadPoolSize;
     }
@@ -168,6 +243,34 @@ public class SystemConfig extends AbstractModuleConfig {
         return messagingInternalQueueSize;
     }
 
+    public String getNotificationSlowClientPolicy() {
+        return notificationSlowClientPolicy;
+    }
+
+    public int getMessagingBatchSize() {
+        return messagingBatchSize;
+    }
+
+    public long getMessagingBatchWindowMillis() {
+        return messagingBatchWindowMillis;
+    }
+
+    public String getMessagingDeliveryGuarantee() {
+        return messagingDeliveryGuarantee;
+    }
+
+    public String getCoordinatorQueuePolicy() {
+        return coordinatorQueuePolicy;
+    }
+
+    public long getCoordinatorQueueAgingMillis() {
+        return coordinatorQueueAgingMillis;
+    }
+
+    public double getCoordinatorGroupBuildShareWeight() {
+        return coordinatorGroupBuildShareWeight;
+    }
+
     private int toIntWithDefault(String fieldName, String numberAsString, int defaultValue) {
         int result = defaultValue;
         if (numberAsString == null) {
@@ -187,6 +290,25 @@ public class SystemConfig extends AbstractModuleConfig {
         return result;
     }
 
+    private double toDoubleWithDefault(String fieldName, String numberAsString, double defaultValue) {
+        double result = defaultValue;
+        if (numberAsString == null) {
+            log.warn("Value in field: " + fieldName + " not set. Will use default value: {}", defaultValue);
+        } else {
+            try {
+                result = Double.parseDouble(numberAsString);
+            } catch (NumberFormatException nfe) {
+                log.warn(
+                        "Invalid value in field: " + fieldName
+                                + ". Expected a number, got: {}. Will use default value: {}",
+                        numberAsString,
+                        defaultValue,
+                        nfe);
+            }
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "SystemConfig [" + (buildDriverId != null ? "buildDriverId=" + buildDriverId + ", " : "")
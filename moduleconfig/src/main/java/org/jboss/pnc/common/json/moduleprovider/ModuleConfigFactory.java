@@ -22,6 +22,7 @@ import org.jboss.pnc.common.json.ConfigurationParseException;
 import org.jboss.pnc.common.json.GlobalModuleGroup;
 import org.jboss.pnc.common.json.moduleconfig.AlignmentConfig;
 import org.jboss.pnc.common.json.moduleconfig.BpmModuleConfig;
+import org.jboss.pnc.common.json.moduleconfig.BuildLogStoreConfig;
 import org.jboss.pnc.common.json.moduleconfig.DemoDataConfig;
 import org.jboss.pnc.common.json.moduleconfig.IndyRepoDriverModuleConfig;
 import org.jboss.pnc.common.json.moduleconfig.OpenshiftBuildAgentConfig;
@@ -104,6 +105,17 @@ public class ModuleConfigFactory {
         }
     }
 
+    @Produces
+    @Dependent
+    BuildLogStoreConfig createBuildLogStoreConfig() {
+        try {
+            return configuration.getModuleConfig(new PncConfigProvider<>(BuildLogStoreConfig.class));
+        } catch (ConfigurationParseException e) {
+            logger.warn("BuildLogStoreConfig is not provided or is broken. Storing build logs in build records.");
+            return null;
+        }
+    }
+
     @Produces
     @Dependent
     GlobalModuleGroup createGlobalModuleGroup() {
@@ -0,0 +1,116 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.notification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Last lines of the log of a running build. The lines are kept in a ring buffer, so the memory used by a build does not
+ * grow with the length of its log. Not thread safe, the relay synchronizes the access.
+ */
+class BuildLogTail {
+
+    private final String[] lines;
+
+    private final int maxLineLength;
+
+    /**
+     * Number of complete lines appended so far, the next line is stored at {@code lineCount % lines.length}.
+     */
+    private long lineCount;
+
+    private final StringBuilder partialLine = new StringBuilder();
+
+    BuildLogTail(int capacity, int maxLineLength) {
+        this.lines = new String[capacity];
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Appends the output and returns the lines it completed. A line longer than the maximal length is split.
+     */
+    List<String> append(String output) {
+        List<String> completed = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < output.length(); i++) {
+            if (output.charAt(i) == '\n') {
+                partialLine.append(output, start, i);
+                completed.add(takePartialLine());
+                start = i + 1;
+            } else if (partialLine.length() + i - start >= maxLineLength) {
+                partialLine.append(output, start, i);
+                completed.add(takePartialLine());
+                start = i;
+            }
+        }
+        partialLine.append(output, start, output.length());
+        completed.forEach(this::store);
+        return completed;
+    }
+
+    /**
+     * Completes the last line if the output doesn't end with a line separator.
+     */
+    List<String> flush() {
+        if (partialLine.length() == 0) {
+            return Collections.emptyList();
+        }
+        String line = takePartialLine();
+        store(line);
+        return Collections.singletonList(line);
+    }
+
+    long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return number of lines preceding the oldest line kept in the buffer
+     */
+    long getFirstLine() {
+        return Math.max(0, lineCount - lines.length);
+    }
+
+    /**
+     * @return lines kept in the buffer, oldest first
+     */
+    List<String> getLines() {
+        List<String> result = new ArrayList<>();
+        for (long line = getFirstLine(); line < lineCount; line++) {
+            result.add(lines[(int) (line % lines.length)]);
+        }
+        return result;
+    }
+
+    private String takePartialLine() {
+        int length = partialLine.length();
+        if (length > 0 && partialLine.charAt(length - 1) == '\r') {
+            partialLine.setLength(length - 1);
+        }
+        String line = partialLine.toString();
+        partialLine.setLength(0);
+        return line;
+    }
+
+    private void store(String line) {
+        lines[(int) (lineCount % lines.length)] = line;
+        lineCount++;
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.notification;
+
+import org.jboss.pnc.spi.notifications.AttachedClient;
+import org.jboss.pnc.spi.notifications.MessageCallback;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Bounded queue of serialized notifications for one client. Only one message is being sent to the client at a time,
+ * the next one is sent when the previous send completes. When the queue is full the {@link SlowClientPolicy} decides
+ * what happens, so a slow client can't make the notifier hold an unbounded number of messages.
+ */
+class ClientOutbox {
+
+    /**
+     * Outcome of the outbox operations reported to the notifier.
+     */
+    interface Listener {
+
+        /**
+         * @param latencyNanos time from queuing the message to the completion of the send
+         */
+        void sent(AttachedClient client, long latencyNanos);
+
+        void dropped(AttachedClient client);
+
+        void failed(AttachedClient client, Throwable throwable);
+    }
+
+    private final AttachedClient client;
+
+    private final int capacity;
+
+    private final SlowClientPolicy policy;
+
+    private final Listener listener;
+
+    private final Deque<QueuedMessage> queue = new ArrayDeque<>();
+
+    private boolean sending;
+
+    private volatile QueuedMessage inFlight;
+
+    private boolean closed;
+
+    private final MessageCallback callback = new MessageCallback() {
+
+        @Override
+        public void successful(AttachedClient attachedClient) {
+            listener.sent(client, System.nanoTime() - inFlight.queuedAt);
+            sendNext();
+        }
+
+        @Override
+        public void failed(AttachedClient attachedClient, Throwable throwable) {
+            close();
+            listener.failed(client, throwable);
+        }
+    };
+
+    ClientOutbox(AttachedClient client, int capacity, SlowClientPolicy policy, Listener listener) {
+        this.client = client;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.listener = listener;
+    }
+
+    /**
+     * Queues the message and starts sending if the client is idle.
+     *
+     * @return false if the client is too slow and should be disconnected
+     */
+    boolean offer(String message) {
+        QueuedMessage toSend;
+        synchronized (this) {
+            if (closed) {
+                return true;
+            }
+            if (queue.size() >= capacity) {
+                switch (policy) {
+                    case DROP_OLDEST:
+                        queue.poll();
+                        listener.dropped(client);
+                        break;
+                    case DROP_NEWEST:
+                        listener.dropped(client);
+                        return true;
+                    case DISCONNECT:
+                        close();
+                        return false;
+                }
+            }
+            queue.add(new QueuedMessage(message, System.nanoTime()));
+            if (sending) {
+                return true;
+            }
+            sending = true;
+            toSend = queue.poll();
+        }
+        send(toSend);
+        return true;
+    }
+
+    synchronized int size() {
+        return queue.size();
+    }
+
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void sendNext() {
+        QueuedMessage toSend;
+        synchronized (this) {
+            toSend = queue.poll();
+            if (toSend == null) {
+                sending = false;
+                return;
+            }
+        }
+        send(toSend);
+    }
+
+    private void send(QueuedMessage message) {
+        inFlight = message;
+        try {
+            client.sendSerializedMessage(message.body, callback);
+        } catch (RuntimeException e) {
+            callback.failed(client, e);
+        }
+    }
+
+    private static class QueuedMessage {
+
+        private final String body;
+
+        private final long queuedAt;
+
+        private QueuedMessage(String body, long queuedAt) {
+            this.body = body;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
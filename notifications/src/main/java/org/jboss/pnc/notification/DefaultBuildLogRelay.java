@@ -0,0 +1,248 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.notification;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.jboss.pnc.common.concurrent.MDCExecutors;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
+import org.jboss.pnc.dto.notification.BuildLogNotification;
+import org.jboss.pnc.enums.JobNotificationProgress;
+import org.jboss.pnc.pncmetrics.MetricsConfiguration;
+import org.jboss.pnc.spi.notifications.BuildLogRelay;
+import org.jboss.pnc.spi.notifications.Notifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.jboss.pnc.enums.JobNotificationProgress.FINISHED;
+import static org.jboss.pnc.enums.JobNotificationProgress.IN_PROGRESS;
+
+/**
+ * Keeps the tail of the log of each running build in memory and fans the new lines out to the clients subscribed to
+ * the {@link Notifier.Topic#BUILD_LOG} topic with the build id as the qualifier. A client subscribing to a running
+ * build first receives the lines kept in the tail.
+ *
+ * The lines of a build are coalesced and sent at most every {@link #FLUSH_INTERVAL_MILLIS} or once
+ * {@link #MAX_PENDING_LINES} lines are waiting. Nothing is sent while nobody is subscribed to the build.
+ */
+@ApplicationScoped
+public class DefaultBuildLogRelay implements BuildLogRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    static final int TAIL_CAPACITY = 2000;
+
+    static final int MAX_LINE_LENGTH = 16 * 1024;
+
+    static final int MAX_PENDING_LINES = 500;
+
+    static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private static final String METRICS_KEY = "notifications.build-log";
+    private static final String METRICS_BUILDS_KEY = METRICS_KEY + ".builds";
+    private static final String METRICS_LINES_KEY = METRICS_KEY + ".lines";
+
+    private final Map<Integer, RelayedLog> logs = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flusher = MDCExecutors
+            .newScheduledThreadPool(1, new NamedThreadFactory("build-log-relay"));
+
+    private Optional<MetricRegistry> metricRegistry = Optional.empty();
+
+    private Notifier notifier;
+
+    @Inject
+    Instance<MetricsConfiguration> metricsConfiguration;
+
+    @Deprecated // CDI workaround
+    public DefaultBuildLogRelay() {
+    }
+
+    @Inject
+    public DefaultBuildLogRelay(Notifier notifier) {
+        this.notifier = notifier;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (metricsConfiguration != null && !metricsConfiguration.isUnsatisfied()
+                && !metricsConfiguration.isAmbiguous()) {
+            MetricRegistry registry = metricsConfiguration.get().getMetricRegistry();
+            registry.register(METRICS_BUILDS_KEY, (Gauge<Integer>) logs::size);
+            metricRegistry = Optional.of(registry);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flusher.shutdownNow();
+    }
+
+    @Override
+    public void started(Integer buildId) {
+        logger.debug("Relaying log of build {}.", buildId);
+        logs.put(buildId, new RelayedLog(new BuildLogTail(TAIL_CAPACITY, MAX_LINE_LENGTH)));
+    }
+
+    @Override
+    public void append(Integer buildId, String output) {
+        RelayedLog log = logs.get(buildId);
+        if (log == null || output == null || output.isEmpty()) {
+            return;
+        }
+        // lines are sent while holding the log, so the notifications of a build are queued in order
+        synchronized (log) {
+            List<String> lines = log.tail.append(output);
+            if (lines.isEmpty()) {
+                return;
+            }
+            if (!notifier.hasSubscribers(Notifier.Topic.BUILD_LOG, buildId.toString())) {
+                log.pending.clear();
+                return;
+            }
+            if (log.pending.isEmpty()) {
+                log.pendingOffset = log.tail.getLineCount() - lines.size();
+                flusher.schedule(() -> flush(buildId), FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            log.pending.addAll(lines);
+            if (log.pending.size() >= MAX_PENDING_LINES) {
+                sendPending(buildId, log, IN_PROGRESS);
+            }
+        }
+    }
+
+    @Override
+    public void completed(Integer buildId) {
+        RelayedLog log = logs.remove(buildId);
+        if (log == null) {
+            return;
+        }
+        synchronized (log) {
+            if (log.pending.isEmpty()) {
+                log.pendingOffset = log.tail.getLineCount();
+            }
+            log.pending.addAll(log.tail.flush());
+            if (notifier.hasSubscribers(Notifier.Topic.BUILD_LOG, buildId.toString())) {
+                sendPending(buildId, log, FINISHED);
+            }
+            log.pending.clear();
+        }
+        logger.debug("Relaying of the log of build {} completed.", buildId);
+    }
+
+    /**
+     * @param buildId id of the build as used in the subscription qualifier
+     * @return lines kept in the tail of the build log, empty if the log of the build is not relayed
+     */
+    public Optional<BuildLogNotification> getTail(String buildId) {
+        RelayedLog log = getLog(buildId);
+        if (log == null) {
+            return Optional.empty();
+        }
+        synchronized (log) {
+            return Optional.of(toTail(buildId, log));
+        }
+    }
+
+    /**
+     * Subscribes a client to the log of a build. The subscription runs while holding the log, so no lines are relayed
+     * in the meantime; the lines waiting for a flush are sent to the current subscribers first and the new subscriber
+     * gets them with the tail.
+     *
+     * @param buildId id of the build as used in the subscription qualifier
+     * @param subscription receives the tail of the build log, empty if the log of the build is not relayed
+     */
+    public void subscribe(String buildId, Consumer<Optional<BuildLogNotification>> subscription) {
+        RelayedLog log = getLog(buildId);
+        if (log == null) {
+            subscription.accept(Optional.empty());
+            return;
+        }
+        synchronized (log) {
+            if (!log.pending.isEmpty()) {
+                sendPending(Integer.valueOf(buildId), log, IN_PROGRESS);
+            }
+            subscription.accept(Optional.of(toTail(buildId, log)));
+        }
+    }
+
+    void flush(Integer buildId) {
+        RelayedLog log = logs.get(buildId);
+        if (log == null) {
+            return;
+        }
+        synchronized (log) {
+            if (!log.pending.isEmpty()) {
+                sendPending(buildId, log, IN_PROGRESS);
+            }
+        }
+    }
+
+    private RelayedLog getLog(String buildId) {
+        try {
+            return logs.get(Integer.valueOf(buildId));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private BuildLogNotification toTail(String buildId, RelayedLog log) {
+        return new BuildLogNotification(buildId, log.tail.getFirstLine(), log.tail.getLines(), IN_PROGRESS);
+    }
+
+    private void sendPending(Integer buildId, RelayedLog log, JobNotificationProgress progress) {
+        List<String> lines = new ArrayList<>(log.pending);
+        log.pending.clear();
+        metricRegistry.ifPresent(r -> r.meter(METRICS_LINES_KEY).mark(lines.size()));
+        notifier.sendMessage(
+                new BuildLogNotification(buildId.toString(), log.pendingOffset, lines, progress),
+                Notifier.Topic.BUILD_LOG,
+                buildId.toString());
+    }
+
+    private static class RelayedLog {
+
+        private final BuildLogTail tail;
+
+        /**
+         * Lines not sent yet, starting at the line {@link #pendingOffset} of the log.
+         */
+        private final List<String> pending = new ArrayList<>();
+
+        private long pendingOffset;
+
+        private RelayedLog(BuildLogTail tail) {
+            this.tail = tail;
+        }
+    }
+}
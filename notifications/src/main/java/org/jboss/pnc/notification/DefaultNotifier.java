@@ -17,11 +17,17 @@
  */
 package org.jboss.pnc.notification;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jboss.pnc.bpm.BpmManager;
 import org.jboss.pnc.bpm.BpmTask;
 import org.jboss.pnc.bpm.task.BpmBuildTask;
 import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.common.concurrent.MDCExecutors;
+import org.jboss.pnc.common.concurrent.MDCThreadPoolExecutor;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
 import org.jboss.pnc.common.json.ConfigurationParseException;
 import org.jboss.pnc.common.json.moduleconfig.SystemConfig;
 import org.jboss.pnc.common.json.moduleprovider.PncConfigProvider;
@@ -31,6 +37,8 @@ import org.jboss.pnc.dto.notification.BuildPushResultNotification;
 import org.jboss.pnc.dto.BuildPushResult;
 import org.jboss.pnc.dto.notification.BuildChangedNotification;
 import org.jboss.pnc.dto.notification.GroupBuildChangedNotification;
+import org.jboss.pnc.pncmetrics.MetricsConfiguration;
+import org.jboss.pnc.rest.jackson.JacksonProvider;
 import org.jboss.pnc.spi.events.BuildStatusChangedEvent;
 import org.jboss.pnc.spi.events.BuildSetStatusChangedEvent;
 import org.jboss.pnc.spi.notifications.AttachedClient;
@@ -41,6 +49,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Instance;
@@ -48,25 +57,85 @@ import javax.inject.Inject;
 import javax.ws.rs.core.Response;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.jboss.pnc.dto.response.ErrorResponse;
 
 /**
  * Notification mechanism for Web Sockets. All implementation details should be placed in AttachedClient.
+ *
+ * Messages are serialized once and handed over to a single dispatcher thread, so the thread firing the event does not
+ * wait for the fan-out. The dispatcher queues the serialized message to the bounded {@link ClientOutbox} of each
+ * recipient; a client which does not keep up is handled by the configured {@link SlowClientPolicy}, by default it is
+ * disconnected. Build log lines have their own dispatcher, so a busy log does not delay the build status messages.
  */
 @ApplicationScoped
 public class DefaultNotifier implements Notifier {
 
     private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-    private Set<AttachedClient> attachedClients = new CopyOnWriteArraySet<>();
+    static final int MAX_PENDING_MESSAGES = 10000;
+
+    static final int MAX_PENDING_LOG_MESSAGES = 10000;
+
+    static final int CLIENT_QUEUE_CAPACITY = 1000;
+
+    static final SlowClientPolicy DEFAULT_SLOW_CLIENT_POLICY = SlowClientPolicy.DISCONNECT;
+
+    private static final String METRICS_KEY = "notifications";
+    private static final String METRICS_CLIENTS_KEY = METRICS_KEY + ".clients";
+    private static final String METRICS_PENDING_KEY = METRICS_KEY + ".pending";
+    private static final String METRICS_PENDING_LOG_KEY = METRICS_KEY + ".pending-log";
+    private static final String METRICS_QUEUED_KEY = METRICS_KEY + ".queued";
+    private static final String METRICS_SEND_KEY = METRICS_KEY + ".send";
+    private static final String METRICS_DROPPED_KEY = METRICS_KEY + ".dropped";
+    private static final String METRICS_REJECTED_KEY = METRICS_KEY + ".rejected";
+    private static final String METRICS_DISCONNECTED_KEY = METRICS_KEY + ".disconnected";
+
+    private final Map<AttachedClient, ClientOutbox> attachedClients = new ConcurrentHashMap<>();
+
+    /**
+     * Clients subscribed to a topic, the qualifier is matched by the client.
+     */
+    private final Map<String, Set<AttachedClient>> subscribers = new ConcurrentHashMap<>();
 
     private final ScheduledExecutorService scheduler = MDCExecutors.newScheduledThreadPool(1);
 
+    private final BlockingQueue<Runnable> pendingMessages = new ArrayBlockingQueue<>(MAX_PENDING_MESSAGES);
+
+    private final ExecutorService dispatcher = new MDCThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            pendingMessages,
+            new NamedThreadFactory("notification-dispatcher"));
+
+    private final BlockingQueue<Runnable> pendingLogMessages = new ArrayBlockingQueue<>(MAX_PENDING_LOG_MESSAGES);
+
+    private final ExecutorService logDispatcher = new MDCThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            pendingLogMessages,
+            new NamedThreadFactory("notification-log-dispatcher"));
+
+    private final ObjectMapper mapper = new JacksonProvider().getMapper();
+
     private final MessageCallback messageCallback = new MessageCallback() {
 
         @Override
@@ -81,6 +150,29 @@ public class DefaultNotifier implements Notifier {
         }
     };
 
+    private final ClientOutbox.Listener outboxListener = new ClientOutbox.Listener() {
+
+        @Override
+        public void sent(AttachedClient client, long latencyNanos) {
+            metricRegistry.ifPresent(r -> r.timer(METRICS_SEND_KEY).update(latencyNanos, TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public void dropped(AttachedClient client) {
+            logger.debug("Client {} does not keep up, dropping a notification.", client.getSessionId());
+            metricRegistry.ifPresent(r -> r.meter(METRICS_DROPPED_KEY).mark());
+        }
+
+        @Override
+        public void failed(AttachedClient client, Throwable throwable) {
+            messageCallback.failed(client, throwable);
+        }
+    };
+
+    private Optional<MetricRegistry> metricRegistry = Optional.empty();
+
+    private SlowClientPolicy slowClientPolicy = DEFAULT_SLOW_CLIENT_POLICY;
+
     Optional<BpmManager> bpmManager;
 
     @Inject
@@ -89,6 +181,12 @@ public class DefaultNotifier implements Notifier {
     @Inject
     Configuration configuration;
 
+    @Inject
+    Instance<MetricsConfiguration> metricsConfiguration;
+
+    @Inject
+    DefaultBuildLogRelay buildLogRelay;
+
     @PostConstruct
     public void init() {
         scheduler.scheduleAtFixedRate(this::cleanUp, 1, 1, TimeUnit.HOURS);
@@ -97,6 +195,7 @@ public class DefaultNotifier implements Notifier {
         try {
             SystemConfig systemConfig = configuration.getModuleConfig(new PncConfigProvider<>(SystemConfig.class));
             buildSchedulerId = systemConfig.getBuildSchedulerId();
+            slowClientPolicy = toSlowClientPolicy(systemConfig.getNotificationSlowClientPolicy());
         } catch (ConfigurationParseException e) {
             logger.warn("Cannot read system config buildSchedulerId");
             buildSchedulerId = "does-not-match";
@@ -108,16 +207,55 @@ public class DefaultNotifier implements Notifier {
         } else {
             bpmManager = Optional.empty();
         }
+
+        if (!metricsConfiguration.isUnsatisfied() && !metricsConfiguration.isAmbiguous()) {
+            MetricRegistry registry = metricsConfiguration.get().getMetricRegistry();
+            registry.register(METRICS_CLIENTS_KEY, (Gauge<Integer>) attachedClients::size);
+            registry.register(METRICS_PENDING_KEY, (Gauge<Integer>) pendingMessages::size);
+            registry.register(METRICS_PENDING_LOG_KEY, (Gauge<Integer>) pendingLogMessages::size);
+            registry.register(
+                    METRICS_QUEUED_KEY,
+                    (Gauge<Integer>) () -> attachedClients.values().stream().mapToInt(ClientOutbox::size).sum());
+            metricRegistry = Optional.of(registry);
+        }
+    }
+
+    static SlowClientPolicy toSlowClientPolicy(String policy) {
+        if (policy == null) {
+            return DEFAULT_SLOW_CLIENT_POLICY;
+        }
+        try {
+            return SlowClientPolicy.valueOf(policy);
+        } catch (IllegalArgumentException e) {
+            logger.warn(
+                    "Invalid notification slow client policy: {}. Will use default value: {}",
+                    policy,
+                    DEFAULT_SLOW_CLIENT_POLICY);
+            return DEFAULT_SLOW_CLIENT_POLICY;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        dispatcher.shutdownNow();
+        logDispatcher.shutdownNow();
     }
 
     @Override
     public void attachClient(AttachedClient attachedClient) {
-        attachedClients.add(attachedClient);
+        attachedClients.computeIfAbsent(
+                attachedClient,
+                client -> new ClientOutbox(client, CLIENT_QUEUE_CAPACITY, slowClientPolicy, outboxListener));
     }
 
     @Override
     public void detachClient(AttachedClient attachedClient) {
-        attachedClients.remove(attachedClient);
+        ClientOutbox outbox = attachedClients.remove(attachedClient);
+        if (outbox != null) {
+            outbox.close();
+        }
+        subscribers.values().forEach(clients -> clients.remove(attachedClient));
     }
 
     @Override
@@ -127,7 +265,7 @@ public class DefaultNotifier implements Notifier {
 
     @Override
     public Optional<AttachedClient> getAttachedClient(String sessionId) {
-        return attachedClients.stream().filter(client -> client.getSessionId().equals(sessionId)).findAny();
+        return attachedClients.keySet().stream().filter(client -> client.getSessionId().equals(sessionId)).findAny();
     }
 
     @Override
@@ -137,15 +275,99 @@ public class DefaultNotifier implements Notifier {
 
     @Override
     public void sendMessage(Object message) {
-        for (AttachedClient client : attachedClients) {
-            if (client.isEnabled()) {
-                try {
-                    client.sendMessage(message, messageCallback);
-                } catch (Exception e) {
-                    logger.error("Unable to send message, detaching client.", e);
-                    detachClient(client);
-                }
+        dispatch(message, attachedClients::keySet);
+    }
+
+    @Override
+    public void sendMessage(Object message, Topic topic, String qualifier) {
+        if (topic == Topic.BUILD_LOG) {
+            // recipients are resolved right away, a client subscribing later gets these lines with the tail
+            List<AttachedClient> recipients = getSubscribers(topic, qualifier);
+            if (!recipients.isEmpty()) {
+                dispatch(logDispatcher, message, () -> recipients);
             }
+        } else {
+            dispatch(message, () -> getSubscribers(topic, qualifier));
+        }
+    }
+
+    @Override
+    public boolean hasSubscribers(Topic topic, String qualifier) {
+        return subscribers.getOrDefault(topic.getId(), Collections.emptySet())
+                .stream()
+                .anyMatch(client -> client.isSubscribed(topic.getId(), qualifier));
+    }
+
+    @Override
+    public void subscribe(AttachedClient client, String topic, String qualifier) {
+        if (Topic.BUILD_LOG.getId().equals(topic) && buildLogRelay != null) {
+            // the tail is queued before the client is subscribed, both while the relay holds the log of the build, so
+            // the client receives the tail before any live lines
+            buildLogRelay.subscribe(qualifier, tail -> {
+                tail.ifPresent(t -> dispatch(logDispatcher, t, () -> Collections.singleton(client)));
+                addSubscriber(client, topic, qualifier);
+            });
+        } else {
+            addSubscriber(client, topic, qualifier);
+        }
+    }
+
+    private void addSubscriber(AttachedClient client, String topic, String qualifier) {
+        subscribers.computeIfAbsent(topic, t -> ConcurrentHashMap.newKeySet()).add(client);
+        client.subscribe(topic, qualifier);
+    }
+
+    private List<AttachedClient> getSubscribers(Topic topic, String qualifier) {
+        return subscribers.getOrDefault(topic.getId(), Collections.emptySet())
+                .stream()
+                .filter(client -> client.isSubscribed(topic.getId(), qualifier))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void unsubscribe(AttachedClient client, String topic, String qualifier) {
+        client.unsubscribe(topic, qualifier);
+    }
+
+    private void dispatch(Object message, Supplier<Collection<AttachedClient>> recipients) {
+        dispatch(dispatcher, message, recipients);
+    }
+
+    private void dispatch(
+            ExecutorService executor,
+            Object message,
+            Supplier<Collection<AttachedClient>> recipients) {
+        try {
+            executor.execute(() -> {
+                String serialized = serialize(message);
+                if (serialized != null) {
+                    recipients.get().forEach(client -> send(client, serialized));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Too many pending notifications, dropping {}.", message);
+            metricRegistry.ifPresent(r -> r.meter(METRICS_REJECTED_KEY).mark());
+        }
+    }
+
+    private String serialize(Object message) {
+        try {
+            return mapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not convert notification " + message + " to JSON.", e);
+            return null;
+        }
+    }
+
+    private void send(AttachedClient client, String message) {
+        ClientOutbox outbox = attachedClients.get(client);
+        if (outbox == null || !client.isEnabled()) {
+            return;
+        }
+        if (!outbox.offer(message)) {
+            logger.warn("Client {} does not keep up with the notifications, detaching it.", client.getSessionId());
+            metricRegistry.ifPresent(r -> r.meter(METRICS_DISCONNECTED_KEY).mark());
+            detachClient(client);
         }
     }
 
@@ -159,24 +381,24 @@ public class DefaultNotifier implements Notifier {
                 Optional<BpmEvent> maybeLastEvent = bpmTask.getEvents().stream().reduce((first, second) -> second);
                 if (maybeLastEvent.isPresent()) {
                     BpmEvent lastBpmEvent = maybeLastEvent.get();
-                    client.sendMessage(lastBpmEvent, messageCallback);
+                    dispatch(lastBpmEvent, () -> Collections.singleton(client));
                 } else {
                     String statusCode = Integer.toString(Response.Status.NO_CONTENT.getStatusCode());
                     String errorMessage = "No events for id: " + messagesId;
                     ErrorResponse error = new ErrorResponse(statusCode, errorMessage);
-                    client.sendMessage(error, messageCallback);
+                    dispatch(error, () -> Collections.singleton(client));
                 }
             } else {
                 String statusCode = Integer.toString(Response.Status.NO_CONTENT.getStatusCode());
                 String errorMessage = "No process for id: " + messagesId;
                 ErrorResponse error = new ErrorResponse(statusCode, errorMessage);
-                client.sendMessage(error, messageCallback);
+                dispatch(error, () -> Collections.singleton(client));
             }
         }
     }
 
     public void cleanUp() {
-        for (AttachedClient client : attachedClients) {
+        for (AttachedClient client : attachedClients.keySet()) {
             if (!client.isEnabled()) {
                 detachClient(client);
             }
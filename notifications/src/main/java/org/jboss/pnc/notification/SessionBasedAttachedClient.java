@@ -29,16 +29,16 @@ import org.jboss.pnc.spi.notifications.Notifier;
 import javax.websocket.SendHandler;
 import javax.websocket.SendResult;
 import javax.websocket.Session;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SessionBasedAttachedClient implements AttachedClient {
 
     private final Session session;
     private Notifier notifier;
 
-    private final JacksonProvider mapperProvider = new JacksonProvider();
-    private List<Subscription> subscriptions = new ArrayList();
+    private static final JacksonProvider mapperProvider = new JacksonProvider();
+    private List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
 
     public SessionBasedAttachedClient(Session session, Notifier notifier) {
         this.session = session;
@@ -64,6 +64,11 @@ public class SessionBasedAttachedClient implements AttachedClient {
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Could not convert object to JSON", e);
         }
+        sendSerializedMessage(message, callback);
+    }
+
+    @Override
+    public void sendSerializedMessage(String message, MessageCallback callback) {
         session.getAsyncRemote().sendText(message, new SendHandler() {
             @Override
             public void onResult(SendResult sendResult) {
@@ -0,0 +1,39 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.notification;
+
+/**
+ * What to do with a client which does not keep up with the notifications and has full send queue.
+ */
+public enum SlowClientPolicy {
+
+    /**
+     * Drop the oldest queued notification to make space for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drop the new notification.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Disconnect the client.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,93 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.notification;
+
+import org.jboss.pnc.spi.notifications.AttachedClient;
+import org.jboss.pnc.spi.notifications.MessageCallback;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ClientOutboxTest {
+
+    private AttachedClient client;
+
+    private ClientOutbox.Listener listener;
+
+    private final List<String> sent = new ArrayList<>();
+
+    private final List<MessageCallback> callbacks = new ArrayList<>();
+
+    @Before
+    public void init() {
+        client = mock(AttachedClient.class);
+        listener = mock(ClientOutbox.Listener.class);
+        doAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            callbacks.add(invocation.getArgument(1));
+            return null;
+        }).when(client).sendSerializedMessage(anyString(), any());
+    }
+
+    @Test
+    public void shouldSendOneMessageAtATime() {
+        ClientOutbox outbox = new ClientOutbox(client, 10, SlowClientPolicy.DROP_OLDEST, listener);
+
+        outbox.offer("1");
+        outbox.offer("2");
+        assertThat(sent).containsExactly("1");
+
+        callbacks.get(0).successful(client);
+        assertThat(sent).containsExactly("1", "2");
+        assertThat(outbox.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldDropOldestMessageOfSlowClient() {
+        ClientOutbox outbox = new ClientOutbox(client, 2, SlowClientPolicy.DROP_OLDEST, listener);
+
+        outbox.offer("1");
+        outbox.offer("2");
+        outbox.offer("3");
+        outbox.offer("4");
+        callbacks.get(0).successful(client);
+        callbacks.get(1).successful(client);
+
+        assertThat(sent).containsExactly("1", "3", "4");
+        verify(listener).dropped(client);
+    }
+
+    @Test
+    public void shouldDisconnectSlowClient() {
+        ClientOutbox outbox = new ClientOutbox(client, 1, SlowClientPolicy.DISCONNECT, listener);
+
+        assertThat(outbox.offer("1")).isTrue();
+        assertThat(outbox.offer("2")).isTrue();
+        assertThat(outbox.offer("3")).isFalse();
+        assertThat(outbox.size()).isEqualTo(0);
+    }
+}
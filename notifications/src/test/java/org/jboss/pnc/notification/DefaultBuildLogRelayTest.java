@@ -0,0 +1,214 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.notification;
+
+import org.jboss.pnc.dto.notification.BuildLogNotification;
+import org.jboss.pnc.spi.notifications.Notifier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.enums.JobNotificationProgress.FINISHED;
+import static org.jboss.pnc.enums.JobNotificationProgress.IN_PROGRESS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DefaultBuildLogRelayTest {
+
+    private Notifier notifier;
+
+    private DefaultBuildLogRelay relay;
+
+    @Before
+    public void setUp() {
+        notifier = mock(Notifier.class);
+        when(notifier.hasSubscribers(eq(Notifier.Topic.BUILD_LOG), any())).thenReturn(true);
+        relay = new DefaultBuildLogRelay(notifier);
+    }
+
+    @After
+    public void tearDown() {
+        relay.destroy();
+    }
+
+    @Test
+    public void shouldSendCompleteLinesOnly() {
+        // given
+        relay.started(1);
+
+        // when
+        relay.append(1, "first line\nsecond ");
+        relay.flush(1);
+        relay.append(1, "line\r\nthird");
+        relay.completed(1);
+
+        // then
+        List<BuildLogNotification> sent = sentNotifications("1");
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(0).getLines()).containsExactly("first line");
+        assertThat(sent.get(0).getOffset()).isEqualTo(0);
+        assertThat(sent.get(0).getProgress()).isEqualTo(IN_PROGRESS);
+        assertThat(sent.get(1).getLines()).containsExactly("second line", "third");
+        assertThat(sent.get(1).getOffset()).isEqualTo(1);
+        assertThat(sent.get(1).getProgress()).isEqualTo(FINISHED);
+    }
+
+    @Test
+    public void shouldCoalesceLinesWithinTheFlushInterval() {
+        // given
+        relay.started(5);
+
+        // when
+        relay.append(5, "first\n");
+        relay.append(5, "second\n");
+        relay.append(5, "third\n");
+
+        // then
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(notifier, timeout(1000)).sendMessage(captor.capture(), eq(Notifier.Topic.BUILD_LOG), eq("5"));
+        BuildLogNotification sent = (BuildLogNotification) captor.getValue();
+        assertThat(sent.getOffset()).isEqualTo(0);
+        assertThat(sent.getLines()).containsExactly("first", "second", "third");
+        assertThat(sent.getProgress()).isEqualTo(IN_PROGRESS);
+    }
+
+    @Test
+    public void shouldSendRightAwayWhenTooManyLinesArePending() {
+        // given
+        relay.started(6);
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < DefaultBuildLogRelay.MAX_PENDING_LINES; i++) {
+            output.append("line ").append(i).append('\n');
+        }
+
+        // when
+        relay.append(6, output.toString());
+
+        // then
+        List<BuildLogNotification> sent = sentNotifications("6");
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).getLines()).hasSize(DefaultBuildLogRelay.MAX_PENDING_LINES);
+    }
+
+    @Test
+    public void shouldNotSendWithoutSubscribers() {
+        // given
+        when(notifier.hasSubscribers(Notifier.Topic.BUILD_LOG, "7")).thenReturn(false);
+        relay.started(7);
+
+        // when
+        relay.append(7, "line\n");
+        relay.flush(7);
+
+        // then
+        verify(notifier, never()).sendMessage(any(), any(), any());
+        assertThat(relay.getTail("7").get().getLines()).containsExactly("line");
+        relay.completed(7);
+        verify(notifier, never()).sendMessage(any(), any(), any());
+    }
+
+    @Test
+    public void shouldSendPendingLinesBeforeTheTailOnSubscribe() {
+        // given
+        relay.started(8);
+        relay.append(8, "first\n");
+        List<BuildLogNotification> tails = new ArrayList<>();
+
+        // when
+        relay.subscribe("8", tail -> {
+            assertThat(sentNotifications("8")).hasSize(1);
+            tail.ifPresent(tails::add);
+        });
+        relay.flush(8);
+
+        // then
+        assertThat(tails).hasSize(1);
+        assertThat(tails.get(0).getLines()).containsExactly("first");
+        assertThat(sentNotifications("8")).hasSize(1);
+    }
+
+    @Test
+    public void shouldKeepOnlyTheTailOfTheLog() {
+        // given
+        relay.started(2);
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < DefaultBuildLogRelay.TAIL_CAPACITY + 5; i++) {
+            output.append("line ").append(i).append('\n');
+        }
+
+        // when
+        relay.append(2, output.toString());
+
+        // then
+        BuildLogNotification tail = relay.getTail("2").get();
+        assertThat(tail.getOffset()).isEqualTo(5);
+        assertThat(tail.getLines()).hasSize(DefaultBuildLogRelay.TAIL_CAPACITY);
+        assertThat(tail.getLines().get(0)).isEqualTo("line 5");
+        assertThat(tail.getLines().get(DefaultBuildLogRelay.TAIL_CAPACITY - 1))
+                .isEqualTo("line " + (DefaultBuildLogRelay.TAIL_CAPACITY + 4));
+    }
+
+    @Test
+    public void shouldSplitTooLongLines() {
+        // given
+        relay.started(3);
+        char[] longLine = new char[DefaultBuildLogRelay.MAX_LINE_LENGTH + 10];
+        Arrays.fill(longLine, 'x');
+
+        // when
+        relay.append(3, new String(longLine) + "\n");
+
+        // then
+        List<String> lines = relay.getTail("3").get().getLines();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).hasSize(DefaultBuildLogRelay.MAX_LINE_LENGTH);
+        assertThat(lines.get(1)).hasSize(10);
+    }
+
+    @Test
+    public void shouldIgnoreBuildsWhichAreNotRelayed() {
+        // when
+        relay.append(4, "line\n");
+        relay.completed(4);
+
+        // then
+        assertThat(relay.getTail("4").isPresent()).isFalse();
+        assertThat(relay.getTail("not-a-build").isPresent()).isFalse();
+        verify(notifier, never()).sendMessage(any(), any(), any());
+    }
+
+    private List<BuildLogNotification> sentNotifications(String buildId) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(notifier, atLeast(1)).sendMessage(captor.capture(), eq(Notifier.Topic.BUILD_LOG), eq(buildId));
+        List<BuildLogNotification> notifications = new ArrayList<>();
+        captor.getAllValues().forEach(message -> notifications.add((BuildLogNotification) message));
+        return notifications;
+    }
+}
@@ -20,8 +20,12 @@ package org.jboss.pnc.notification;
 import org.jboss.pnc.notification.DefaultNotifier;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 import org.jboss.pnc.spi.notifications.AttachedClient;
@@ -29,10 +33,18 @@ import org.jboss.pnc.spi.notifications.MessageCallback;
 import org.jboss.pnc.spi.notifications.Notifier;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.internal.verification.Times;
+
+import java.util.Collections;
+import java.util.Map;
 
 public class DefaultNotifierTest {
 
+    private static final Map<String, String> MESSAGE = Collections.singletonMap("message", "hello");
+
+    private static final String SERIALIZED_MESSAGE = "{\"message\":\"hello\"}";
+
+    private static final int TIMEOUT = 1000;
+
     @Test
     public void shouldAddNotifier() throws Exception {
         // given
@@ -65,18 +77,16 @@ public class DefaultNotifierTest {
     @Test
     public void shouldSendAMessage() throws Exception {
         // given
-        Object messageBody = new Object();
-
         Notifier notifier = new DefaultNotifier();
         AttachedClient attachedClient = mock(AttachedClient.class);
         doReturn(true).when(attachedClient).isEnabled();
         notifier.attachClient(attachedClient);
 
         // when
-        notifier.sendMessage(messageBody);
+        notifier.sendMessage(MESSAGE);
 
         // then
-        verify(attachedClient).sendMessage(messageBody, notifier.getCallback());
+        verify(attachedClient, timeout(TIMEOUT)).sendSerializedMessage(eq(SERIALIZED_MESSAGE), any());
         assertThat(notifier.getAttachedClientsCount()).isEqualTo(1);
     }
 
@@ -94,10 +104,10 @@ public class DefaultNotifierTest {
         notifier.attachClient(attachedClient);
 
         // when
-        notifier.sendMessage(new Object());
+        notifier.sendMessage(MESSAGE);
 
         // then
-        verify(attachedClient).sendMessage(any(), messageCallback.capture());
+        verify(attachedClient, timeout(TIMEOUT)).sendSerializedMessage(any(), messageCallback.capture());
 
         messageCallback.getValue().successful(attachedClient);
         assertThat(notifier.getAttachedClientsCount()).isEqualTo(1);
@@ -106,18 +116,16 @@ public class DefaultNotifierTest {
     @Test
     public void shouldNotSendAMessageToDisabledClient() throws Exception {
         // given
-        Object messageBody = new Object();
-
         Notifier notifier = new DefaultNotifier();
         AttachedClient attachedClient = mock(AttachedClient.class);
         doReturn(false).when(attachedClient).isEnabled();
         notifier.attachClient(attachedClient);
 
         // when
-        notifier.sendMessage(messageBody);
+        notifier.sendMessage(MESSAGE);
 
         // then
-        verify(attachedClient, new Times(0)).sendMessage(messageBody, notifier.getCallback());
+        verify(attachedClient, after(TIMEOUT / 5).never()).sendSerializedMessage(any(), any());
         assertThat(notifier.getAttachedClientsCount()).isEqualTo(1);
     }
 
@@ -135,13 +143,73 @@ public class DefaultNotifierTest {
         notifier.attachClient(attachedClient);
 
         // when
-        notifier.sendMessage(new Object());
+        notifier.sendMessage(MESSAGE);
 
         // then
-        verify(attachedClient).sendMessage(any(), messageCallback.capture());
+        verify(attachedClient, timeout(TIMEOUT)).sendSerializedMessage(any(), messageCallback.capture());
 
         messageCallback.getValue().failed(attachedClient, new Throwable());
         assertThat(notifier.getAttachedClientsCount()).isEqualTo(0);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldSendTopicMessageOnlyToSubscribers() throws Exception {
+        // given
+        Notifier notifier = new DefaultNotifier();
+        AttachedClient subscriber = mock(AttachedClient.class);
+        doReturn(true).when(subscriber).isEnabled();
+        doReturn(true).when(subscriber).isSubscribed(Notifier.Topic.CAUSEWAY_PUSH.getId(), "1");
+        AttachedClient otherClient = mock(AttachedClient.class);
+        doReturn(true).when(otherClient).isEnabled();
+        notifier.attachClient(subscriber);
+        notifier.attachClient(otherClient);
+        notifier.subscribe(subscriber, Notifier.Topic.CAUSEWAY_PUSH.getId(), "1");
+
+        // when
+        notifier.sendMessage(MESSAGE, Notifier.Topic.CAUSEWAY_PUSH, "1");
+
+        // then
+        verify(subscriber, timeout(TIMEOUT)).sendSerializedMessage(eq(SERIALIZED_MESSAGE), any());
+        verify(otherClient, after(TIMEOUT / 5).never()).sendSerializedMessage(any(), any());
+    }
+
+    @Test
+    public void shouldSendTheBuildLogTailBeforeLiveLines() throws Exception {
+        // given
+        DefaultNotifier notifier = new DefaultNotifier();
+        DefaultBuildLogRelay relay = new DefaultBuildLogRelay(notifier);
+        notifier.buildLogRelay = relay;
+        AttachedClient subscriber = mock(AttachedClient.class);
+        doReturn(true).when(subscriber).isEnabled();
+        doReturn(true).when(subscriber).isSubscribed(Notifier.Topic.BUILD_LOG.getId(), "1");
+        doAnswer(invocation -> {
+            invocation.getArgument(1, MessageCallback.class).successful(subscriber);
+            return null;
+        }).when(subscriber).sendSerializedMessage(any(), any());
+        notifier.attachClient(subscriber);
+        relay.started(1);
+        relay.append(1, "tail line\n");
+
+        // when
+        assertThat(notifier.hasSubscribers(Notifier.Topic.BUILD_LOG, "1")).isFalse();
+        notifier.subscribe(subscriber, Notifier.Topic.BUILD_LOG.getId(), "1");
+        relay.append(1, "live line\n");
+        relay.completed(1);
+
+        // then
+        assertThat(notifier.hasSubscribers(Notifier.Topic.BUILD_LOG, "1")).isTrue();
+        ArgumentCaptor<String> messages = ArgumentCaptor.forClass(String.class);
+        verify(subscriber, timeout(TIMEOUT).times(2)).sendSerializedMessage(messages.capture(), any());
+        assertThat(messages.getAllValues().get(0)).contains("tail line").doesNotContain("live line");
+        assertThat(messages.getAllValues().get(1)).contains("live line").doesNotContain("tail line");
+        relay.destroy();
+    }
+
+    @Test
+    public void shouldDisconnectSlowClientsUnlessConfiguredOtherwise() {
+        assertThat(DefaultNotifier.toSlowClientPolicy(null)).isEqualTo(SlowClientPolicy.DISCONNECT);
+        assertThat(DefaultNotifier.toSlowClientPolicy("DROP_OLDEST")).isEqualTo(SlowClientPolicy.DROP_OLDEST);
+        assertThat(DefaultNotifier.toSlowClientPolicy("unknown")).isEqualTo(SlowClientPolicy.DISCONNECT);
+    }
+
+}
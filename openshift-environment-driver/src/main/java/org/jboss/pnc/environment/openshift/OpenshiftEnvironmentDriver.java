@@ -18,6 +18,9 @@
 
 package org.jboss.pnc.environment.openshift;
 
+import com.openshift.internal.restclient.model.Pod;
+import com.openshift.restclient.ClientBuilder;
+import com.openshift.restclient.IClient;
 import org.jboss.pnc.common.Date.ExpiresDate;
 import org.jboss.pnc.common.concurrent.MDCExecutors;
 import org.jboss.pnc.common.concurrent.NamedThreadFactory;
@@ -31,6 +34,7 @@ import org.jboss.pnc.enums.SystemImageType;
 import org.jboss.pnc.pncmetrics.MetricsConfiguration;
 import org.jboss.pnc.spi.builddriver.DebugData;
 import org.jboss.pnc.spi.environment.EnvironmentDriver;
+import org.jboss.pnc.spi.environment.RunningEnvironment;
 import org.jboss.pnc.spi.environment.StartedEnvironment;
 import org.jboss.pnc.spi.environment.exception.EnvironmentDriverException;
 import org.jboss.pnc.spi.repositorymanager.model.RepositorySession;
@@ -40,10 +44,14 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
@@ -64,6 +72,8 @@ public class OpenshiftEnvironmentDriver implements EnvironmentDriver {
     private SystemConfig systemConfig;
     private PollingMonitor pollingMonitor;
     private MetricsConfiguration metricsConfig;
+    private PodWatcher podWatcher;
+    private WarmPodPool warmPodPool;
 
     @Deprecated // CDI workaround
     public OpenshiftEnvironmentDriver() {
@@ -93,6 +103,30 @@ public class OpenshiftEnvironmentDriver implements EnvironmentDriver {
                 .newFixedThreadPool(executorThreadPoolSize, new NamedThreadFactory("openshift-environment-driver"));
         this.metricsConfig = metricsConfig;
 
+        if (openshiftEnvironmentDriverModuleConfig.getWatchPodReadiness()) {
+            podWatcher = new PodWatcher(
+                    openshiftEnvironmentDriverModuleConfig.getRestEndpointUrl(),
+                    openshiftEnvironmentDriverModuleConfig.getRestAuthToken(),
+                    openshiftEnvironmentDriverModuleConfig.getPncNamespace());
+        }
+
+        if (!openshiftEnvironmentDriverModuleConfig.isDisabled()) {
+            deleteLeftoverPoolPods();
+        }
+
+        int warmPoolSize = openshiftEnvironmentDriverModuleConfig.getWarmPoolSize();
+        if (warmPoolSize > 0 && !openshiftEnvironmentDriverModuleConfig.isDisabled()) {
+            warmPodPool = new WarmPodPool(
+                    warmPoolSize,
+                    TimeUnit.MINUTES.toMillis(openshiftEnvironmentDriverModuleConfig.getWarmPoolMaxIdleMinutes()),
+                    this::startPooledEnvironment,
+                    environment -> ((OpenshiftStartedEnvironment) environment).markClaimed());
+            if (metricsConfig != null) {
+                warmPodPool.initMetrics(metricsConfig.getMetricRegistry());
+            }
+            logger.info("Keeping {} idle pods per build environment image.", warmPoolSize);
+        }
+
         logger.info(
                 "Is OpenShift environment driver disabled: {}",
                 openshiftEnvironmentDriverModuleConfig.isDisabled());
@@ -115,19 +149,82 @@ public class OpenshiftEnvironmentDriver implements EnvironmentDriver {
                             + compatibleImageTypes);
         String buildImageId = StringUtils.addEndingSlash(systemImageRepositoryUrl)
                 + StringUtils.stripTrailingSlash(systemImageId);
+        Instant temporaryBuildExpireDate = ExpiresDate
+                .getTemporaryBuildExpireDate(systemConfig.getTemporaryBuildsLifeSpan(), tempBuild);
+
+        // the ssh password for debugging and the memory size are set when the pod starts, such builds get a new pod
+        if (warmPodPool != null && !debugData.isEnableDebugOnFailure()
+                && !parameters.containsKey(OpenshiftStartedEnvironment.BUILDER_POD_MEMORY)) {
+            Optional<RunningEnvironment> warm = warmPodPool.claim(buildImageId);
+            if (warm.isPresent()) {
+                Map<String, String> buildEnvironment = OpenshiftStartedEnvironment
+                        .buildEnvironment(repositorySession, accessToken, tempBuild, temporaryBuildExpireDate);
+                return WarmPodPool.started(
+                        WarmPodPool.bind(warm.get(), repositorySession, debugData, buildEnvironment));
+            }
+        }
+
         return new OpenshiftStartedEnvironment(
                 executor,
                 openshiftBuildAgentConfig,
                 openshiftEnvironmentDriverModuleConfig,
                 pollingMonitor,
+                podWatcher,
                 repositorySession,
                 buildImageId,
                 debugData,
                 accessToken,
                 tempBuild,
-                ExpiresDate.getTemporaryBuildExpireDate(systemConfig.getTemporaryBuildsLifeSpan(), tempBuild),
+                temporaryBuildExpireDate,
+                metricsConfig,
+                parameters,
+                false);
+    }
+
+    /**
+     * Deletes the idle pods of the pool which were not destroyed by a previous run, eg. after a crash. They are listed
+     * before the pool of this run starts any pod and deleted in the background. Done also when the pool is disabled, so
+     * turning the pool off cleans up after it.
+     */
+    private void deleteLeftoverPoolPods() {
+        List<Pod> leftovers;
+        IClient client;
+        try {
+            client = new ClientBuilder(openshiftEnvironmentDriverModuleConfig.getRestEndpointUrl())
+                    .usingToken(openshiftEnvironmentDriverModuleConfig.getRestAuthToken())
+                    .build();
+            leftovers = OpenshiftStartedEnvironment.listIdlePoolPods(client, openshiftEnvironmentDriverModuleConfig);
+        } catch (RuntimeException e) {
+            // the driver still works, the leftovers are only wasting resources
+            logger.warn("Cannot list the idle pods left behind by the pool.", e);
+            return;
+        }
+        if (!leftovers.isEmpty()) {
+            logger.info("Deleting {} idle pods left behind by the pool.", leftovers.size());
+        }
+        for (Pod pod : leftovers) {
+            executor.execute(
+                    () -> OpenshiftStartedEnvironment
+                            .deleteIdlePoolPod(client, openshiftEnvironmentDriverModuleConfig, pod));
+        }
+    }
+
+    private StartedEnvironment startPooledEnvironment(String buildImageId) {
+        return new OpenshiftStartedEnvironment(
+                executor,
+                openshiftBuildAgentConfig,
+                openshiftEnvironmentDriverModuleConfig,
+                pollingMonitor,
+                podWatcher,
+                null,
+                buildImageId,
+                new DebugData(false),
+                null,
+                false,
+                Instant.now(),
                 metricsConfig,
-                parameters);
+                Collections.emptyMap(),
+                true);
     }
 
     @Override
@@ -141,6 +238,12 @@ public class OpenshiftEnvironmentDriver implements EnvironmentDriver {
 
     @PreDestroy
     public void destroy() {
+        if (warmPodPool != null) {
+            warmPodPool.close();
+        }
+        if (podWatcher != null) {
+            podWatcher.close();
+        }
         executor.shutdownNow();
     }
 }
@@ -58,12 +58,17 @@ import java.net.URL;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
@@ -106,16 +111,35 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
     /**
      * Parameter specifying override for the builder pod memory size.
      */
-    private static final String BUILDER_POD_MEMORY = "BUILDER_POD_MEMORY";
+    static final String BUILDER_POD_MEMORY = "BUILDER_POD_MEMORY";
+
+    /**
+     * Label of the pods started ahead of the builds, see {@link WarmPodPool}.
+     */
+    static final String POOL_LABEL = "pnc-build-agent-pool";
+    static final String POOL_IDLE = "idle";
+    static final String POOL_CLAIMED = "claimed";
+
+    private static final String POD_NAME_PREFIX = "pnc-ba-pod-";
+    private static final String SERVICE_NAME_PREFIX = "pnc-ba-service-";
+    private static final String ROUTE_NAME_PREFIX = "pnc-ba-route-";
+
+    /**
+     * Variables specific to a build, empty in the pods started ahead of the builds.
+     */
+    private static final String[] BUILD_ENVIRONMENT = { "AProxDependencyUrl", "AProxDeployUrl", "buildContentId",
+            "accessToken", "tempBuild", "expiresDate", "logUserId", "logProcessContext" };
 
     private final IClient client;
     private final RepositorySession repositorySession;
     private final OpenshiftBuildAgentConfig openshiftBuildAgentConfig;
     private final OpenshiftEnvironmentDriverModuleConfig environmentConfiguration;
     private final PollingMonitor pollingMonitor;
+    private final Optional<PodWatcher> podWatcher;
     private final String imageId;
     private final DebugData debugData;
     private final Map<String, String> environmetVariables;
+    private final boolean pooled;
 
     private final ExecutorService executor;
     private Optional<GaugeMetric> gaugeMetric = Optional.empty();
@@ -146,6 +170,7 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
             OpenshiftBuildAgentConfig openshiftBuildAgentConfig,
             OpenshiftEnvironmentDriverModuleConfig environmentConfiguration,
             PollingMonitor pollingMonitor,
+            PodWatcher podWatcher,
             RepositorySession repositorySession,
             String systemImageId,
             DebugData debugData,
@@ -153,7 +178,8 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
             boolean tempBuild,
             Instant temporaryBuildExpireDate,
             MetricsConfiguration metricsConfiguration,
-            Map<String, String> parameters) {
+            Map<String, String> parameters,
+            boolean pooled) {
 
         creationPodRetry = DEFAULT_CREATION_POD_RETRY;
 
@@ -171,9 +197,11 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         this.openshiftBuildAgentConfig = openshiftBuildAgentConfig;
         this.environmentConfiguration = environmentConfiguration;
         this.pollingMonitor = pollingMonitor;
+        this.podWatcher = Optional.ofNullable(podWatcher);
         this.repositorySession = repositorySession;
         this.imageId = systemImageId == null ? environmentConfiguration.getImageId() : systemImageId;
         this.debugData = debugData;
+        this.pooled = pooled;
         if (metricsConfiguration != null) {
             this.gaugeMetric = Optional.of(metricsConfiguration.getGaugeMetric());
         }
@@ -188,7 +216,6 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         environmetVariables = new HashMap<>();
 
         final String buildAgentHost = environmentConfiguration.getBuildAgentHost();
-        String expiresDateStamp = Long.toString(temporaryBuildExpireDate.toEpochMilli());
 
         Boolean proxyActive = !StringUtils.isEmpty(environmentConfiguration.getProxyServer())
                 && !StringUtils.isEmpty(environmentConfiguration.getProxyPort());
@@ -205,17 +232,15 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         environmetVariables.put("proxyPort", environmentConfiguration.getProxyPort());
         environmetVariables.put("nonProxyHosts", environmentConfiguration.getNonProxyHosts());
 
-        environmetVariables.put("AProxDependencyUrl", repositorySession.getConnectionInfo().getDependencyUrl());
-        environmetVariables.put("AProxDeployUrl", repositorySession.getConnectionInfo().getDeployUrl());
-
         environmetVariables.put("build-agent-host", buildAgentHost);
         environmetVariables.put("containerPort", environmentConfiguration.getContainerPort());
-        environmetVariables.put("buildContentId", repositorySession.getBuildRepositoryId());
-        environmetVariables.put("accessToken", accessToken);
-        environmetVariables.put("tempBuild", Boolean.toString(tempBuild));
-        environmetVariables.put("expiresDate", "ts" + expiresDateStamp);
-        MDCUtils.getUserId().ifPresent(v -> environmetVariables.put("logUserId", v));
-        MDCUtils.getProcessContext().ifPresent(v -> environmetVariables.put("logProcessContext", v));
+        if (pooled) {
+            // the build which claims the pod gets the values through RunningEnvironment#getBuildEnvironment
+            Arrays.stream(BUILD_ENVIRONMENT).forEach(name -> environmetVariables.put(name, ""));
+        } else {
+            environmetVariables
+                    .putAll(buildEnvironment(repositorySession, accessToken, tempBuild, temporaryBuildExpireDate));
+        }
         environmetVariables.put("resourcesMemory", builderPodMemory(environmentConfiguration, parameters));
 
         createEnvironment();
@@ -226,10 +251,10 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         buildAgentContextPath = "pnc-ba-" + randString;
 
         // variables specific to to this pod (retry)
-        environmetVariables.put("pod-name", "pnc-ba-pod-" + randString);
-        environmetVariables.put("service-name", "pnc-ba-service-" + randString);
+        environmetVariables.put("pod-name", POD_NAME_PREFIX + randString);
+        environmetVariables.put("service-name", SERVICE_NAME_PREFIX + randString);
         environmetVariables.put("ssh-service-name", "pnc-ba-ssh-" + randString);
-        environmetVariables.put("route-name", "pnc-ba-route-" + randString);
+        environmetVariables.put("route-name", ROUTE_NAME_PREFIX + randString);
         environmetVariables.put("route-path", "/" + buildAgentContextPath);
         environmetVariables.put("buildAgentContextPath", "/" + buildAgentContextPath);
 
@@ -243,6 +268,9 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
                 client,
                 ResourcePropertiesRegistry.getInstance().get(OSE_API_VERSION, ResourceKind.POD));
         pod.setNamespace(environmentConfiguration.getPncNamespace());
+        if (pooled) {
+            pod.addLabel(POOL_LABEL, POOL_IDLE);
+        }
         Runnable createPod = () -> {
             try {
                 client.create(pod, pod.getNamespace());
@@ -297,6 +325,79 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         gaugeMetric.ifPresent(g -> g.incrementMetric(METRICS_POD_STARTED_ATTEMPTED_KEY));
     }
 
+    /**
+     * Variables of the pod specific to the build.
+     */
+    static Map<String, String> buildEnvironment(
+            RepositorySession repositorySession,
+            String accessToken,
+            boolean tempBuild,
+            Instant temporaryBuildExpireDate) {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("AProxDependencyUrl", repositorySession.getConnectionInfo().getDependencyUrl());
+        variables.put("AProxDeployUrl", repositorySession.getConnectionInfo().getDeployUrl());
+        variables.put("buildContentId", repositorySession.getBuildRepositoryId());
+        variables.put("accessToken", accessToken);
+        variables.put("tempBuild", Boolean.toString(tempBuild));
+        variables.put("expiresDate", "ts" + temporaryBuildExpireDate.toEpochMilli());
+        MDCUtils.getUserId().ifPresent(v -> variables.put("logUserId", v));
+        MDCUtils.getProcessContext().ifPresent(v -> variables.put("logProcessContext", v));
+        return variables;
+    }
+
+    /**
+     * Relabels the idle pod of the pool as claimed by a build, so it is not mistaken for an idle one.
+     */
+    void markClaimed() {
+        pod = client.get(pod.getKind(), pod.getName(), environmentConfiguration.getPncNamespace());
+        pod.addLabel(POOL_LABEL, POOL_CLAIMED);
+        pod = client.update(pod);
+        logger.debug("Pod {} claimed from the pool.", pod.getName());
+    }
+
+    /**
+     * Lists the idle pods of the pool in the namespace. Called when the driver starts, before the pool of the driver
+     * starts any pod, so the listed pods are left behind by a previous run and are never claimed.
+     */
+    static List<Pod> listIdlePoolPods(IClient client, OpenshiftEnvironmentDriverModuleConfig environmentConfiguration) {
+        return client.list(
+                ResourceKind.POD,
+                environmentConfiguration.getPncNamespace(),
+                Collections.singletonMap(POOL_LABEL, POOL_IDLE));
+    }
+
+    /**
+     * Deletes the pod left behind by the pool together with its service and route. Failures are logged only.
+     */
+    static void deleteIdlePoolPod(
+            IClient client,
+            OpenshiftEnvironmentDriverModuleConfig environmentConfiguration,
+            Pod pod) {
+        String namespace = environmentConfiguration.getPncNamespace();
+        try {
+            if (pod.getName().startsWith(POD_NAME_PREFIX)) {
+                // the service and route of the pod share the random suffix of its name
+                String suffix = pod.getName().substring(POD_NAME_PREFIX.length());
+                if (environmentConfiguration.getExposeBuildAgentOnPublicUrl()) {
+                    deleteIfExists(client, ResourceKind.ROUTE, ROUTE_NAME_PREFIX + suffix, namespace);
+                }
+                deleteIfExists(client, ResourceKind.SERVICE, SERVICE_NAME_PREFIX + suffix, namespace);
+            }
+            deleteIfExists(client, ResourceKind.POD, pod.getName(), namespace);
+            logger.info("Deleted idle pod {} left behind by the pool.", pod.getName());
+        } catch (OpenShiftException e) {
+            logger.warn("Cannot delete idle pod {} left behind by the pool.", pod.getName(), e);
+        }
+    }
+
+    private static void deleteIfExists(IClient client, String kind, String name, String namespace) {
+        try {
+            client.delete(client.get(kind, name, namespace));
+        } catch (NotFoundException e) {
+            logger.debug("{} {} does not exist any more.", kind, name);
+        }
+    }
+
     private String builderPodMemory(
             OpenshiftEnvironmentDriverModuleConfig environmentConfiguration1,
             Map<String, String> parameters) {
@@ -420,21 +521,33 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         cancelHook = () -> onComplete.accept(null);
 
         CompletableFuture<Void> podFuture = creatingPod.thenComposeAsync(nul -> {
-            CancellableCompletableFuture<Void> monitor = pollingMonitor.monitor(() -> isPodRunning());
+            CancellableCompletableFuture<Void> monitor = podWatcher.map(this::watchPodRunning)
+                    .orElseGet(() -> pollingMonitor.monitor(() -> isPodRunning()));
             addFuture(monitor);
             return monitor;
         }, executor);
 
-        CompletableFuture<Void> serviceFuture = creatingService.thenComposeAsync(nul -> {
-            CancellableCompletableFuture<Void> monitor = pollingMonitor.monitor(() -> isServiceRunning());
-            addFuture(monitor);
-            return monitor;
-        }, executor);
+        CompletableFuture<Void> serviceFuture;
+        if (podWatcher.isPresent()) {
+            // the service gets its endpoint once the pod runs, no need to ask for it before
+            serviceFuture = CompletableFuture.allOf(creatingService, podFuture).thenComposeAsync(nul -> {
+                CancellableCompletableFuture<Void> monitor = pollingMonitor
+                        .monitorWithBackoff(() -> isServiceRunning());
+                addFuture(monitor);
+                return monitor;
+            }, executor);
+        } else {
+            serviceFuture = creatingService.thenComposeAsync(nul -> {
+                CancellableCompletableFuture<Void> monitor = pollingMonitor.monitor(() -> isServiceRunning());
+                addFuture(monitor);
+                return monitor;
+            }, executor);
+        }
 
         CompletableFuture<Void> routeFuture;
         if (creatingRoute.isPresent()) {
             routeFuture = creatingRoute.get().thenComposeAsync(nul -> {
-                CancellableCompletableFuture<Void> monitor = pollingMonitor.monitor(() -> isRouteRunning());
+                CancellableCompletableFuture<Void> monitor = pollingMonitor.monitorWithBackoff(() -> isRouteRunning());
                 addFuture(monitor);
                 return monitor;
             }, executor);
@@ -448,9 +561,14 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
             return null;
         });
 
-        CancellableCompletableFuture<Void> isBuildAgentUpFuture = pollingMonitor
-                .monitor(() -> isServletAvailable(buildAgentUrl));
-        addFuture(isBuildAgentUpFuture);
+        // probe the agent once it can be up, backing off while it boots
+        CompletableFuture<Void> isBuildAgentUpFuture = CompletableFuture.allOf(podFuture, serviceFuture)
+                .thenComposeAsync(nul -> {
+                    CancellableCompletableFuture<Void> monitor = pollingMonitor
+                            .monitorWithBackoff(() -> isServletAvailable(buildAgentUrl));
+                    addFuture(monitor);
+                    return monitor;
+                }, executor);
 
         CompletableFuture<RunningEnvironment> runningEnvironmentFuture = CompletableFuture
                 .allOf(podFuture, serviceFuture, routeFuture)
@@ -494,6 +612,32 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         logger.info("Waiting to initialize environment. Pod [{}]; Service [{}].", pod.getName(), service.getName());
     }
 
+    /**
+     * Waits for the pod on the watch shared by all environments of the namespace. The wait is limited by the timeout
+     * of the polling monitor so both modes fail the same way.
+     */
+    private CancellableCompletableFuture<Void> watchPodRunning(PodWatcher watcher) {
+        String podName = pod.getName();
+        int timeout = pollingMonitor.getTimeout();
+        CancellableCompletableFuture<Void> running = watcher.awaitRunning(podName);
+        ScheduledFuture<?> timeoutFuture = pollingMonitor.timer(
+                () -> running.completeExceptionally(
+                        new TimeoutException("Pod " + podName + " did not start in " + timeout + " seconds.")),
+                timeout,
+                TimeUnit.SECONDS);
+        running.whenComplete((nul, throwable) -> {
+            timeoutFuture.cancel(false);
+            if (throwable instanceof PodFailedStartException) {
+                String podStatus = watcher.getStatus(podName).orElse("Unknown");
+                logger.debug("Pod {} failed with status: {}", podName, podStatus);
+                gaugeMetric.ifPresent(g -> g.incrementMetric(METRICS_POD_STARTED_FAILED_REASON_KEY + "." + podStatus));
+            } else if (throwable == null) {
+                logger.debug("Pod {} running.", podName);
+            }
+        });
+        return running;
+    }
+
     private void addFuture(CancellableCompletableFuture<Void> future) {
         runningMonitors.add(future);
     }
@@ -538,7 +682,7 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         String podStatus = pod.getStatus();
         logger.debug("Pod {} status: {}", pod.getName(), podStatus);
 
-        if (Arrays.asList(POD_FAILED_STATUSES).contains(podStatus)) {
+        if (isPodFailedStatus(podStatus)) {
             gaugeMetric.ifPresent(g -> g.incrementMetric(METRICS_POD_STARTED_FAILED_REASON_KEY + "." + podStatus));
             throw new PodFailedStartException("Pod failed with status: " + podStatus);
         }
@@ -551,6 +695,10 @@ public class OpenshiftStartedEnvironment implements StartedEnvironment {
         return false;
     }
 
+    static boolean isPodFailedStatus(String podStatus) {
+        return Arrays.asList(POD_FAILED_STATUSES).contains(podStatus);
+    }
+
     private boolean isServiceRunning() {
         service = client.get(service.getKind(), service.getName(), environmentConfiguration.getPncNamespace());
         boolean isRunning = service.getPods().size() > 0;
@@ -0,0 +1,351 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.environment.openshift;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
+import org.jboss.pnc.common.monitor.CancellableCompletableFuture;
+import org.jboss.pnc.common.util.StringUtils;
+import org.jboss.pnc.environment.openshift.exceptions.PodFailedStartException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the state of all pods in a namespace over a single watch stream of the API server and completes the futures
+ * of the environments waiting for their pod to start. Replaces one polling request per starting pod and second with
+ * one long lived connection per namespace.
+ * <p>
+ * The watcher follows the list-then-watch protocol of the Kubernetes API: the current state of the namespace is listed
+ * first and changes are then streamed from the returned resource version. When the stream ends it is resumed from the
+ * last seen version, when the version expired (410 Gone) the namespace is listed again. Connection failures are
+ * retried with an exponential backoff.
+ *
+ * @see OpenshiftStartedEnvironment#isPodFailedStatus(String)
+ */
+public class PodWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PodWatcher.class);
+
+    static final String RUNNING = "Running";
+
+    private static final String PENDING = "Pending";
+
+    /** The API server closes the watch after this time and the watcher resumes it; guards against stale streams. */
+    private static final int WATCH_TIMEOUT_SECONDS = 300;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private static final long INITIAL_RECONNECT_DELAY_MILLIS = 100;
+
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30000;
+
+    private static final int HTTP_GONE = 410;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final String podsUrl;
+
+    private final String authToken;
+
+    /** Last known status of the pods in the namespace. Guarded by this. */
+    private final Map<String, String> statuses = new HashMap<>();
+
+    /** Futures waiting for the pod to run. Guarded by this. */
+    private final Map<String, List<CancellableCompletableFuture<Void>>> waiting = new HashMap<>();
+
+    private Thread watchThread;
+
+    private volatile boolean closed;
+
+    public PodWatcher(String restEndpointUrl, String authToken, String namespace) {
+        this.podsUrl = StringUtils.stripTrailingSlash(restEndpointUrl) + "/api/v1/namespaces/" + namespace + "/pods";
+        this.authToken = authToken;
+    }
+
+    /**
+     * Returns a future completed when the pod is running or completed exceptionally with
+     * {@link PodFailedStartException} when the pod gets to one of the failed statuses. The future has no timeout of its
+     * own; cancel it to stop waiting.
+     *
+     * @param podName name of the pod in the watched namespace
+     */
+    public CancellableCompletableFuture<Void> awaitRunning(String podName) {
+        CancellableCompletableFuture<Void> future = new CancellableCompletableFuture<>(() -> {});
+        // also drops futures completed from the outside, e.g. on a timeout
+        future.whenComplete((nul, throwable) -> unregister(podName));
+
+        List<Runnable> completions = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Pod watcher for " + podsUrl + " is closed.");
+            }
+            ensureStarted();
+            waiting.computeIfAbsent(podName, n -> new ArrayList<>()).add(future);
+            String status = statuses.get(podName);
+            if (status != null) {
+                onStatus(podName, status, completions);
+            }
+        }
+        completions.forEach(Runnable::run);
+        return future;
+    }
+
+    /**
+     * @return last status of the pod received from the API server
+     */
+    public synchronized Optional<String> getStatus(String podName) {
+        return Optional.ofNullable(statuses.get(podName));
+    }
+
+    /**
+     * Fails the pending futures and stops the watch. The open stream is not disconnected as that blocks until the
+     * pending read returns; the daemon thread ends at the next event or when the server closes the watch.
+     */
+    @Override
+    public void close() {
+        List<CancellableCompletableFuture<Void>> pending = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            waiting.values().forEach(pending::addAll);
+            waiting.clear();
+            if (watchThread != null) {
+                watchThread.interrupt();
+            }
+        }
+        pending.forEach(f -> f.completeExceptionally(new IllegalStateException("Pod watcher closed.")));
+    }
+
+    private void ensureStarted() {
+        if (watchThread == null) {
+            watchThread = new NamedThreadFactory("openshift-pod-watcher").newThread(this::run);
+            watchThread.setDaemon(true);
+            watchThread.start();
+        }
+    }
+
+    private synchronized void unregister(String podName) {
+        List<CancellableCompletableFuture<Void>> futures = waiting.get(podName);
+        if (futures != null) {
+            futures.removeIf(CancellableCompletableFuture::isDone);
+            if (futures.isEmpty()) {
+                waiting.remove(podName);
+            }
+        }
+    }
+
+    private void run() {
+        long reconnectDelay = INITIAL_RECONNECT_DELAY_MILLIS;
+        while (!closed) {
+            try {
+                String resourceVersion = list();
+                reconnectDelay = INITIAL_RECONNECT_DELAY_MILLIS;
+                while (!closed && resourceVersion != null) {
+                    resourceVersion = watch(resourceVersion);
+                }
+            } catch (IOException | RuntimeException e) {
+                if (closed) {
+                    break;
+                }
+                logger.warn("Watching pods at {} failed, reconnecting in {} ms.", podsUrl, reconnectDelay, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(reconnectDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MILLIS);
+            }
+        }
+        logger.debug("Pod watcher for {} stopped.", podsUrl);
+    }
+
+    /**
+     * Replaces the known statuses with the current state of the namespace.
+     *
+     * @return resource version to start watching from
+     */
+    private String list() throws IOException {
+        HttpURLConnection listConnection = open(podsUrl, CONNECT_TIMEOUT_MILLIS * 6);
+        JsonNode podList;
+        try (InputStream in = listConnection.getInputStream()) {
+            podList = mapper.readTree(in);
+        } finally {
+            listConnection.disconnect();
+        }
+        List<Runnable> completions = new ArrayList<>();
+        synchronized (this) {
+            statuses.clear();
+            for (JsonNode pod : podList.path("items")) {
+                statuses.put(pod.path("metadata").path("name").asText(), podStatus(pod));
+            }
+            for (String name : new ArrayList<>(waiting.keySet())) {
+                String status = statuses.get(name);
+                if (status != null) {
+                    onStatus(name, status, completions);
+                }
+            }
+        }
+        completions.forEach(Runnable::run);
+        logger.debug("Listed {} pods at {}.", podList.path("items").size(), podsUrl);
+        return podList.path("metadata").path("resourceVersion").asText();
+    }
+
+    /**
+     * Streams the changes until the server closes the watch.
+     *
+     * @return resource version to resume from or null if the namespace has to be listed again
+     */
+    private String watch(String resourceVersion) throws IOException {
+        String url = podsUrl + "?watch=true&resourceVersion=" + resourceVersion + "&timeoutSeconds="
+                + WATCH_TIMEOUT_SECONDS;
+        HttpURLConnection watchConnection = open(url, (WATCH_TIMEOUT_SECONDS + 30) * 1000);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(watchConnection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (!closed && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JsonNode event = mapper.readTree(line);
+                String type = event.path("type").asText();
+                JsonNode object = event.path("object");
+                if ("ERROR".equals(type)) {
+                    if (object.path("code").asInt() == HTTP_GONE) {
+                        logger.debug("Resource version {} expired, listing pods again.", resourceVersion);
+                        return null;
+                    }
+                    throw new IOException("Watch error: " + object.path("message").asText());
+                }
+                onEvent(type, object);
+                String version = object.path("metadata").path("resourceVersion").asText();
+                if (!version.isEmpty()) {
+                    resourceVersion = version;
+                }
+            }
+        } finally {
+            watchConnection.disconnect();
+        }
+        return resourceVersion;
+    }
+
+    private HttpURLConnection open(String url, int readTimeout) throws IOException {
+        HttpURLConnection urlConnection = (HttpURLConnection) new URL(url).openConnection();
+        urlConnection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        urlConnection.setReadTimeout(readTimeout);
+        urlConnection.setRequestProperty("Accept", "application/json");
+        if (!StringUtils.isEmpty(authToken)) {
+            urlConnection.setRequestProperty("Authorization", "Bearer " + authToken);
+        }
+        int responseCode = urlConnection.getResponseCode();
+        if (responseCode == HTTP_GONE) {
+            // an expired version may be refused before the stream starts; the caller lists again
+            urlConnection.disconnect();
+            throw new IOException("Resource version expired: " + url);
+        }
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            urlConnection.disconnect();
+            throw new IOException("Unexpected response " + responseCode + " from " + url);
+        }
+        return urlConnection;
+    }
+
+    private void onEvent(String type, JsonNode pod) {
+        String name = pod.path("metadata").path("name").asText();
+        List<Runnable> completions = new ArrayList<>();
+        synchronized (this) {
+            if ("DELETED".equals(type)) {
+                statuses.remove(name);
+                List<CancellableCompletableFuture<Void>> futures = waiting.remove(name);
+                if (futures != null) {
+                    futures.forEach(
+                            f -> completions.add(
+                                    () -> f.completeExceptionally(new PodFailedStartException("Pod was deleted."))));
+                }
+            } else {
+                String status = podStatus(pod);
+                String previous = statuses.put(name, status);
+                if (!status.equals(previous)) {
+                    logger.debug("Pod {} status: {}", name, status);
+                    onStatus(name, status, completions);
+                }
+            }
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    /**
+     * Must be called with the lock held. The futures are completed by the caller after releasing the lock, so the
+     * dependent stages of the environments never run while holding it.
+     */
+    private void onStatus(String podName, String status, List<Runnable> completions) {
+        boolean failed = OpenshiftStartedEnvironment.isPodFailedStatus(status);
+        if (!failed && !RUNNING.equals(status)) {
+            return;
+        }
+        List<CancellableCompletableFuture<Void>> futures = waiting.remove(podName);
+        if (futures == null) {
+            return;
+        }
+        for (CancellableCompletableFuture<Void> future : futures) {
+            if (failed) {
+                completions.add(
+                        () -> future.completeExceptionally(
+                                new PodFailedStartException("Pod failed with status: " + status)));
+            } else {
+                completions.add(() -> future.complete(null));
+            }
+        }
+    }
+
+    /**
+     * Resolves the status the same way the REST client does for polled pods: the reason a container is waiting or
+     * terminated if there is one, the phase of the pod otherwise. A failed phase takes precedence.
+     */
+    static String podStatus(JsonNode pod) {
+        JsonNode status = pod.path("status");
+        String phase = status.path("phase").isTextual() ? status.path("phase").textValue() : PENDING;
+        if (!OpenshiftStartedEnvironment.isPodFailedStatus(phase)) {
+            for (JsonNode containerStatus : status.path("containerStatuses")) {
+                JsonNode state = containerStatus.path("state");
+                for (String stateName : new String[] { "waiting", "terminated" }) {
+                    JsonNode reason = state.path(stateName).path("reason");
+                    if (reason.isTextual()) {
+                        return reason.textValue();
+                    }
+                }
+            }
+        }
+        return phase;
+    }
+}
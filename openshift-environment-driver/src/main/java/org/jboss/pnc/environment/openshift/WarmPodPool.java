@@ -0,0 +1,367 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.environment.openshift;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.jboss.pnc.common.concurrent.MDCExecutors;
+import org.jboss.pnc.common.concurrent.NamedThreadFactory;
+import org.jboss.pnc.spi.builddriver.DebugData;
+import org.jboss.pnc.spi.environment.RunningEnvironment;
+import org.jboss.pnc.spi.environment.StartedEnvironment;
+import org.jboss.pnc.spi.environment.exception.EnvironmentDriverException;
+import org.jboss.pnc.spi.repositorymanager.model.RepositorySession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps idle build agent pods started ahead of the builds, up to a configured number per build environment image. A
+ * build claims a running pod instead of waiting for the pod to be scheduled, the image pulled and the agent started;
+ * the claimed pod is replaced in the background.
+ * <p>
+ * The pool of an image is filled on the first request for the image. Pods idle longer than the max idle time are
+ * destroyed and not replaced, so the pools of images which are not built any more empty themselves.
+ * <p>
+ * The variables specific to the build are not known when the pod starts; they are bound to the claimed environment and
+ * exported by the build driver, see {@link RunningEnvironment#getBuildEnvironment()}.
+ */
+public class WarmPodPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmPodPool.class);
+
+    private static final String METRICS_KEY = "openshift-environment-driver.warm-pool";
+    private static final String METRICS_HIT_KEY = METRICS_KEY + ".hit";
+    private static final String METRICS_MISS_KEY = METRICS_KEY + ".miss";
+    private static final String METRICS_HIT_RATE_KEY = METRICS_KEY + ".hit-rate";
+    private static final String METRICS_CLAIM_KEY = METRICS_KEY + ".claim";
+    private static final String METRICS_IDLE_KEY = METRICS_KEY + ".idle";
+    private static final String METRICS_START_FAILED_KEY = METRICS_KEY + ".start.failed";
+    private static final String METRICS_EXPIRED_KEY = METRICS_KEY + ".expired";
+
+    private final int size;
+
+    private final long maxIdleMillis;
+
+    private final Function<String, StartedEnvironment> launcher;
+
+    private final Consumer<StartedEnvironment> claimer;
+
+    private final ScheduledExecutorService executor;
+
+    private Optional<MetricRegistry> metricRegistry = Optional.empty();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /** Running pods ready to be claimed, oldest first. Guarded by this. */
+    private final Map<String, Deque<Idle>> idle = new HashMap<>();
+
+    /** Number of pods being started. Guarded by this. */
+    private final Map<String, Integer> starting = new HashMap<>();
+
+    private boolean closed;
+
+    /**
+     * @param size number of idle pods to keep per image
+     * @param maxIdleMillis time after which an idle pod is destroyed
+     * @param launcher starts the environment of a pod for the pool, labelled as idle
+     * @param claimer marks the environment as used by a build, throws when the pod cannot be used
+     */
+    public WarmPodPool(
+            int size,
+            long maxIdleMillis,
+            Function<String, StartedEnvironment> launcher,
+            Consumer<StartedEnvironment> claimer) {
+        this.size = size;
+        this.maxIdleMillis = maxIdleMillis;
+        this.launcher = launcher;
+        this.claimer = claimer;
+        this.executor = MDCExecutors.newScheduledThreadPool(1, new NamedThreadFactory("openshift-warm-pod-pool"));
+
+        long evictionPeriod = Math.max(1000L, maxIdleMillis / 10);
+        executor.scheduleWithFixedDelay(this::evictExpired, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    public void initMetrics(MetricRegistry registry) {
+        registry.register(METRICS_IDLE_KEY, (Gauge<Integer>) this::getIdleCount);
+        registry.register(METRICS_HIT_RATE_KEY, (Gauge<Double>) this::getHitRate);
+        metricRegistry = Optional.of(registry);
+    }
+
+    /**
+     * Takes a running pod of the image from the pool and starts a replacement.
+     *
+     * @return the environment of the claimed pod, empty when there is no idle pod of the image
+     */
+    public Optional<RunningEnvironment> claim(String imageId) {
+        long start = System.nanoTime();
+        RunningEnvironment claimed = null;
+        Idle candidate;
+        while (claimed == null && (candidate = poll(imageId)) != null) {
+            try {
+                claimer.accept(candidate.started);
+                claimed = candidate.running;
+            } catch (RuntimeException e) {
+                logger.warn("Cannot claim pod {}, destroying it.", candidate.running.getId(), e);
+                destroy(candidate.running);
+            }
+        }
+        replenish(imageId);
+
+        if (claimed != null) {
+            hits.incrementAndGet();
+            long latency = System.nanoTime() - start;
+            logger.info("Claimed pod {} of image {} from the pool.", claimed.getId(), imageId);
+            metricRegistry.ifPresent(r -> {
+                r.meter(METRICS_HIT_KEY).mark();
+                r.timer(METRICS_CLAIM_KEY).update(latency, TimeUnit.NANOSECONDS);
+            });
+        } else {
+            misses.incrementAndGet();
+            logger.debug("No idle pod of image {} in the pool.", imageId);
+            metricRegistry.ifPresent(r -> r.meter(METRICS_MISS_KEY).mark());
+        }
+        return Optional.ofNullable(claimed);
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * @return ratio of the claims served from the pool since the start
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public void close() {
+        List<Idle> toDestroy = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            idle.values().forEach(toDestroy::addAll);
+            idle.clear();
+        }
+        executor.shutdownNow();
+        toDestroy.forEach(i -> destroyNow(i.running));
+    }
+
+    private Idle poll(String imageId) {
+        List<Idle> expired = new ArrayList<>();
+        Idle candidate = null;
+        synchronized (this) {
+            Deque<Idle> images = idle.get(imageId);
+            while (images != null && candidate == null && !images.isEmpty()) {
+                Idle next = images.pollFirst();
+                if (isExpired(next)) {
+                    expired.add(next);
+                } else {
+                    candidate = next;
+                }
+            }
+        }
+        expired.forEach(this::expire);
+        return candidate;
+    }
+
+    private void replenish(String imageId) {
+        int missing;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            Deque<Idle> images = idle.get(imageId);
+            missing = size - (images == null ? 0 : images.size()) - starting.getOrDefault(imageId, 0);
+            if (missing <= 0) {
+                return;
+            }
+            starting.merge(imageId, missing, Integer::sum);
+        }
+        logger.debug("Starting {} pods of image {} for the pool.", missing, imageId);
+        for (int i = 0; i < missing; i++) {
+            executor.execute(() -> launch(imageId));
+        }
+    }
+
+    private void launch(String imageId) {
+        StartedEnvironment started;
+        try {
+            started = launcher.apply(imageId);
+        } catch (RuntimeException e) {
+            onStartFailed(imageId, e);
+            return;
+        }
+        started.monitorInitialization(running -> {
+            if (running == null) {
+                // initialization cancelled
+                onStartFailed(imageId, null);
+            } else {
+                onReady(imageId, started, running);
+            }
+        }, e -> onStartFailed(imageId, e));
+    }
+
+    private void onReady(String imageId, StartedEnvironment started, RunningEnvironment running) {
+        boolean added;
+        synchronized (this) {
+            startFinished(imageId);
+            added = !closed;
+            if (added) {
+                idle.computeIfAbsent(imageId, i -> new ArrayDeque<>()).addLast(new Idle(started, running));
+            }
+        }
+        if (added) {
+            logger.debug("Pod {} of image {} is ready in the pool.", running.getId(), imageId);
+        } else {
+            destroyNow(running);
+        }
+    }
+
+    private void onStartFailed(String imageId, Exception e) {
+        synchronized (this) {
+            startFinished(imageId);
+        }
+        logger.warn("Cannot start a pod of image {} for the pool.", imageId, e);
+        metricRegistry.ifPresent(r -> r.meter(METRICS_START_FAILED_KEY).mark());
+    }
+
+    /** Must be called with the lock held. */
+    private void startFinished(String imageId) {
+        starting.computeIfPresent(imageId, (i, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void evictExpired() {
+        List<Idle> expired = new ArrayList<>();
+        synchronized (this) {
+            for (Deque<Idle> images : idle.values()) {
+                for (Iterator<Idle> it = images.iterator(); it.hasNext();) {
+                    Idle next = it.next();
+                    if (isExpired(next)) {
+                        it.remove();
+                        expired.add(next);
+                    }
+                }
+            }
+            idle.values().removeIf(Deque::isEmpty);
+        }
+        expired.forEach(this::expire);
+    }
+
+    private boolean isExpired(Idle candidate) {
+        return System.currentTimeMillis() - candidate.readySince > maxIdleMillis;
+    }
+
+    private void expire(Idle expired) {
+        logger.debug("Pod {} idle for too long, destroying it.", expired.running.getId());
+        metricRegistry.ifPresent(r -> r.meter(METRICS_EXPIRED_KEY).mark());
+        destroy(expired.running);
+    }
+
+    private void destroy(RunningEnvironment environment) {
+        executor.execute(() -> destroyNow(environment));
+    }
+
+    private static void destroyNow(RunningEnvironment environment) {
+        try {
+            environment.destroyEnvironment();
+        } catch (EnvironmentDriverException | RuntimeException e) {
+            logger.warn("Cannot destroy pod {} of the pool.", environment.getId(), e);
+        }
+    }
+
+    /**
+     * Binds the claimed environment to the build.
+     */
+    static RunningEnvironment bind(
+            RunningEnvironment warm,
+            RepositorySession repositorySession,
+            DebugData debugData,
+            Map<String, String> buildEnvironment) {
+        return RunningEnvironment.createInstance(
+                warm.getId(),
+                warm.getBuildAgentPort(),
+                warm.getHost(),
+                warm.getBuildAgentUrl(),
+                warm.getInternalBuildAgentUrl(),
+                repositorySession,
+                warm.getWorkingDirectory(),
+                () -> destroyNow(warm),
+                debugData,
+                buildEnvironment);
+    }
+
+    /**
+     * @return started environment which is already running
+     */
+    static StartedEnvironment started(RunningEnvironment running) {
+        return new StartedEnvironment() {
+            @Override
+            public void monitorInitialization(Consumer<RunningEnvironment> onComplete, Consumer<Exception> onError) {
+                onComplete.accept(running);
+            }
+
+            @Override
+            public String getId() {
+                return running.getId();
+            }
+
+            @Override
+            public void cancel() {
+                destroyNow(running);
+            }
+
+            @Override
+            public void destroyEnvironment() throws EnvironmentDriverException {
+                running.destroyEnvironment();
+            }
+        };
+    }
+
+    private static class Idle {
+
+        private final StartedEnvironment started;
+
+        private final RunningEnvironment running;
+
+        private final long readySince = System.currentTimeMillis();
+
+        Idle(StartedEnvironment started, RunningEnvironment running) {
+            this.started = started;
+            this.running = running;
+        }
+    }
+}
@@ -17,14 +17,26 @@
  */
 package org.jboss.pnc.environment.openshift;
 
+import com.openshift.internal.restclient.model.Pod;
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.NotFoundException;
+import com.openshift.restclient.ResourceKind;
+import com.openshift.restclient.model.IResource;
 import org.apache.commons.io.FileUtils;
+import org.jboss.pnc.common.json.moduleconfig.OpenshiftEnvironmentDriverModuleConfig;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Jakub Bartecek
@@ -48,4 +60,47 @@ public class OpenshiftStartedEnvironmentTest {
         // then
         assertEquals(expectedSecuredJson, securedJson);
     }
+
+    @Test
+    public void shouldDeleteIdlePoolPodWithItsServiceAndRoute() {
+        // given
+        IClient client = mock(IClient.class);
+        OpenshiftEnvironmentDriverModuleConfig config = mock(OpenshiftEnvironmentDriverModuleConfig.class);
+        when(config.getPncNamespace()).thenReturn("pnc");
+        when(config.getExposeBuildAgentOnPublicUrl()).thenReturn(true);
+        Pod pod = mock(Pod.class);
+        when(pod.getName()).thenReturn("pnc-ba-pod-abc123");
+        IResource route = mock(IResource.class);
+        IResource service = mock(IResource.class);
+        when(client.get(ResourceKind.ROUTE, "pnc-ba-route-abc123", "pnc")).thenReturn(route);
+        when(client.get(ResourceKind.SERVICE, "pnc-ba-service-abc123", "pnc")).thenReturn(service);
+        when(client.get(ResourceKind.POD, "pnc-ba-pod-abc123", "pnc")).thenThrow(mock(NotFoundException.class));
+
+        // when
+        OpenshiftStartedEnvironment.deleteIdlePoolPod(client, config, pod);
+
+        // then
+        verify(client).delete(route);
+        verify(client).delete(service);
+    }
+
+    @Test
+    public void shouldListOnlyIdlePoolPods() {
+        // given
+        IClient client = mock(IClient.class);
+        OpenshiftEnvironmentDriverModuleConfig config = mock(OpenshiftEnvironmentDriverModuleConfig.class);
+        when(config.getPncNamespace()).thenReturn("pnc");
+
+        // when
+        OpenshiftStartedEnvironment.listIdlePoolPods(client, config);
+
+        // then
+        verify(client).list(
+                ResourceKind.POD,
+                "pnc",
+                Collections.singletonMap(
+                        OpenshiftStartedEnvironment.POOL_LABEL,
+                        OpenshiftStartedEnvironment.POOL_IDLE));
+        verify(client, never()).delete(any());
+    }
 }
@@ -0,0 +1,266 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.environment.openshift;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jboss.pnc.environment.openshift.exceptions.PodFailedStartException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs the watcher against a stub API server serving the pod list and watch endpoints of a namespace.
+ */
+public class PodWatcherTest {
+
+    private static final String NAMESPACE = "pnc";
+
+    private static final String TOKEN = "secret-token";
+
+    private static final String END_OF_STREAM = "";
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private PodWatcher watcher;
+
+    private final AtomicInteger lists = new AtomicInteger();
+
+    private final AtomicInteger watches = new AtomicInteger();
+
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    private volatile String podList = podList(1);
+
+    private volatile String authorization;
+
+    private volatile String lastQuery;
+
+    private volatile boolean stopped;
+
+    @Before
+    public void startApiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/namespaces/" + NAMESPACE + "/pods", this::handle);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        String url = "http://localhost:" + server.getAddress().getPort() + "/";
+        watcher = new PodWatcher(url, TOKEN, NAMESPACE);
+    }
+
+    @After
+    public void stopApiServer() {
+        stopped = true;
+        watcher.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCompleteWhenPodStartsRunning() throws Exception {
+        podList = podList(1, pod("pod-a", "Pending", null, 1));
+
+        CompletableFuture<Void> running = watcher.awaitRunning("pod-a");
+        waitFor(() -> watches.get() == 1);
+        assertThat(running).isNotDone();
+
+        events.add(event("MODIFIED", pod("pod-a", "Running", null, 2)));
+
+        running.get(5, TimeUnit.SECONDS);
+        assertThat(watcher.getStatus("pod-a")).contains("Running");
+        assertThat(authorization).isEqualTo("Bearer " + TOKEN);
+    }
+
+    @Test
+    public void shouldCompleteImmediatelyWhenPodIsAlreadyRunning() throws Exception {
+        podList = podList(1, pod("pod-a", "Running", null, 1));
+
+        watcher.awaitRunning("pod-a").get(5, TimeUnit.SECONDS);
+        waitFor(() -> lists.get() == 1);
+
+        // the state is cached, no further request is needed
+        watcher.awaitRunning("pod-a").get(5, TimeUnit.SECONDS);
+        assertThat(lists.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldFailWhenPodCannotStart() throws Exception {
+        CompletableFuture<Void> running = watcher.awaitRunning("pod-a");
+        waitFor(() -> watches.get() == 1);
+
+        events.add(event("ADDED", pod("pod-a", "Pending", "ContainerCreating", 2)));
+        events.add(event("MODIFIED", pod("pod-a", "Pending", "ErrImagePull", 3)));
+
+        try {
+            running.get(5, TimeUnit.SECONDS);
+            fail("Pod should fail to start.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(PodFailedStartException.class).hasMessageContaining("ErrImagePull");
+        }
+        assertThat(watcher.getStatus("pod-a")).contains("ErrImagePull");
+    }
+
+    @Test
+    public void shouldMultiplexAllPodsOverSingleWatch() throws Exception {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(watcher.awaitRunning("pod-" + i));
+        }
+        waitFor(() -> watches.get() == 1);
+        for (int i = 0; i < 20; i++) {
+            events.add(event("MODIFIED", pod("pod-" + i, "Running", null, 10 + i)));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertThat(lists.get()).isEqualTo(1);
+        assertThat(watches.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldResumeWatchWhenStreamEnds() throws Exception {
+        CompletableFuture<Void> running = watcher.awaitRunning("pod-a");
+        waitFor(() -> watches.get() == 1);
+
+        events.add(event("ADDED", pod("pod-a", "Pending", null, 7)));
+        events.add(END_OF_STREAM);
+        waitFor(() -> watches.get() == 2);
+        assertThat(lastQuery).contains("resourceVersion=7");
+        events.add(event("MODIFIED", pod("pod-a", "Running", null, 8)));
+
+        running.get(5, TimeUnit.SECONDS);
+        assertThat(lists.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldListAgainWhenResourceVersionExpires() throws Exception {
+        CompletableFuture<Void> running = watcher.awaitRunning("pod-a");
+        waitFor(() -> watches.get() == 1);
+
+        podList = podList(20, pod("pod-a", "Running", null, 20));
+        events.add("{\"type\":\"ERROR\",\"object\":{\"kind\":\"Status\",\"code\":410,\"reason\":\"Expired\"}}");
+
+        running.get(5, TimeUnit.SECONDS);
+        assertThat(lists.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldStopWaitingWhenCancelled() throws Exception {
+        CompletableFuture<Void> running = watcher.awaitRunning("pod-a");
+        waitFor(() -> watches.get() == 1);
+        running.cancel(false);
+
+        CompletableFuture<Void> next = watcher.awaitRunning("pod-a");
+        events.add(event("MODIFIED", pod("pod-a", "Running", null, 2)));
+        next.get(5, TimeUnit.SECONDS);
+        assertThat(running).isCancelled();
+    }
+
+    @Test
+    public void shouldResolveStatusLikeRestClient() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertThat(PodWatcher.podStatus(mapper.readTree(pod("p", "Running", null, 1)))).isEqualTo("Running");
+        assertThat(PodWatcher.podStatus(mapper.readTree(pod("p", "Running", "CrashLoopBackOff", 1))))
+                .isEqualTo("CrashLoopBackOff");
+        assertThat(PodWatcher.podStatus(mapper.readTree(pod("p", "Failed", "Error", 1)))).isEqualTo("Failed");
+        assertThat(PodWatcher.podStatus(mapper.readTree("{\"metadata\":{\"name\":\"p\"}}"))).isEqualTo("Pending");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.contains("watch=true")) {
+            lastQuery = query;
+            watches.incrementAndGet();
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                while (!stopped) {
+                    String event = events.poll(100, TimeUnit.MILLISECONDS);
+                    if (END_OF_STREAM.equals(event)) {
+                        break;
+                    }
+                    if (event != null) {
+                        out.write((event + "\n").getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // client disconnected
+            }
+        } else {
+            lists.incrementAndGet();
+            byte[] body = podList.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met in time.");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static String podList(int resourceVersion, String... pods) {
+        return "{\"kind\":\"PodList\",\"metadata\":{\"resourceVersion\":\"" + resourceVersion + "\"},\"items\":["
+                + String.join(",", pods) + "]}";
+    }
+
+    private static String event(String type, String pod) {
+        return "{\"type\":\"" + type + "\",\"object\":" + pod + "}";
+    }
+
+    private static String pod(String name, String phase, String containerReason, int resourceVersion) {
+        String containerStatuses = containerReason == null ? "{\"state\":{\"running\":{}}}"
+                : "{\"state\":{\"waiting\":{\"reason\":\"" + containerReason + "\"}}}";
+        return "{\"kind\":\"Pod\",\"metadata\":{\"name\":\"" + name + "\",\"resourceVersion\":\"" + resourceVersion
+                + "\"},\"status\":{\"phase\":\"" + phase + "\",\"containerStatuses\":[" + containerStatuses + "]}}";
+    }
+}
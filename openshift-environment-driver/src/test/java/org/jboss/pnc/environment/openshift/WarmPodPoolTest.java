@@ -0,0 +1,229 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.environment.openshift;
+
+import org.jboss.pnc.spi.builddriver.DebugData;
+import org.jboss.pnc.spi.environment.RunningEnvironment;
+import org.jboss.pnc.spi.environment.StartedEnvironment;
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class WarmPodPoolTest {
+
+    private static final String IMAGE = "registry/builder:1";
+
+    private final List<FakeEnvironment> launched = new CopyOnWriteArrayList<>();
+
+    private volatile boolean failStart;
+
+    private WarmPodPool pool;
+
+    @After
+    public void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void shouldFillPoolOnFirstRequestAndServeNextOnes() throws Exception {
+        pool = new WarmPodPool(2, TimeUnit.HOURS.toMillis(1), this::launch, e -> ((FakeEnvironment) e).claimed = true);
+
+        assertThat(pool.claim(IMAGE)).isEmpty();
+        waitFor(() -> pool.getIdleCount() == 2);
+
+        Optional<RunningEnvironment> claimed = pool.claim(IMAGE);
+
+        assertThat(claimed).isPresent();
+        assertThat(launched.get(0).claimed).isTrue();
+        assertThat(claimed.get().getId()).isEqualTo(launched.get(0).id);
+        assertThat(pool.getHitRate()).isEqualTo(0.5);
+        // the claimed pod is replaced
+        waitFor(() -> pool.getIdleCount() == 2);
+        assertThat(launched).hasSize(3);
+    }
+
+    @Test
+    public void shouldKeepPoolsPerImage() throws Exception {
+        pool = new WarmPodPool(1, TimeUnit.HOURS.toMillis(1), this::launch, e -> {});
+
+        pool.claim(IMAGE);
+        waitFor(() -> pool.getIdleCount() == 1);
+
+        assertThat(pool.claim("registry/other:1")).isEmpty();
+        waitFor(() -> pool.getIdleCount() == 2);
+        assertThat(launched).extracting(e -> e.image).containsExactlyInAnyOrder(IMAGE, "registry/other:1");
+    }
+
+    @Test
+    public void shouldDestroyPodWhichCannotBeClaimed() throws Exception {
+        AtomicBoolean first = new AtomicBoolean(true);
+        pool = new WarmPodPool(2, TimeUnit.HOURS.toMillis(1), this::launch, e -> {
+            if (first.getAndSet(false)) {
+                throw new IllegalStateException("Pod is gone.");
+            }
+        });
+        pool.claim(IMAGE);
+        waitFor(() -> pool.getIdleCount() == 2);
+
+        Optional<RunningEnvironment> claimed = pool.claim(IMAGE);
+
+        assertThat(claimed).isPresent();
+        waitFor(() -> launched.stream().filter(e -> e.destroyed).count() == 1);
+        assertThat(claimed.get().getId()).isNotEqualTo(launched.stream().filter(e -> e.destroyed).findAny().get().id);
+    }
+
+    @Test
+    public void shouldDestroyExpiredPods() throws Exception {
+        pool = new WarmPodPool(2, 100, this::launch, e -> {});
+        pool.claim(IMAGE);
+        waitFor(() -> pool.getIdleCount() == 2);
+        Thread.sleep(200);
+
+        assertThat(pool.claim(IMAGE)).isEmpty();
+        waitFor(() -> launched.stream().filter(e -> e.destroyed).count() == 2);
+    }
+
+    @Test
+    public void shouldRetryStartOnNextRequestWhenPodFailsToStart() throws Exception {
+        failStart = true;
+        pool = new WarmPodPool(1, TimeUnit.HOURS.toMillis(1), this::launch, e -> {});
+        pool.claim(IMAGE);
+        waitFor(() -> launched.size() == 1);
+        Thread.sleep(50);
+        assertThat(pool.getIdleCount()).isZero();
+
+        failStart = false;
+        assertThat(pool.claim(IMAGE)).isEmpty();
+        waitFor(() -> pool.getIdleCount() == 1);
+        assertThat(launched).hasSize(2);
+    }
+
+    @Test
+    public void shouldDestroyIdlePodsOnClose() throws Exception {
+        pool = new WarmPodPool(3, TimeUnit.HOURS.toMillis(1), this::launch, e -> {});
+        pool.claim(IMAGE);
+        waitFor(() -> pool.getIdleCount() == 3);
+
+        pool.close();
+
+        assertThat(launched).allMatch(e -> e.destroyed);
+        assertThat(pool.getIdleCount()).isZero();
+    }
+
+    @Test
+    public void shouldBindBuildEnvironmentToClaimedPod() throws Exception {
+        FakeEnvironment warm = new FakeEnvironment("pod-1", IMAGE);
+        AtomicReference<RunningEnvironment> running = new AtomicReference<>();
+        warm.monitorInitialization(running::set, e -> fail(e.getMessage()));
+        Map<String, String> buildEnvironment = Collections.singletonMap("buildContentId", "build-1");
+        DebugData debugData = new DebugData(false);
+
+        StartedEnvironment started = WarmPodPool
+                .started(WarmPodPool.bind(running.get(), null, debugData, buildEnvironment));
+        AtomicReference<RunningEnvironment> bound = new AtomicReference<>();
+        started.monitorInitialization(bound::set, e -> fail(e.getMessage()));
+
+        assertThat(bound.get().getId()).isEqualTo("pod-1");
+        assertThat(bound.get().getBuildEnvironment()).isEqualTo(buildEnvironment);
+        assertThat(bound.get().getDebugData()).isSameAs(debugData);
+        bound.get().destroyEnvironment();
+        assertThat(warm.destroyed).isTrue();
+    }
+
+    private StartedEnvironment launch(String image) {
+        FakeEnvironment environment = new FakeEnvironment("pod-" + launched.size(), image);
+        launched.add(environment);
+        return environment;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met in time.");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private class FakeEnvironment implements StartedEnvironment {
+
+        private final String id;
+
+        private final String image;
+
+        private volatile boolean claimed;
+
+        private volatile boolean destroyed;
+
+        FakeEnvironment(String id, String image) {
+            this.id = id;
+            this.image = image;
+        }
+
+        @Override
+        public void monitorInitialization(Consumer<RunningEnvironment> onComplete, Consumer<Exception> onError) {
+            if (failStart) {
+                onError.accept(new Exception("Image cannot be pulled."));
+                return;
+            }
+            onComplete.accept(
+                    RunningEnvironment.createInstance(
+                            id,
+                            8080,
+                            "localhost",
+                            "http://localhost/" + id,
+                            "http://localhost/" + id,
+                            null,
+                            Paths.get("/tmp"),
+                            this::destroyEnvironment,
+                            new DebugData(false)));
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public void cancel() {
+            destroyEnvironment();
+        }
+
+        @Override
+        public void destroyEnvironment() {
+            destroyed = true;
+        }
+    }
+}
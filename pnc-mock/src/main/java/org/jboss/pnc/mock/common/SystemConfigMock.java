@@ -47,6 +47,14 @@ public class SystemConfigMock {
                 null,
                 null,
                 "",
-                "10");
+                "10",
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null);
     }
 }
@@ -0,0 +1,66 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.mock.datastore;
+
+import org.jboss.pnc.spi.datastore.BuildLogStore;
+import org.jboss.pnc.spi.datastore.BuildLogWriter;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Log store without a storage, the build logs are kept in the build records.
+ */
+@ApplicationScoped
+public class BuildLogStoreMock implements BuildLogStore {
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public BuildLogWriter openWriter(Integer buildId) {
+        throw new IllegalStateException("Build log storage is not configured.");
+    }
+
+    @Override
+    public Optional<BuildLogWriter> getOpenWriter(Integer buildId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Long> getSize(Integer buildId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public InputStream read(Integer buildId, long offset) throws FileNotFoundException {
+        throw new FileNotFoundException("Build log of build " + buildId + " is not stored.");
+    }
+
+    @Override
+    public void discardOpenWriter(Integer buildId) {
+    }
+
+    @Override
+    public void delete(Integer buildId) {
+    }
+}
@@ -23,6 +23,7 @@ import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildConfigurationAudited;
 import org.jboss.pnc.model.BuildConfigurationSet;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.model.User;
 import org.jboss.pnc.spi.coordinator.BuildTask;
 import org.jboss.pnc.spi.datastore.Datastore;
@@ -34,6 +35,7 @@ import javax.persistence.PersistenceException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -184,6 +186,19 @@ public class DatastoreMock implements Datastore {
         return true;
     }
 
+    @Override
+    public Map<IdRev, BuildRecord> getNoRebuildCauses(
+            Collection<BuildConfigurationAudited> buildConfigurationAuditeds,
+            boolean checkImplicitDependencies,
+            boolean temporaryBuild) {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Map<Integer, List<Long>> getSuccessfulBuildDurations(Date endedAfter) {
+        return Collections.emptyMap();
+    }
+
     public BuildConfiguration save(BuildConfiguration buildConfig) {
         return buildConfigurations.put(buildConfig.getId(), buildConfig);
     }
@@ -18,8 +18,15 @@
 package org.jboss.pnc.mock.repository;
 
 import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.spi.datastore.projections.ArtifactInfo;
 import org.jboss.pnc.spi.datastore.repositories.ArtifactRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -31,4 +38,42 @@ public class ArtifactRepositoryMock extends IntIdRepositoryMock<Artifact> implem
     public Set<Artifact> withIdentifierAndSha256s(Set<Artifact.IdentifierSha256> identifierSha256s) {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public Map<Integer, List<ArtifactInfo>> findBuiltArtifactInfos(Collection<Integer> buildRecordIds) {
+        Map<Integer, List<ArtifactInfo>> infos = new HashMap<>();
+        for (Artifact artifact : data) {
+            BuildRecord buildRecord = artifact.getBuildRecord();
+            if (buildRecord != null && buildRecordIds.contains(buildRecord.getId())) {
+                infos.computeIfAbsent(buildRecord.getId(), id -> new ArrayList<>()).add(toInfo(artifact));
+            }
+        }
+        return infos;
+    }
+
+    @Override
+    public Map<Integer, List<ArtifactInfo>> findDependencyInfos(Collection<Integer> buildRecordIds) {
+        Map<Integer, List<ArtifactInfo>> infos = new HashMap<>();
+        for (Artifact artifact : data) {
+            for (BuildRecord buildRecord : artifact.getDependantBuildRecords()) {
+                if (buildRecordIds.contains(buildRecord.getId())) {
+                    infos.computeIfAbsent(buildRecord.getId(), id -> new ArrayList<>()).add(toInfo(artifact));
+                }
+            }
+        }
+        return infos;
+    }
+
+    private static ArtifactInfo toInfo(Artifact artifact) {
+        return new ArtifactInfo(
+                artifact.getId(),
+                artifact.getIdentifier(),
+                artifact.getFilename(),
+                artifact.getMd5(),
+                artifact.getSize(),
+                artifact.getDeployPath(),
+                artifact.getArtifactQuality(),
+                artifact.getTargetRepository().getRepositoryType(),
+                artifact.getTargetRepository().getRepositoryPath());
+    }
 }
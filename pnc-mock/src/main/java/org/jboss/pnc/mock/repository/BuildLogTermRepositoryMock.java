@@ -0,0 +1,58 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.mock.repository;
+
+import org.jboss.pnc.model.BuildLogTerm;
+import org.jboss.pnc.spi.datastore.repositories.BuildLogTermRepository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class BuildLogTermRepositoryMock extends LongIdRepositoryMock<BuildLogTerm> implements BuildLogTermRepository {
+
+    @Override
+    public List<BuildLogTerm> queryMatches(Collection<Integer> buildRecordIds, Collection<String> termPrefixes) {
+        return data.stream()
+                .filter(term -> buildRecordIds.contains(term.getBuildRecord().getId()))
+                .filter(term -> termPrefixes.stream().anyMatch(prefix -> term.getTerm().startsWith(prefix)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void deleteForBuildRecord(Integer buildRecordId) {
+        data.removeIf(term -> term.getBuildRecord().getId().equals(buildRecordId));
+    }
+
+    @Override
+    public void replaceForBuildRecord(Integer buildRecordId, Collection<BuildLogTerm> terms) {
+        deleteForBuildRecord(buildRecordId);
+        terms.forEach(this::save);
+    }
+
+    @Override
+    public List<Integer> queryUnindexedBuildRecordIds(Integer afterId, int maxResults) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean tryLockIndexBackfill() {
+        return true;
+    }
+}
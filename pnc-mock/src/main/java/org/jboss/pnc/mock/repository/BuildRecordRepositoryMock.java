@@ -26,10 +26,14 @@ import org.jboss.pnc.spi.datastore.repositories.api.PageInfo;
 import org.jboss.pnc.spi.datastore.repositories.api.Predicate;
 import org.jboss.pnc.spi.datastore.repositories.api.SortInfo;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -50,6 +54,11 @@ public class BuildRecordRepositoryMock extends IntIdRepositoryMock<BuildRecord>
         return queryById(id);
     }
 
+    @Override
+    public List<BuildRecord> findByIdsFetchProperties(Collection<Integer> ids) {
+        return data.stream().filter(buildRecord -> ids.contains(buildRecord.getId())).collect(Collectors.toList());
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public List<BuildRecord> queryWithPredicatesUsingCursor(
@@ -68,6 +77,43 @@ public class BuildRecordRepositoryMock extends IntIdRepositoryMock<BuildRecord>
         return null;
     }
 
+    /**
+     * Criteria predicates can't be evaluated in memory, only the predicates which also implement
+     * {@link java.util.function.Predicate} are applied, the others match all the records.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<BuildRecord> queryWithPredicatesAfter(
+            Date submitTime,
+            Integer id,
+            int pageSize,
+            Predicate<BuildRecord>... predicates) {
+        java.util.function.Predicate<BuildRecord> filter = Arrays.stream(predicates)
+                .filter(predicate -> predicate instanceof java.util.function.Predicate)
+                .map(predicate -> (java.util.function.Predicate<BuildRecord>) predicate)
+                .reduce(buildRecord -> true, java.util.function.Predicate::and);
+        Comparator<BuildRecord> newestFirst = Comparator
+                .comparing(BuildRecord::getSubmitTime, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(BuildRecord::getId, Comparator.reverseOrder());
+        return data.stream()
+                .filter(filter)
+                .filter(
+                        buildRecord -> submitTime == null || id == null
+                                || isSubmittedBefore(buildRecord, submitTime, id))
+                .sorted(newestFirst)
+                .limit(pageSize)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isSubmittedBefore(BuildRecord buildRecord, Date submitTime, Integer id) {
+        Date recordSubmitTime = buildRecord.getSubmitTime();
+        if (recordSubmitTime == null) {
+            return false;
+        }
+        return recordSubmitTime.before(submitTime)
+                || (recordSubmitTime.equals(submitTime) && buildRecord.getId() < id);
+    }
+
     @Override
     public BuildRecord getLatestSuccessfulBuildRecord(Integer configurationId, boolean temporaryBuild) {
         List<BuildRecord> buildRecords = queryAll();
@@ -93,6 +139,23 @@ public class BuildRecordRepositoryMock extends IntIdRepositoryMock<BuildRecord>
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<BuildRecord> queryWithBuildConfigurationIds(Collection<Integer> configurationIds) {
+        return data.stream()
+                .filter(buildRecord -> configurationIds.contains(buildRecord.getBuildConfigurationId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BuildRecord> querySuccessfulWithBuildConfigurationIdRevs(List<IdRev> buildConfigurationAuditedIdRevs) {
+        return data.stream()
+                .filter(buildRecord -> buildRecord.getStatus().equals(BuildStatus.SUCCESS))
+                .filter(
+                        buildRecord -> buildConfigurationAuditedIdRevs
+                                .contains(buildRecord.getBuildConfigurationAuditedIdRev()))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<BuildRecord> findIndependentTemporaryBuildsOlderThan(Date date) {
         return null;
@@ -138,8 +201,47 @@ public class BuildRecordRepositoryMock extends IntIdRepositoryMock<BuildRecord>
         }).collect(Collectors.toSet());
     }
 
+    @Override
+    public Map<Integer, Set<BuildRecord>> findDependencyProducers(Set<Integer> buildRecordIds) {
+        Map<Integer, Set<BuildRecord>> producers = new HashMap<>();
+        data.stream().filter(buildRecord -> buildRecordIds.contains(buildRecord.getId())).forEach(buildRecord -> {
+            Set<Integer> dependenciesId = ofNullableCollection(buildRecord.getDependencies()).stream()
+                    .map(Artifact::getId)
+                    .collect(Collectors.toSet());
+            if (!dependenciesId.isEmpty()) {
+                producers.put(buildRecord.getId(), findByBuiltArtifacts(dependenciesId));
+            }
+        });
+        return producers;
+    }
+
     @Override
     public List<BuildRecord> getBuildByCausingRecord(Integer causingRecordId) {
         return null;
     }
+
+    @Override
+    public Map<Integer, List<Long>> findSuccessfulBuildDurations(Date endedAfter) {
+        return data.stream()
+                .filter(buildRecord -> buildRecord.getStatus() == BuildStatus.SUCCESS)
+                .filter(buildRecord -> buildRecord.getStartTime() != null && buildRecord.getEndTime() != null)
+                .filter(buildRecord -> buildRecord.getEndTime().after(endedAfter))
+                .sorted(Comparator.comparing(BuildRecord::getEndTime))
+                .collect(
+                        Collectors.groupingBy(
+                                BuildRecord::getBuildConfigurationId,
+                                Collectors.mapping(
+                                        buildRecord -> buildRecord.getEndTime().getTime()
+                                                - buildRecord.getStartTime().getTime(),
+                                        Collectors.toList())));
+    }
+
+    @Override
+    public String getBuildLog(Integer buildRecordId) {
+        return data.stream()
+                .filter(buildRecord -> buildRecord.getId().equals(buildRecordId))
+                .findAny()
+                .map(BuildRecord::getBuildLog)
+                .orElse(null);
+    }
 }
@@ -46,6 +46,7 @@ import javax.ws.rs.NotFoundException;
 import javax.ws.rs.PATCH;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
@@ -237,8 +238,9 @@ public class ClientGenerator extends AbstractProcessor {
                                 .addStatement("return Optional.empty()");
                         MethodSpec methodSpec = completeMethod(methodBuilder, coreStatement);
                         methods.add(methodSpec);
-                    } else if (ClassName.get(returnType).toString().equals("javax.ws.rs.core.StreamingOutput")) {
-                        // string response
+                    } else if (ClassName.get(returnType).toString().equals("javax.ws.rs.core.StreamingOutput")
+                            || isPlainTextResponse(restApiMethod, returnType)) {
+                        // streamed response
                         String coreStatement = "return Optional.ofNullable(getInputStream(\""
                                 + restApiMethod.getAnnotation(Path.class).value() + "\", " + parametersList + "))";
                         MethodSpec.Builder methodBuilder = beginMethod(restApiMethod);
@@ -360,4 +362,14 @@ public class ClientGenerator extends AbstractProcessor {
         }
         return parameters.stream().collect(Collectors.joining(", "));
     }
+
+    /**
+     * Endpoints which need to set the status or headers of a streamed response return a plain {@code Response}, the
+     * client reads them as a stream too.
+     */
+    private static boolean isPlainTextResponse(ExecutableElement restApiMethod, TypeMirror returnType) {
+        Produces produces = restApiMethod.getAnnotation(Produces.class);
+        return ClassName.get(returnType).toString().equals("javax.ws.rs.core.Response") && produces != null
+                && Arrays.asList(produces.value()).contains(MediaType.TEXT_PLAIN);
+    }
 }
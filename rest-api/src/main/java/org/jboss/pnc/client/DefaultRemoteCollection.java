@@ -43,6 +43,11 @@ public class DefaultRemoteCollection<T> implements RemoteCollection<T> {
 
     protected Page<T> currentPage;
 
+    /**
+     * Total hits reported by the first page. Pages read using page cursor do not compute the totals.
+     */
+    private final int totalHits;
+
     public DefaultRemoteCollection(Function<PageParameters, Page<T>> endpoint, RemoteCollectionConfig config) {
         this.endpoint = endpoint;
         this.config = config;
@@ -51,11 +56,12 @@ public class DefaultRemoteCollection<T> implements RemoteCollection<T> {
         intialPageParameters.setPageSize(config.getPageSize());
         logger.debug("Loading first page.");
         currentPage = endpoint.apply(intialPageParameters);
+        totalHits = currentPage.getTotalHits();
     }
 
     @Override
     public int size() {
-        return currentPage.getTotalHits();
+        return totalHits;
     }
 
     @Override
@@ -84,9 +90,17 @@ public class DefaultRemoteCollection<T> implements RemoteCollection<T> {
         PageParameters pageParametersNext = new PageParameters();
         pageParametersNext.setPageSize(currentPage.getPageSize());
         pageParametersNext.setPageIndex(newPageIndex);
+        pageParametersNext.setPageCursor(currentPage.getNextPageCursor());
         return endpoint.apply(pageParametersNext);
     }
 
+    private boolean hasNextPage(Page<T> currentPage) {
+        if (currentPage.getNextPageCursor() != null) {
+            return true;
+        }
+        return currentPage.getTotalPages() >= 0 && currentPage.getPageIndex() < currentPage.getTotalPages() - 1;
+    }
+
     private class RemoteIterator implements Iterator<T> {
 
         private Iterator<T> iterator;
@@ -99,7 +113,7 @@ public class DefaultRemoteCollection<T> implements RemoteCollection<T> {
         public boolean hasNext() {
             if (iterator.hasNext()) {
                 return true;
-            } else if (currentPage.getPageIndex() < currentPage.getTotalPages() - 1) {
+            } else if (hasNextPage(currentPage)) {
                 currentPage = loadNextPage(endpoint, currentPage);
                 iterator = currentPage.getContent().iterator();
                 return iterator.hasNext();
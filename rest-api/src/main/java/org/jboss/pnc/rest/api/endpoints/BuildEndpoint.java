@@ -28,6 +28,7 @@ import org.jboss.pnc.dto.Build;
 import org.jboss.pnc.dto.BuildConfigurationRevision;
 import org.jboss.pnc.dto.BuildPushResult;
 import org.jboss.pnc.dto.requests.BuildPushParameters;
+import org.jboss.pnc.dto.response.BuildLogMatch;
 import org.jboss.pnc.dto.response.ErrorResponse;
 import org.jboss.pnc.dto.response.Graph;
 import org.jboss.pnc.dto.response.Page;
@@ -41,6 +42,7 @@ import org.jboss.pnc.rest.api.parameters.BuildsFilterParameters;
 import org.jboss.pnc.rest.api.parameters.PageParameters;
 import org.jboss.pnc.rest.api.swagger.response.SwaggerGraphs.BuildsGraph;
 import org.jboss.pnc.rest.api.swagger.response.SwaggerPages.ArtifactPage;
+import org.jboss.pnc.rest.api.swagger.response.SwaggerPages.BuildLogMatchPage;
 import org.jboss.pnc.rest.api.swagger.response.SwaggerPages.BuildPage;
 import org.jboss.pnc.rest.configuration.SwaggerConstants;
 
@@ -660,15 +662,17 @@ public interface BuildEndpoint {
     StreamingOutput getAlignLogs(@Parameter(description = B_ID) @PathParam("id") String id);
 
     static final String GET_BUILD_LOGS_DESC = "Gets build logs for specific build.";
+    static final String GET_BUILD_LOGS_DESC2 = "Part of the log can be requested by a byte range in the Range header.";
 
     /**
-     * {@value GET_BUILD_LOGS_DESC}
+     * {@value GET_BUILD_LOGS_DESC} {@value GET_BUILD_LOGS_DESC2}
      *
      * @param id {@value B_ID}
      * @return
      */
     @Operation(
             summary = GET_BUILD_LOGS_DESC,
+            description = GET_BUILD_LOGS_DESC2,
             responses = {
                     @ApiResponse(
                             responseCode = SUCCESS_CODE,
@@ -683,7 +687,7 @@ public interface BuildEndpoint {
     @Path("/{id}/logs/build")
     @TimedMetric
     @Produces(MediaType.TEXT_PLAIN)
-    StreamingOutput getBuildLogs(@Parameter(description = B_ID) @PathParam("id") String id);
+    Response getBuildLogs(@Parameter(description = B_ID) @PathParam("id") String id);
 
     static final String GET_SSH_CREDENTIALS_DESC = "Gets ssh credentials to log into the build pod.";
     static final String GET_SSH_CREDENTIALS_DESC2 = "This GET requests require authentication";
@@ -750,7 +754,45 @@ public interface BuildEndpoint {
             @Parameter(description = LOG_SEARCH) @QueryParam("search") String search,
             @Valid @BeanParam PageParameters pageParameters);
 
-    static final String GET_RUNNING_COUNT_DESC = "Get count of running builds in their stages: running, waiting for dependencies, or enqueued";
+    static final String SEARCH_BUILD_LOGS_DESC = "Searches the build logs for words.";
+    static final String SEARCH_BUILD_LOGS_DESC2 = "Returns the builds which logs contain all the words of the search"
+            + " with the first line containing each of the words. The search is case insensitive and the words match"
+            + " the log words starting with them.";
+    static final String LOG_SEARCH_WORDS = "Words to search for";
+
+    /**
+     * {@value SEARCH_BUILD_LOGS_DESC} {@value SEARCH_BUILD_LOGS_DESC2}
+     *
+     * @param status {@value BUILD_STATUS}
+     * @param search {@value LOG_SEARCH_WORDS}
+     * @param pageParameters
+     * @return
+     */
+    @Operation(
+            summary = SEARCH_BUILD_LOGS_DESC,
+            description = SEARCH_BUILD_LOGS_DESC2,
+            responses = {
+                    @ApiResponse(
+                            responseCode = SUCCESS_CODE,
+                            description = SUCCESS_DESCRIPTION,
+                            content = @Content(schema = @Schema(implementation = BuildLogMatchPage.class))),
+                    @ApiResponse(
+                            responseCode = INVALID_CODE,
+                            description = INVALID_DESCRIPTION,
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(
+                            responseCode = SERVER_ERROR_CODE,
+                            description = SERVER_ERROR_DESCRIPTION,
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))) })
+    @GET
+    @Path("/log-search")
+    @TimedMetric
+    Page<BuildLogMatch> searchBuildLogs(
+            @Parameter(description = BUILD_STATUS) @QueryParam("status") BuildStatus status,
+            @Parameter(description = LOG_SEARCH_WORDS) @QueryParam("search") String search,
+            @Valid @BeanParam PageParameters pageParameters);
+
+    static final String GET_RUNNING_COUNT_DESC = "Get count of running builds in their stages: running, waiting for dependencies, or enqueued, and the estimated completion time of the running group builds";
 
     /**
      * {@value GET_RUNNING_COUNT_DESC}
@@ -47,4 +47,11 @@ public class PageParameters extends PaginationParameters {
     @QueryParam(SwaggerConstants.QUERY_QUERY_PARAM)
     private String q;
 
+    /**
+     * {@value SwaggerConstants#PAGE_CURSOR_DESCRIPTION}
+     */
+    @Parameter(description = SwaggerConstants.PAGE_CURSOR_DESCRIPTION)
+    @QueryParam(SwaggerConstants.PAGE_CURSOR_QUERY_PARAM)
+    private String pageCursor;
+
 }
@@ -36,6 +36,7 @@ import org.jboss.pnc.dto.Project;
 import org.jboss.pnc.dto.SCMRepository;
 import org.jboss.pnc.dto.TargetRepository;
 import org.jboss.pnc.dto.User;
+import org.jboss.pnc.dto.response.BuildLogMatch;
 import org.jboss.pnc.dto.response.MilestoneInfo;
 import org.jboss.pnc.dto.response.Page;
 
@@ -62,6 +63,9 @@ public class SwaggerPages {
     public static class BuildPage extends Page<Build> {
     }
 
+    public static class BuildLogMatchPage extends Page<BuildLogMatch> {
+    }
+
     public static class BuildPushResultPage extends Page<BuildPushResult> {
     }
 
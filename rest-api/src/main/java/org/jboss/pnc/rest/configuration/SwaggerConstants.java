@@ -58,6 +58,10 @@ public interface SwaggerConstants {
             + MAX_PAGE_SIZE + ".";
     public static final String PAGE_SIZE_QUERY_PARAM = "pageSize";
     public static final String PAGE_SIZE_DEFAULT_VALUE = "50";
+    public static final String PAGE_CURSOR_DESCRIPTION = "Opaque continuation token returned as nextPageCursor by "
+            + "the previous page. When present, the page following that token is returned regardless of pageIndex and "
+            + "total counts are not computed. Supported by build listings with default sorting.";
+    public static final String PAGE_CURSOR_QUERY_PARAM = "pageCursor";
     public static final String SORTING_DESCRIPTION = "Sorting RSQL. Format: sort=asc=path.to.field (or =desc=).";
     public static final String SORTING_QUERY_PARAM = "sort";
     public static final String QUERY_DESCRIPTION = "RSQL Query.";
@@ -61,6 +61,38 @@ public class RemoteCollectionTest {
         Assert.assertEquals(5, collected.get(5).id);
     }
 
+    @Test
+    public void shouldFollowPageCursors() throws Exception {
+        List<PageParameters> requests = new ArrayList<>();
+        Function<PageParameters, Page<Entity>> endpoint = (parameters) -> {
+            requests.add(parameters);
+            int start = parameters.getPageCursor() == null ? 0 : Integer.parseInt(parameters.getPageCursor());
+            Collection<Entity> collection = new ArrayList();
+            for (int i = start; i < Math.min(start + 2, 5); i++) {
+                collection.add(new Entity(i));
+            }
+            String nextPageCursor = start + 2 < 5 ? Integer.toString(start + 2) : null;
+            int totalHits = parameters.getPageCursor() == null ? 5 : -1;
+            int totalPages = parameters.getPageCursor() == null ? 3 : -1;
+            return new Page<>(
+                    parameters.getPageIndex(),
+                    parameters.getPageSize(),
+                    totalPages,
+                    totalHits,
+                    collection,
+                    nextPageCursor);
+        };
+        RemoteCollectionConfig config = RemoteCollectionConfig.builder().pageSize(2).build();
+        RemoteCollection<Entity> collection = new DefaultRemoteCollection<>(endpoint, config);
+
+        Collection<Entity> collected = collection.getAll();
+
+        Assert.assertEquals(5, collected.size());
+        Assert.assertEquals(5, collection.size());
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals("4", requests.get(2).getPageCursor());
+    }
+
     class Entity {
         int id;
 
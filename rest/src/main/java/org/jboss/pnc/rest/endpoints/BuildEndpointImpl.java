@@ -26,6 +26,7 @@ import org.jboss.pnc.dto.BuildConfigurationRevision;
 import org.jboss.pnc.dto.BuildPushResult;
 import org.jboss.pnc.dto.BuildRef;
 import org.jboss.pnc.dto.requests.BuildPushParameters;
+import org.jboss.pnc.dto.response.BuildLogMatch;
 import org.jboss.pnc.dto.response.Graph;
 import org.jboss.pnc.dto.response.Page;
 import org.jboss.pnc.dto.response.RunningBuildCount;
@@ -51,9 +52,13 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import java.io.BufferedWriter;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.invoke.MethodHandles;
@@ -63,6 +68,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  *
@@ -74,6 +81,10 @@ public class BuildEndpointImpl implements BuildEndpoint {
 
     private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final Pattern BYTE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private static final int LOG_BUFFER_SIZE = 64 * 1024;
+
     public static BuildPageInfo toBuildPageInfo(PageParameters page, BuildsFilterParameters builds) {
         return new BuildPageInfo(
                 page.getPageIndex(),
@@ -82,9 +93,13 @@ public class BuildEndpointImpl implements BuildEndpoint {
                 page.getQ(),
                 builds.isLatest(),
                 builds.isRunning(),
-                builds.getBuildConfigName());
+                builds.getBuildConfigName(),
+                page.getPageCursor());
     }
 
+    @Context
+    private HttpHeaders httpHeaders;
+
     @Inject
     private BuildProvider provider;
 
@@ -118,6 +133,17 @@ public class BuildEndpointImpl implements BuildEndpoint {
                 search);
     }
 
+    @Override
+    public Page<BuildLogMatch> searchBuildLogs(BuildStatus status, String search, PageParameters pageParameters) {
+        return provider.searchBuildLogs(
+                pageParameters.getPageIndex(),
+                pageParameters.getPageSize(),
+                pageParameters.getSort(),
+                pageParameters.getQ(),
+                status,
+                search);
+    }
+
     @Override
     public Build getSpecific(String id) {
         return endpointHelper.getSpecific(id);
@@ -302,19 +328,88 @@ public class BuildEndpointImpl implements BuildEndpoint {
     }
 
     @Override
-    public StreamingOutput getBuildLogs(String id) {
-        String buildLog = provider.getBuildLog(id);
-        if (buildLog == null || buildLog.isEmpty()) {
-            return null;
+    public Response getBuildLogs(String id) {
+        Long size = provider.getBuildLogSize(id);
+        if (size == null || size == 0) {
+            return Response.noContent().build();
+        }
+
+        long[] range = parseByteRange(httpHeaders.getHeaderString(HttpHeaders.RANGE), size);
+        if (range == null) {
+            return Response.ok(streamBuildLog(id, 0, size))
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_LENGTH, size)
+                    .build();
+        }
+
+        long first = range[0];
+        long last = range[1];
+        if (first > last) {
+            throw new WebApplicationException(
+                    Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header("Content-Range", "bytes */" + size)
+                            .build());
         }
+        return Response.status(Response.Status.PARTIAL_CONTENT)
+                .entity(streamBuildLog(id, first, last - first + 1))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header("Content-Range", "bytes " + first + "-" + last + "/" + size)
+                .header(HttpHeaders.CONTENT_LENGTH, last - first + 1)
+                .build();
+    }
 
+    private StreamingOutput streamBuildLog(String id, long offset, long length) {
         return outputStream -> {
-            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream));
-            writer.write(buildLog);
-            writer.flush();
+            try (InputStream buildLog = provider.getBuildLog(id, offset)) {
+                byte[] buffer = new byte[LOG_BUFFER_SIZE];
+                long remaining = length;
+                int read;
+                while (remaining > 0
+                        && (read = buildLog.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                    outputStream.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+            outputStream.flush();
         };
     }
 
+    /**
+     * Parses a single byte range of the Range header. Headers which are not understood are ignored, as allowed by RFC
+     * 7233, and the whole content is served.
+     *
+     * @return first and last byte position of the range, first is greater than last if the range is not satisfiable,
+     *         null if the whole content should be served
+     */
+    private static long[] parseByteRange(String rangeHeader, long size) {
+        if (rangeHeader == null) {
+            return null;
+        }
+        Matcher matcher = BYTE_RANGE.matcher(rangeHeader.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            return null;
+        }
+        try {
+            if (matcher.group(1).isEmpty()) {
+                // suffix range, the last N bytes
+                long suffixLength = Long.parseLong(matcher.group(2));
+                return new long[] { Math.max(0, size - suffixLength), size - 1 };
+            }
+            long first = Long.parseLong(matcher.group(1));
+            long last = size - 1;
+            if (!matcher.group(2).isEmpty()) {
+                long requestedLast = Long.parseLong(matcher.group(2));
+                if (requestedLast < first) {
+                    return null;
+                }
+                last = Math.min(last, requestedLast);
+            }
+            return new long[] { first, last };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @Override
     public SSHCredentials getSshCredentials(String id) {
         return provider.getSshCredentials(id);
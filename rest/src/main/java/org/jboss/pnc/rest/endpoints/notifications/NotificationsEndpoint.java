@@ -151,9 +151,9 @@ public class NotificationsEndpoint {
 
         if (Action.SUBSCRIBE.equals(progressUpdatesRequest.getAction())) {
             logger.debug("Subscribing new updates listener for topic: {} and messageId: {}.", topic, messagesId);
-            client.subscribe(topic, messagesId);
+            notifier.subscribe(client, topic, messagesId);
         } else if (Action.UNSUBSCRIBE.equals(progressUpdatesRequest.getAction())) {
-            client.unsubscribe(topic, messagesId);
+            notifier.unsubscribe(client, topic, messagesId);
         } else {
             String statusCode = Integer.toString(Response.Status.NOT_ACCEPTABLE.getStatusCode());
             String errorMessage = "Invalid action: " + progressUpdatesRequest.getAction()
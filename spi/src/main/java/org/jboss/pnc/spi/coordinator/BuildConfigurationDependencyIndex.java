@@ -0,0 +1,182 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.spi.coordinator;
+
+import org.jboss.pnc.common.graph.DependencyIndex;
+import org.jboss.pnc.model.BuildConfiguration;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Application wide reachability index of the build configuration dependency graph, used to validate the dependency
+ * changes. The builds resolve their dependencies from the entities, not from the index.
+ *
+ * The graph is loaded lazily from the queried build configurations. The direct dependencies of the queried
+ * configurations are re-read on every query, the rest of the graph is kept in the index and updated when the
+ * dependencies are added or removed on this node, see {@link #dependenciesChanged(BuildConfiguration)}. The changes
+ * made on the other nodes are not reported, so the whole graph is re-read once the kept dependencies are older than
+ * {@link #TTL_MILLIS}. Repeated queries over the same (usually heavily overlapping) graphs are answered from the
+ * memoized closures instead of walking the dependencies again.
+ */
+@ApplicationScoped
+public class BuildConfigurationDependencyIndex {
+
+    /**
+     * Maximal age of the direct dependencies kept in the index, bounds the time a change made on another node is not
+     * seen.
+     */
+    static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final DependencyIndex<Integer> index = new DependencyIndex<>();
+
+    /**
+     * Build configurations whose direct dependencies are in the index.
+     */
+    private final Set<Integer> loaded = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Time (in nanoseconds) since which the {@link #loaded} dependencies are kept.
+     */
+    private volatile long loadedSince = System.nanoTime();
+
+    private Event<Update> updates;
+
+    /**
+     * Creates an index outside of the container, the changes are applied right away.
+     */
+    public BuildConfigurationDependencyIndex() {
+    }
+
+    @Inject
+    public BuildConfigurationDependencyIndex(Event<Update> updates) {
+        this.updates = updates;
+    }
+
+    /**
+     * @return true if the build configuration depends directly or indirectly on the other one
+     */
+    public boolean dependsOn(BuildConfiguration buildConfiguration, BuildConfiguration other) {
+        load(buildConfiguration);
+        return index.dependsOn(buildConfiguration.getId(), other.getId());
+    }
+
+    /**
+     * @return true if adding the dependency to the build configuration would introduce a cycle
+     */
+    public boolean wouldCreateCycle(BuildConfiguration buildConfiguration, BuildConfiguration dependency) {
+        load(dependency);
+        return index.wouldCreateCycle(buildConfiguration.getId(), dependency.getId());
+    }
+
+    /**
+     * Adds the dependency to the build configuration, using the index to check for circular dependencies. The change
+     * has to be saved and then reported with {@link #dependenciesChanged(BuildConfiguration)}.
+     *
+     * @return true if the dependency was not present yet
+     * @throws javax.persistence.PersistenceException if the dependency would introduce a cycle
+     */
+    public boolean addDependency(BuildConfiguration buildConfiguration, BuildConfiguration dependency) {
+        return buildConfiguration.addDependency(dependency, this::dependsOn);
+    }
+
+    /**
+     * Updates the direct dependencies of the saved build configuration, after a dependency was added or removed. When
+     * called in a transaction the index is updated after the transaction commits, nothing changes on a rollback.
+     */
+    public void dependenciesChanged(BuildConfiguration buildConfiguration) {
+        Update update = new Update(buildConfiguration.getId(), dependencyIds(buildConfiguration));
+        if (updates == null) {
+            apply(update);
+        } else {
+            updates.fire(update);
+        }
+    }
+
+    void onUpdate(@Observes(during = TransactionPhase.AFTER_SUCCESS) Update update) {
+        apply(update);
+    }
+
+    private void apply(Update update) {
+        index.setDependencies(update.buildConfigurationId, update.dependencyIds);
+        loaded.add(update.buildConfigurationId);
+    }
+
+    /**
+     * Refreshes the direct dependencies of the build configuration and loads the dependencies of the configurations
+     * it reaches which are not in the index yet. All the kept dependencies are re-read when they are older than
+     * {@link #TTL_MILLIS}.
+     */
+    private void load(BuildConfiguration buildConfiguration) {
+        long now = System.nanoTime();
+        if (now - loadedSince > TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS)) {
+            loaded.clear();
+            loadedSince = now;
+        }
+        Deque<BuildConfiguration> toLoad = new ArrayDeque<>();
+        toLoad.add(buildConfiguration);
+        boolean refresh = true;
+        while (!toLoad.isEmpty()) {
+            BuildConfiguration next = toLoad.poll();
+            if (!refresh && loaded.contains(next.getId())) {
+                continue;
+            }
+            refresh = false;
+            index.setDependencies(next.getId(), dependencyIds(next));
+            loaded.add(next.getId());
+            if (next.getDependencies() != null) {
+                toLoad.addAll(next.getDependencies());
+            }
+        }
+    }
+
+    private static Set<Integer> dependencyIds(BuildConfiguration buildConfiguration) {
+        if (buildConfiguration.getDependencies() == null) {
+            return Collections.emptySet();
+        }
+        return buildConfiguration.getDependencies()
+                .stream()
+                .map(BuildConfiguration::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Change of the dependencies of a saved build configuration.
+     */
+    public static class Update {
+
+        private final Integer buildConfigurationId;
+
+        private final Set<Integer> dependencyIds;
+
+        Update(Integer buildConfigurationId, Set<Integer> dependencyIds) {
+            this.buildConfigurationId = buildConfigurationId;
+            this.dependencyIds = dependencyIds;
+        }
+    }
+}
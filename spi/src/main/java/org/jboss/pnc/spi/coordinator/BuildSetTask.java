@@ -18,6 +18,7 @@
 package org.jboss.pnc.spi.coordinator;
 
 import lombok.Getter;
+import lombok.Setter;
 
 import org.jboss.pnc.model.BuildConfigSetRecord;
 import org.jboss.pnc.model.BuildConfigurationAudited;
@@ -29,8 +30,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -53,6 +56,21 @@ public class BuildSetTask {
 
     private Date startTime;
 
+    /**
+     * Duration of the longest dependency chain of the set, in the units of the build duration estimate.
+     */
+    @Getter
+    @Setter
+    private volatile long criticalPath;
+
+    /**
+     * Estimated time to build the whole set with the configured number of build slots, in the units of the build
+     * duration estimate.
+     */
+    @Getter
+    @Setter
+    private volatile long estimatedMakespan;
+
     private final Set<BuildTask> buildTasks = new HashSet<>();
 
     /**
@@ -146,6 +164,47 @@ public class BuildSetTask {
         return buildTasks;
     }
 
+    /**
+     * Estimates the time needed to complete the set, that is the longest chain of its not completed tasks. Time already
+     * spent building the running tasks is subtracted from their estimated duration.
+     *
+     * @param now current time
+     * @return estimated remaining time in milliseconds
+     */
+    public long estimateRemainingMillis(Date now) {
+        Map<BuildTask, Long> remainingChains = new HashMap<>();
+        long remaining = 0;
+        for (BuildTask task : buildTasks) {
+            remaining = Math.max(remaining, remainingChain(task, now, remainingChains));
+        }
+        return remaining;
+    }
+
+    private long remainingChain(BuildTask task, Date now, Map<BuildTask, Long> remainingChains) {
+        Long memoized = remainingChains.get(task);
+        if (memoized != null) {
+            return memoized;
+        }
+        // guards against cycles
+        remainingChains.put(task, 0L);
+        long chain = 0;
+        if (!task.getStatus().isCompleted()) {
+            long own = task.getEstimatedDuration();
+            if (task.getStartTime() != null) {
+                own = Math.max(0L, own - (now.getTime() - task.getStartTime().getTime()));
+            }
+            long longestDependant = 0;
+            for (BuildTask dependant : task.getDependants()) {
+                if (buildTasks.contains(dependant)) {
+                    longestDependant = Math.max(longestDependant, remainingChain(dependant, now, remainingChains));
+                }
+            }
+            chain = own + longestDependant;
+        }
+        remainingChains.put(task, chain);
+        return chain;
+    }
+
     public void addBuildTask(BuildTask buildTask) {
         buildTasks.add(buildTask);
     }
@@ -75,6 +75,17 @@ public class BuildTask {
 
     private boolean hasFailed = false;
 
+    /**
+     * Estimated duration in milliseconds of the longest chain of tasks of the same set waiting for this task, including
+     * the task itself. Used to prioritize ready tasks.
+     */
+    private volatile long criticalPath;
+
+    /**
+     * Estimated duration of the build in milliseconds.
+     */
+    private volatile long estimatedDuration;
+
     // called when all dependencies are built
     private final Integer buildConfigSetRecordId;
 
@@ -138,6 +149,22 @@ public class BuildTask {
         return dependants;
     }
 
+    public long getCriticalPath() {
+        return criticalPath;
+    }
+
+    public void setCriticalPath(long criticalPath) {
+        this.criticalPath = criticalPath;
+    }
+
+    public long getEstimatedDuration() {
+        return estimatedDuration;
+    }
+
+    public void setEstimatedDuration(long estimatedDuration) {
+        this.estimatedDuration = estimatedDuration;
+    }
+
     /**
      * @return current status
      */
@@ -0,0 +1,84 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.spi.datastore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Storage of the build logs kept out of the build records, so that a log doesn't have to be held in memory as a whole
+ * while it is collected from the build environment or served to the clients.
+ */
+public interface BuildLogStore {
+
+    /**
+     * @return false if the storage is not configured and the build logs are stored in the build records
+     */
+    boolean isEnabled();
+
+    /**
+     * Opens a new log of the build for writing. The log can be read once the writer is closed.
+     *
+     * @param buildId id of the build record the log belongs to
+     * @return writer appending to the log
+     * @throws IOException if the log cannot be created
+     */
+    BuildLogWriter openWriter(Integer buildId) throws IOException;
+
+    /**
+     * @param buildId id of the build record the log belongs to
+     * @return writer opened by {@link #openWriter(Integer)} which hasn't been closed yet
+     */
+    Optional<BuildLogWriter> getOpenWriter(Integer buildId);
+
+    /**
+     * @param buildId id of the build record the log belongs to
+     * @return size of the uncompressed log in bytes or empty if the log is not in the store
+     * @throws IOException if the log cannot be read
+     */
+    Optional<Long> getSize(Integer buildId) throws IOException;
+
+    /**
+     * Reads the uncompressed log starting at the given offset. Only the segments from the offset on are decompressed.
+     *
+     * @param buildId id of the build record the log belongs to
+     * @param offset number of bytes to skip
+     * @return stream of the log, the caller is responsible for closing it
+     * @throws IOException if the log is not in the store or cannot be read
+     */
+    InputStream read(Integer buildId, long offset) throws IOException;
+
+    /**
+     * Drops the log of the build if its writer hasn't been closed yet, the writer rejects further writes. Has to be
+     * called on every termination path of a build, so that a log which won't be completed doesn't keep its file open.
+     * Does nothing if there is no open writer of the build.
+     *
+     * @param buildId id of the build record the log belongs to
+     * @throws IOException if the log cannot be removed
+     */
+    void discardOpenWriter(Integer buildId) throws IOException;
+
+    /**
+     * Removes the log of the build, does nothing if the log is not in the store.
+     *
+     * @param buildId id of the build record the log belongs to
+     * @throws IOException if the log cannot be removed
+     */
+    void delete(Integer buildId) throws IOException;
+}
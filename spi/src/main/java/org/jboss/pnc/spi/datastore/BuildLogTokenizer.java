@@ -0,0 +1,58 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.spi.datastore;
+
+import org.jboss.pnc.model.BuildLogTerm;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits build log lines into the terms of the build log search index. The searched text is split by the same rules, so
+ * the searched terms match the indexed ones.
+ *
+ * Terms are the lower-cased runs of letters, digits and underscores. Terms shorter than {@link #MIN_TERM_LENGTH}, longer
+ * than {@link BuildLogTerm#MAX_TERM_LENGTH} and plain numbers (line numbers, timestamps, sizes...) are not indexed.
+ */
+public class BuildLogTokenizer {
+
+    public static final int MIN_TERM_LENGTH = 2;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_]+");
+
+    private static final Pattern NUMBER = Pattern.compile("\\p{N}+");
+
+    private BuildLogTokenizer() {
+    }
+
+    /**
+     * @return distinct terms of the text in the order of their first occurrence
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : SEPARATOR.split(text)) {
+            if (token.length() >= MIN_TERM_LENGTH && token.length() <= BuildLogTerm.MAX_TERM_LENGTH
+                    && !NUMBER.matcher(token).matches()) {
+                terms.add(token.toLowerCase(Locale.ROOT));
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.spi.datastore;
+
+import org.jboss.pnc.common.security.Md5;
+import org.jboss.pnc.common.security.Sha256;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.NoSuchAlgorithmException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stream appending to a build log in a {@link BuildLogStore}. The size and the checksums of the log are computed while
+ * the log is written, so they are known without reading the log back.
+ */
+public abstract class BuildLogWriter extends OutputStream {
+
+    private final Md5 md5;
+
+    private final Sha256 sha256;
+
+    private long size;
+
+    private String md5Digest;
+
+    private String sha256Digest;
+
+    private boolean closed;
+
+    protected BuildLogWriter() {
+        try {
+            md5 = new Md5();
+            sha256 = new Sha256();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute log checksum.", e);
+        }
+    }
+
+    /**
+     * Stores the data which were already added to the checksums.
+     */
+    protected abstract void store(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * Finishes the log after all the data were written. The size and the checksums are already known at this point.
+     */
+    protected abstract void complete() throws IOException;
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Build log writer is already closed.");
+        }
+        md5.add(bytes, offset, length);
+        sha256.add(bytes, offset, length);
+        size += length;
+        store(bytes, offset, length);
+    }
+
+    public void append(String text) throws IOException {
+        if (text != null) {
+            write(text.getBytes(UTF_8));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        md5Digest = md5.digest();
+        sha256Digest = sha256.digest();
+        complete();
+    }
+
+    /**
+     * @return number of bytes written to the log
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return MD5 checksum of the log, null until the writer is closed
+     */
+    public synchronized String getMd5() {
+        return md5Digest;
+    }
+
+    /**
+     * @return SHA-256 checksum of the log, null until the writer is closed
+     */
+    public synchronized String getSha256() {
+        return sha256Digest;
+    }
+}
@@ -23,10 +23,12 @@ import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildConfigurationAudited;
 import org.jboss.pnc.model.BuildConfigurationSet;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.IdRev;
 import org.jboss.pnc.model.User;
 import org.jboss.pnc.spi.coordinator.BuildTask;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -153,5 +155,27 @@ public interface Datastore {
     @Deprecated
     boolean requiresRebuild(BuildTask task, Set<Integer> processedDependenciesCache);
 
+    /**
+     * Bulk version of
+     * {@link #requiresRebuild(BuildConfigurationAudited, boolean, boolean, Set, Consumer)}. BuildRecords of all the
+     * configurations are loaded in a few set based queries and the decision is evaluated in memory.
+     *
+     * @param buildConfigurationAuditeds configurations to check
+     * @param checkImplicitDependencies when true check also automatically captured dependencies.
+     * @param temporaryBuild true if requested build is going to be temporary
+     * @return BuildRecords causing not rebuilding mapped by the IdRev of the configuration. Configurations that require
+     *         a rebuild are not present in the map.
+     */
+    Map<IdRev, BuildRecord> getNoRebuildCauses(
+            Collection<BuildConfigurationAudited> buildConfigurationAuditeds,
+            boolean checkImplicitDependencies,
+            boolean temporaryBuild);
+
     Set<BuildConfiguration> getBuildConfigurations(BuildConfigurationSet buildConfigurationSet);
+
+    /**
+     * @param endedAfter only builds ended after this date are considered
+     * @return durations in milliseconds of the successful builds, oldest first, mapped by the build configuration id
+     */
+    Map<Integer, List<Long>> getSuccessfulBuildDurations(Date endedAfter);
 }
@@ -0,0 +1,69 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.spi.datastore.predicates;
+
+import org.jboss.pnc.model.BuildLogTerm;
+import org.jboss.pnc.model.BuildLogTerm_;
+import org.jboss.pnc.model.BuildRecord_;
+import org.jboss.pnc.spi.datastore.repositories.api.Predicate;
+
+import java.util.Collection;
+
+/**
+ * Predicates for {@link org.jboss.pnc.model.BuildLogTerm} entity.
+ */
+public class BuildLogTermPredicates {
+
+    /**
+     * Escape character of the patterns created by {@link #escapeLike(String)}.
+     */
+    public static final char LIKE_ESCAPE = '\\';
+
+    public static Predicate<BuildLogTerm> withBuildRecordId(Integer buildRecordId) {
+        return (root, query, cb) -> cb.equal(root.get(BuildLogTerm_.buildRecord).get(BuildRecord_.id), buildRecordId);
+    }
+
+    public static Predicate<BuildLogTerm> withBuildRecordIds(Collection<Integer> buildRecordIds) {
+        return (root, query, cb) -> root.get(BuildLogTerm_.buildRecord).get(BuildRecord_.id).in(buildRecordIds);
+    }
+
+    /**
+     * Matches the log terms starting with any of the given prefixes.
+     */
+    public static Predicate<BuildLogTerm> withTermPrefixes(Collection<String> prefixes) {
+        return (root, query, cb) -> cb.or(
+                prefixes.stream()
+                        .map(prefix -> cb.like(root.get(BuildLogTerm_.term), escapeLike(prefix) + "%", LIKE_ESCAPE))
+                        .toArray(javax.persistence.criteria.Predicate[]::new));
+    }
+
+    /**
+     * Escapes the LIKE wildcards, so the value is matched literally. The pattern has to be used with the
+     * {@link #LIKE_ESCAPE} escape character.
+     */
+    public static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
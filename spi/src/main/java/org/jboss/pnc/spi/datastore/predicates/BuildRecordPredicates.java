@@ -24,6 +24,8 @@ import org.jboss.pnc.model.BuildConfigSetRecord;
 import org.jboss.pnc.model.BuildConfigSetRecord_;
 import org.jboss.pnc.model.BuildConfigurationSet;
 import org.jboss.pnc.model.BuildConfigurationSet_;
+import org.jboss.pnc.model.BuildLogTerm;
+import org.jboss.pnc.model.BuildLogTerm_;
 import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.model.BuildRecordAttribute;
 import org.jboss.pnc.model.BuildRecordAttribute_;
@@ -74,8 +76,42 @@ public class BuildRecordPredicates {
         return (root, query, cb) -> (cb.equal(root.get(BuildRecord_.status), status));
     }
 
-    public static Predicate<BuildRecord> withBuildLogContains(String search) {
-        return (root, query, cb) -> (cb.like(root.get(BuildRecord_.buildLog), "%" + search + "%"));
+    /**
+     * Matches the records which build log contains all the terms, each term can be a prefix of a log term. The search
+     * is done in the build log search index, the terms are expected to be normalized by
+     * {@link org.jboss.pnc.spi.datastore.BuildLogTokenizer}. The records which are not indexed yet are not matched.
+     */
+    public static Predicate<BuildRecord> withBuildLogTerms(Collection<String> terms) {
+        return withBuildLogTerms(terms, false);
+    }
+
+    /**
+     * Same as {@link #withBuildLogTerms(Collection)}, optionally including the records which are not indexed yet. These
+     * are searched in the log stored in the record, which reads the whole logs.
+     */
+    public static Predicate<BuildRecord> withBuildLogTerms(Collection<String> terms, boolean includeUnindexed) {
+        return (root, query, cb) -> cb.and(terms.stream().map(term -> {
+            Subquery<Integer> termBuilds = query.subquery(Integer.class);
+            Root<BuildLogTerm> logTerm = termBuilds.from(BuildLogTerm.class);
+            termBuilds.select(logTerm.get(BuildLogTerm_.buildRecord).get(BuildRecord_.id));
+            termBuilds.where(
+                    cb.like(
+                            logTerm.get(BuildLogTerm_.term),
+                            BuildLogTermPredicates.escapeLike(term) + "%",
+                            BuildLogTermPredicates.LIKE_ESCAPE));
+            javax.persistence.criteria.Predicate indexed = root.get(BuildRecord_.id).in(termBuilds);
+            if (!includeUnindexed) {
+                return indexed;
+            }
+            return cb.or(
+                    indexed,
+                    cb.and(
+                            cb.isFalse(root.get(BuildRecord_.buildLogIndexed)),
+                            cb.like(
+                                    cb.lower(root.get(BuildRecord_.buildLog)),
+                                    "%" + BuildLogTermPredicates.escapeLike(term) + "%",
+                                    BuildLogTermPredicates.LIKE_ESCAPE)));
+        }).toArray(javax.persistence.criteria.Predicate[]::new));
     }
 
     public static Predicate<BuildRecord> withBuildConfigurationIds(Set<Integer> configurationIds) {
@@ -88,6 +124,18 @@ public class BuildRecordPredicates {
                 cb.equal(root.get(BuildRecord_.buildConfigurationRev), idRev.getRev()));
     }
 
+    /**
+     * Seek predicate for BuildRecords ordered by submitTime and id in descending order. Matches the records which
+     * follow the record with given submitTime and id in this order.
+     */
+    public static Predicate<BuildRecord> submittedBefore(Date submitTime, Integer id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get(BuildRecord_.submitTime), submitTime),
+                cb.and(
+                        cb.equal(root.get(BuildRecord_.submitTime), submitTime),
+                        cb.lessThan(root.get(BuildRecord_.id), id)));
+    }
+
     public static Predicate<BuildRecord> withSuccess() {
         return (root, query, cb) -> cb.equal(root.get(BuildRecord_.status), BuildStatus.SUCCESS);
     }
@@ -0,0 +1,48 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.spi.datastore.projections;
+
+import lombok.Value;
+import org.jboss.pnc.enums.ArtifactQuality;
+import org.jboss.pnc.enums.RepositoryType;
+
+/**
+ * Read-only view of an {@link org.jboss.pnc.model.Artifact} with the fields needed to describe it to external systems,
+ * loaded by scalar queries so that no entities (and their associations) are materialized.
+ */
+@Value
+public class ArtifactInfo {
+
+    private final Integer id;
+
+    private final String identifier;
+
+    private final String filename;
+
+    private final String md5;
+
+    private final Long size;
+
+    private final String deployPath;
+
+    private final ArtifactQuality artifactQuality;
+
+    private final RepositoryType repositoryType;
+
+    private final String repositoryPath;
+}
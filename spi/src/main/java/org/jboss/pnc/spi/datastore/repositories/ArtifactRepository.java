@@ -18,8 +18,12 @@
 package org.jboss.pnc.spi.datastore.repositories;
 
 import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.spi.datastore.projections.ArtifactInfo;
 import org.jboss.pnc.spi.datastore.repositories.api.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -28,4 +32,20 @@ import java.util.Set;
 public interface ArtifactRepository extends Repository<Artifact, Integer> {
 
     Set<Artifact> withIdentifierAndSha256s(Set<Artifact.IdentifierSha256> identifierSha256s);
+
+    /**
+     * Loads the artifacts built by the given builds as {@link ArtifactInfo} projections.
+     *
+     * @param buildRecordIds ids of the builds
+     * @return build id mapped to the artifacts it produced, builds without artifacts are not present
+     */
+    Map<Integer, List<ArtifactInfo>> findBuiltArtifactInfos(Collection<Integer> buildRecordIds);
+
+    /**
+     * Loads the dependencies of the given builds as {@link ArtifactInfo} projections.
+     *
+     * @param buildRecordIds ids of the builds
+     * @return build id mapped to the artifacts it depends on, builds without dependencies are not present
+     */
+    Map<Integer, List<ArtifactInfo>> findDependencyInfos(Collection<Integer> buildRecordIds);
 }
@@ -0,0 +1,58 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.spi.datastore.repositories;
+
+import org.jboss.pnc.model.BuildLogTerm;
+import org.jboss.pnc.spi.datastore.repositories.api.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface for manipulating {@link org.jboss.pnc.model.BuildLogTerm} entity.
+ */
+public interface BuildLogTermRepository extends Repository<BuildLogTerm, Long> {
+
+    /**
+     * @return index entries of the build records which terms start with any of the prefixes
+     */
+    List<BuildLogTerm> queryMatches(Collection<Integer> buildRecordIds, Collection<String> termPrefixes);
+
+    void deleteForBuildRecord(Integer buildRecordId);
+
+    /**
+     * Replaces the index entries of the build record with the given ones and marks the record as indexed. The entries
+     * are inserted in batches.
+     */
+    void replaceForBuildRecord(Integer buildRecordId, Collection<BuildLogTerm> terms);
+
+    /**
+     * @param afterId only the build records with greater id are returned
+     * @param maxResults maximal number of returned ids
+     * @return ids of the build records which are not marked as indexed, in ascending order
+     */
+    List<Integer> queryUnindexedBuildRecordIds(Integer afterId, int maxResults);
+
+    /**
+     * Takes the lock of the index backfill for the rest of the current transaction, so the backfill runs on one node
+     * at a time.
+     *
+     * @return false if the lock is held by another transaction
+     */
+    boolean tryLockIndexBackfill();
+}
@@ -25,9 +25,11 @@ import org.jboss.pnc.spi.datastore.repositories.api.Predicate;
 import org.jboss.pnc.spi.datastore.repositories.api.Repository;
 import org.jboss.pnc.spi.datastore.repositories.api.SortInfo;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -42,6 +44,13 @@ public interface BuildRecordRepository extends Repository<BuildRecord, Integer>
      */
     BuildRecord findByIdFetchProperties(Integer id);
 
+    /**
+     * Batch variant of {@link #findByIdFetchProperties(Integer)} loading all the records in one query.
+     *
+     * @return found records, ids without a record are left out.
+     */
+    List<BuildRecord> findByIdsFetchProperties(Collection<Integer> ids);
+
     List<BuildRecord> queryWithPredicatesUsingCursor(
             PageInfo pageInfo,
             SortInfo sortInfo,
@@ -53,6 +62,22 @@ public interface BuildRecordRepository extends Repository<BuildRecord, Integer>
             List<Predicate<BuildRecord>> andPredicates,
             List<Predicate<BuildRecord>> orPredicates);
 
+    /**
+     * Seek based pagination of BuildRecords ordered by submitTime and id in descending order. Unlike offset based
+     * pagination the cost does not depend on the position of the page.
+     *
+     * @param submitTime submitTime of the last record of the previous page or null to start from the beginning
+     * @param id id of the last record of the previous page or null to start from the beginning
+     * @param pageSize maximal number of returned records
+     * @param predicates additional conditions
+     * @return BuildRecords following the given record
+     */
+    List<BuildRecord> queryWithPredicatesAfter(
+            Date submitTime,
+            Integer id,
+            int pageSize,
+            Predicate<BuildRecord>... predicates);
+
     BuildRecord getLatestSuccessfulBuildRecord(Integer configurationId, boolean buildTemporary);
 
     default BuildRecord getLatestSuccessfulBuildRecord(List<BuildRecord> buildRecords, boolean buildTemporary) {
@@ -77,11 +102,36 @@ public interface BuildRecordRepository extends Repository<BuildRecord, Integer>
 
     List<BuildRecord> queryWithBuildConfigurationId(Integer configurationId);
 
+    List<BuildRecord> queryWithBuildConfigurationIds(Collection<Integer> configurationIds);
+
+    List<BuildRecord> querySuccessfulWithBuildConfigurationIdRevs(List<IdRev> buildConfigurationAuditedIdRevs);
+
     List<BuildRecord> findIndependentTemporaryBuildsOlderThan(Date date);
 
     BuildRecord getLatestSuccessfulBuildRecord(IdRev buildConfigurationAuditedIdRev, boolean temporaryBuild);
 
     Set<BuildRecord> findByBuiltArtifacts(Set<Integer> artifactsId);
 
+    /**
+     * Finds the BuildRecords which produced the captured dependencies of the given BuildRecords.
+     *
+     * @param buildRecordIds ids of the dependant BuildRecords
+     * @return BuildRecords which produced the dependencies mapped by the id of the dependant BuildRecord
+     */
+    Map<Integer, Set<BuildRecord>> findDependencyProducers(Set<Integer> buildRecordIds);
+
     List<BuildRecord> getBuildByCausingRecord(Integer causingRecordId);
+
+    /**
+     * Finds durations of the successful builds that ended after the given date.
+     *
+     * @param endedAfter only builds ended after this date are considered
+     * @return build durations in milliseconds, oldest first, mapped by the build configuration id
+     */
+    Map<Integer, List<Long>> findSuccessfulBuildDurations(Date endedAfter);
+
+    /**
+     * @return build log stored in the database record, without loading the rest of the record
+     */
+    String getBuildLog(Integer buildRecordId);
 }
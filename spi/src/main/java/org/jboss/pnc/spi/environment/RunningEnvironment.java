@@ -23,6 +23,8 @@ import org.jboss.pnc.spi.repositorymanager.model.RepositorySession;
 
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * Identification of environment started by environment driver
@@ -65,6 +67,16 @@ public interface RunningEnvironment extends Serializable, DestroyableEnvironment
 
     DebugData getDebugData();
 
+    /**
+     * Variables of the build which were not known when the environment was started, eg. when it was taken from a pool
+     * of pre-started environments. The build driver has to export them before running the build script.
+     *
+     * @return variables to export, empty when the environment was started for the build
+     */
+    default Map<String, String> getBuildEnvironment() {
+        return Collections.emptyMap();
+    }
+
     static RunningEnvironment createInstance(
             String id,
             int buildAgentPort,
@@ -75,6 +87,30 @@ public interface RunningEnvironment extends Serializable, DestroyableEnvironment
             Path workingDirectory,
             Runnable destroyer,
             DebugData debugData) {
+        return createInstance(
+                id,
+                buildAgentPort,
+                host,
+                buildAgentUrl,
+                internalBuildAgentUrl,
+                repositorySession,
+                workingDirectory,
+                destroyer,
+                debugData,
+                Collections.emptyMap());
+    }
+
+    static RunningEnvironment createInstance(
+            String id,
+            int buildAgentPort,
+            String host,
+            String buildAgentUrl,
+            String internalBuildAgentUrl,
+            RepositorySession repositorySession,
+            Path workingDirectory,
+            Runnable destroyer,
+            DebugData debugData,
+            Map<String, String> buildEnvironment) {
 
         return new RunningEnvironment() {
             @Override
@@ -121,6 +157,11 @@ public interface RunningEnvironment extends Serializable, DestroyableEnvironment
             public DebugData getDebugData() {
                 return debugData;
             }
+
+            @Override
+            public Map<String, String> getBuildEnvironment() {
+                return buildEnvironment;
+            }
         };
     }
 }
@@ -37,6 +37,15 @@ public interface AttachedClient {
      */
     void sendMessage(Object messageBody, MessageCallback callback);
 
+    /**
+     * Sends a message already serialized to JSON, so the same message can be sent to many clients without serializing
+     * it for each of them.
+     *
+     * @param message JSON message
+     * @param callback the callback from the asynch method
+     */
+    void sendSerializedMessage(String message, MessageCallback callback);
+
     void subscribe(String topic, String messagesId);
 
     void unsubscribe(String topic, String messagesId);
@@ -0,0 +1,47 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.spi.notifications;
+
+/**
+ * Relays the output of the running builds to the clients tailing the build logs. The build driver subscribes once to
+ * the output of a build and hands it over to the relay, the clients never connect to the build agent themselves.
+ */
+public interface BuildLogRelay {
+
+    /**
+     * Starts relaying the log of the build, the output appended earlier is dropped.
+     *
+     * @param buildId id of the build
+     */
+    void started(Integer buildId);
+
+    /**
+     * Appends the output of the build. The output doesn't have to end at a line boundary.
+     *
+     * @param buildId id of the build
+     * @param output next part of the build output
+     */
+    void append(Integer buildId, String output);
+
+    /**
+     * Sends the rest of the log and releases it.
+     *
+     * @param buildId id of the build
+     */
+    void completed(Integer buildId);
+}
@@ -30,8 +30,28 @@ public interface Notifier {
 
     int getAttachedClientsCount();
 
+    /**
+     * Sends the message to all the attached clients.
+     */
     void sendMessage(Object message);
 
+    /**
+     * Sends the message to the clients subscribed to the topic and qualifier.
+     */
+    void sendMessage(Object message, Topic topic, String qualifier);
+
+    /**
+     * @return true if any client is subscribed to the topic and qualifier
+     */
+    boolean hasSubscribers(Topic topic, String qualifier);
+
+    /**
+     * Subscribes the client to the messages of the topic. Empty qualifier subscribes to all the messages of the topic.
+     */
+    void subscribe(AttachedClient client, String topic, String qualifier);
+
+    void unsubscribe(AttachedClient client, String topic, String qualifier);
+
     Optional<AttachedClient> getAttachedClient(String sessionId);
 
     MessageCallback getCallback();
@@ -42,7 +62,8 @@ public interface Notifier {
         COMPONENT_BUILD("component-build"),
         CAUSEWAY_PUSH("causeway-push"),
         BUILD_RECORDS_DELETE("build-records#delete"),
-        BUILD_CONFIG_SET_RECORDS_DELETE("build-config-set-records#delete");
+        BUILD_CONFIG_SET_RECORDS_DELETE("build-config-set-records#delete"),
+        BUILD_LOG("build-log");
 
         Topic(String id) {
             this.id = id;
@@ -23,6 +23,7 @@ import org.jboss.pnc.buildagent.client.BuildAgentClientException;
 import org.jboss.pnc.termdbuilddriver.transfer.FileTranser;
 
 import java.net.URI;
+import java.util.Optional;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
@@ -34,5 +35,16 @@ public interface ClientFactory {
     BuildAgentClient createBuildAgentClient(String terminalUrl, Consumer<TaskStatusUpdateEvent> onStatusUpdate)
             throws TimeoutException, InterruptedException, BuildAgentClientException;
 
+    /**
+     * @param onOutput receives the output of the executed commands, the client is silent if empty
+     */
+    default BuildAgentClient createBuildAgentClient(
+            String terminalUrl,
+            Consumer<TaskStatusUpdateEvent> onStatusUpdate,
+            Optional<Consumer<String>> onOutput)
+            throws TimeoutException, InterruptedException, BuildAgentClientException {
+        return createBuildAgentClient(terminalUrl, onStatusUpdate);
+    }
+
     FileTranser getFileTransfer(URI baseServerUri, int maxLogSize);
 }
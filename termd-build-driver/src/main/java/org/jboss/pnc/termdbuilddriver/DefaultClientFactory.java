@@ -61,12 +61,21 @@ public class DefaultClientFactory implements ClientFactory {
     @Override
     public BuildAgentClient createBuildAgentClient(String terminalUrl, Consumer<TaskStatusUpdateEvent> onStatusUpdate)
             throws TimeoutException, InterruptedException, BuildAgentClientException {
+        return createBuildAgentClient(terminalUrl, onStatusUpdate, Optional.empty());
+    }
+
+    @Override
+    public BuildAgentClient createBuildAgentClient(
+            String terminalUrl,
+            Consumer<TaskStatusUpdateEvent> onStatusUpdate,
+            Optional<Consumer<String>> onOutput)
+            throws TimeoutException, InterruptedException, BuildAgentClientException {
         return new BuildAgentSocketClient(
                 terminalUrl,
-                Optional.empty(),
+                onOutput,
                 onStatusUpdate,
                 "",
-                ResponseMode.SILENT,
+                onOutput.isPresent() ? ResponseMode.TEXT : ResponseMode.SILENT,
                 false);
     }
 
@@ -0,0 +1,142 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.termdbuilddriver;
+
+import org.jboss.pnc.common.security.Md5;
+import org.jboss.pnc.spi.datastore.BuildLogWriter;
+import org.jboss.pnc.spi.notifications.BuildLogRelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Output of a running build received from the build agent. The output is relayed to the clients tailing the log and
+ * appended to the stored log as it arrives, so the log does not have to be downloaded once the build completes. The
+ * stored log is truncated once it reaches the maximal size.
+ */
+class LiveBuildLog implements Consumer<String> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveBuildLog.class);
+
+    private final Integer buildId;
+
+    private final Optional<BuildLogRelay> relay;
+
+    private final Optional<BuildLogWriter> writer;
+
+    private final long maxSize;
+
+    private final Md5 md5;
+
+    private long size;
+
+    private boolean writeFailed;
+
+    private boolean truncated;
+
+    private String outputChecksum;
+
+    LiveBuildLog(Integer buildId, Optional<BuildLogRelay> relay, Optional<BuildLogWriter> writer, long maxSize) {
+        this.buildId = buildId;
+        this.relay = relay;
+        this.writer = writer;
+        this.maxSize = maxSize;
+        try {
+            md5 = new Md5();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute build output checksum.", e);
+        }
+        relay.ifPresent(r -> r.started(buildId));
+    }
+
+    @Override
+    public synchronized void accept(String output) {
+        if (outputChecksum != null) {
+            logger.warn("Build {} produced output after it has completed.", buildId);
+            return;
+        }
+        relay.ifPresent(r -> r.append(buildId, output));
+        byte[] bytes = output.getBytes(UTF_8);
+        md5.add(bytes, 0, bytes.length);
+        size += bytes.length;
+        if (writer.isPresent() && !writeFailed && !truncated) {
+            try {
+                if (size > maxSize) {
+                    logger.warn(
+                            "Log of build {} exceeded {} bytes, the rest of the output is not stored.",
+                            buildId,
+                            maxSize);
+                    truncated = true;
+                    writer.get()
+                            .append(
+                                    "----- build log exceeded the maximal size of " + maxSize
+                                            + " bytes, the rest of the output is not stored -----\n");
+                } else {
+                    writer.get().write(bytes);
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot append output to the log of build {}, it will be downloaded.", buildId, e);
+                writeFailed = true;
+            }
+        }
+    }
+
+    /**
+     * Ends the relaying of the output. Output received later is ignored.
+     */
+    synchronized void complete() {
+        if (outputChecksum == null) {
+            outputChecksum = md5.digest();
+            relay.ifPresent(r -> r.completed(buildId));
+        }
+    }
+
+    /**
+     * @param expectedChecksum checksum of the whole output as computed by the build agent
+     * @return true if the stored log contains the whole output of the build
+     */
+    synchronized boolean isStoredCompletely(Optional<String> expectedChecksum) {
+        complete();
+        return writer.isPresent() && !writeFailed && !truncated && expectedChecksum.isPresent()
+                && expectedChecksum.get().equalsIgnoreCase(outputChecksum);
+    }
+
+    /**
+     * @return true if the output stopped being stored because the log reached the maximal size
+     */
+    synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return number of bytes of the output received
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    Optional<BuildLogWriter> getWriter() {
+        return writer;
+    }
+}
@@ -59,6 +59,17 @@ class RemoteInvocation implements Closeable {
             ClientFactory buildAgentClientFactory,
             String terminalUrl,
             Optional<Consumer<Status>> onStatusUpdate) throws BuildDriverException {
+        this(buildAgentClientFactory, terminalUrl, onStatusUpdate, Optional.empty());
+    }
+
+    /**
+     * @param onOutput receives the output of the remote command as it is produced
+     */
+    public RemoteInvocation(
+            ClientFactory buildAgentClientFactory,
+            String terminalUrl,
+            Optional<Consumer<Status>> onStatusUpdate,
+            Optional<Consumer<String>> onOutput) throws BuildDriverException {
 
         Consumer<TaskStatusUpdateEvent> onStatusUpdateInternal = (event) -> {
             final org.jboss.pnc.buildagent.api.Status newStatus;
@@ -76,8 +87,10 @@ class RemoteInvocation implements Closeable {
         };
 
         try {
-            buildAgentClient = buildAgentClientFactory
-                    .createBuildAgentClient(terminalUrl, MDCWrappers.wrap(onStatusUpdateInternal));
+            buildAgentClient = buildAgentClientFactory.createBuildAgentClient(
+                    terminalUrl,
+                    MDCWrappers.wrap(onStatusUpdateInternal),
+                    onOutput.map(MDCWrappers::wrap));
         } catch (TimeoutException | BuildAgentClientException | InterruptedException e) {
             throw new BuildDriverException("Cannot create Build Agent Client.", e);
         }
@@ -28,17 +28,25 @@ import org.jboss.pnc.spi.builddriver.CompletedBuild;
 import org.jboss.pnc.spi.builddriver.DebugData;
 import org.jboss.pnc.spi.builddriver.RunningBuild;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
+import org.jboss.pnc.spi.datastore.BuildLogWriter;
 import org.jboss.pnc.spi.environment.RunningEnvironment;
 import org.jboss.pnc.spi.executor.BuildExecutionSession;
+import org.jboss.pnc.spi.notifications.BuildLogRelay;
 import org.jboss.pnc.termdbuilddriver.transfer.FileTranser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import java.io.IOException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -51,10 +59,20 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
     public static final String DRIVER_ID = "termd-build-driver";
     private static final int MAX_LOG_SIZE = 90 * 1024 * 1024; // 90MB
 
+    /**
+     * Exports of {@link RunningEnvironment#getBuildEnvironment()}, sourced by run.sh. A separate file keeps the values
+     * (eg. the access token) out of the logged script and out of the set -x trace.
+     */
+    static final String BUILD_ENVIRONMENT_SCRIPT = "build-env.sh";
+
     private static final Logger logger = LoggerFactory.getLogger(TermdBuildDriver.class);
 
     private final ClientFactory clientFactory;
 
+    private final BuildLogStore buildLogStore;
+
+    private final Optional<BuildLogRelay> buildLogRelay;
+
     // connect to build agent on internal or on public address
     private boolean useInternalNetwork = true; // TODO configurable
 
@@ -69,14 +87,32 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
     @Deprecated
     public TermdBuildDriver() {
         clientFactory = null;
+        buildLogStore = null;
+        buildLogRelay = Optional.empty();
+    }
+
+    public TermdBuildDriver(
+            SystemConfig systemConfig,
+            TermdBuildDriverModuleConfig termdBuildDriverModuleConfig,
+            ClientFactory clientFactory,
+            BuildLogStore buildLogStore) {
+        this(systemConfig, termdBuildDriverModuleConfig, clientFactory, buildLogStore, null);
     }
 
     @Inject
     public TermdBuildDriver(
             SystemConfig systemConfig,
             TermdBuildDriverModuleConfig termdBuildDriverModuleConfig,
-            ClientFactory clientFactory) {
+            ClientFactory clientFactory,
+            BuildLogStore buildLogStore,
+            Instance<BuildLogRelay> buildLogRelay) {
         this.clientFactory = clientFactory;
+        this.buildLogStore = buildLogStore;
+        if (buildLogRelay != null && !buildLogRelay.isUnsatisfied() && !buildLogRelay.isAmbiguous()) {
+            this.buildLogRelay = Optional.of(buildLogRelay.get());
+        } else {
+            this.buildLogRelay = Optional.empty();
+        }
         int threadPoolSize = 12;
         String executorThreadPoolSizeStr = systemConfig.getBuilderThreadPoolSize();
         if (executorThreadPoolSizeStr != null) {
@@ -128,7 +164,23 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
 
         if (!termdRunningBuild.isCanceled()) {
             String terminalUrl = getBuildAgentUrl(runningEnvironment);
-            final RemoteInvocation remoteInvocation = new RemoteInvocation(clientFactory, terminalUrl, onStatusUpdate);
+            Optional<LiveBuildLog> liveBuildLog = openLiveBuildLog(termdRunningBuild);
+            if (termdRunningBuild.isCanceled()) {
+                logger.debug("Skipping script uploading (cancel flag) ...");
+                discardLiveBuildLog(termdRunningBuild, liveBuildLog);
+                return termdRunningBuild;
+            }
+            final RemoteInvocation remoteInvocation;
+            try {
+                remoteInvocation = new RemoteInvocation(
+                        clientFactory,
+                        terminalUrl,
+                        onStatusUpdate,
+                        liveBuildLog.map(live -> (Consumer<String>) live));
+            } catch (BuildDriverException e) {
+                discardLiveBuildLog(termdRunningBuild, liveBuildLog);
+                throw e;
+            }
 
             FileTranser fileTransfer = clientFactory
                     .getFileTransfer(URI.create(getBuildAgentUrl(runningEnvironment)), MAX_LOG_SIZE);
@@ -198,7 +250,7 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
                 termdRunningBuild.setCancelHook(null);
                 remoteInvocation.close();
 
-                complete(termdRunningBuild, completion, fileTransfer);
+                complete(termdRunningBuild, completion, fileTransfer, liveBuildLog);
                 return null;
             });
 
@@ -216,6 +268,46 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
         return termdRunningBuild;
     }
 
+    /**
+     * Subscribes to the output of the build when it is relayed to the clients or can be stored as it is produced.
+     */
+    private Optional<LiveBuildLog> openLiveBuildLog(TermdRunningBuild termdRunningBuild) {
+        Optional<BuildLogWriter> writer = Optional.empty();
+        if (buildLogStore.isEnabled()) {
+            try {
+                BuildLogWriter buildLogWriter = buildLogStore.openWriter(termdRunningBuild.getBuildId());
+                buildLogWriter.append("==== " + getLogsUri(termdRunningBuild.getRunningEnvironment()) + " ====\n");
+                writer = Optional.of(buildLogWriter);
+            } catch (IOException | URISyntaxException e) {
+                logger.warn(
+                        "Cannot open the log of build {}, it will be downloaded.",
+                        termdRunningBuild.getBuildId(),
+                        e);
+            }
+        }
+        if (!writer.isPresent() && !buildLogRelay.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(new LiveBuildLog(termdRunningBuild.getBuildId(), buildLogRelay, writer, MAX_LOG_SIZE));
+    }
+
+    /**
+     * Ends the relaying and drops the log opened for a build which is not going to run.
+     */
+    private void discardLiveBuildLog(TermdRunningBuild termdRunningBuild, Optional<LiveBuildLog> liveBuildLog) {
+        if (!liveBuildLog.isPresent()) {
+            return;
+        }
+        liveBuildLog.get().complete();
+        if (liveBuildLog.get().getWriter().isPresent()) {
+            try {
+                buildLogStore.discardOpenWriter(termdRunningBuild.getBuildId());
+            } catch (IOException e) {
+                logger.warn("Cannot discard the log of build {}.", termdRunningBuild.getBuildId(), e);
+            }
+        }
+    }
+
     private CompletionStage<RemoteInvocationCompletion> monitorBuildLiveness(RemoteInvocation remoteInvocation) {
 
         CompletableFuture completableFuture = new CompletableFuture();
@@ -244,6 +336,15 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
 
     private String uploadTask(RunningEnvironment runningEnvironment, String command, FileTranser fileTranser) {
         try {
+            Map<String, String> buildEnvironment = runningEnvironment.getBuildEnvironment();
+            if (!buildEnvironment.isEmpty()) {
+                logger.debug("Uploading build environment variables {}.", buildEnvironment.keySet());
+                fileTranser.uploadScript(
+                        exportScript(buildEnvironment),
+                        Paths.get(
+                                runningEnvironment.getWorkingDirectory().toAbsolutePath().toString(),
+                                BUILD_ENVIRONMENT_SCRIPT));
+            }
             logger.debug("Full script:\n {}", command);
             fileTranser.uploadScript(
                     command,
@@ -264,20 +365,31 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
 
     private CompletedBuild collectResults(
             RunningEnvironment runningEnvironment,
+            int buildId,
             RemoteInvocationCompletion remoteInvocationCompletion,
-            FileTranser transfer) {
+            FileTranser transfer,
+            Optional<LiveBuildLog> liveBuildLog) {
         logger.info("Collecting results ...");
         try {
-            StringBuffer stringBuffer = new StringBuffer();
+            URI logsUri = getLogsUri(runningEnvironment);
+
+            BuildStatus buildStatus = getBuildStatus(remoteInvocationCompletion.getStatus());
 
-            String logsDirectory = runningEnvironment.getWorkingDirectory().toString();
+            if (buildLogStore.isEnabled()) {
+                return collectResultsToLogStore(
+                        runningEnvironment,
+                        buildId,
+                        remoteInvocationCompletion,
+                        buildStatus,
+                        transfer,
+                        logsUri,
+                        liveBuildLog);
+            }
 
-            URI logsUri = new URI(getBuildAgentUrl(runningEnvironment))
-                    .resolve("servlet/download" + logsDirectory + "/console.log");
+            StringBuffer stringBuffer = new StringBuffer();
             transfer.downloadFileToStringBuilder(stringBuffer, logsUri);
 
             String prependMessage = "";
-            BuildStatus buildStatus = getBuildStatus(remoteInvocationCompletion.getStatus());
 
             if (!transfer.isFullyDownloaded()) {
                 prependMessage = "----- build log was cut, storing only last part -----\n";
@@ -298,6 +410,48 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
         }
     }
 
+    /**
+     * Streams the log to the log store instead of keeping it in memory. The log is downloaded only if the output
+     * received while the build was running is not complete, a log truncated at the maximal size is kept as it is. The
+     * log is left open so the rest of the build results can
+     * be appended to it, it is closed once the results are stored.
+     */
+    private CompletedBuild collectResultsToLogStore(
+            RunningEnvironment runningEnvironment,
+            int buildId,
+            RemoteInvocationCompletion remoteInvocationCompletion,
+            BuildStatus buildStatus,
+            FileTranser transfer,
+            URI logsUri,
+            Optional<LiveBuildLog> liveBuildLog) throws Exception {
+        long logSize;
+        if (liveBuildLog.isPresent() && liveBuildLog.get().isTruncated()) {
+            logger.debug("Log of build {} exceeded the maximal size, keeping the truncated log.", buildId);
+            logSize = liveBuildLog.get().getSize();
+        } else if (liveBuildLog.isPresent()
+                && liveBuildLog.get().isStoredCompletely(remoteInvocationCompletion.getOutputChecksum())) {
+            logger.debug("Log of build {} was stored while the build was running.", buildId);
+            logSize = liveBuildLog.get().getSize();
+        } else {
+            buildLogStore.delete(buildId); // drop the incomplete log stored while the build was running
+            BuildLogWriter buildLogWriter = buildLogStore.openWriter(buildId);
+            logSize = transfer.downloadFileToStream(buildLogWriter, logsUri);
+        }
+
+        String appendMessage = "";
+        if (logSize > MAX_LOG_SIZE && buildStatus.completedSuccessfully()) {
+            appendMessage = "----- build has completed successfully but it is marked as failed due to log overflow. Max log size is "
+                    + MAX_LOG_SIZE + " -----\n";
+            buildStatus = BuildStatus.FAILED;
+        }
+
+        return new DefaultCompletedBuild(
+                runningEnvironment,
+                buildStatus,
+                remoteInvocationCompletion.getOutputChecksum(),
+                appendMessage);
+    }
+
     private BuildStatus getBuildStatus(Status completionStatus) {
         if (COMPLETED.equals(completionStatus)) {
             return BuildStatus.SUCCESS;
@@ -311,8 +465,12 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
     private void complete(
             TermdRunningBuild termdRunningBuild,
             RemoteInvocationCompletion completion,
-            FileTranser fileTransfer) {
+            FileTranser fileTransfer,
+            Optional<LiveBuildLog> liveBuildLog) {
+
+        liveBuildLog.ifPresent(LiveBuildLog::complete);
 
+        // the output stored so far stays in the open log, the error is appended to it with the build results
         if (completion.getException() != null) {
             logger.warn("Completed with exception.", completion.getException());
             termdRunningBuild.setBuildError(completion.getException());
@@ -321,8 +479,10 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
 
         CompletedBuild completedBuild = collectResults(
                 termdRunningBuild.getRunningEnvironment(),
+                termdRunningBuild.getBuildId(),
                 completion,
-                fileTransfer);
+                fileTransfer,
+                liveBuildLog);
         logger.debug("Command result {}", completedBuild);
 
         if (completedBuild == null) {
@@ -340,6 +500,9 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
                 .toAbsolutePath()
                 .toString();
         String name = termdRunningBuild.getName();
+        if (!termdRunningBuild.getRunningEnvironment().getBuildEnvironment().isEmpty()) {
+            buildScript.append(". " + workingDirectory + "/" + BUILD_ENVIRONMENT_SCRIPT + "\n");
+        }
         if (debugData.isEnableDebugOnFailure()) {
             String projectDirectory = (workingDirectory.endsWith("/") ? workingDirectory : workingDirectory + "/")
                     + name;
@@ -359,6 +522,23 @@ public class TermdBuildDriver implements BuildDriver { // TODO rename class
         return buildScript.toString();
     }
 
+    static String exportScript(Map<String, String> buildEnvironment) {
+        StringBuilder script = new StringBuilder();
+        new TreeMap<>(buildEnvironment).forEach(
+                (name, value) -> script.append("export ")
+                        .append(name)
+                        .append("='")
+                        .append(value == null ? "" : value.replace("'", "'\\''"))
+                        .append("'\n"));
+        return script.toString();
+    }
+
+    private URI getLogsUri(RunningEnvironment runningEnvironment) throws URISyntaxException {
+        String logsDirectory = runningEnvironment.getWorkingDirectory().toString();
+        return new URI(getBuildAgentUrl(runningEnvironment))
+                .resolve("servlet/download" + logsDirectory + "/console.log");
+    }
+
     private String getBuildAgentUrl(RunningEnvironment runningEnvironment) {
         if (useInternalNetwork) {
             return runningEnvironment.getInternalBuildAgentUrl();
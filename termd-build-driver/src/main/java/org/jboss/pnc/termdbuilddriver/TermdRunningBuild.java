@@ -76,6 +76,10 @@ public class TermdRunningBuild implements RunningBuild {
         }
     }
 
+    public int getBuildId() {
+        return buildExecutionConfiguration.getId();
+    }
+
     public String getBuildScript() {
         return buildExecutionConfiguration.getBuildScript();
     }
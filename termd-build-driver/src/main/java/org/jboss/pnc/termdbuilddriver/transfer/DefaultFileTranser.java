@@ -38,6 +38,7 @@ public class DefaultFileTranser implements FileTranser {
 
     public static final String ENCODING = "UTF-8";
     private static final String UPLOAD_PATH = "servlet/upload";
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private final URI baseServerUri;
 
@@ -106,6 +107,49 @@ public class DefaultFileTranser implements FileTranser {
         }
     }
 
+    @Override
+    public long downloadFileToStream(OutputStream outputStream, URI uri) throws TransferException {
+        try {
+            logger.debug("Downloading file to stream from {}", uri);
+
+            HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+            connection.setRequestMethod("GET");
+
+            connection.setDoInput(true);
+
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+
+            outputStream.write(("==== " + uri.toString() + " ====\n").getBytes(ENCODING));
+
+            long downloaded = 0;
+            try (InputStream inputStream = connection.getInputStream()) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, (int) Math.min(read, maxDownloadSize - downloaded));
+                    downloaded += read;
+                    if (downloaded > maxDownloadSize) {
+                        logger.warn(
+                                "File from {} exceeded {} bytes, the rest of the file is not downloaded.",
+                                uri,
+                                maxDownloadSize);
+                        fullyDownloaded = false;
+                        outputStream.write(
+                                ("----- build log exceeded the maximal size of " + maxDownloadSize
+                                        + " bytes, the rest of the log is not stored -----\n").getBytes(ENCODING));
+                        connection.disconnect();
+                        break;
+                    }
+                }
+            }
+            logger.debug("Downloaded {} bytes from {}.", downloaded, uri);
+            return downloaded;
+        } catch (IOException e) {
+            throw new TransferException("Could not obtain log file: " + uri.toString(), e);
+        }
+    }
+
     @Override
     public boolean isFullyDownloaded() {
         return fullyDownloaded;
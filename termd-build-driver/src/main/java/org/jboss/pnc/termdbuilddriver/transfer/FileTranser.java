@@ -17,6 +17,7 @@
  */
 package org.jboss.pnc.termdbuilddriver.transfer;
 
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.Path;
 
@@ -27,6 +28,14 @@ public interface FileTranser {
 
     StringBuffer downloadFileToStringBuilder(StringBuffer logsAggregate, URI uri) throws TransferException;
 
+    /**
+     * Copies the file to the stream without keeping it in memory. Only the maximal download size is copied, a longer
+     * file is truncated and ends with a note about the truncation.
+     *
+     * @return number of bytes read, greater than the maximal download size if the file was truncated
+     */
+    long downloadFileToStream(OutputStream outputStream, URI uri) throws TransferException;
+
     boolean isFullyDownloaded();
 
     void uploadScript(String script, Path remoteFilePath) throws TransferException;
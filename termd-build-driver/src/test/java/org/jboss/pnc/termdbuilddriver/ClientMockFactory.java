@@ -24,6 +24,7 @@ import org.jboss.pnc.termdbuilddriver.transfer.FileTranser;
 import org.jboss.pnc.termdbuilddriver.transfer.TransferException;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -65,6 +66,11 @@ public class ClientMockFactory implements ClientFactory {
                 return new StringBuffer();
             }
 
+            @Override
+            public long downloadFileToStream(OutputStream outputStream, URI uri) throws TransferException {
+                return 0;
+            }
+
             @Override
             public boolean isFullyDownloaded() {
                 return true;
@@ -29,6 +29,7 @@ import org.jboss.pnc.spi.builddriver.CompletedBuild;
 import org.jboss.pnc.spi.builddriver.DebugData;
 import org.jboss.pnc.spi.builddriver.RunningBuild;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
 import org.jboss.pnc.spi.environment.RunningEnvironment;
 import org.jboss.pnc.spi.executor.BuildExecutionConfiguration;
 import org.jboss.pnc.spi.executor.BuildExecutionSession;
@@ -68,7 +69,11 @@ public class DebugInContainerTest {
         doReturn(5000L).when(buildDriverModuleConfig).getLivenessFailTimeoutMillis();
 
         ClientMockFactory buildAgentClientFactory = new ClientMockFactory();
-        TermdBuildDriver driver = new TermdBuildDriver(systemConfig, buildDriverModuleConfig, buildAgentClientFactory);
+        TermdBuildDriver driver = new TermdBuildDriver(
+                systemConfig,
+                buildDriverModuleConfig,
+                buildAgentClientFactory,
+                mock(BuildLogStore.class));
 
         BuildExecutionSession buildExecution = mock(BuildExecutionSession.class);
         BuildExecutionConfiguration buildExecutionConfiguration = mock(BuildExecutionConfiguration.class);
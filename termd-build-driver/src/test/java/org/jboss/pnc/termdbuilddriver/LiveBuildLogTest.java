@@ -0,0 +1,139 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.termdbuilddriver;
+
+import org.jboss.pnc.common.security.Md5;
+import org.jboss.pnc.spi.datastore.BuildLogWriter;
+import org.jboss.pnc.spi.notifications.BuildLogRelay;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class LiveBuildLogTest {
+
+    private static final long MAX_SIZE = 1024;
+
+    @Test
+    public void shouldStoreAndRelayOutputAsItArrives() throws Exception {
+        // given
+        BuildLogRelay relay = mock(BuildLogRelay.class);
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        LiveBuildLog liveBuildLog = new LiveBuildLog(1, Optional.of(relay), Optional.of(writer(stored)), MAX_SIZE);
+
+        // when
+        liveBuildLog.accept("Running the command...\n");
+        liveBuildLog.accept("Command completed.\n");
+
+        // then
+        assertThat(new String(stored.toByteArray(), UTF_8)).isEqualTo("Running the command...\nCommand completed.\n");
+        assertThat(liveBuildLog.getSize()).isEqualTo(42);
+        assertThat(liveBuildLog.isStoredCompletely(Optional.of(md5("Running the command...\nCommand completed.\n"))))
+                .isTrue();
+        InOrder order = inOrder(relay);
+        order.verify(relay).started(1);
+        order.verify(relay).append(1, "Running the command...\n");
+        order.verify(relay).append(1, "Command completed.\n");
+        order.verify(relay).completed(1);
+    }
+
+    @Test
+    public void shouldNotBeCompleteWhenOutputWasMissed() throws Exception {
+        // given
+        LiveBuildLog liveBuildLog = new LiveBuildLog(
+                2,
+                Optional.empty(),
+                Optional.of(writer(new ByteArrayOutputStream())),
+                MAX_SIZE);
+
+        // when
+        liveBuildLog.accept("Command completed.\n");
+
+        // then
+        assertThat(liveBuildLog.isStoredCompletely(Optional.of(md5("Running the command...\nCommand completed.\n"))))
+                .isFalse();
+        assertThat(liveBuildLog.isStoredCompletely(Optional.empty())).isFalse();
+    }
+
+    @Test
+    public void shouldIgnoreOutputAfterCompletion() throws Exception {
+        // given
+        BuildLogRelay relay = mock(BuildLogRelay.class);
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        LiveBuildLog liveBuildLog = new LiveBuildLog(3, Optional.of(relay), Optional.of(writer(stored)), MAX_SIZE);
+        liveBuildLog.accept("done\n");
+
+        // when
+        liveBuildLog.complete();
+        liveBuildLog.accept("late\n");
+
+        // then
+        assertThat(new String(stored.toByteArray(), UTF_8)).isEqualTo("done\n");
+        assertThat(liveBuildLog.isStoredCompletely(Optional.of(md5("done\n")))).isTrue();
+        verify(relay).completed(3);
+    }
+
+    @Test
+    public void shouldStopStoringOutputOverTheMaximalSize() throws Exception {
+        // given
+        BuildLogRelay relay = mock(BuildLogRelay.class);
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        LiveBuildLog liveBuildLog = new LiveBuildLog(4, Optional.of(relay), Optional.of(writer(stored)), 10);
+
+        // when
+        liveBuildLog.accept("12345\n");
+        liveBuildLog.accept("67890\n");
+        liveBuildLog.accept("late\n");
+
+        // then
+        assertThat(new String(stored.toByteArray(), UTF_8)).startsWith("12345\n----- build log exceeded")
+                .doesNotContain("67890")
+                .doesNotContain("late");
+        assertThat(liveBuildLog.isTruncated()).isTrue();
+        assertThat(liveBuildLog.getSize()).isEqualTo(17);
+        assertThat(liveBuildLog.isStoredCompletely(Optional.of(md5("12345\n67890\nlate\n")))).isFalse();
+        verify(relay).append(4, "late\n");
+    }
+
+    private static String md5(String output) throws Exception {
+        Md5 md5 = new Md5();
+        md5.add(output);
+        return md5.digest();
+    }
+
+    private static BuildLogWriter writer(ByteArrayOutputStream stored) {
+        return new BuildLogWriter() {
+
+            @Override
+            protected void store(byte[] bytes, int offset, int length) {
+                stored.write(bytes, offset, length);
+            }
+
+            @Override
+            protected void complete() {
+            }
+        };
+    }
+}
@@ -25,6 +25,7 @@ import org.jboss.pnc.spi.builddriver.CompletedBuild;
 import org.jboss.pnc.spi.builddriver.DebugData;
 import org.jboss.pnc.spi.builddriver.RunningBuild;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
 import org.jboss.pnc.spi.environment.RunningEnvironment;
 import org.jboss.pnc.spi.executor.BuildExecutionConfiguration;
 import org.jboss.pnc.spi.executor.BuildExecutionSession;
@@ -66,7 +67,8 @@ public class LivenessProbeTest {
         TermdBuildDriver driver = new TermdBuildDriver(
                 systemConfig,
                 buildDriverModuleConfig,
-                buildAgentClientMockFactory);
+                buildAgentClientMockFactory,
+                mock(BuildLogStore.class));
 
         BuildExecutionSession buildExecution = mock(BuildExecutionSession.class);
         BuildExecutionConfiguration buildExecutionConfiguration = mock(BuildExecutionConfiguration.class);
@@ -24,6 +24,7 @@ import org.jboss.pnc.common.json.moduleconfig.SystemConfig;
 import org.jboss.pnc.spi.builddriver.CompletedBuild;
 import org.jboss.pnc.spi.builddriver.RunningBuild;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+import org.jboss.pnc.spi.datastore.BuildLogStore;
 import org.jboss.pnc.spi.environment.RunningEnvironment;
 import org.jboss.pnc.spi.executor.BuildExecutionConfiguration;
 import org.jboss.pnc.spi.executor.BuildExecutionSession;
@@ -34,6 +35,8 @@ import org.slf4j.LoggerFactory;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -61,7 +64,8 @@ public class TermdBuildDriverTest extends AbstractLocalBuildAgentTest {
         TermdBuildDriver driver = new TermdBuildDriver(
                 systemConfig,
                 buildDriverModuleConfig,
-                new DefaultClientFactory());
+                new DefaultClientFactory(),
+                mock(BuildLogStore.class));
         BuildExecutionSession buildExecution = mock(BuildExecutionSession.class);
         BuildExecutionConfiguration buildExecutionConfiguration = mock(BuildExecutionConfiguration.class);
         doReturn(repoPath).when(buildExecutionConfiguration).getScmRepoURL();
@@ -111,7 +115,8 @@ public class TermdBuildDriverTest extends AbstractLocalBuildAgentTest {
         TermdBuildDriver driver = new TermdBuildDriver(
                 systemConfig,
                 buildDriverModuleConfig,
-                new DefaultClientFactory());
+                new DefaultClientFactory(),
+                mock(BuildLogStore.class));
         BuildExecutionSession buildExecution = mock(BuildExecutionSession.class);
         BuildExecutionConfiguration buildExecutionConfiguration = mock(BuildExecutionConfiguration.class);
         doReturn("echo \"" + logStart + "\"; mvn validate; echo \"" + logEnd + "\";").when(buildExecutionConfiguration)
@@ -153,7 +158,11 @@ public class TermdBuildDriverTest extends AbstractLocalBuildAgentTest {
         CountDownLatch latchCompleted = new CountDownLatch(1);
 
         ClientMockFactory mockFactory = new ClientMockFactory();
-        TermdBuildDriver driver = new TermdBuildDriver(systemConfig, buildDriverModuleConfig, mockFactory);
+        TermdBuildDriver driver = new TermdBuildDriver(
+                systemConfig,
+                buildDriverModuleConfig,
+                mockFactory,
+                mock(BuildLogStore.class));
         BuildExecutionSession buildExecution = mock(BuildExecutionSession.class);
         BuildExecutionConfiguration buildExecutionConfiguration = mock(BuildExecutionConfiguration.class);
         doReturn("echo \"" + logStart + "\"; mvn validate; echo \"" + logEnd + "\";").when(buildExecutionConfiguration)
@@ -183,4 +192,14 @@ public class TermdBuildDriverTest extends AbstractLocalBuildAgentTest {
         assertThat(buildResult.get().getBuildResult()).isNotNull();
         assertThat(buildResult.get().getBuildResult().getBuildStatus()).isEqualTo(CANCELLED);
     }
+
+    @Test
+    public void shouldQuoteBuildEnvironmentExports() {
+        Map<String, String> buildEnvironment = new HashMap<>();
+        buildEnvironment.put("buildContentId", "build-42");
+        buildEnvironment.put("accessToken", "it's a $secret");
+
+        assertThat(TermdBuildDriver.exportScript(buildEnvironment))
+                .isEqualTo("export accessToken='it'\\''s a $secret'\nexport buildContentId='build-42'\n");
+    }
 }